@@ -1,5 +1,9 @@
 package com.mycompany.myapp.config;
 
+import com.mycompany.myapp.service.CountStrategy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -9,4 +13,380 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  * See {@link tech.jhipster.config.JHipsterProperties} for a good example.
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
-public class ApplicationProperties {}
+public class ApplicationProperties {
+
+    private final Pagination pagination = new Pagination();
+
+    private final Persistence persistence = new Persistence();
+
+    private final Replicas replicas = new Replicas();
+
+    private final Pool pool = new Pool();
+
+    private final Typeahead typeahead = new Typeahead();
+
+    private final JobHistory jobHistory = new JobHistory();
+
+    public Pagination getPagination() {
+        return pagination;
+    }
+
+    public Persistence getPersistence() {
+        return persistence;
+    }
+
+    public Replicas getReplicas() {
+        return replicas;
+    }
+
+    public Pool getPool() {
+        return pool;
+    }
+
+    public Typeahead getTypeahead() {
+        return typeahead;
+    }
+
+    public JobHistory getJobHistory() {
+        return jobHistory;
+    }
+
+    public static class Pagination {
+
+        /**
+         * Count strategy of the paged list endpoints, when the request doesn't select one.
+         */
+        private CountStrategy countStrategy = CountStrategy.EXACT;
+
+        /**
+         * How long an estimated row count is reused before the database statistics are read again.
+         */
+        private Duration countEstimateTtl = Duration.ofMinutes(1);
+
+        /**
+         * Whether the list endpoints accept the filters which no index serves, such as {@code email.contains}, which read every row.
+         */
+        private boolean allowUnindexedFilters = false;
+
+        public CountStrategy getCountStrategy() {
+            return countStrategy;
+        }
+
+        public void setCountStrategy(CountStrategy countStrategy) {
+            this.countStrategy = countStrategy;
+        }
+
+        public Duration getCountEstimateTtl() {
+            return countEstimateTtl;
+        }
+
+        public void setCountEstimateTtl(Duration countEstimateTtl) {
+            this.countEstimateTtl = countEstimateTtl;
+        }
+
+        public boolean isAllowUnindexedFilters() {
+            return allowUnindexedFilters;
+        }
+
+        public void setAllowUnindexedFilters(boolean allowUnindexedFilters) {
+            this.allowUnindexedFilters = allowUnindexedFilters;
+        }
+    }
+
+    public static class Persistence {
+
+        /**
+         * Number of rows sent to the database in one batch by the bulk write operations.
+         */
+        private int batchSize = 500;
+
+        /**
+         * Number of rows the driver fetches at a time when streaming a whole table.
+         */
+        private int fetchSize = 1000;
+
+        /**
+         * Duration above which a statement is written to the slow-query log, with its SQL and the types of its bind values.
+         */
+        private Duration slowQueryThreshold = Duration.ofMillis(500);
+
+        /**
+         * Number of ids loaded by one query of a multi-get, such as {@code GET /api/employees?ids=1,2,3}.
+         */
+        private int multiGetChunkSize = 100;
+
+        /**
+         * Number of queries of a multi-get which run at a time, when the ids span several chunks.
+         */
+        private int multiGetConcurrency = 4;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getFetchSize() {
+            return fetchSize;
+        }
+
+        public void setFetchSize(int fetchSize) {
+            this.fetchSize = fetchSize;
+        }
+
+        public Duration getSlowQueryThreshold() {
+            return slowQueryThreshold;
+        }
+
+        public void setSlowQueryThreshold(Duration slowQueryThreshold) {
+            this.slowQueryThreshold = slowQueryThreshold;
+        }
+
+        public int getMultiGetChunkSize() {
+            return multiGetChunkSize;
+        }
+
+        public void setMultiGetChunkSize(int multiGetChunkSize) {
+            this.multiGetChunkSize = multiGetChunkSize;
+        }
+
+        public int getMultiGetConcurrency() {
+            return multiGetConcurrency;
+        }
+
+        public void setMultiGetConcurrency(int multiGetConcurrency) {
+            this.multiGetConcurrency = multiGetConcurrency;
+        }
+    }
+
+    public static class Replicas {
+
+        /**
+         * R2DBC URLs of the read replicas, which serve the read-only transactions. Without any, everything goes to the primary.
+         */
+        private List<String> urls = new ArrayList<>();
+
+        private String username;
+
+        private String password;
+
+        /**
+         * Query which returns the replication lag of a replica, in seconds. Without it, the replicas are never left aside.
+         */
+        private String lagQuery;
+
+        /**
+         * Replication lag above which a replica is left aside, until it catches up.
+         */
+        private Duration maxLag = Duration.ofSeconds(5);
+
+        /**
+         * Interval between two checks of the replication lag.
+         */
+        private Duration lagCheckInterval = Duration.ofSeconds(5);
+
+        /**
+         * How long the reads of a user who has written go to the primary: more than the maximum lag.
+         */
+        private Duration readYourWritesWindow = Duration.ofSeconds(15);
+
+        public List<String> getUrls() {
+            return urls;
+        }
+
+        public void setUrls(List<String> urls) {
+            this.urls = urls;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public String getLagQuery() {
+            return lagQuery;
+        }
+
+        public void setLagQuery(String lagQuery) {
+            this.lagQuery = lagQuery;
+        }
+
+        public Duration getMaxLag() {
+            return maxLag;
+        }
+
+        public void setMaxLag(Duration maxLag) {
+            this.maxLag = maxLag;
+        }
+
+        public Duration getLagCheckInterval() {
+            return lagCheckInterval;
+        }
+
+        public void setLagCheckInterval(Duration lagCheckInterval) {
+            this.lagCheckInterval = lagCheckInterval;
+        }
+
+        public Duration getReadYourWritesWindow() {
+            return readYourWritesWindow;
+        }
+
+        public void setReadYourWritesWindow(Duration readYourWritesWindow) {
+            this.readYourWritesWindow = readYourWritesWindow;
+        }
+    }
+
+    public static class Pool {
+
+        /**
+         * Interval between two evictions of the connections idle for more than {@code spring.r2dbc.pool.max-idle-time}, zero to only
+         * evict them when acquiring a connection.
+         */
+        private Duration evictionInterval = Duration.ofMinutes(1);
+
+        /**
+         * Number of acquisitions waiting for a connection above which the pool is saturated.
+         */
+        private int saturationThreshold = 5;
+
+        /**
+         * How long the pool stays saturated before its health is degraded.
+         */
+        private Duration saturationPeriod = Duration.ofSeconds(30);
+
+        public Duration getEvictionInterval() {
+            return evictionInterval;
+        }
+
+        public void setEvictionInterval(Duration evictionInterval) {
+            this.evictionInterval = evictionInterval;
+        }
+
+        public int getSaturationThreshold() {
+            return saturationThreshold;
+        }
+
+        public void setSaturationThreshold(int saturationThreshold) {
+            this.saturationThreshold = saturationThreshold;
+        }
+
+        public Duration getSaturationPeriod() {
+            return saturationPeriod;
+        }
+
+        public void setSaturationPeriod(Duration saturationPeriod) {
+            this.saturationPeriod = saturationPeriod;
+        }
+    }
+
+    public static class Typeahead {
+
+        /**
+         * Maximum number of suggestions of a typeahead endpoint, such as {@code GET /api/_typeahead/employees?q=ada}.
+         */
+        private int maxResults = 50;
+
+        /**
+         * Schedule of the loads of the typeahead indexes, which catch up with the writes of the other instances.
+         */
+        private String refreshCron = "0 */10 * * * ?";
+
+        public int getMaxResults() {
+            return maxResults;
+        }
+
+        public void setMaxResults(int maxResults) {
+            this.maxResults = maxResults;
+        }
+
+        public String getRefreshCron() {
+            return refreshCron;
+        }
+
+        public void setRefreshCron(String refreshCron) {
+            this.refreshCron = refreshCron;
+        }
+    }
+
+    public static class JobHistory {
+
+        /**
+         * Whether Liquibase converts {@code job_history} into a table range partitioned by month of start date, on PostgreSQL. The
+         * conversion fails if some job histories have no start date.
+         */
+        private boolean partitioned = false;
+
+        /**
+         * Number of monthly partitions created ahead of the current month.
+         */
+        private int premadePartitions = 3;
+
+        /**
+         * Number of past months of job histories kept, before the current month, zero to keep them all.
+         */
+        private int retentionMonths = 0;
+
+        /**
+         * Whether the partitions older than the retention are dropped, they are detached and kept as tables otherwise.
+         */
+        private boolean dropExpiredPartitions = false;
+
+        /**
+         * When the partitions are created and expired, and the job histories older than the retention deleted.
+         */
+        private String maintenanceCron = "0 0 3 * * ?";
+
+        public boolean isPartitioned() {
+            return partitioned;
+        }
+
+        public void setPartitioned(boolean partitioned) {
+            this.partitioned = partitioned;
+        }
+
+        public int getPremadePartitions() {
+            return premadePartitions;
+        }
+
+        public void setPremadePartitions(int premadePartitions) {
+            this.premadePartitions = premadePartitions;
+        }
+
+        public int getRetentionMonths() {
+            return retentionMonths;
+        }
+
+        public void setRetentionMonths(int retentionMonths) {
+            this.retentionMonths = retentionMonths;
+        }
+
+        public boolean isDropExpiredPartitions() {
+            return dropExpiredPartitions;
+        }
+
+        public void setDropExpiredPartitions(boolean dropExpiredPartitions) {
+            this.dropExpiredPartitions = dropExpiredPartitions;
+        }
+
+        public String getMaintenanceCron() {
+            return maintenanceCron;
+        }
+
+        public void setMaintenanceCron(String maintenanceCron) {
+            this.maintenanceCron = maintenanceCron;
+        }
+    }
+}
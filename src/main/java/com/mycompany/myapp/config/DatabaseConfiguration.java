@@ -1,6 +1,18 @@
 package com.mycompany.myapp.config;
 
+import com.mycompany.myapp.repository.metrics.QueryMetricsConnectionFactory;
+import com.mycompany.myapp.repository.pool.ConnectionPoolHealthIndicator;
+import com.mycompany.myapp.repository.pool.MeteredConnectionPool;
+import com.mycompany.myapp.repository.routing.ReadOnlyRoutingTransactionManager;
+import com.mycompany.myapp.repository.routing.ReplicaRoutingConnectionFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
 import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Wrapped;
 import java.sql.SQLException;
 import java.time.Duration;
 import java.time.Instant;
@@ -12,13 +24,25 @@ import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.DestructionAwareBeanPostProcessor;
+import org.springframework.boot.actuate.metrics.r2dbc.ConnectionPoolMetrics;
+import org.springframework.boot.autoconfigure.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.boot.autoconfigure.r2dbc.ConnectionFactoryOptionsBuilderCustomizer;
+import org.springframework.boot.autoconfigure.r2dbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.PropertyMapper;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.core.env.Environment;
+import org.springframework.core.io.ResourceLoader;
 import org.springframework.data.convert.CustomConversions;
 import org.springframework.data.convert.ReadingConverter;
 import org.springframework.data.convert.WritingConverter;
@@ -31,7 +55,10 @@ import org.springframework.data.r2dbc.query.UpdateMapper;
 import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
 import org.springframework.data.relational.core.dialect.RenderContextFactory;
 import org.springframework.data.relational.core.sql.render.SqlRenderer;
+import org.springframework.http.HttpMethod;
+import org.springframework.transaction.ReactiveTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.web.server.WebFilter;
 import tech.jhipster.config.JHipsterConstants;
 import tech.jhipster.config.h2.H2ConfigurationHelper;
 
@@ -76,6 +103,123 @@ public class DatabaseConfiguration {
         return String.valueOf(port);
     }
 
+    /**
+     * Pools the connections to the database configured by the {@code spring.r2dbc} properties, and publishes the sizes of the pool,
+     * the acquisition time of its connections and the timings of their statements.
+     *
+     * @param properties the {@code spring.r2dbc} properties, with the pool settings.
+     * @param applicationProperties the application properties, with the pool settings Spring Boot has no property for.
+     * @param resourceLoader the loader of the embedded database driver, when there is no URL.
+     * @param customizers the customizers of the connection options.
+     * @param meterRegistry the registry of the pool and statement metrics.
+     * @return the pool, whose statements are timed.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionFactory connectionFactory(
+        R2dbcProperties properties,
+        ApplicationProperties applicationProperties,
+        ResourceLoader resourceLoader,
+        ObjectProvider<ConnectionFactoryOptionsBuilderCustomizer> customizers,
+        MeterRegistry meterRegistry
+    ) {
+        ConnectionFactory connectionFactory = ConnectionFactoryBuilder
+            .of(properties, () -> EmbeddedDatabaseConnection.get(resourceLoader.getClassLoader()))
+            .configure(options -> customizers.orderedStream().forEach(customizer -> customizer.customize(options)))
+            .build();
+        R2dbcProperties.Pool pool = properties.getPool();
+        PropertyMapper map = PropertyMapper.get().alwaysApplyingWhenNonNull();
+        ConnectionPoolConfiguration.Builder builder = ConnectionPoolConfiguration.builder(connectionFactory).name("connectionFactory");
+        map.from(pool.getInitialSize()).to(builder::initialSize);
+        map.from(pool.getMaxSize()).to(builder::maxSize);
+        map.from(pool.getMaxAcquireTime()).to(builder::maxAcquireTime);
+        map.from(pool.getMaxCreateConnectionTime()).to(builder::maxCreateConnectionTime);
+        map.from(pool.getMaxIdleTime()).to(builder::maxIdleTime);
+        map.from(pool.getMaxLifeTime()).to(builder::maxLifeTime);
+        map.from(pool.getValidationQuery()).whenHasText().to(builder::validationQuery);
+        map.from(pool.getValidationDepth()).to(builder::validationDepth);
+        map
+            .from(applicationProperties.getPool().getEvictionInterval())
+            .whenNot(Duration::isZero)
+            .to(interval -> builder.customizer(poolBuilder -> poolBuilder.evictInBackground(interval)));
+        ConnectionPool connectionPool = new ConnectionPool(builder.build());
+        log.debug("Pooling up to {} connections to the database", pool.getMaxSize());
+
+        new ConnectionPoolMetrics(connectionPool, "connectionFactory", Tags.empty()).bindTo(meterRegistry);
+        MeteredConnectionPool meteredPool = new MeteredConnectionPool(
+            connectionPool,
+            "connectionFactory",
+            meterRegistry,
+            applicationProperties.getPool().getSaturationThreshold()
+        );
+        return new QueryMetricsConnectionFactory(
+            meteredPool,
+            meterRegistry,
+            applicationProperties.getPersistence().getSlowQueryThreshold()
+        );
+    }
+
+    /**
+     * Reports the connection pool as degraded while connections are waited for.
+     *
+     * @param connectionFactory the connection factory, maybe routing between the pool and the replicas.
+     * @param applicationProperties the application properties, with the saturation settings.
+     * @return the health indicator of the pool.
+     */
+    @Bean
+    public ConnectionPoolHealthIndicator connectionPoolHealthIndicator(
+        ConnectionFactory connectionFactory,
+        ApplicationProperties applicationProperties
+    ) {
+        return new ConnectionPoolHealthIndicator(findPool(connectionFactory), applicationProperties.getPool().getSaturationPeriod());
+    }
+
+    private static MeteredConnectionPool findPool(ConnectionFactory connectionFactory) {
+        Object factory = connectionFactory;
+        while (!(factory instanceof MeteredConnectionPool) && factory instanceof Wrapped) {
+            factory = ((Wrapped<?>) factory).unwrap();
+        }
+        if (!(factory instanceof MeteredConnectionPool)) {
+            throw new IllegalStateException("The connection factory isn't pooled: " + connectionFactory);
+        }
+        return (MeteredConnectionPool) factory;
+    }
+
+    /**
+     * Routes the connections between the primary and the replicas, when there are replicas.
+     *
+     * @param applicationProperties the application properties, with the replicas.
+     * @param meterRegistry the registry of the statement metrics of the replicas.
+     * @return the post processor which wraps the {@link ConnectionFactory} configured by Spring Boot.
+     */
+    @Bean
+    public static ReplicaRoutingPostProcessor replicaRoutingPostProcessor(
+        ObjectProvider<ApplicationProperties> applicationProperties,
+        ObjectProvider<MeterRegistry> meterRegistry
+    ) {
+        return new ReplicaRoutingPostProcessor(applicationProperties, meterRegistry);
+    }
+
+    @Bean
+    public ReactiveTransactionManager transactionManager(ConnectionFactory connectionFactory) {
+        return new ReadOnlyRoutingTransactionManager(connectionFactory);
+    }
+
+    /**
+     * Lets the reads of GET requests outside of any transaction go to the replicas.
+     *
+     * @return the filter which marks GET requests as read-only.
+     */
+    @Bean
+    public WebFilter readOnlyRequestFilter() {
+        return (exchange, chain) -> {
+            HttpMethod method = exchange.getRequest().getMethod();
+            if (method == HttpMethod.GET || method == HttpMethod.HEAD) {
+                return chain.filter(exchange).contextWrite(ReplicaRoutingConnectionFactory.readOnlyRequest());
+            }
+            return chain.filter(exchange);
+        };
+    }
+
     // LocalDateTime seems to be the only type that is supported across all drivers atm
     // See https://github.com/r2dbc/r2dbc-h2/pull/139 https://github.com/mirromutth/r2dbc-mysql/issues/105
     @Bean
@@ -111,6 +255,85 @@ public class DatabaseConfiguration {
         return SqlRenderer.create(factory.createRenderContext());
     }
 
+    static class ReplicaRoutingPostProcessor implements DestructionAwareBeanPostProcessor {
+
+        private final Logger log = LoggerFactory.getLogger(ReplicaRoutingPostProcessor.class);
+
+        private final ObjectProvider<ApplicationProperties> applicationProperties;
+
+        private final ObjectProvider<MeterRegistry> meterRegistry;
+
+        private final Map<String, ReplicaRoutingConnectionFactory> routers = new ConcurrentHashMap<>();
+
+        ReplicaRoutingPostProcessor(
+            ObjectProvider<ApplicationProperties> applicationProperties,
+            ObjectProvider<MeterRegistry> meterRegistry
+        ) {
+            this.applicationProperties = applicationProperties;
+            this.meterRegistry = meterRegistry;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof ConnectionFactory) || bean instanceof ReplicaRoutingConnectionFactory) {
+                return bean;
+            }
+            ApplicationProperties properties = applicationProperties.getObject();
+            ApplicationProperties.Replicas replicas = properties.getReplicas();
+            if (replicas.getUrls().isEmpty()) {
+                return bean;
+            }
+            log.debug("Routing the read-only transactions of {} to {} replicas", beanName, replicas.getUrls().size());
+            List<ConnectionFactory> replicaFactories = replicas
+                .getUrls()
+                .stream()
+                .map(url -> createReplica(url, replicas))
+                .map(
+                    replica ->
+                        new QueryMetricsConnectionFactory(
+                            replica,
+                            meterRegistry.getObject(),
+                            properties.getPersistence().getSlowQueryThreshold()
+                        )
+                )
+                .collect(Collectors.toList());
+            ReplicaRoutingConnectionFactory router = new ReplicaRoutingConnectionFactory(
+                (ConnectionFactory) bean,
+                replicaFactories,
+                replicas.getLagQuery(),
+                replicas.getMaxLag(),
+                replicas.getReadYourWritesWindow()
+            );
+            router.start(replicas.getLagCheckInterval());
+            routers.put(beanName, router);
+            return router;
+        }
+
+        @Override
+        public void postProcessBeforeDestruction(Object bean, String beanName) {
+            ReplicaRoutingConnectionFactory router = routers.remove(beanName);
+            if (router != null) {
+                router.stop();
+            }
+        }
+
+        @Override
+        public boolean requiresDestruction(Object bean) {
+            return bean instanceof ConnectionFactory;
+        }
+
+        private static ConnectionFactory createReplica(String url, ApplicationProperties.Replicas replicas) {
+            ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(url).mutate();
+            if (replicas.getUsername() != null) {
+                options.option(ConnectionFactoryOptions.USER, replicas.getUsername());
+            }
+            if (replicas.getPassword() != null) {
+                options.option(ConnectionFactoryOptions.PASSWORD, replicas.getPassword());
+            }
+            return ConnectionFactories.get(options.build());
+        }
+    }
+
     @WritingConverter
     public enum InstantWriteConverter implements Converter<Instant, LocalDateTime> {
         INSTANCE;
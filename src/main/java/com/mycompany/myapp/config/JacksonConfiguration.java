@@ -2,6 +2,10 @@ package com.mycompany.myapp.config;
 
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mycompany.myapp.domain.Employee;
+import com.mycompany.myapp.domain.JobHistory;
+import com.mycompany.myapp.web.rest.util.FieldSetUtil;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.zalando.problem.ProblemModule;
@@ -39,4 +43,12 @@ public class JacksonConfiguration {
     public ConstraintViolationProblemModule constraintViolationProblemModule() {
         return new ConstraintViolationProblemModule();
     }
+
+    /*
+     * The entities which can be rendered with a sparse fieldset.
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer fieldSetCustomizer() {
+        return builder -> FieldSetUtil.configure(builder, Employee.class, JobHistory.class);
+    }
 }
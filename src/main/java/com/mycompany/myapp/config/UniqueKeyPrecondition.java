@@ -0,0 +1,83 @@
+package com.mycompany.myapp.config;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomPreconditionErrorException;
+import liquibase.exception.CustomPreconditionFailedException;
+import liquibase.exception.DatabaseException;
+import liquibase.precondition.CustomPrecondition;
+
+/**
+ * A Liquibase precondition which fails when the given columns of a table repeat a value, and lists the first repeated values with the
+ * ids of their rows, so that the duplicates can be merged by hand before the unique key is added.
+ */
+public class UniqueKeyPrecondition implements CustomPrecondition {
+
+    private static final int MAX_LISTED_DUPLICATES = 20;
+
+    private String tableName;
+
+    private String columnNames;
+
+    public void setTableName(String tableName) {
+        this.tableName = tableName;
+    }
+
+    public void setColumnNames(String columnNames) {
+        this.columnNames = columnNames;
+    }
+
+    @Override
+    public void check(Database database) throws CustomPreconditionFailedException, CustomPreconditionErrorException {
+        String[] columns = columnNames.split("\\s*,\\s*");
+        String notNull = String.join(" IS NOT NULL AND ", columns) + " IS NOT NULL";
+        String key = String.join(", ", columns);
+        // the rows with a null in the key don't conflict, as with the unique constraint
+        String sql =
+            "SELECT " +
+            key +
+            ", COUNT(*), MIN(id), MAX(id) FROM " +
+            tableName +
+            " WHERE " +
+            notNull +
+            " GROUP BY " +
+            key +
+            " HAVING COUNT(*) > 1 ORDER BY " +
+            key;
+        List<String> duplicates = new ArrayList<>();
+        try (
+            Statement statement = ((JdbcConnection) database.getConnection()).createStatement();
+            ResultSet rows = statement.executeQuery(sql)
+        ) {
+            while (rows.next() && duplicates.size() < MAX_LISTED_DUPLICATES) {
+                List<String> values = new ArrayList<>(columns.length);
+                for (int i = 1; i <= columns.length; i++) {
+                    values.add("'" + rows.getString(i) + "'");
+                }
+                int count = columns.length + 1;
+                duplicates.add(
+                    "(" +
+                    String.join(", ", values) +
+                    ") in " +
+                    rows.getLong(count) +
+                    " rows, first id " +
+                    rows.getLong(count + 1) +
+                    ", last id " +
+                    rows.getLong(count + 2)
+                );
+            }
+        } catch (DatabaseException | SQLException e) {
+            throw new CustomPreconditionErrorException("Can't look for the duplicate " + key + " of " + tableName, e);
+        }
+        if (!duplicates.isEmpty()) {
+            throw new CustomPreconditionFailedException(
+                "The " + tableName + " table repeats its " + key + ", merge these rows first: " + String.join("; ", duplicates)
+            );
+        }
+    }
+}
@@ -36,7 +36,7 @@ public class Department implements Serializable {
      */
     @ApiModelProperty(value = "A relationship")
     @Transient
-    @JsonIgnoreProperties(value = { "jobs", "manager", "department" }, allowSetters = true)
+    @JsonIgnoreProperties(value = { "manager", "department" }, allowSetters = true)
     private Set<Employee> employees = new HashSet<>();
 
     // jhipster-needle-entity-add-field - JHipster will add fields here
@@ -135,8 +135,9 @@ public class Department implements Serializable {
 
     @Override
     public int hashCode() {
-        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
-        return getClass().hashCode();
+        // persisted entities are equal by id, so they hash by id, and sets of them spread over their buckets;
+        // transient entities are only equal to themselves, they share the class hash until they get an id
+        return id != null ? id.hashCode() : getClass().hashCode();
     }
 
     // prettier-ignore
@@ -50,7 +50,7 @@ public class Employee implements Serializable {
     private Long commissionPct;
 
     @Transient
-    @JsonIgnoreProperties(value = { "tasks", "employee" }, allowSetters = true)
+    @JsonIgnoreProperties(value = { "employee" }, allowSetters = true)
     private Set<Job> jobs = new HashSet<>();
 
     @JsonIgnoreProperties(value = { "jobs", "manager", "department" }, allowSetters = true)
@@ -268,8 +268,9 @@ public class Employee implements Serializable {
 
     @Override
     public int hashCode() {
-        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
-        return getClass().hashCode();
+        // persisted entities are equal by id, so they hash by id, and sets of them spread over their buckets;
+        // transient entities are only equal to themselves, they share the class hash until they get an id
+        return id != null ? id.hashCode() : getClass().hashCode();
     }
 
     // prettier-ignore
@@ -156,8 +156,9 @@ public class Job implements Serializable {
 
     @Override
     public int hashCode() {
-        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
-        return getClass().hashCode();
+        // persisted entities are equal by id, so they hash by id, and sets of them spread over their buckets;
+        // transient entities are only equal to themselves, they share the class hash until they get an id
+        return id != null ? id.hashCode() : getClass().hashCode();
     }
 
     // prettier-ignore
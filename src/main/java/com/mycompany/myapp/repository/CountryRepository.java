@@ -1,6 +1,11 @@
 package com.mycompany.myapp.repository;
 
 import com.mycompany.myapp.domain.Country;
+import com.mycompany.myapp.service.KeysetCursor;
+import com.mycompany.myapp.service.UpsertResult;
+import java.util.List;
+import java.util.Set;
+import org.reactivestreams.Publisher;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
@@ -15,6 +20,16 @@ import reactor.core.publisher.Mono;
 @SuppressWarnings("unused")
 @Repository
 public interface CountryRepository extends R2dbcRepository<Country, Long>, CountryRepositoryInternal {
+    /**
+     * The properties which can be filtered on without the unindexed filters override, since each leads an index.
+     */
+    Set<String> FILTERS = Set.of("id", "countryName", "regionId");
+
+    /**
+     * The properties of the natural key of the countrys, which the upserts match the existing countrys on.
+     */
+    List<String> NATURAL_KEY = List.of("countryName");
+
     @Query("SELECT * FROM country entity WHERE entity.region_id = :id")
     Flux<Country> findByRegion(Long id);
 
@@ -28,17 +43,33 @@ public interface CountryRepository extends R2dbcRepository<Country, Long>, Count
     @Override
     Mono<Country> findById(Long id);
 
+    @Override
+    Flux<Country> findAllById(Iterable<Long> ids);
+
     @Override
     <S extends Country> Mono<S> save(S entity);
+
+    @Override
+    <S extends Country> Flux<S> saveAll(Iterable<S> entities);
+
+    @Override
+    <S extends Country> Flux<S> saveAll(Publisher<S> entityStream);
 }
 
 interface CountryRepositoryInternal {
     <S extends Country> Mono<S> insert(S entity);
     <S extends Country> Mono<S> save(S entity);
+    <S extends Country> Flux<S> saveAll(Iterable<S> entities);
+    <S extends Country> Flux<S> saveAll(Publisher<S> entityStream);
     Mono<Integer> update(Country entity);
+    Mono<Country> partialUpdate(Country patch);
+    Mono<UpsertResult> upsertAll(Publisher<Country> entities);
 
     Flux<Country> findAll();
     Mono<Country> findById(Long id);
+    Flux<Country> findAllById(Iterable<Long> ids);
     Flux<Country> findAllBy(Pageable pageable);
     Flux<Country> findAllBy(Pageable pageable, Criteria criteria);
+    Flux<Country> findAllAfter(KeysetCursor cursor, int limit, Criteria criteria);
+    Flux<Country> streamAll();
 }
@@ -4,24 +4,28 @@ import static org.springframework.data.relational.core.query.Criteria.where;
 import static org.springframework.data.relational.core.query.Query.query;
 
 import com.mycompany.myapp.domain.Country;
+import com.mycompany.myapp.domain.Region;
+import com.mycompany.myapp.repository.metrics.QueryShape;
 import com.mycompany.myapp.repository.rowmapper.CountryRowMapper;
 import com.mycompany.myapp.repository.rowmapper.RegionRowMapper;
+import com.mycompany.myapp.repository.rowmapper.RowMappingPlan;
 import com.mycompany.myapp.service.EntityManager;
+import com.mycompany.myapp.service.KeysetCursor;
+import com.mycompany.myapp.service.UpsertResult;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Optional;
 import java.util.function.BiFunction;
+import java.util.function.Function;
+import org.reactivestreams.Publisher;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.relational.core.query.Criteria;
 import org.springframework.data.relational.core.sql.Column;
 import org.springframework.data.relational.core.sql.Expression;
 import org.springframework.data.relational.core.sql.Select;
-import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoinCondition;
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.r2dbc.core.RowsFetchSpec;
@@ -44,6 +48,8 @@ class CountryRepositoryInternalImpl implements CountryRepositoryInternal {
     private static final Table entityTable = Table.aliased("country", EntityManager.ENTITY_ALIAS);
     private static final Table regionTable = Table.aliased("region", "region");
 
+    private static final Select baseSelect = createBaseSelect();
+
     public CountryRepositoryInternalImpl(
         R2dbcEntityTemplate template,
         EntityManager entityManager,
@@ -64,37 +70,42 @@ class CountryRepositoryInternalImpl implements CountryRepositoryInternal {
 
     @Override
     public Flux<Country> findAllBy(Pageable pageable, Criteria criteria) {
-        return createQuery(pageable, criteria).all();
+        return createQuery(pageable, criteria).all().contextWrite(QueryShape.named("country.findAllBy", pageable));
+    }
+
+    @Override
+    public Flux<Country> findAllAfter(KeysetCursor cursor, int limit, Criteria criteria) {
+        return entityManager
+            .createQuery(baseSelect, Country.class, cursor, limit, criteria)
+            .map(RowMappingPlan.of(this::plan))
+            .all()
+            .contextWrite(QueryShape.named("country.findAllAfter"));
+    }
+
+    @Override
+    public Flux<Country> streamAll() {
+        return entityManager
+            .createStreamingQuery(baseSelect, Country.class)
+            .map(RowMappingPlan.of(this::plan))
+            .all()
+            .contextWrite(QueryShape.named("country.streamAll"));
     }
 
     RowsFetchSpec<Country> createQuery(Pageable pageable, Criteria criteria) {
+        return entityManager.createQuery(baseSelect, Country.class, pageable, criteria).map(RowMappingPlan.of(this::plan));
+    }
+
+    private static Select createBaseSelect() {
         List<Expression> columns = CountrySqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
         columns.addAll(RegionSqlHelper.getColumns(regionTable, "region"));
-        SelectFromAndJoinCondition selectFrom = Select
+        return Select
             .builder()
             .select(columns)
             .from(entityTable)
             .leftOuterJoin(regionTable)
             .on(Column.create("region_id", entityTable))
-            .equals(Column.create("id", regionTable));
-
-        String select = entityManager.createSelect(selectFrom, Country.class, pageable, criteria);
-        String alias = entityTable.getReferenceName().getReference();
-        String selectWhere = Optional
-            .ofNullable(criteria)
-            .map(
-                crit ->
-                    new StringBuilder(select)
-                        .append(" ")
-                        .append("WHERE")
-                        .append(" ")
-                        .append(alias)
-                        .append(".")
-                        .append(crit.toString())
-                        .toString()
-            )
-            .orElse(select); // TODO remove once https://github.com/spring-projects/spring-data-jdbc/issues/907 will be fixed
-        return db.sql(selectWhere).map(this::process);
+            .equals(Column.create("id", regionTable))
+            .build();
     }
 
     @Override
@@ -104,18 +115,29 @@ class CountryRepositoryInternalImpl implements CountryRepositoryInternal {
 
     @Override
     public Mono<Country> findById(Long id) {
-        return createQuery(null, where("id").is(id)).one();
+        return createQuery(null, where("id").is(id)).one().contextWrite(QueryShape.named("country.findById"));
+    }
+
+    @Override
+    public Flux<Country> findAllById(Iterable<Long> ids) {
+        return entityManager
+            .findAllById(ids, criteria -> createQuery(null, criteria).all())
+            .contextWrite(QueryShape.named("country.findAllById"));
     }
 
-    private Country process(Row row, RowMetadata metadata) {
-        Country entity = countryMapper.apply(row, "e");
-        entity.setRegion(regionMapper.apply(row, "region"));
-        return entity;
+    private Function<Row, Country> plan(RowMetadata metadata) {
+        Function<Row, Country> entityMapping = countryMapper.plan(metadata, "e");
+        Function<Row, Region> regionMapping = regionMapper.plan(metadata, "region");
+        return row -> {
+            Country entity = entityMapping.apply(row);
+            entity.setRegion(regionMapping.apply(row));
+            return entity;
+        };
     }
 
     @Override
     public <S extends Country> Mono<S> insert(S entity) {
-        return entityManager.insert(entity);
+        return entityManager.insert(entity).contextWrite(QueryShape.named("country.insert"));
     }
 
     @Override
@@ -136,20 +158,29 @@ class CountryRepositoryInternalImpl implements CountryRepositoryInternal {
     }
 
     @Override
-    public Mono<Integer> update(Country entity) {
-        //fixme is this the proper way?
-        return r2dbcEntityTemplate.update(entity).thenReturn(1);
+    public <S extends Country> Flux<S> saveAll(Iterable<S> entities) {
+        return saveAll(Flux.fromIterable(entities));
     }
-}
 
-class CountrySqlHelper {
+    @Override
+    public <S extends Country> Flux<S> saveAll(Publisher<S> entityStream) {
+        return entityManager.saveAll(entityStream, this::save).contextWrite(QueryShape.named("country.saveAll"));
+    }
 
-    static List<Expression> getColumns(Table table, String columnPrefix) {
-        List<Expression> columns = new ArrayList<>();
-        columns.add(Column.aliased("id", table, columnPrefix + "_id"));
-        columns.add(Column.aliased("country_name", table, columnPrefix + "_country_name"));
+    @Override
+    public Mono<Integer> update(Country entity) {
+        return entityManager.update(entity).contextWrite(QueryShape.named("country.update"));
+    }
 
-        columns.add(Column.aliased("region_id", table, columnPrefix + "_region_id"));
-        return columns;
+    @Override
+    public Mono<Country> partialUpdate(Country patch) {
+        return entityManager
+            .partialUpdate(patch, RowMappingPlan.of(metadata -> countryMapper.plan(metadata, EntityManager.ENTITY_ALIAS)))
+            .contextWrite(QueryShape.named("country.partialUpdate"));
+    }
+
+    @Override
+    public Mono<UpsertResult> upsertAll(Publisher<Country> entities) {
+        return entityManager.upsertAll(entities, CountryRepository.NATURAL_KEY).contextWrite(QueryShape.named("country.upsertAll"));
     }
 }
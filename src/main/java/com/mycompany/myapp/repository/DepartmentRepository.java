@@ -1,6 +1,10 @@
 package com.mycompany.myapp.repository;
 
 import com.mycompany.myapp.domain.Department;
+import com.mycompany.myapp.service.Include;
+import com.mycompany.myapp.service.KeysetCursor;
+import java.util.Set;
+import org.reactivestreams.Publisher;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
@@ -15,6 +19,11 @@ import reactor.core.publisher.Mono;
 @SuppressWarnings("unused")
 @Repository
 public interface DepartmentRepository extends R2dbcRepository<Department, Long>, DepartmentRepositoryInternal {
+    /**
+     * The properties which can be filtered on without the unindexed filters override, since each leads an index.
+     */
+    Set<String> FILTERS = Set.of("id", "departmentName", "locationId");
+
     @Query("SELECT * FROM department entity WHERE entity.location_id = :id")
     Flux<Department> findByLocation(Long id);
 
@@ -28,17 +37,34 @@ public interface DepartmentRepository extends R2dbcRepository<Department, Long>,
     @Override
     Mono<Department> findById(Long id);
 
+    @Override
+    Flux<Department> findAllById(Iterable<Long> ids);
+
     @Override
     <S extends Department> Mono<S> save(S entity);
+
+    @Override
+    <S extends Department> Flux<S> saveAll(Iterable<S> entities);
+
+    @Override
+    <S extends Department> Flux<S> saveAll(Publisher<S> entityStream);
 }
 
 interface DepartmentRepositoryInternal {
     <S extends Department> Mono<S> insert(S entity);
     <S extends Department> Mono<S> save(S entity);
+    <S extends Department> Flux<S> saveAll(Iterable<S> entities);
+    <S extends Department> Flux<S> saveAll(Publisher<S> entityStream);
     Mono<Integer> update(Department entity);
+    Mono<Department> partialUpdate(Department patch);
 
     Flux<Department> findAll();
     Mono<Department> findById(Long id);
+    Flux<Department> findAllById(Iterable<Long> ids);
     Flux<Department> findAllBy(Pageable pageable);
     Flux<Department> findAllBy(Pageable pageable, Criteria criteria);
+    Flux<Department> findAllAfter(KeysetCursor cursor, int limit, Criteria criteria);
+    Flux<Department> streamAll();
+
+    Flux<Department> fetchIncluded(Flux<Department> departments, Include include);
 }
@@ -4,24 +4,28 @@ import static org.springframework.data.relational.core.query.Criteria.where;
 import static org.springframework.data.relational.core.query.Query.query;
 
 import com.mycompany.myapp.domain.Department;
+import com.mycompany.myapp.domain.Location;
+import com.mycompany.myapp.repository.metrics.QueryShape;
 import com.mycompany.myapp.repository.rowmapper.DepartmentRowMapper;
 import com.mycompany.myapp.repository.rowmapper.LocationRowMapper;
+import com.mycompany.myapp.repository.rowmapper.RowMappingPlan;
 import com.mycompany.myapp.service.EntityManager;
+import com.mycompany.myapp.service.Include;
+import com.mycompany.myapp.service.KeysetCursor;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Optional;
 import java.util.function.BiFunction;
+import java.util.function.Function;
+import org.reactivestreams.Publisher;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.relational.core.query.Criteria;
 import org.springframework.data.relational.core.sql.Column;
 import org.springframework.data.relational.core.sql.Expression;
 import org.springframework.data.relational.core.sql.Select;
-import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoinCondition;
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.r2dbc.core.RowsFetchSpec;
@@ -41,20 +45,26 @@ class DepartmentRepositoryInternalImpl implements DepartmentRepositoryInternal {
     private final LocationRowMapper locationMapper;
     private final DepartmentRowMapper departmentMapper;
 
+    private final EmployeeRepository employeeRepository;
+
     private static final Table entityTable = Table.aliased("department", EntityManager.ENTITY_ALIAS);
     private static final Table locationTable = Table.aliased("location", "location");
 
+    private static final Select baseSelect = createBaseSelect();
+
     public DepartmentRepositoryInternalImpl(
         R2dbcEntityTemplate template,
         EntityManager entityManager,
         LocationRowMapper locationMapper,
-        DepartmentRowMapper departmentMapper
+        DepartmentRowMapper departmentMapper,
+        EmployeeRepository employeeRepository
     ) {
         this.db = template.getDatabaseClient();
         this.r2dbcEntityTemplate = template;
         this.entityManager = entityManager;
         this.locationMapper = locationMapper;
         this.departmentMapper = departmentMapper;
+        this.employeeRepository = employeeRepository;
     }
 
     @Override
@@ -64,37 +74,42 @@ class DepartmentRepositoryInternalImpl implements DepartmentRepositoryInternal {
 
     @Override
     public Flux<Department> findAllBy(Pageable pageable, Criteria criteria) {
-        return createQuery(pageable, criteria).all();
+        return createQuery(pageable, criteria).all().contextWrite(QueryShape.named("department.findAllBy", pageable));
+    }
+
+    @Override
+    public Flux<Department> findAllAfter(KeysetCursor cursor, int limit, Criteria criteria) {
+        return entityManager
+            .createQuery(baseSelect, Department.class, cursor, limit, criteria)
+            .map(RowMappingPlan.of(this::plan))
+            .all()
+            .contextWrite(QueryShape.named("department.findAllAfter"));
+    }
+
+    @Override
+    public Flux<Department> streamAll() {
+        return entityManager
+            .createStreamingQuery(baseSelect, Department.class)
+            .map(RowMappingPlan.of(this::plan))
+            .all()
+            .contextWrite(QueryShape.named("department.streamAll"));
     }
 
     RowsFetchSpec<Department> createQuery(Pageable pageable, Criteria criteria) {
+        return entityManager.createQuery(baseSelect, Department.class, pageable, criteria).map(RowMappingPlan.of(this::plan));
+    }
+
+    private static Select createBaseSelect() {
         List<Expression> columns = DepartmentSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
         columns.addAll(LocationSqlHelper.getColumns(locationTable, "location"));
-        SelectFromAndJoinCondition selectFrom = Select
+        return Select
             .builder()
             .select(columns)
             .from(entityTable)
             .leftOuterJoin(locationTable)
             .on(Column.create("location_id", entityTable))
-            .equals(Column.create("id", locationTable));
-
-        String select = entityManager.createSelect(selectFrom, Department.class, pageable, criteria);
-        String alias = entityTable.getReferenceName().getReference();
-        String selectWhere = Optional
-            .ofNullable(criteria)
-            .map(
-                crit ->
-                    new StringBuilder(select)
-                        .append(" ")
-                        .append("WHERE")
-                        .append(" ")
-                        .append(alias)
-                        .append(".")
-                        .append(crit.toString())
-                        .toString()
-            )
-            .orElse(select); // TODO remove once https://github.com/spring-projects/spring-data-jdbc/issues/907 will be fixed
-        return db.sql(selectWhere).map(this::process);
+            .equals(Column.create("id", locationTable))
+            .build();
     }
 
     @Override
@@ -104,18 +119,34 @@ class DepartmentRepositoryInternalImpl implements DepartmentRepositoryInternal {
 
     @Override
     public Mono<Department> findById(Long id) {
-        return createQuery(null, where("id").is(id)).one();
+        return createQuery(null, where("id").is(id)).one().contextWrite(QueryShape.named("department.findById"));
+    }
+
+    @Override
+    public Flux<Department> findAllById(Iterable<Long> ids) {
+        return entityManager
+            .findAllById(ids, criteria -> createQuery(null, criteria).all())
+            .contextWrite(QueryShape.named("department.findAllById"));
+    }
+
+    @Override
+    public Flux<Department> fetchIncluded(Flux<Department> departments, Include include) {
+        return include.has("employees") ? employeeRepository.fetchByDepartments(departments, include.get("employees")) : departments;
     }
 
-    private Department process(Row row, RowMetadata metadata) {
-        Department entity = departmentMapper.apply(row, "e");
-        entity.setLocation(locationMapper.apply(row, "location"));
-        return entity;
+    private Function<Row, Department> plan(RowMetadata metadata) {
+        Function<Row, Department> entityMapping = departmentMapper.plan(metadata, "e");
+        Function<Row, Location> locationMapping = locationMapper.plan(metadata, "location");
+        return row -> {
+            Department entity = entityMapping.apply(row);
+            entity.setLocation(locationMapping.apply(row));
+            return entity;
+        };
     }
 
     @Override
     public <S extends Department> Mono<S> insert(S entity) {
-        return entityManager.insert(entity);
+        return entityManager.insert(entity).contextWrite(QueryShape.named("department.insert"));
     }
 
     @Override
@@ -136,20 +167,24 @@ class DepartmentRepositoryInternalImpl implements DepartmentRepositoryInternal {
     }
 
     @Override
-    public Mono<Integer> update(Department entity) {
-        //fixme is this the proper way?
-        return r2dbcEntityTemplate.update(entity).thenReturn(1);
+    public <S extends Department> Flux<S> saveAll(Iterable<S> entities) {
+        return saveAll(Flux.fromIterable(entities));
     }
-}
 
-class DepartmentSqlHelper {
+    @Override
+    public <S extends Department> Flux<S> saveAll(Publisher<S> entityStream) {
+        return entityManager.saveAll(entityStream, this::save).contextWrite(QueryShape.named("department.saveAll"));
+    }
 
-    static List<Expression> getColumns(Table table, String columnPrefix) {
-        List<Expression> columns = new ArrayList<>();
-        columns.add(Column.aliased("id", table, columnPrefix + "_id"));
-        columns.add(Column.aliased("department_name", table, columnPrefix + "_department_name"));
+    @Override
+    public Mono<Integer> update(Department entity) {
+        return entityManager.update(entity).contextWrite(QueryShape.named("department.update"));
+    }
 
-        columns.add(Column.aliased("location_id", table, columnPrefix + "_location_id"));
-        return columns;
+    @Override
+    public Mono<Department> partialUpdate(Department patch) {
+        return entityManager
+            .partialUpdate(patch, RowMappingPlan.of(metadata -> departmentMapper.plan(metadata, EntityManager.ENTITY_ALIAS)))
+            .contextWrite(QueryShape.named("department.partialUpdate"));
     }
 }
@@ -1,7 +1,23 @@
 package com.mycompany.myapp.repository;
 
+import com.mycompany.myapp.domain.Department;
 import com.mycompany.myapp.domain.Employee;
+import com.mycompany.myapp.service.BulkUpdate;
+import com.mycompany.myapp.service.CountStrategy;
+import com.mycompany.myapp.service.EntityManager;
+import com.mycompany.myapp.service.EntityManager.LinkTable;
+import com.mycompany.myapp.service.FieldSet;
+import com.mycompany.myapp.service.FullTextQuery;
+import com.mycompany.myapp.service.Include;
+import com.mycompany.myapp.service.KeysetCursor;
+import com.mycompany.myapp.service.SearchCursor;
+import com.mycompany.myapp.service.SearchHit;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import org.reactivestreams.Publisher;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
 import org.springframework.data.relational.core.query.Criteria;
@@ -15,6 +31,31 @@ import reactor.core.publisher.Mono;
 @SuppressWarnings("unused")
 @Repository
 public interface EmployeeRepository extends R2dbcRepository<Employee, Long>, EmployeeRepositoryInternal {
+    /**
+     * The properties which can be filtered on without the unindexed filters override, since each leads an index.
+     */
+    Set<String> FILTERS = Set.of("id", "lastName", "hireDate", "salary", "departmentId", "managerId");
+
+    /**
+     * The properties which can be part of a {@link FieldSet}.
+     */
+    Set<String> FIELDS = EmployeeSqlHelper.PROPERTY_COLUMNS.keySet();
+
+    /**
+     * The properties of the full-text search, the PostgreSQL search vector of the employees is generated from their columns.
+     */
+    List<String> SEARCH_FIELDS = List.of("firstName", "lastName", "email", "phoneNumber");
+
+    /**
+     * Creates a criteria on the employees which hold any of the given jobs, for the set-based updates and deletes.
+     *
+     * @param jobIds the ids of the jobs.
+     * @return the criteria on the id of the employees.
+     */
+    static Criteria holdingAnyJob(Collection<Long> jobIds) {
+        return EntityManager.linkedTo(new LinkTable("job", "employee_id", "id"), jobIds);
+    }
+
     Flux<Employee> findAllBy(Pageable pageable);
 
     @Query("SELECT * FROM employee entity WHERE entity.manager_id = :id")
@@ -36,17 +77,71 @@ public interface EmployeeRepository extends R2dbcRepository<Employee, Long>, Emp
     @Override
     Mono<Employee> findById(Long id);
 
+    @Override
+    Mono<Void> deleteById(Long id);
+
+    @Override
+    Mono<Void> deleteById(Publisher<Long> id);
+
+    @Override
+    Mono<Void> delete(Employee entity);
+
+    @Override
+    Mono<Void> deleteAll(Iterable<? extends Employee> entities);
+
+    @Override
+    Mono<Void> deleteAll(Publisher<? extends Employee> entities);
+
+    @Override
+    Mono<Void> deleteAll();
+
+    @Override
+    Flux<Employee> findAllById(Iterable<Long> ids);
+
     @Override
     <S extends Employee> Mono<S> save(S entity);
+
+    @Override
+    <S extends Employee> Flux<S> saveAll(Iterable<S> entities);
+
+    @Override
+    <S extends Employee> Flux<S> saveAll(Publisher<S> entityStream);
 }
 
 interface EmployeeRepositoryInternal {
     <S extends Employee> Mono<S> insert(S entity);
     <S extends Employee> Mono<S> save(S entity);
+    <S extends Employee> Flux<S> saveAll(Iterable<S> entities);
+    <S extends Employee> Flux<S> saveAll(Publisher<S> entityStream);
     Mono<Integer> update(Employee entity);
+    Mono<Employee> partialUpdate(Employee patch);
+    Mono<Integer> updateMatching(Criteria criteria, BulkUpdate update);
+    Mono<Integer> deleteMatching(Criteria criteria);
+    Mono<Void> deleteById(Long id);
+    Mono<Void> deleteById(Publisher<Long> id);
+    Mono<Void> delete(Employee entity);
+    Mono<Void> deleteAll(Iterable<? extends Employee> entities);
+    Mono<Void> deleteAll(Publisher<? extends Employee> entities);
+    Mono<Void> deleteAll();
 
     Flux<Employee> findAll();
     Mono<Employee> findById(Long id);
+    Flux<Employee> findAllById(Iterable<Long> ids);
     Flux<Employee> findAllBy(Pageable pageable);
     Flux<Employee> findAllBy(Pageable pageable, Criteria criteria);
+    Flux<Employee> findAllAfter(KeysetCursor cursor, int limit, Criteria criteria);
+    Flux<Employee> streamAll();
+    Mono<Slice<Employee>> findPage(Pageable pageable, CountStrategy countStrategy, Criteria criteria);
+
+    // the shape of the employees: their properties, and which of their manager and department are joined
+    Flux<Employee> findAllAfter(KeysetCursor cursor, int limit, FieldSet fields, Include include, Criteria criteria);
+    Mono<Slice<Employee>> findPage(Pageable pageable, CountStrategy countStrategy, FieldSet fields, Include include, Criteria criteria);
+    Mono<Employee> findById(Long id, FieldSet fields, Include include);
+    Flux<Employee> findAllById(Iterable<Long> ids, FieldSet fields, Include include);
+
+    Flux<SearchHit<Employee>> search(FullTextQuery query, SearchCursor cursor, int limit);
+
+    Flux<Employee> fetchIncluded(Flux<Employee> employees, Include include);
+
+    Flux<Department> fetchByDepartments(Flux<Department> departments, Include include);
 }
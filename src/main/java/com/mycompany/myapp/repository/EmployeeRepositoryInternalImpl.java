@@ -3,26 +3,42 @@ package com.mycompany.myapp.repository;
 import static org.springframework.data.relational.core.query.Criteria.where;
 import static org.springframework.data.relational.core.query.Query.query;
 
+import com.mycompany.myapp.domain.Department;
 import com.mycompany.myapp.domain.Employee;
+import com.mycompany.myapp.repository.metrics.QueryShape;
 import com.mycompany.myapp.repository.rowmapper.DepartmentRowMapper;
 import com.mycompany.myapp.repository.rowmapper.EmployeeRowMapper;
+import com.mycompany.myapp.repository.rowmapper.RowMappingPlan;
+import com.mycompany.myapp.service.BulkUpdate;
+import com.mycompany.myapp.service.CountStrategy;
 import com.mycompany.myapp.service.EntityManager;
+import com.mycompany.myapp.service.FieldSet;
+import com.mycompany.myapp.service.FullTextQuery;
+import com.mycompany.myapp.service.Include;
+import com.mycompany.myapp.service.KeysetCursor;
+import com.mycompany.myapp.service.PrefixIndex;
+import com.mycompany.myapp.service.SearchCursor;
+import com.mycompany.myapp.service.SearchHit;
+import com.mycompany.myapp.service.TypeaheadIndex;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
 import java.time.Instant;
-import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
+import java.util.function.Function;
+import org.reactivestreams.Publisher;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.relational.core.query.Criteria;
 import org.springframework.data.relational.core.sql.Column;
 import org.springframework.data.relational.core.sql.Expression;
 import org.springframework.data.relational.core.sql.Select;
-import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoinCondition;
+import org.springframework.data.relational.core.sql.SelectBuilder;
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.r2dbc.core.RowsFetchSpec;
@@ -42,21 +58,39 @@ class EmployeeRepositoryInternalImpl implements EmployeeRepositoryInternal {
     private final EmployeeRowMapper employeeMapper;
     private final DepartmentRowMapper departmentMapper;
 
+    private final JobRepository jobRepository;
+
+    private final TypeaheadIndex typeaheadIndex;
+    private final PrefixIndex<Employee> typeahead;
+
     private static final Table entityTable = Table.aliased("employee", EntityManager.ENTITY_ALIAS);
     private static final Table managerTable = Table.aliased("employee", "manager");
     private static final Table departmentTable = Table.aliased("department", "department");
 
+    private static final Select baseSelect = createSelect(FieldSet.ALL, true, true);
+    // the ids of a delete of several employees are bound in chunks, below the bind parameter limits of the databases
+    // the ids of a set-based delete are bound in chunks, below the bind parameter limits of the databases
+    private static final int DELETE_CHUNK_SIZE = 1000;
+
+    // the entity manager caches its templates by select, so each shape of sparse fieldset must reuse its select
+    private final Map<List<Object>, Select> sparseSelects = new ConcurrentHashMap<>();
+
     public EmployeeRepositoryInternalImpl(
         R2dbcEntityTemplate template,
         EntityManager entityManager,
         EmployeeRowMapper employeeMapper,
-        DepartmentRowMapper departmentMapper
+        DepartmentRowMapper departmentMapper,
+        JobRepository jobRepository,
+        TypeaheadIndex typeaheadIndex
     ) {
         this.db = template.getDatabaseClient();
         this.r2dbcEntityTemplate = template;
         this.entityManager = entityManager;
         this.employeeMapper = employeeMapper;
         this.departmentMapper = departmentMapper;
+        this.jobRepository = jobRepository;
+        this.typeaheadIndex = typeaheadIndex;
+        this.typeahead = typeaheadIndex.getEmployees();
     }
 
     @Override
@@ -66,41 +100,107 @@ class EmployeeRepositoryInternalImpl implements EmployeeRepositoryInternal {
 
     @Override
     public Flux<Employee> findAllBy(Pageable pageable, Criteria criteria) {
-        return createQuery(pageable, criteria).all();
+        return createQuery(pageable, criteria).all().contextWrite(QueryShape.named("employee.findAllBy", pageable));
     }
 
-    RowsFetchSpec<Employee> createQuery(Pageable pageable, Criteria criteria) {
-        List<Expression> columns = EmployeeSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
-        columns.addAll(EmployeeSqlHelper.getColumns(managerTable, "manager"));
-        columns.addAll(DepartmentSqlHelper.getColumns(departmentTable, "department"));
-        SelectFromAndJoinCondition selectFrom = Select
-            .builder()
-            .select(columns)
-            .from(entityTable)
-            .leftOuterJoin(managerTable)
-            .on(Column.create("manager_id", entityTable))
-            .equals(Column.create("id", managerTable))
-            .leftOuterJoin(departmentTable)
-            .on(Column.create("department_id", entityTable))
-            .equals(Column.create("id", departmentTable));
-
-        String select = entityManager.createSelect(selectFrom, Employee.class, pageable, criteria);
-        String alias = entityTable.getReferenceName().getReference();
-        String selectWhere = Optional
-            .ofNullable(criteria)
-            .map(
-                crit ->
-                    new StringBuilder(select)
-                        .append(" ")
-                        .append("WHERE")
-                        .append(" ")
-                        .append(alias)
-                        .append(".")
-                        .append(crit.toString())
-                        .toString()
+    @Override
+    public Flux<Employee> findAllAfter(KeysetCursor cursor, int limit, Criteria criteria) {
+        return entityManager
+            .createQuery(baseSelect, Employee.class, cursor, limit, criteria)
+            .map(RowMappingPlan.of(this::plan))
+            .all()
+            .contextWrite(QueryShape.named("employee.findAllAfter"));
+    }
+
+    @Override
+    public Flux<Employee> findAllAfter(KeysetCursor cursor, int limit, FieldSet fields, Include include, Criteria criteria) {
+        // the cursor of the next page is read from the sort property of the last employee
+        FieldSet selected = fields.with(List.of(cursor.getProperty()));
+        boolean withManager = include.has("manager");
+        boolean withDepartment = include.has("department");
+        return entityManager
+            .createQuery(select(selected, withManager, withDepartment), Employee.class, cursor, limit, criteria)
+            .map(RowMappingPlan.of(metadata -> plan(metadata, withManager, withDepartment)))
+            .all()
+            .contextWrite(QueryShape.named("employee.findAllAfter"));
+    }
+
+    @Override
+    public Flux<Employee> streamAll() {
+        return entityManager
+            .createStreamingQuery(baseSelect, Employee.class)
+            .map(RowMappingPlan.of(this::plan))
+            .all()
+            .contextWrite(QueryShape.named("employee.streamAll"));
+    }
+
+    @Override
+    public Mono<Slice<Employee>> findPage(Pageable pageable, CountStrategy countStrategy, Criteria criteria) {
+        return entityManager
+            .createPage(baseSelect, Employee.class, pageable, criteria, countStrategy, RowMappingPlan.of(this::plan))
+            .contextWrite(QueryShape.named("employee.findPage", pageable));
+    }
+
+    @Override
+    public Mono<Slice<Employee>> findPage(
+        Pageable pageable,
+        CountStrategy countStrategy,
+        FieldSet fields,
+        Include include,
+        Criteria criteria
+    ) {
+        boolean withManager = include.has("manager");
+        boolean withDepartment = include.has("department");
+        return entityManager
+            .createPage(
+                select(fields, withManager, withDepartment),
+                Employee.class,
+                pageable,
+                criteria,
+                countStrategy,
+                RowMappingPlan.of(metadata -> plan(metadata, withManager, withDepartment))
             )
-            .orElse(select); // TODO remove once https://github.com/spring-projects/spring-data-jdbc/issues/907 will be fixed
-        return db.sql(selectWhere).map(this::process);
+            .contextWrite(QueryShape.named("employee.findPage", pageable));
+    }
+
+    RowsFetchSpec<Employee> createQuery(Pageable pageable, Criteria criteria) {
+        return entityManager.createQuery(baseSelect, Employee.class, pageable, criteria).map(RowMappingPlan.of(this::plan));
+    }
+
+    private Select select(FieldSet fields, boolean withManager, boolean withDepartment) {
+        if (fields.isAll() && withManager && withDepartment) {
+            return baseSelect;
+        }
+        return sparseSelects.computeIfAbsent(
+            List.of(fields, withManager, withDepartment),
+            shape -> createSelect(fields, withManager, withDepartment)
+        );
+    }
+
+    private static Select createSelect(FieldSet fields, boolean withManager, boolean withDepartment) {
+        List<Expression> columns = fields.isAll()
+            ? EmployeeSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS)
+            : EmployeeSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS, fields.getProperties());
+        if (withManager) {
+            columns.addAll(EmployeeSqlHelper.getColumns(managerTable, "manager"));
+        }
+        if (withDepartment) {
+            columns.addAll(DepartmentSqlHelper.getColumns(departmentTable, "department"));
+        }
+        SelectBuilder.SelectJoin select = Select.builder().select(columns).from(entityTable);
+        if (withManager) {
+            select =
+                select.leftOuterJoin(managerTable).on(Column.create("manager_id", entityTable)).equals(Column.create("id", managerTable));
+        }
+        if (withDepartment) {
+            select =
+                select
+                    .leftOuterJoin(departmentTable)
+                    .on(Column.create("department_id", entityTable))
+                    .equals(Column.create("id", departmentTable));
+        }
+        // the builder can build the select after the from clause, as after any join
+        return ((SelectBuilder.BuildSelect) select).build();
     }
 
     @Override
@@ -110,19 +210,97 @@ class EmployeeRepositoryInternalImpl implements EmployeeRepositoryInternal {
 
     @Override
     public Mono<Employee> findById(Long id) {
-        return createQuery(null, where("id").is(id)).one();
+        return createQuery(null, where("id").is(id)).one().contextWrite(QueryShape.named("employee.findById"));
+    }
+
+    @Override
+    public Flux<Employee> findAllById(Iterable<Long> ids) {
+        return entityManager
+            .findAllById(ids, criteria -> createQuery(null, criteria).all())
+            .contextWrite(QueryShape.named("employee.findAllById"));
     }
 
-    private Employee process(Row row, RowMetadata metadata) {
-        Employee entity = employeeMapper.apply(row, "e");
-        entity.setManager(employeeMapper.apply(row, "manager"));
-        entity.setDepartment(departmentMapper.apply(row, "department"));
-        return entity;
+    @Override
+    public Mono<Employee> findById(Long id, FieldSet fields, Include include) {
+        boolean withManager = include.has("manager");
+        boolean withDepartment = include.has("department");
+        return entityManager
+            .createQuery(select(fields, withManager, withDepartment), Employee.class, null, where("id").is(id))
+            .map(RowMappingPlan.of(metadata -> plan(metadata, withManager, withDepartment)))
+            .one()
+            .contextWrite(QueryShape.named("employee.findById"));
+    }
+
+    @Override
+    public Flux<Employee> findAllById(Iterable<Long> ids, FieldSet fields, Include include) {
+        boolean withManager = include.has("manager");
+        boolean withDepartment = include.has("department");
+        Select select = select(fields, withManager, withDepartment);
+        return entityManager
+            .findAllById(
+                ids,
+                criteria ->
+                    entityManager
+                        .createQuery(select, Employee.class, null, criteria)
+                        .map(RowMappingPlan.of(metadata -> plan(metadata, withManager, withDepartment)))
+                        .all()
+            )
+            .contextWrite(QueryShape.named("employee.findAllById"));
+    }
+
+    @Override
+    public Flux<SearchHit<Employee>> search(FullTextQuery query, SearchCursor cursor, int limit) {
+        return entityManager
+            .search(Employee.class, EmployeeRepository.SEARCH_FIELDS, query, cursor, limit, this::findAllById, Employee::getId)
+            .contextWrite(QueryShape.named("employee.search"));
+    }
+
+    @Override
+    public Flux<Employee> fetchIncluded(Flux<Employee> employees, Include include) {
+        return include.has("jobs") ? jobRepository.fetchByEmployees(employees, include.get("jobs")) : employees;
+    }
+
+    @Override
+    public Flux<Department> fetchByDepartments(Flux<Department> departments, Include include) {
+        return entityManager
+            .fetchReferring(
+                departments,
+                Department::getId,
+                "department_id",
+                baseSelect,
+                RowMappingPlan.of(this::plan),
+                employees -> fetchIncluded(employees, include),
+                (department, employees) -> department.setEmployees(new HashSet<>(employees))
+            )
+            .contextWrite(QueryShape.named("employee.fetchByDepartments"));
+    }
+
+    private Function<Row, Employee> plan(RowMetadata metadata) {
+        return plan(metadata, true, true);
+    }
+
+    private Function<Row, Employee> plan(RowMetadata metadata, boolean withManager, boolean withDepartment) {
+        Function<Row, Employee> entityMapping = employeeMapper.plan(metadata, "e");
+        Function<Row, Employee> managerMapping = withManager ? employeeMapper.plan(metadata, "manager") : null;
+        Function<Row, Department> departmentMapping = withDepartment ? departmentMapper.plan(metadata, "department") : null;
+        return row -> {
+            Employee entity = entityMapping.apply(row);
+            if (managerMapping != null) {
+                entity.setManager(managerMapping.apply(row));
+            }
+            if (departmentMapping != null) {
+                entity.setDepartment(departmentMapping.apply(row));
+            }
+            return entity;
+        };
     }
 
     @Override
     public <S extends Employee> Mono<S> insert(S entity) {
-        return entityManager.insert(entity);
+        return entityManager
+            .insert(entity)
+            .flatMap(inserted -> TypeaheadIndex.afterCommit(() -> typeahead.put(inserted)).thenReturn(inserted))
+            .contextWrite(QueryShape.named("employee.insert"));
     }
 
     @Override
@@ -142,28 +320,111 @@ class EmployeeRepositoryInternalImpl implements EmployeeRepositoryInternal {
         }
     }
 
+    @Override
+    public <S extends Employee> Flux<S> saveAll(Iterable<S> entities) {
+        return saveAll(Flux.fromIterable(entities));
+    }
+
+    @Override
+    public <S extends Employee> Flux<S> saveAll(Publisher<S> entityStream) {
+        return entityManager
+            .saveAll(entityStream, this::save)
+            .concatMap(saved -> TypeaheadIndex.afterCommit(() -> typeahead.put(saved)).thenReturn(saved))
+            .contextWrite(QueryShape.named("employee.saveAll"));
+    }
+
     @Override
     public Mono<Integer> update(Employee entity) {
-        //fixme is this the proper way?
-        return r2dbcEntityTemplate.update(entity).thenReturn(1);
+        return entityManager
+            .update(entity)
+            .flatMap(
+                updated -> updated > 0 ? TypeaheadIndex.afterCommit(() -> typeahead.put(entity)).thenReturn(updated) : Mono.just(updated)
+            )
+            .contextWrite(QueryShape.named("employee.update"));
+    }
+
+    @Override
+    public Mono<Employee> partialUpdate(Employee patch) {
+        return entityManager
+            .partialUpdate(patch, RowMappingPlan.of(metadata -> employeeMapper.plan(metadata, EntityManager.ENTITY_ALIAS)))
+            .flatMap(updated -> TypeaheadIndex.afterCommit(() -> typeahead.put(updated)).thenReturn(updated))
+            .contextWrite(QueryShape.named("employee.partialUpdate"));
+    }
+
+    // the set-based updates don't change the names nor the emails, so the typeahead index stays current
+    @Override
+    public Mono<Integer> updateMatching(Criteria criteria, BulkUpdate update) {
+        return entityManager.updateAll(Employee.class, update, criteria).contextWrite(QueryShape.named("employee.updateMatching"));
     }
-}
 
-class EmployeeSqlHelper {
-
-    static List<Expression> getColumns(Table table, String columnPrefix) {
-        List<Expression> columns = new ArrayList<>();
-        columns.add(Column.aliased("id", table, columnPrefix + "_id"));
-        columns.add(Column.aliased("first_name", table, columnPrefix + "_first_name"));
-        columns.add(Column.aliased("last_name", table, columnPrefix + "_last_name"));
-        columns.add(Column.aliased("email", table, columnPrefix + "_email"));
-        columns.add(Column.aliased("phone_number", table, columnPrefix + "_phone_number"));
-        columns.add(Column.aliased("hire_date", table, columnPrefix + "_hire_date"));
-        columns.add(Column.aliased("salary", table, columnPrefix + "_salary"));
-        columns.add(Column.aliased("commission_pct", table, columnPrefix + "_commission_pct"));
-
-        columns.add(Column.aliased("manager_id", table, columnPrefix + "_manager_id"));
-        columns.add(Column.aliased("department_id", table, columnPrefix + "_department_id"));
-        return columns;
+    // the foreign keys clear the references of the reports, jobs and job histories to the deleted employees. The typeahead index
+    // drops the ids the delete returns on PostgreSQL, and is loaded again on the other databases, which are used for tests
+    @Override
+    public Mono<Integer> deleteMatching(Criteria criteria) {
+        Mono<Integer> deleteMatching;
+        if (entityManager.isPostgreSQL()) {
+            deleteMatching =
+                entityManager
+                    .deleteAllReturningIds(Employee.class, criteria)
+                    .collectList()
+                    .flatMap(ids -> TypeaheadIndex.afterCommit(() -> ids.forEach(typeahead::remove)).thenReturn(ids.size()));
+        } else {
+            deleteMatching =
+                entityManager
+                    .deleteAll(Employee.class, criteria)
+                    .flatMap(
+                        deleted ->
+                            deleted > 0
+                                ? TypeaheadIndex.afterCommit(() -> typeaheadIndex.loadEmployees().subscribe()).thenReturn(deleted)
+                                : Mono.just(deleted)
+                    );
+        }
+        return deleteMatching.contextWrite(QueryShape.named("employee.deleteMatching"));
+    }
+
+    @Override
+    public Mono<Void> deleteById(Long id) {
+        return r2dbcEntityTemplate
+            .delete(Employee.class)
+            .matching(query(where("id").is(id)))
+            .all()
+            .flatMap(deleted -> TypeaheadIndex.afterCommit(() -> typeahead.remove(id)))
+            .contextWrite(QueryShape.named("employee.deleteById"));
+    }
+
+    @Override
+    public Mono<Void> deleteById(Publisher<Long> id) {
+        return Mono.from(id).flatMap(this::deleteById);
+    }
+
+    @Override
+    public Mono<Void> delete(Employee entity) {
+        return deleteById(entity.getId());
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Iterable<? extends Employee> entities) {
+        return deleteAll(Flux.fromIterable(entities));
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Publisher<? extends Employee> entities) {
+        return Flux
+            .from(entities)
+            .map(Employee::getId)
+            .buffer(DELETE_CHUNK_SIZE)
+            .concatMap(
+                ids ->
+                    entityManager
+                        .deleteAll(Employee.class, where("id").in(ids))
+                        .flatMap(deleted -> TypeaheadIndex.afterCommit(() -> ids.forEach(typeahead::remove)))
+            )
+            .then()
+            .contextWrite(QueryShape.named("employee.deleteAll"));
+    }
+
+    @Override
+    public Mono<Void> deleteAll() {
+        return deleteMatching(Criteria.empty()).then();
     }
 }
@@ -1,7 +1,16 @@
 package com.mycompany.myapp.repository;
 
 import com.mycompany.myapp.domain.JobHistory;
+import com.mycompany.myapp.service.CountStrategy;
+import com.mycompany.myapp.service.FieldSet;
+import com.mycompany.myapp.service.Include;
+import com.mycompany.myapp.service.KeysetCursor;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.Set;
+import org.reactivestreams.Publisher;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
 import org.springframework.data.relational.core.query.Criteria;
@@ -15,6 +24,16 @@ import reactor.core.publisher.Mono;
 @SuppressWarnings("unused")
 @Repository
 public interface JobHistoryRepository extends R2dbcRepository<JobHistory, Long>, JobHistoryRepositoryInternal {
+    /**
+     * The properties which can be filtered on without the unindexed filters override, since each leads an index.
+     */
+    Set<String> FILTERS = Set.of("id", "startDate", "employeeId", "departmentId", "jobId");
+
+    /**
+     * The properties which can be part of a {@link FieldSet}.
+     */
+    Set<String> FIELDS = JobHistorySqlHelper.PROPERTY_COLUMNS.keySet();
+
     Flux<JobHistory> findAllBy(Pageable pageable);
 
     @Query("SELECT * FROM job_history entity WHERE entity.job_id = :id")
@@ -42,17 +61,52 @@ public interface JobHistoryRepository extends R2dbcRepository<JobHistory, Long>,
     @Override
     Mono<JobHistory> findById(Long id);
 
+    @Override
+    Flux<JobHistory> findAllById(Iterable<Long> ids);
+
     @Override
     <S extends JobHistory> Mono<S> save(S entity);
+
+    @Override
+    <S extends JobHistory> Flux<S> saveAll(Iterable<S> entities);
+
+    @Override
+    <S extends JobHistory> Flux<S> saveAll(Publisher<S> entityStream);
 }
 
 interface JobHistoryRepositoryInternal {
     <S extends JobHistory> Mono<S> insert(S entity);
     <S extends JobHistory> Mono<S> save(S entity);
+    <S extends JobHistory> Flux<S> saveAll(Iterable<S> entities);
+    <S extends JobHistory> Flux<S> saveAll(Publisher<S> entityStream);
     Mono<Integer> update(JobHistory entity);
+    Mono<JobHistory> partialUpdate(JobHistory patch);
 
     Flux<JobHistory> findAll();
     Mono<JobHistory> findById(Long id);
+    Flux<JobHistory> findAllById(Iterable<Long> ids);
     Flux<JobHistory> findAllBy(Pageable pageable);
     Flux<JobHistory> findAllBy(Pageable pageable, Criteria criteria);
+    Flux<JobHistory> findAllAfter(KeysetCursor cursor, int limit, Criteria criteria);
+    Flux<JobHistory> streamAll();
+    Mono<Slice<JobHistory>> findPage(Pageable pageable, CountStrategy countStrategy, Criteria criteria);
+
+    // the shape of the job histories: their properties, and which of their job, department and employee are joined
+    Flux<JobHistory> findAllAfter(KeysetCursor cursor, int limit, FieldSet fields, Include include, Criteria criteria);
+    Mono<Slice<JobHistory>> findPage(Pageable pageable, CountStrategy countStrategy, FieldSet fields, Include include, Criteria criteria);
+    Mono<JobHistory> findById(Long id, FieldSet fields, Include include);
+    Flux<JobHistory> findAllById(Iterable<Long> ids, FieldSet fields, Include include);
+
+    // the date ranges, from inclusive to exclusive: their criteria always include the start date, the partition key of a partitioned
+    // table, so that PostgreSQL only reads the partitions of the range
+    Flux<JobHistory> findAllByStartDateBetween(Instant from, Instant to, Pageable pageable);
+    Flux<JobHistory> findAllByStartDateBetween(Instant from, Instant to, Pageable pageable, Criteria criteria);
+    Mono<Integer> deleteByStartDateBefore(Instant before);
+
+    // the monthly partitions of a partitioned table, on PostgreSQL
+    Mono<Boolean> isPartitioned();
+    Flux<YearMonth> findPartitions();
+    Mono<Void> createPartition(YearMonth month);
+    Mono<Void> detachPartition(YearMonth month);
+    Mono<Void> dropPartition(YearMonth month);
 }
@@ -3,29 +3,44 @@ package com.mycompany.myapp.repository;
 import static org.springframework.data.relational.core.query.Criteria.where;
 import static org.springframework.data.relational.core.query.Query.query;
 
+import com.mycompany.myapp.domain.Department;
+import com.mycompany.myapp.domain.Employee;
+import com.mycompany.myapp.domain.Job;
 import com.mycompany.myapp.domain.JobHistory;
 import com.mycompany.myapp.domain.enumeration.Language;
+import com.mycompany.myapp.repository.metrics.QueryShape;
 import com.mycompany.myapp.repository.rowmapper.DepartmentRowMapper;
 import com.mycompany.myapp.repository.rowmapper.EmployeeRowMapper;
 import com.mycompany.myapp.repository.rowmapper.JobHistoryRowMapper;
 import com.mycompany.myapp.repository.rowmapper.JobRowMapper;
+import com.mycompany.myapp.repository.rowmapper.RowMappingPlan;
+import com.mycompany.myapp.service.CountStrategy;
 import com.mycompany.myapp.service.EntityManager;
+import com.mycompany.myapp.service.FieldSet;
+import com.mycompany.myapp.service.Include;
+import com.mycompany.myapp.service.KeysetCursor;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
 import java.time.Instant;
-import java.util.ArrayList;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.reactivestreams.Publisher;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.relational.core.query.Criteria;
 import org.springframework.data.relational.core.sql.Column;
 import org.springframework.data.relational.core.sql.Expression;
 import org.springframework.data.relational.core.sql.Select;
-import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoinCondition;
+import org.springframework.data.relational.core.sql.SelectBuilder;
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.r2dbc.core.RowsFetchSpec;
@@ -52,6 +67,27 @@ class JobHistoryRepositoryInternalImpl implements JobHistoryRepositoryInternal {
     private static final Table departmentTable = Table.aliased("department", "department");
     private static final Table employeeTable = Table.aliased("employee", "employee");
 
+    private static final Select baseSelect = createSelect(FieldSet.ALL, true, true, true);
+
+    // the entity manager caches its templates by select, so each shape of sparse fieldset must reuse its select
+    private final Map<List<Object>, Select> sparseSelects = new ConcurrentHashMap<>();
+
+    // the monthly partitions of a partitioned table are named after their month, such as job_history_p2026_10
+    private static final String PARTITION_PREFIX = "job_history_p";
+    private static final DateTimeFormatter PARTITION_MONTH = DateTimeFormatter.ofPattern("uuuu_MM");
+    private static final Pattern PARTITION_NAME = Pattern.compile(PARTITION_PREFIX + "(\\d{4}_\\d{2})");
+
+    // PostgreSQL refuses a partition whose range has rows in the default partition, the one of the start dates out of the monthly
+    // partitions: the partition is created as a plain table, the rows of its range are moved into it out of the default partition,
+    // and it is then attached, all in the one transaction of the block
+    private static final String CREATE_PARTITION =
+        "DO $$ BEGIN IF to_regclass('%1$s') IS NULL THEN " +
+        "CREATE TABLE %1$s (LIKE job_history); " +
+        "WITH moved AS (DELETE FROM job_history_default WHERE start_date >= '%2$s' AND start_date < '%3$s' RETURNING *) " +
+        "INSERT INTO %1$s SELECT * FROM moved; " +
+        "ALTER TABLE job_history ATTACH PARTITION %1$s FOR VALUES FROM ('%2$s') TO ('%3$s'); " +
+        "END IF; END $$";
+
     public JobHistoryRepositoryInternalImpl(
         R2dbcEntityTemplate template,
         EntityManager entityManager,
@@ -76,45 +112,118 @@ class JobHistoryRepositoryInternalImpl implements JobHistoryRepositoryInternal {
 
     @Override
     public Flux<JobHistory> findAllBy(Pageable pageable, Criteria criteria) {
-        return createQuery(pageable, criteria).all();
+        return createQuery(pageable, criteria).all().contextWrite(QueryShape.named("jobHistory.findAllBy", pageable));
     }
 
-    RowsFetchSpec<JobHistory> createQuery(Pageable pageable, Criteria criteria) {
-        List<Expression> columns = JobHistorySqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
-        columns.addAll(JobSqlHelper.getColumns(jobTable, "job"));
-        columns.addAll(DepartmentSqlHelper.getColumns(departmentTable, "department"));
-        columns.addAll(EmployeeSqlHelper.getColumns(employeeTable, "employee"));
-        SelectFromAndJoinCondition selectFrom = Select
-            .builder()
-            .select(columns)
-            .from(entityTable)
-            .leftOuterJoin(jobTable)
-            .on(Column.create("job_id", entityTable))
-            .equals(Column.create("id", jobTable))
-            .leftOuterJoin(departmentTable)
-            .on(Column.create("department_id", entityTable))
-            .equals(Column.create("id", departmentTable))
-            .leftOuterJoin(employeeTable)
-            .on(Column.create("employee_id", entityTable))
-            .equals(Column.create("id", employeeTable));
-
-        String select = entityManager.createSelect(selectFrom, JobHistory.class, pageable, criteria);
-        String alias = entityTable.getReferenceName().getReference();
-        String selectWhere = Optional
-            .ofNullable(criteria)
-            .map(
-                crit ->
-                    new StringBuilder(select)
-                        .append(" ")
-                        .append("WHERE")
-                        .append(" ")
-                        .append(alias)
-                        .append(".")
-                        .append(crit.toString())
-                        .toString()
+    @Override
+    public Flux<JobHistory> findAllAfter(KeysetCursor cursor, int limit, Criteria criteria) {
+        return entityManager
+            .createQuery(baseSelect, JobHistory.class, cursor, limit, criteria)
+            .map(RowMappingPlan.of(this::plan))
+            .all()
+            .contextWrite(QueryShape.named("jobHistory.findAllAfter"));
+    }
+
+    @Override
+    public Flux<JobHistory> findAllAfter(KeysetCursor cursor, int limit, FieldSet fields, Include include, Criteria criteria) {
+        // the cursor of the next page is read from the sort property of the last job history
+        FieldSet selected = fields.with(List.of(cursor.getProperty()));
+        boolean withJob = include.has("job");
+        boolean withDepartment = include.has("department");
+        boolean withEmployee = include.has("employee");
+        return entityManager
+            .createQuery(select(selected, withJob, withDepartment, withEmployee), JobHistory.class, cursor, limit, criteria)
+            .map(RowMappingPlan.of(metadata -> plan(metadata, withJob, withDepartment, withEmployee)))
+            .all()
+            .contextWrite(QueryShape.named("jobHistory.findAllAfter"));
+    }
+
+    @Override
+    public Flux<JobHistory> streamAll() {
+        return entityManager
+            .createStreamingQuery(baseSelect, JobHistory.class)
+            .map(RowMappingPlan.of(this::plan))
+            .all()
+            .contextWrite(QueryShape.named("jobHistory.streamAll"));
+    }
+
+    @Override
+    public Mono<Slice<JobHistory>> findPage(Pageable pageable, CountStrategy countStrategy, Criteria criteria) {
+        return entityManager
+            .createPage(baseSelect, JobHistory.class, pageable, criteria, countStrategy, RowMappingPlan.of(this::plan))
+            .contextWrite(QueryShape.named("jobHistory.findPage", pageable));
+    }
+
+    @Override
+    public Mono<Slice<JobHistory>> findPage(
+        Pageable pageable,
+        CountStrategy countStrategy,
+        FieldSet fields,
+        Include include,
+        Criteria criteria
+    ) {
+        boolean withJob = include.has("job");
+        boolean withDepartment = include.has("department");
+        boolean withEmployee = include.has("employee");
+        return entityManager
+            .createPage(
+                select(fields, withJob, withDepartment, withEmployee),
+                JobHistory.class,
+                pageable,
+                criteria,
+                countStrategy,
+                RowMappingPlan.of(metadata -> plan(metadata, withJob, withDepartment, withEmployee))
             )
-            .orElse(select); // TODO remove once https://github.com/spring-projects/spring-data-jdbc/issues/907 will be fixed
-        return db.sql(selectWhere).map(this::process);
+            .contextWrite(QueryShape.named("jobHistory.findPage", pageable));
+    }
+
+    RowsFetchSpec<JobHistory> createQuery(Pageable pageable, Criteria criteria) {
+        return entityManager.createQuery(baseSelect, JobHistory.class, pageable, criteria).map(RowMappingPlan.of(this::plan));
+    }
+
+    private Select select(FieldSet fields, boolean withJob, boolean withDepartment, boolean withEmployee) {
+        if (fields.isAll() && withJob && withDepartment && withEmployee) {
+            return baseSelect;
+        }
+        return sparseSelects.computeIfAbsent(
+            List.of(fields, withJob, withDepartment, withEmployee),
+            shape -> createSelect(fields, withJob, withDepartment, withEmployee)
+        );
+    }
+
+    private static Select createSelect(FieldSet fields, boolean withJob, boolean withDepartment, boolean withEmployee) {
+        List<Expression> columns = fields.isAll()
+            ? JobHistorySqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS)
+            : JobHistorySqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS, fields.getProperties());
+        if (withJob) {
+            columns.addAll(JobSqlHelper.getColumns(jobTable, "job"));
+        }
+        if (withDepartment) {
+            columns.addAll(DepartmentSqlHelper.getColumns(departmentTable, "department"));
+        }
+        if (withEmployee) {
+            columns.addAll(EmployeeSqlHelper.getColumns(employeeTable, "employee"));
+        }
+        SelectBuilder.SelectJoin select = Select.builder().select(columns).from(entityTable);
+        if (withJob) {
+            select = select.leftOuterJoin(jobTable).on(Column.create("job_id", entityTable)).equals(Column.create("id", jobTable));
+        }
+        if (withDepartment) {
+            select =
+                select
+                    .leftOuterJoin(departmentTable)
+                    .on(Column.create("department_id", entityTable))
+                    .equals(Column.create("id", departmentTable));
+        }
+        if (withEmployee) {
+            select =
+                select
+                    .leftOuterJoin(employeeTable)
+                    .on(Column.create("employee_id", entityTable))
+                    .equals(Column.create("id", employeeTable));
+        }
+        // the builder can build the select after the from clause, as after any join
+        return ((SelectBuilder.BuildSelect) select).build();
     }
 
     @Override
@@ -124,20 +233,149 @@ class JobHistoryRepositoryInternalImpl implements JobHistoryRepositoryInternal {
 
     @Override
     public Mono<JobHistory> findById(Long id) {
-        return createQuery(null, where("id").is(id)).one();
+        return createQuery(null, where("id").is(id)).one().contextWrite(QueryShape.named("jobHistory.findById"));
+    }
+
+    @Override
+    public Flux<JobHistory> findAllById(Iterable<Long> ids) {
+        return entityManager
+            .findAllById(ids, criteria -> createQuery(null, criteria).all())
+            .contextWrite(QueryShape.named("jobHistory.findAllById"));
+    }
+
+    @Override
+    public Mono<JobHistory> findById(Long id, FieldSet fields, Include include) {
+        boolean withJob = include.has("job");
+        boolean withDepartment = include.has("department");
+        boolean withEmployee = include.has("employee");
+        return entityManager
+            .createQuery(select(fields, withJob, withDepartment, withEmployee), JobHistory.class, null, where("id").is(id))
+            .map(RowMappingPlan.of(metadata -> plan(metadata, withJob, withDepartment, withEmployee)))
+            .one()
+            .contextWrite(QueryShape.named("jobHistory.findById"));
+    }
+
+    @Override
+    public Flux<JobHistory> findAllById(Iterable<Long> ids, FieldSet fields, Include include) {
+        boolean withJob = include.has("job");
+        boolean withDepartment = include.has("department");
+        boolean withEmployee = include.has("employee");
+        Select select = select(fields, withJob, withDepartment, withEmployee);
+        return entityManager
+            .findAllById(
+                ids,
+                criteria ->
+                    entityManager
+                        .createQuery(select, JobHistory.class, null, criteria)
+                        .map(RowMappingPlan.of(metadata -> plan(metadata, withJob, withDepartment, withEmployee)))
+                        .all()
+            )
+            .contextWrite(QueryShape.named("jobHistory.findAllById"));
+    }
+
+    @Override
+    public Flux<JobHistory> findAllByStartDateBetween(Instant from, Instant to, Pageable pageable) {
+        return findAllByStartDateBetween(from, to, pageable, null);
+    }
+
+    @Override
+    public Flux<JobHistory> findAllByStartDateBetween(Instant from, Instant to, Pageable pageable, Criteria criteria) {
+        Criteria range = where("startDate").greaterThanOrEquals(from).and("startDate").lessThan(to);
+        return createQuery(pageable, criteria == null ? range : range.and(criteria))
+            .all()
+            .contextWrite(QueryShape.named("jobHistory.findAllByStartDateBetween", pageable));
+    }
+
+    @Override
+    public Mono<Integer> deleteByStartDateBefore(Instant before) {
+        return entityManager
+            .deleteAll(JobHistory.class, where("startDate").lessThan(before))
+            .contextWrite(QueryShape.named("jobHistory.deleteByStartDateBefore"));
     }
 
-    private JobHistory process(Row row, RowMetadata metadata) {
-        JobHistory entity = jobhistoryMapper.apply(row, "e");
-        entity.setJob(jobMapper.apply(row, "job"));
-        entity.setDepartment(departmentMapper.apply(row, "department"));
-        entity.setEmployee(employeeMapper.apply(row, "employee"));
-        return entity;
+    @Override
+    public Mono<Boolean> isPartitioned() {
+        if (!entityManager.isPostgreSQL()) {
+            return Mono.just(false);
+        }
+        return db
+            .sql("SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass('job_history'))")
+            .map(row -> row.get(0, Boolean.class))
+            .one()
+            .contextWrite(QueryShape.named("jobHistory.isPartitioned"));
+    }
+
+    @Override
+    public Flux<YearMonth> findPartitions() {
+        if (!entityManager.isPostgreSQL()) {
+            return Flux.empty();
+        }
+        return db
+            .sql(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                "WHERE i.inhparent = to_regclass('job_history') ORDER BY c.relname"
+            )
+            .map(row -> PARTITION_NAME.matcher(row.get(0, String.class)))
+            .all()
+            // the default partition has no month
+            .filter(Matcher::matches)
+            .map(matcher -> YearMonth.parse(matcher.group(1), PARTITION_MONTH))
+            .contextWrite(QueryShape.named("jobHistory.findPartitions"));
+    }
+
+    @Override
+    public Mono<Void> createPartition(YearMonth month) {
+        // the statements which change the schema have no bind markers, the bounds are formatted from the month
+        return db
+            .sql(String.format(CREATE_PARTITION, partitionName(month), month.atDay(1), month.plusMonths(1).atDay(1)))
+            .then()
+            .contextWrite(QueryShape.named("jobHistory.createPartition"));
+    }
+
+    @Override
+    public Mono<Void> detachPartition(YearMonth month) {
+        return db
+            .sql("ALTER TABLE job_history DETACH PARTITION " + partitionName(month))
+            .then()
+            .contextWrite(QueryShape.named("jobHistory.detachPartition"));
+    }
+
+    @Override
+    public Mono<Void> dropPartition(YearMonth month) {
+        return db.sql("DROP TABLE " + partitionName(month)).then().contextWrite(QueryShape.named("jobHistory.dropPartition"));
+    }
+
+    private static String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + month.format(PARTITION_MONTH);
+    }
+
+    private Function<Row, JobHistory> plan(RowMetadata metadata) {
+        return plan(metadata, true, true, true);
+    }
+
+    private Function<Row, JobHistory> plan(RowMetadata metadata, boolean withJob, boolean withDepartment, boolean withEmployee) {
+        Function<Row, JobHistory> entityMapping = jobhistoryMapper.plan(metadata, "e");
+        Function<Row, Job> jobMapping = withJob ? jobMapper.plan(metadata, "job") : null;
+        Function<Row, Department> departmentMapping = withDepartment ? departmentMapper.plan(metadata, "department") : null;
+        Function<Row, Employee> employeeMapping = withEmployee ? employeeMapper.plan(metadata, "employee") : null;
+        return row -> {
+            JobHistory entity = entityMapping.apply(row);
+            if (jobMapping != null) {
+                entity.setJob(jobMapping.apply(row));
+            }
+            if (departmentMapping != null) {
+                entity.setDepartment(departmentMapping.apply(row));
+            }
+            if (employeeMapping != null) {
+                entity.setEmployee(employeeMapping.apply(row));
+            }
+            return entity;
+        };
     }
 
     @Override
     public <S extends JobHistory> Mono<S> insert(S entity) {
-        return entityManager.insert(entity);
+        return entityManager.insert(entity).contextWrite(QueryShape.named("jobHistory.insert"));
     }
 
     @Override
@@ -158,24 +396,24 @@ class JobHistoryRepositoryInternalImpl implements JobHistoryRepositoryInternal {
     }
 
     @Override
-    public Mono<Integer> update(JobHistory entity) {
-        //fixme is this the proper way?
-        return r2dbcEntityTemplate.update(entity).thenReturn(1);
+    public <S extends JobHistory> Flux<S> saveAll(Iterable<S> entities) {
+        return saveAll(Flux.fromIterable(entities));
     }
-}
 
-class JobHistorySqlHelper {
+    @Override
+    public <S extends JobHistory> Flux<S> saveAll(Publisher<S> entityStream) {
+        return entityManager.saveAll(entityStream, this::save).contextWrite(QueryShape.named("jobHistory.saveAll"));
+    }
 
-    static List<Expression> getColumns(Table table, String columnPrefix) {
-        List<Expression> columns = new ArrayList<>();
-        columns.add(Column.aliased("id", table, columnPrefix + "_id"));
-        columns.add(Column.aliased("start_date", table, columnPrefix + "_start_date"));
-        columns.add(Column.aliased("end_date", table, columnPrefix + "_end_date"));
-        columns.add(Column.aliased("language", table, columnPrefix + "_language"));
+    @Override
+    public Mono<Integer> update(JobHistory entity) {
+        return entityManager.update(entity).contextWrite(QueryShape.named("jobHistory.update"));
+    }
 
-        columns.add(Column.aliased("job_id", table, columnPrefix + "_job_id"));
-        columns.add(Column.aliased("department_id", table, columnPrefix + "_department_id"));
-        columns.add(Column.aliased("employee_id", table, columnPrefix + "_employee_id"));
-        return columns;
+    @Override
+    public Mono<JobHistory> partialUpdate(JobHistory patch) {
+        return entityManager
+            .partialUpdate(patch, RowMappingPlan.of(metadata -> jobhistoryMapper.plan(metadata, EntityManager.ENTITY_ALIAS)))
+            .contextWrite(QueryShape.named("jobHistory.partialUpdate"));
     }
 }
@@ -1,7 +1,15 @@
 package com.mycompany.myapp.repository;
 
+import com.mycompany.myapp.domain.Employee;
 import com.mycompany.myapp.domain.Job;
+import com.mycompany.myapp.domain.Task;
+import com.mycompany.myapp.service.CountStrategy;
+import com.mycompany.myapp.service.Include;
+import com.mycompany.myapp.service.KeysetCursor;
+import java.util.Set;
+import org.reactivestreams.Publisher;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
 import org.springframework.data.relational.core.query.Criteria;
@@ -15,6 +23,11 @@ import reactor.core.publisher.Mono;
 @SuppressWarnings("unused")
 @Repository
 public interface JobRepository extends R2dbcRepository<Job, Long>, JobRepositoryInternal {
+    /**
+     * The properties which can be filtered on without the unindexed filters override, since each leads an index.
+     */
+    Set<String> FILTERS = Set.of("id", "jobTitle", "employeeId");
+
     Flux<Job> findAllBy(Pageable pageable);
 
     @Override
@@ -45,19 +58,37 @@ public interface JobRepository extends R2dbcRepository<Job, Long>, JobRepository
     @Override
     Mono<Job> findById(Long id);
 
+    @Override
+    Flux<Job> findAllById(Iterable<Long> ids);
+
     @Override
     <S extends Job> Mono<S> save(S entity);
+
+    @Override
+    <S extends Job> Flux<S> saveAll(Iterable<S> entities);
+
+    @Override
+    <S extends Job> Flux<S> saveAll(Publisher<S> entityStream);
 }
 
 interface JobRepositoryInternal {
     <S extends Job> Mono<S> insert(S entity);
     <S extends Job> Mono<S> save(S entity);
+    <S extends Job> Flux<S> saveAll(Iterable<S> entities);
+    <S extends Job> Flux<S> saveAll(Publisher<S> entityStream);
     Mono<Integer> update(Job entity);
+    Mono<Job> partialUpdate(Job patch);
+    <S extends Job> Mono<S> updateRelations(S entity);
+    Mono<Integer> deleteMatching(Criteria criteria);
 
     Flux<Job> findAll();
     Mono<Job> findById(Long id);
+    Flux<Job> findAllById(Iterable<Long> ids);
     Flux<Job> findAllBy(Pageable pageable);
     Flux<Job> findAllBy(Pageable pageable, Criteria criteria);
+    Flux<Job> findAllAfter(KeysetCursor cursor, int limit, Criteria criteria);
+    Flux<Job> streamAll();
+    Mono<Slice<Job>> findPage(Pageable pageable, CountStrategy countStrategy, Criteria criteria);
 
     Mono<Job> findOneWithEagerRelationships(Long id);
 
@@ -65,5 +96,15 @@ interface JobRepositoryInternal {
 
     Flux<Job> findAllWithEagerRelationships(Pageable page);
 
+    Flux<Job> findAllByIdWithEagerRelationships(Iterable<Long> ids);
+
+    Mono<Slice<Job>> findPageWithEagerRelationships(Pageable pageable, CountStrategy countStrategy, Criteria criteria);
+
+    Flux<Job> fetchIncluded(Flux<Job> jobs, Include include);
+
+    Flux<Employee> fetchByEmployees(Flux<Employee> employees, Include include);
+
+    Flux<Task> fetchByTasks(Flux<Task> tasks, Include include);
+
     Mono<Void> deleteById(Long id);
 }
@@ -3,27 +3,35 @@ package com.mycompany.myapp.repository;
 import static org.springframework.data.relational.core.query.Criteria.where;
 import static org.springframework.data.relational.core.query.Query.query;
 
+import com.mycompany.myapp.domain.Employee;
 import com.mycompany.myapp.domain.Job;
 import com.mycompany.myapp.domain.Task;
+import com.mycompany.myapp.repository.metrics.QueryShape;
 import com.mycompany.myapp.repository.rowmapper.EmployeeRowMapper;
 import com.mycompany.myapp.repository.rowmapper.JobRowMapper;
+import com.mycompany.myapp.repository.rowmapper.RowMappingPlan;
+import com.mycompany.myapp.repository.rowmapper.TaskRowMapper;
+import com.mycompany.myapp.service.CountStrategy;
 import com.mycompany.myapp.service.EntityManager;
 import com.mycompany.myapp.service.EntityManager.LinkTable;
+import com.mycompany.myapp.service.Include;
+import com.mycompany.myapp.service.KeysetCursor;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
-import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Optional;
 import java.util.function.BiFunction;
+import java.util.function.Function;
+import org.reactivestreams.Publisher;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.relational.core.query.Criteria;
 import org.springframework.data.relational.core.sql.Column;
 import org.springframework.data.relational.core.sql.Expression;
 import org.springframework.data.relational.core.sql.Select;
-import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoinCondition;
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.r2dbc.core.RowsFetchSpec;
@@ -42,23 +50,35 @@ class JobRepositoryInternalImpl implements JobRepositoryInternal {
 
     private final EmployeeRowMapper employeeMapper;
     private final JobRowMapper jobMapper;
+    private final TaskRowMapper taskMapper;
 
     private static final Table entityTable = Table.aliased("job", EntityManager.ENTITY_ALIAS);
     private static final Table employeeTable = Table.aliased("employee", "employee");
+    private static final Table taskTable = Table.aliased("task", EntityManager.ENTITY_ALIAS);
 
     private static final EntityManager.LinkTable taskLink = new LinkTable("rel_job__task", "job_id", "task_id");
+    private static final EntityManager.LinkTable jobOfTaskLink = new LinkTable("rel_job__task", "task_id", "job_id");
+
+    private static final Select baseSelect = createBaseSelect();
+    private static final Select taskSelect = Select
+        .builder()
+        .select(TaskSqlHelper.getColumns(taskTable, EntityManager.ENTITY_ALIAS))
+        .from(taskTable)
+        .build();
 
     public JobRepositoryInternalImpl(
         R2dbcEntityTemplate template,
         EntityManager entityManager,
         EmployeeRowMapper employeeMapper,
-        JobRowMapper jobMapper
+        JobRowMapper jobMapper,
+        TaskRowMapper taskMapper
     ) {
         this.db = template.getDatabaseClient();
         this.r2dbcEntityTemplate = template;
         this.entityManager = entityManager;
         this.employeeMapper = employeeMapper;
         this.jobMapper = jobMapper;
+        this.taskMapper = taskMapper;
     }
 
     @Override
@@ -68,37 +88,49 @@ class JobRepositoryInternalImpl implements JobRepositoryInternal {
 
     @Override
     public Flux<Job> findAllBy(Pageable pageable, Criteria criteria) {
-        return createQuery(pageable, criteria).all();
+        return createQuery(pageable, criteria).all().contextWrite(QueryShape.named("job.findAllBy", pageable));
+    }
+
+    @Override
+    public Flux<Job> findAllAfter(KeysetCursor cursor, int limit, Criteria criteria) {
+        return entityManager
+            .createQuery(baseSelect, Job.class, cursor, limit, criteria)
+            .map(RowMappingPlan.of(this::plan))
+            .all()
+            .contextWrite(QueryShape.named("job.findAllAfter"));
+    }
+
+    @Override
+    public Flux<Job> streamAll() {
+        return entityManager
+            .createStreamingQuery(baseSelect, Job.class)
+            .map(RowMappingPlan.of(this::plan))
+            .all()
+            .contextWrite(QueryShape.named("job.streamAll"));
+    }
+
+    @Override
+    public Mono<Slice<Job>> findPage(Pageable pageable, CountStrategy countStrategy, Criteria criteria) {
+        return entityManager
+            .createPage(baseSelect, Job.class, pageable, criteria, countStrategy, RowMappingPlan.of(this::plan))
+            .contextWrite(QueryShape.named("job.findPage", pageable));
     }
 
     RowsFetchSpec<Job> createQuery(Pageable pageable, Criteria criteria) {
+        return entityManager.createQuery(baseSelect, Job.class, pageable, criteria).map(RowMappingPlan.of(this::plan));
+    }
+
+    private static Select createBaseSelect() {
         List<Expression> columns = JobSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
         columns.addAll(EmployeeSqlHelper.getColumns(employeeTable, "employee"));
-        SelectFromAndJoinCondition selectFrom = Select
+        return Select
             .builder()
             .select(columns)
             .from(entityTable)
             .leftOuterJoin(employeeTable)
             .on(Column.create("employee_id", entityTable))
-            .equals(Column.create("id", employeeTable));
-
-        String select = entityManager.createSelect(selectFrom, Job.class, pageable, criteria);
-        String alias = entityTable.getReferenceName().getReference();
-        String selectWhere = Optional
-            .ofNullable(criteria)
-            .map(
-                crit ->
-                    new StringBuilder(select)
-                        .append(" ")
-                        .append("WHERE")
-                        .append(" ")
-                        .append(alias)
-                        .append(".")
-                        .append(crit.toString())
-                        .toString()
-            )
-            .orElse(select); // TODO remove once https://github.com/spring-projects/spring-data-jdbc/issues/907 will be fixed
-        return db.sql(selectWhere).map(this::process);
+            .equals(Column.create("id", employeeTable))
+            .build();
     }
 
     @Override
@@ -108,33 +140,103 @@ class JobRepositoryInternalImpl implements JobRepositoryInternal {
 
     @Override
     public Mono<Job> findById(Long id) {
-        return createQuery(null, where("id").is(id)).one();
+        return createQuery(null, where("id").is(id)).one().contextWrite(QueryShape.named("job.findById"));
+    }
+
+    @Override
+    public Flux<Job> findAllById(Iterable<Long> ids) {
+        return entityManager
+            .findAllById(ids, criteria -> createQuery(null, criteria).all())
+            .contextWrite(QueryShape.named("job.findAllById"));
     }
 
     @Override
     public Mono<Job> findOneWithEagerRelationships(Long id) {
-        return findById(id);
+        return fetchTasks(findById(id).flux()).next();
     }
 
     @Override
     public Flux<Job> findAllWithEagerRelationships() {
-        return findAll();
+        return fetchTasks(findAll());
     }
 
     @Override
     public Flux<Job> findAllWithEagerRelationships(Pageable page) {
-        return findAllBy(page);
+        return fetchTasks(findAllBy(page));
+    }
+
+    @Override
+    public Flux<Job> findAllByIdWithEagerRelationships(Iterable<Long> ids) {
+        return fetchTasks(findAllById(ids));
+    }
+
+    @Override
+    public Mono<Slice<Job>> findPageWithEagerRelationships(Pageable pageable, CountStrategy countStrategy, Criteria criteria) {
+        return findPage(pageable, countStrategy, criteria)
+            .flatMap(page -> fetchTasks(Flux.fromIterable(page.getContent())).then(Mono.just(page)));
+    }
+
+    private Flux<Job> fetchTasks(Flux<Job> jobs) {
+        return entityManager
+            .fetchLinked(
+                jobs,
+                Job::getId,
+                taskLink,
+                taskSelect,
+                RowMappingPlan.of(metadata -> taskMapper.plan(metadata, EntityManager.ENTITY_ALIAS)),
+                (job, tasks) -> job.setTasks(new HashSet<>(tasks))
+            )
+            .contextWrite(QueryShape.named("job.fetchTasks"));
+    }
+
+    @Override
+    public Flux<Job> fetchIncluded(Flux<Job> jobs, Include include) {
+        return include.has("tasks") ? fetchTasks(jobs) : jobs;
+    }
+
+    @Override
+    public Flux<Employee> fetchByEmployees(Flux<Employee> employees, Include include) {
+        return entityManager
+            .fetchReferring(
+                employees,
+                Employee::getId,
+                "employee_id",
+                baseSelect,
+                RowMappingPlan.of(this::plan),
+                jobs -> fetchIncluded(jobs, include),
+                (employee, jobs) -> employee.setJobs(new HashSet<>(jobs))
+            )
+            .contextWrite(QueryShape.named("job.fetchByEmployees"));
+    }
+
+    @Override
+    public Flux<Task> fetchByTasks(Flux<Task> tasks, Include include) {
+        return entityManager
+            .fetchLinked(
+                tasks,
+                Task::getId,
+                jobOfTaskLink,
+                baseSelect,
+                RowMappingPlan.of(this::plan),
+                jobs -> fetchIncluded(jobs, include),
+                (task, jobs) -> task.setJobs(new HashSet<>(jobs))
+            )
+            .contextWrite(QueryShape.named("job.fetchByTasks"));
     }
 
-    private Job process(Row row, RowMetadata metadata) {
-        Job entity = jobMapper.apply(row, "e");
-        entity.setEmployee(employeeMapper.apply(row, "employee"));
-        return entity;
+    private Function<Row, Job> plan(RowMetadata metadata) {
+        Function<Row, Job> entityMapping = jobMapper.plan(metadata, "e");
+        Function<Row, Employee> employeeMapping = employeeMapper.plan(metadata, "employee");
+        return row -> {
+            Job entity = entityMapping.apply(row);
+            entity.setEmployee(employeeMapping.apply(row));
+            return entity;
+        };
     }
 
     @Override
     public <S extends Job> Mono<S> insert(S entity) {
-        return entityManager.insert(entity);
+        return entityManager.insert(entity).contextWrite(QueryShape.named("job.insert"));
     }
 
     @Override
@@ -156,36 +258,50 @@ class JobRepositoryInternalImpl implements JobRepositoryInternal {
     }
 
     @Override
-    public Mono<Integer> update(Job entity) {
-        //fixme is this the proper way?
-        return r2dbcEntityTemplate.update(entity).thenReturn(1);
+    public <S extends Job> Flux<S> saveAll(Iterable<S> entities) {
+        return saveAll(Flux.fromIterable(entities));
     }
 
     @Override
-    public Mono<Void> deleteById(Long entityId) {
-        return deleteRelations(entityId).then(r2dbcEntityTemplate.delete(Job.class).matching(query(where("id").is(entityId))).all().then());
+    public <S extends Job> Flux<S> saveAll(Publisher<S> entityStream) {
+        return entityManager.saveAll(entityStream, this::save, this::updateRelations).contextWrite(QueryShape.named("job.saveAll"));
     }
 
-    protected <S extends Job> Mono<S> updateRelations(S entity) {
-        Mono<Void> result = entityManager.updateLinkTable(taskLink, entity.getId(), entity.getTasks().stream().map(Task::getId)).then();
-        return result.thenReturn(entity);
+    @Override
+    public Mono<Integer> update(Job entity) {
+        return entityManager.update(entity).contextWrite(QueryShape.named("job.update"));
     }
 
-    protected Mono<Void> deleteRelations(Long entityId) {
-        return entityManager.deleteFromLinkTable(taskLink, entityId);
+    @Override
+    public Mono<Job> partialUpdate(Job patch) {
+        return entityManager
+            .partialUpdate(patch, RowMappingPlan.of(metadata -> jobMapper.plan(metadata, EntityManager.ENTITY_ALIAS)))
+            .contextWrite(QueryShape.named("job.partialUpdate"));
     }
-}
 
-class JobSqlHelper {
+    @Override
+    public Mono<Void> deleteById(Long entityId) {
+        return deleteRelations(entityId)
+            .then(r2dbcEntityTemplate.delete(Job.class).matching(query(where("id").is(entityId))).all().then())
+            .contextWrite(QueryShape.named("job.deleteById"));
+    }
 
-    static List<Expression> getColumns(Table table, String columnPrefix) {
-        List<Expression> columns = new ArrayList<>();
-        columns.add(Column.aliased("id", table, columnPrefix + "_id"));
-        columns.add(Column.aliased("job_title", table, columnPrefix + "_job_title"));
-        columns.add(Column.aliased("min_salary", table, columnPrefix + "_min_salary"));
-        columns.add(Column.aliased("max_salary", table, columnPrefix + "_max_salary"));
+    // the foreign key clears the references of the job histories to the deleted jobs
+    @Override
+    public Mono<Integer> deleteMatching(Criteria criteria) {
+        return entityManager
+            .deleteFromLinkTable(taskLink, Job.class, criteria)
+            .then(entityManager.deleteAll(Job.class, criteria))
+            .contextWrite(QueryShape.named("job.deleteMatching"));
+    }
+
+    @Override
+    public <S extends Job> Mono<S> updateRelations(S entity) {
+        Mono<Void> result = entityManager.updateLinkTable(taskLink, entity.getId(), entity.getTasks().stream().map(Task::getId)).then();
+        return result.thenReturn(entity).contextWrite(QueryShape.named("job.updateRelations"));
+    }
 
-        columns.add(Column.aliased("employee_id", table, columnPrefix + "_employee_id"));
-        return columns;
+    protected Mono<Void> deleteRelations(Long entityId) {
+        return entityManager.deleteFromLinkTable(taskLink, entityId).contextWrite(QueryShape.named("job.deleteRelations"));
     }
 }
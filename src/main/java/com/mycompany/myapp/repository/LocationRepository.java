@@ -1,6 +1,11 @@
 package com.mycompany.myapp.repository;
 
 import com.mycompany.myapp.domain.Location;
+import com.mycompany.myapp.service.KeysetCursor;
+import com.mycompany.myapp.service.UpsertResult;
+import java.util.List;
+import java.util.Set;
+import org.reactivestreams.Publisher;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
@@ -15,6 +20,16 @@ import reactor.core.publisher.Mono;
 @SuppressWarnings("unused")
 @Repository
 public interface LocationRepository extends R2dbcRepository<Location, Long>, LocationRepositoryInternal {
+    /**
+     * The properties which can be filtered on without the unindexed filters override, since each leads an index.
+     */
+    Set<String> FILTERS = Set.of("id", "streetAddress", "city", "countryId");
+
+    /**
+     * The properties of the natural key of the locations, which the upserts match the existing locations on.
+     */
+    List<String> NATURAL_KEY = List.of("streetAddress", "postalCode", "city");
+
     @Query("SELECT * FROM location entity WHERE entity.country_id = :id")
     Flux<Location> findByCountry(Long id);
 
@@ -28,17 +43,57 @@ public interface LocationRepository extends R2dbcRepository<Location, Long>, Loc
     @Override
     Mono<Location> findById(Long id);
 
+    @Override
+    Mono<Void> deleteById(Long id);
+
+    @Override
+    Mono<Void> deleteById(Publisher<Long> id);
+
+    @Override
+    Mono<Void> delete(Location entity);
+
+    @Override
+    Mono<Void> deleteAll(Iterable<? extends Location> entities);
+
+    @Override
+    Mono<Void> deleteAll(Publisher<? extends Location> entities);
+
+    @Override
+    Mono<Void> deleteAll();
+
+    @Override
+    Flux<Location> findAllById(Iterable<Long> ids);
+
     @Override
     <S extends Location> Mono<S> save(S entity);
+
+    @Override
+    <S extends Location> Flux<S> saveAll(Iterable<S> entities);
+
+    @Override
+    <S extends Location> Flux<S> saveAll(Publisher<S> entityStream);
 }
 
 interface LocationRepositoryInternal {
     <S extends Location> Mono<S> insert(S entity);
     <S extends Location> Mono<S> save(S entity);
+    <S extends Location> Flux<S> saveAll(Iterable<S> entities);
+    <S extends Location> Flux<S> saveAll(Publisher<S> entityStream);
     Mono<Integer> update(Location entity);
+    Mono<Location> partialUpdate(Location patch);
+    Mono<UpsertResult> upsertAll(Publisher<Location> entities);
+    Mono<Void> deleteById(Long id);
+    Mono<Void> deleteById(Publisher<Long> id);
+    Mono<Void> delete(Location entity);
+    Mono<Void> deleteAll(Iterable<? extends Location> entities);
+    Mono<Void> deleteAll(Publisher<? extends Location> entities);
+    Mono<Void> deleteAll();
 
     Flux<Location> findAll();
     Mono<Location> findById(Long id);
+    Flux<Location> findAllById(Iterable<Long> ids);
     Flux<Location> findAllBy(Pageable pageable);
     Flux<Location> findAllBy(Pageable pageable, Criteria criteria);
+    Flux<Location> findAllAfter(KeysetCursor cursor, int limit, Criteria criteria);
+    Flux<Location> streamAll();
 }
@@ -3,25 +3,31 @@ package com.mycompany.myapp.repository;
 import static org.springframework.data.relational.core.query.Criteria.where;
 import static org.springframework.data.relational.core.query.Query.query;
 
+import com.mycompany.myapp.domain.Country;
 import com.mycompany.myapp.domain.Location;
+import com.mycompany.myapp.repository.metrics.QueryShape;
 import com.mycompany.myapp.repository.rowmapper.CountryRowMapper;
 import com.mycompany.myapp.repository.rowmapper.LocationRowMapper;
+import com.mycompany.myapp.repository.rowmapper.RowMappingPlan;
 import com.mycompany.myapp.service.EntityManager;
+import com.mycompany.myapp.service.KeysetCursor;
+import com.mycompany.myapp.service.PrefixIndex;
+import com.mycompany.myapp.service.TypeaheadIndex;
+import com.mycompany.myapp.service.UpsertResult;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Optional;
 import java.util.function.BiFunction;
+import java.util.function.Function;
+import org.reactivestreams.Publisher;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.relational.core.query.Criteria;
 import org.springframework.data.relational.core.sql.Column;
 import org.springframework.data.relational.core.sql.Expression;
 import org.springframework.data.relational.core.sql.Select;
-import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoinCondition;
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.r2dbc.core.RowsFetchSpec;
@@ -41,20 +47,31 @@ class LocationRepositoryInternalImpl implements LocationRepositoryInternal {
     private final CountryRowMapper countryMapper;
     private final LocationRowMapper locationMapper;
 
+    private final TypeaheadIndex typeaheadIndex;
+    private final PrefixIndex<Location> typeahead;
+
     private static final Table entityTable = Table.aliased("location", EntityManager.ENTITY_ALIAS);
     private static final Table countryTable = Table.aliased("country", "country");
 
+    private static final Select baseSelect = createBaseSelect();
+
+    // the ids of a delete of several locations are bound in chunks, below the bind parameter limits of the databases
+    private static final int DELETE_CHUNK_SIZE = 1000;
+
     public LocationRepositoryInternalImpl(
         R2dbcEntityTemplate template,
         EntityManager entityManager,
         CountryRowMapper countryMapper,
-        LocationRowMapper locationMapper
+        LocationRowMapper locationMapper,
+        TypeaheadIndex typeaheadIndex
     ) {
         this.db = template.getDatabaseClient();
         this.r2dbcEntityTemplate = template;
         this.entityManager = entityManager;
         this.countryMapper = countryMapper;
         this.locationMapper = locationMapper;
+        this.typeaheadIndex = typeaheadIndex;
+        this.typeahead = typeaheadIndex.getLocations();
     }
 
     @Override
@@ -64,37 +81,42 @@ class LocationRepositoryInternalImpl implements LocationRepositoryInternal {
 
     @Override
     public Flux<Location> findAllBy(Pageable pageable, Criteria criteria) {
-        return createQuery(pageable, criteria).all();
+        return createQuery(pageable, criteria).all().contextWrite(QueryShape.named("location.findAllBy", pageable));
+    }
+
+    @Override
+    public Flux<Location> findAllAfter(KeysetCursor cursor, int limit, Criteria criteria) {
+        return entityManager
+            .createQuery(baseSelect, Location.class, cursor, limit, criteria)
+            .map(RowMappingPlan.of(this::plan))
+            .all()
+            .contextWrite(QueryShape.named("location.findAllAfter"));
+    }
+
+    @Override
+    public Flux<Location> streamAll() {
+        return entityManager
+            .createStreamingQuery(baseSelect, Location.class)
+            .map(RowMappingPlan.of(this::plan))
+            .all()
+            .contextWrite(QueryShape.named("location.streamAll"));
     }
 
     RowsFetchSpec<Location> createQuery(Pageable pageable, Criteria criteria) {
+        return entityManager.createQuery(baseSelect, Location.class, pageable, criteria).map(RowMappingPlan.of(this::plan));
+    }
+
+    private static Select createBaseSelect() {
         List<Expression> columns = LocationSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
         columns.addAll(CountrySqlHelper.getColumns(countryTable, "country"));
-        SelectFromAndJoinCondition selectFrom = Select
+        return Select
             .builder()
             .select(columns)
             .from(entityTable)
             .leftOuterJoin(countryTable)
             .on(Column.create("country_id", entityTable))
-            .equals(Column.create("id", countryTable));
-
-        String select = entityManager.createSelect(selectFrom, Location.class, pageable, criteria);
-        String alias = entityTable.getReferenceName().getReference();
-        String selectWhere = Optional
-            .ofNullable(criteria)
-            .map(
-                crit ->
-                    new StringBuilder(select)
-                        .append(" ")
-                        .append("WHERE")
-                        .append(" ")
-                        .append(alias)
-                        .append(".")
-                        .append(crit.toString())
-                        .toString()
-            )
-            .orElse(select); // TODO remove once https://github.com/spring-projects/spring-data-jdbc/issues/907 will be fixed
-        return db.sql(selectWhere).map(this::process);
+            .equals(Column.create("id", countryTable))
+            .build();
     }
 
     @Override
@@ -104,18 +126,32 @@ class LocationRepositoryInternalImpl implements LocationRepositoryInternal {
 
     @Override
     public Mono<Location> findById(Long id) {
-        return createQuery(null, where("id").is(id)).one();
+        return createQuery(null, where("id").is(id)).one().contextWrite(QueryShape.named("location.findById"));
     }
 
-    private Location process(Row row, RowMetadata metadata) {
-        Location entity = locationMapper.apply(row, "e");
-        entity.setCountry(countryMapper.apply(row, "country"));
-        return entity;
+    @Override
+    public Flux<Location> findAllById(Iterable<Long> ids) {
+        return entityManager
+            .findAllById(ids, criteria -> createQuery(null, criteria).all())
+            .contextWrite(QueryShape.named("location.findAllById"));
+    }
+
+    private Function<Row, Location> plan(RowMetadata metadata) {
+        Function<Row, Location> entityMapping = locationMapper.plan(metadata, "e");
+        Function<Row, Country> countryMapping = countryMapper.plan(metadata, "country");
+        return row -> {
+            Location entity = entityMapping.apply(row);
+            entity.setCountry(countryMapping.apply(row));
+            return entity;
+        };
     }
 
     @Override
     public <S extends Location> Mono<S> insert(S entity) {
-        return entityManager.insert(entity);
+        return entityManager
+            .insert(entity)
+            .flatMap(inserted -> TypeaheadIndex.afterCommit(() -> typeahead.put(inserted)).thenReturn(inserted))
+            .contextWrite(QueryShape.named("location.insert"));
     }
 
     @Override
@@ -135,24 +171,98 @@ class LocationRepositoryInternalImpl implements LocationRepositoryInternal {
         }
     }
 
+    @Override
+    public <S extends Location> Flux<S> saveAll(Iterable<S> entities) {
+        return saveAll(Flux.fromIterable(entities));
+    }
+
+    @Override
+    public <S extends Location> Flux<S> saveAll(Publisher<S> entityStream) {
+        return entityManager
+            .saveAll(entityStream, this::save)
+            .concatMap(saved -> TypeaheadIndex.afterCommit(() -> typeahead.put(saved)).thenReturn(saved))
+            .contextWrite(QueryShape.named("location.saveAll"));
+    }
+
     @Override
     public Mono<Integer> update(Location entity) {
-        //fixme is this the proper way?
-        return r2dbcEntityTemplate.update(entity).thenReturn(1);
+        return entityManager
+            .update(entity)
+            .flatMap(
+                updated -> updated > 0 ? TypeaheadIndex.afterCommit(() -> typeahead.put(entity)).thenReturn(updated) : Mono.just(updated)
+            )
+            .contextWrite(QueryShape.named("location.update"));
     }
-}
 
-class LocationSqlHelper {
+    @Override
+    public Mono<Location> partialUpdate(Location patch) {
+        return entityManager
+            .partialUpdate(patch, RowMappingPlan.of(metadata -> locationMapper.plan(metadata, EntityManager.ENTITY_ALIAS)))
+            .flatMap(updated -> TypeaheadIndex.afterCommit(() -> typeahead.put(updated)).thenReturn(updated))
+            .contextWrite(QueryShape.named("location.partialUpdate"));
+    }
+
+    @Override
+    public Mono<UpsertResult> upsertAll(Publisher<Location> entities) {
+        // the city and postal code are part of the natural key, so only the created locations are new to the typeahead index, but
+        // the upserts don't read their ids back: the few locations are loaded again instead, once the created ones are committed
+        return entityManager
+            .upsertAll(entities, LocationRepository.NATURAL_KEY)
+            .flatMap(
+                result ->
+                    result.getCreated() > 0
+                        ? TypeaheadIndex.afterCommit(() -> typeaheadIndex.loadLocations().subscribe()).thenReturn(result)
+                        : Mono.just(result)
+            )
+            .contextWrite(QueryShape.named("location.upsertAll"));
+    }
+
+    @Override
+    public Mono<Void> deleteById(Long id) {
+        return r2dbcEntityTemplate
+            .delete(Location.class)
+            .matching(query(where("id").is(id)))
+            .all()
+            .flatMap(deleted -> TypeaheadIndex.afterCommit(() -> typeahead.remove(id)))
+            .contextWrite(QueryShape.named("location.deleteById"));
+    }
+
+    @Override
+    public Mono<Void> deleteById(Publisher<Long> id) {
+        return Mono.from(id).flatMap(this::deleteById);
+    }
+
+    @Override
+    public Mono<Void> delete(Location entity) {
+        return deleteById(entity.getId());
+    }
 
-    static List<Expression> getColumns(Table table, String columnPrefix) {
-        List<Expression> columns = new ArrayList<>();
-        columns.add(Column.aliased("id", table, columnPrefix + "_id"));
-        columns.add(Column.aliased("street_address", table, columnPrefix + "_street_address"));
-        columns.add(Column.aliased("postal_code", table, columnPrefix + "_postal_code"));
-        columns.add(Column.aliased("city", table, columnPrefix + "_city"));
-        columns.add(Column.aliased("state_province", table, columnPrefix + "_state_province"));
+    @Override
+    public Mono<Void> deleteAll(Iterable<? extends Location> entities) {
+        return deleteAll(Flux.fromIterable(entities));
+    }
 
-        columns.add(Column.aliased("country_id", table, columnPrefix + "_country_id"));
-        return columns;
+    @Override
+    public Mono<Void> deleteAll(Publisher<? extends Location> entities) {
+        return Flux
+            .from(entities)
+            .map(Location::getId)
+            .buffer(DELETE_CHUNK_SIZE)
+            .concatMap(
+                ids ->
+                    entityManager
+                        .deleteAll(Location.class, where("id").in(ids))
+                        .flatMap(deleted -> TypeaheadIndex.afterCommit(() -> ids.forEach(typeahead::remove)))
+            )
+            .then()
+            .contextWrite(QueryShape.named("location.deleteAll"));
+    }
+
+    @Override
+    public Mono<Void> deleteAll() {
+        return entityManager
+            .deleteAll(Location.class)
+            .flatMap(deleted -> TypeaheadIndex.afterCommit(typeahead::clear))
+            .contextWrite(QueryShape.named("location.deleteAll"));
     }
 }
@@ -1,6 +1,11 @@
 package com.mycompany.myapp.repository;
 
 import com.mycompany.myapp.domain.Region;
+import com.mycompany.myapp.service.KeysetCursor;
+import com.mycompany.myapp.service.UpsertResult;
+import java.util.List;
+import java.util.Set;
+import org.reactivestreams.Publisher;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
@@ -15,6 +20,16 @@ import reactor.core.publisher.Mono;
 @SuppressWarnings("unused")
 @Repository
 public interface RegionRepository extends R2dbcRepository<Region, Long>, RegionRepositoryInternal {
+    /**
+     * The properties which can be filtered on without the unindexed filters override, since each leads an index.
+     */
+    Set<String> FILTERS = Set.of("id", "regionName");
+
+    /**
+     * The properties of the natural key of the regions, which the upserts match the existing regions on.
+     */
+    List<String> NATURAL_KEY = List.of("regionName");
+
     // just to avoid having unambigous methods
     @Override
     Flux<Region> findAll();
@@ -22,17 +37,33 @@ public interface RegionRepository extends R2dbcRepository<Region, Long>, RegionR
     @Override
     Mono<Region> findById(Long id);
 
+    @Override
+    Flux<Region> findAllById(Iterable<Long> ids);
+
     @Override
     <S extends Region> Mono<S> save(S entity);
+
+    @Override
+    <S extends Region> Flux<S> saveAll(Iterable<S> entities);
+
+    @Override
+    <S extends Region> Flux<S> saveAll(Publisher<S> entityStream);
 }
 
 interface RegionRepositoryInternal {
     <S extends Region> Mono<S> insert(S entity);
     <S extends Region> Mono<S> save(S entity);
+    <S extends Region> Flux<S> saveAll(Iterable<S> entities);
+    <S extends Region> Flux<S> saveAll(Publisher<S> entityStream);
     Mono<Integer> update(Region entity);
+    Mono<Region> partialUpdate(Region patch);
+    Mono<UpsertResult> upsertAll(Publisher<Region> entities);
 
     Flux<Region> findAll();
     Mono<Region> findById(Long id);
+    Flux<Region> findAllById(Iterable<Long> ids);
     Flux<Region> findAllBy(Pageable pageable);
     Flux<Region> findAllBy(Pageable pageable, Criteria criteria);
+    Flux<Region> findAllAfter(KeysetCursor cursor, int limit, Criteria criteria);
+    Flux<Region> streamAll();
 }
@@ -4,23 +4,25 @@ import static org.springframework.data.relational.core.query.Criteria.where;
 import static org.springframework.data.relational.core.query.Query.query;
 
 import com.mycompany.myapp.domain.Region;
+import com.mycompany.myapp.repository.metrics.QueryShape;
 import com.mycompany.myapp.repository.rowmapper.RegionRowMapper;
+import com.mycompany.myapp.repository.rowmapper.RowMappingPlan;
 import com.mycompany.myapp.service.EntityManager;
+import com.mycompany.myapp.service.KeysetCursor;
+import com.mycompany.myapp.service.UpsertResult;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Optional;
 import java.util.function.BiFunction;
+import java.util.function.Function;
+import org.reactivestreams.Publisher;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.relational.core.query.Criteria;
-import org.springframework.data.relational.core.sql.Column;
 import org.springframework.data.relational.core.sql.Expression;
 import org.springframework.data.relational.core.sql.Select;
-import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoin;
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.r2dbc.core.RowsFetchSpec;
@@ -41,6 +43,8 @@ class RegionRepositoryInternalImpl implements RegionRepositoryInternal {
 
     private static final Table entityTable = Table.aliased("region", EntityManager.ENTITY_ALIAS);
 
+    private static final Select baseSelect = createBaseSelect();
+
     public RegionRepositoryInternalImpl(R2dbcEntityTemplate template, EntityManager entityManager, RegionRowMapper regionMapper) {
         this.db = template.getDatabaseClient();
         this.r2dbcEntityTemplate = template;
@@ -55,30 +59,34 @@ class RegionRepositoryInternalImpl implements RegionRepositoryInternal {
 
     @Override
     public Flux<Region> findAllBy(Pageable pageable, Criteria criteria) {
-        return createQuery(pageable, criteria).all();
+        return createQuery(pageable, criteria).all().contextWrite(QueryShape.named("region.findAllBy", pageable));
+    }
+
+    @Override
+    public Flux<Region> findAllAfter(KeysetCursor cursor, int limit, Criteria criteria) {
+        return entityManager
+            .createQuery(baseSelect, Region.class, cursor, limit, criteria)
+            .map(RowMappingPlan.of(this::plan))
+            .all()
+            .contextWrite(QueryShape.named("region.findAllAfter"));
+    }
+
+    @Override
+    public Flux<Region> streamAll() {
+        return entityManager
+            .createStreamingQuery(baseSelect, Region.class)
+            .map(RowMappingPlan.of(this::plan))
+            .all()
+            .contextWrite(QueryShape.named("region.streamAll"));
     }
 
     RowsFetchSpec<Region> createQuery(Pageable pageable, Criteria criteria) {
+        return entityManager.createQuery(baseSelect, Region.class, pageable, criteria).map(RowMappingPlan.of(this::plan));
+    }
+
+    private static Select createBaseSelect() {
         List<Expression> columns = RegionSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
-        SelectFromAndJoin selectFrom = Select.builder().select(columns).from(entityTable);
-
-        String select = entityManager.createSelect(selectFrom, Region.class, pageable, criteria);
-        String alias = entityTable.getReferenceName().getReference();
-        String selectWhere = Optional
-            .ofNullable(criteria)
-            .map(
-                crit ->
-                    new StringBuilder(select)
-                        .append(" ")
-                        .append("WHERE")
-                        .append(" ")
-                        .append(alias)
-                        .append(".")
-                        .append(crit.toString())
-                        .toString()
-            )
-            .orElse(select); // TODO remove once https://github.com/spring-projects/spring-data-jdbc/issues/907 will be fixed
-        return db.sql(selectWhere).map(this::process);
+        return Select.builder().select(columns).from(entityTable).build();
     }
 
     @Override
@@ -88,17 +96,23 @@ class RegionRepositoryInternalImpl implements RegionRepositoryInternal {
 
     @Override
     public Mono<Region> findById(Long id) {
-        return createQuery(null, where("id").is(id)).one();
+        return createQuery(null, where("id").is(id)).one().contextWrite(QueryShape.named("region.findById"));
+    }
+
+    @Override
+    public Flux<Region> findAllById(Iterable<Long> ids) {
+        return entityManager
+            .findAllById(ids, criteria -> createQuery(null, criteria).all())
+            .contextWrite(QueryShape.named("region.findAllById"));
     }
 
-    private Region process(Row row, RowMetadata metadata) {
-        Region entity = regionMapper.apply(row, "e");
-        return entity;
+    private Function<Row, Region> plan(RowMetadata metadata) {
+        return regionMapper.plan(metadata, "e");
     }
 
     @Override
     public <S extends Region> Mono<S> insert(S entity) {
-        return entityManager.insert(entity);
+        return entityManager.insert(entity).contextWrite(QueryShape.named("region.insert"));
     }
 
     @Override
@@ -119,19 +133,29 @@ class RegionRepositoryInternalImpl implements RegionRepositoryInternal {
     }
 
     @Override
-    public Mono<Integer> update(Region entity) {
-        //fixme is this the proper way?
-        return r2dbcEntityTemplate.update(entity).thenReturn(1);
+    public <S extends Region> Flux<S> saveAll(Iterable<S> entities) {
+        return saveAll(Flux.fromIterable(entities));
     }
-}
 
-class RegionSqlHelper {
+    @Override
+    public <S extends Region> Flux<S> saveAll(Publisher<S> entityStream) {
+        return entityManager.saveAll(entityStream, this::save).contextWrite(QueryShape.named("region.saveAll"));
+    }
 
-    static List<Expression> getColumns(Table table, String columnPrefix) {
-        List<Expression> columns = new ArrayList<>();
-        columns.add(Column.aliased("id", table, columnPrefix + "_id"));
-        columns.add(Column.aliased("region_name", table, columnPrefix + "_region_name"));
+    @Override
+    public Mono<Integer> update(Region entity) {
+        return entityManager.update(entity).contextWrite(QueryShape.named("region.update"));
+    }
 
-        return columns;
+    @Override
+    public Mono<Region> partialUpdate(Region patch) {
+        return entityManager
+            .partialUpdate(patch, RowMappingPlan.of(metadata -> regionMapper.plan(metadata, EntityManager.ENTITY_ALIAS)))
+            .contextWrite(QueryShape.named("region.partialUpdate"));
+    }
+
+    @Override
+    public Mono<UpsertResult> upsertAll(Publisher<Region> entities) {
+        return entityManager.upsertAll(entities, RegionRepository.NATURAL_KEY).contextWrite(QueryShape.named("region.upsertAll"));
     }
 }
@@ -1,6 +1,14 @@
 package com.mycompany.myapp.repository;
 
 import com.mycompany.myapp.domain.Task;
+import com.mycompany.myapp.service.FullTextQuery;
+import com.mycompany.myapp.service.Include;
+import com.mycompany.myapp.service.KeysetCursor;
+import com.mycompany.myapp.service.SearchCursor;
+import com.mycompany.myapp.service.SearchHit;
+import java.util.List;
+import java.util.Set;
+import org.reactivestreams.Publisher;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
@@ -15,6 +23,16 @@ import reactor.core.publisher.Mono;
 @SuppressWarnings("unused")
 @Repository
 public interface TaskRepository extends R2dbcRepository<Task, Long>, TaskRepositoryInternal {
+    /**
+     * The properties which can be filtered on without the unindexed filters override, since each leads an index.
+     */
+    Set<String> FILTERS = Set.of("id", "title");
+
+    /**
+     * The properties of the full-text search, the PostgreSQL search vector of the tasks is generated from their columns.
+     */
+    List<String> SEARCH_FIELDS = List.of("title", "description");
+
     // just to avoid having unambigous methods
     @Override
     Flux<Task> findAll();
@@ -22,17 +40,36 @@ public interface TaskRepository extends R2dbcRepository<Task, Long>, TaskReposit
     @Override
     Mono<Task> findById(Long id);
 
+    @Override
+    Flux<Task> findAllById(Iterable<Long> ids);
+
     @Override
     <S extends Task> Mono<S> save(S entity);
+
+    @Override
+    <S extends Task> Flux<S> saveAll(Iterable<S> entities);
+
+    @Override
+    <S extends Task> Flux<S> saveAll(Publisher<S> entityStream);
 }
 
 interface TaskRepositoryInternal {
     <S extends Task> Mono<S> insert(S entity);
     <S extends Task> Mono<S> save(S entity);
+    <S extends Task> Flux<S> saveAll(Iterable<S> entities);
+    <S extends Task> Flux<S> saveAll(Publisher<S> entityStream);
     Mono<Integer> update(Task entity);
+    Mono<Task> partialUpdate(Task patch);
 
     Flux<Task> findAll();
     Mono<Task> findById(Long id);
+    Flux<Task> findAllById(Iterable<Long> ids);
     Flux<Task> findAllBy(Pageable pageable);
     Flux<Task> findAllBy(Pageable pageable, Criteria criteria);
+    Flux<Task> findAllAfter(KeysetCursor cursor, int limit, Criteria criteria);
+    Flux<Task> streamAll();
+
+    Flux<SearchHit<Task>> search(FullTextQuery query, SearchCursor cursor, int limit);
+
+    Flux<Task> fetchIncluded(Flux<Task> tasks, Include include);
 }
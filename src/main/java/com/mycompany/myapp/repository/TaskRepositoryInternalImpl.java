@@ -4,23 +4,28 @@ import static org.springframework.data.relational.core.query.Criteria.where;
 import static org.springframework.data.relational.core.query.Query.query;
 
 import com.mycompany.myapp.domain.Task;
+import com.mycompany.myapp.repository.metrics.QueryShape;
+import com.mycompany.myapp.repository.rowmapper.RowMappingPlan;
 import com.mycompany.myapp.repository.rowmapper.TaskRowMapper;
 import com.mycompany.myapp.service.EntityManager;
+import com.mycompany.myapp.service.FullTextQuery;
+import com.mycompany.myapp.service.Include;
+import com.mycompany.myapp.service.KeysetCursor;
+import com.mycompany.myapp.service.SearchCursor;
+import com.mycompany.myapp.service.SearchHit;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Optional;
 import java.util.function.BiFunction;
+import java.util.function.Function;
+import org.reactivestreams.Publisher;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.relational.core.query.Criteria;
-import org.springframework.data.relational.core.sql.Column;
 import org.springframework.data.relational.core.sql.Expression;
 import org.springframework.data.relational.core.sql.Select;
-import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoin;
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.r2dbc.core.RowsFetchSpec;
@@ -39,13 +44,23 @@ class TaskRepositoryInternalImpl implements TaskRepositoryInternal {
 
     private final TaskRowMapper taskMapper;
 
+    private final JobRepository jobRepository;
+
     private static final Table entityTable = Table.aliased("task", EntityManager.ENTITY_ALIAS);
 
-    public TaskRepositoryInternalImpl(R2dbcEntityTemplate template, EntityManager entityManager, TaskRowMapper taskMapper) {
+    private static final Select baseSelect = createBaseSelect();
+
+    public TaskRepositoryInternalImpl(
+        R2dbcEntityTemplate template,
+        EntityManager entityManager,
+        TaskRowMapper taskMapper,
+        JobRepository jobRepository
+    ) {
         this.db = template.getDatabaseClient();
         this.r2dbcEntityTemplate = template;
         this.entityManager = entityManager;
         this.taskMapper = taskMapper;
+        this.jobRepository = jobRepository;
     }
 
     @Override
@@ -55,30 +70,34 @@ class TaskRepositoryInternalImpl implements TaskRepositoryInternal {
 
     @Override
     public Flux<Task> findAllBy(Pageable pageable, Criteria criteria) {
-        return createQuery(pageable, criteria).all();
+        return createQuery(pageable, criteria).all().contextWrite(QueryShape.named("task.findAllBy", pageable));
+    }
+
+    @Override
+    public Flux<Task> findAllAfter(KeysetCursor cursor, int limit, Criteria criteria) {
+        return entityManager
+            .createQuery(baseSelect, Task.class, cursor, limit, criteria)
+            .map(RowMappingPlan.of(this::plan))
+            .all()
+            .contextWrite(QueryShape.named("task.findAllAfter"));
+    }
+
+    @Override
+    public Flux<Task> streamAll() {
+        return entityManager
+            .createStreamingQuery(baseSelect, Task.class)
+            .map(RowMappingPlan.of(this::plan))
+            .all()
+            .contextWrite(QueryShape.named("task.streamAll"));
     }
 
     RowsFetchSpec<Task> createQuery(Pageable pageable, Criteria criteria) {
+        return entityManager.createQuery(baseSelect, Task.class, pageable, criteria).map(RowMappingPlan.of(this::plan));
+    }
+
+    private static Select createBaseSelect() {
         List<Expression> columns = TaskSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
-        SelectFromAndJoin selectFrom = Select.builder().select(columns).from(entityTable);
-
-        String select = entityManager.createSelect(selectFrom, Task.class, pageable, criteria);
-        String alias = entityTable.getReferenceName().getReference();
-        String selectWhere = Optional
-            .ofNullable(criteria)
-            .map(
-                crit ->
-                    new StringBuilder(select)
-                        .append(" ")
-                        .append("WHERE")
-                        .append(" ")
-                        .append(alias)
-                        .append(".")
-                        .append(crit.toString())
-                        .toString()
-            )
-            .orElse(select); // TODO remove once https://github.com/spring-projects/spring-data-jdbc/issues/907 will be fixed
-        return db.sql(selectWhere).map(this::process);
+        return Select.builder().select(columns).from(entityTable).build();
     }
 
     @Override
@@ -88,17 +107,35 @@ class TaskRepositoryInternalImpl implements TaskRepositoryInternal {
 
     @Override
     public Mono<Task> findById(Long id) {
-        return createQuery(null, where("id").is(id)).one();
+        return createQuery(null, where("id").is(id)).one().contextWrite(QueryShape.named("task.findById"));
     }
 
-    private Task process(Row row, RowMetadata metadata) {
-        Task entity = taskMapper.apply(row, "e");
-        return entity;
+    @Override
+    public Flux<Task> findAllById(Iterable<Long> ids) {
+        return entityManager
+            .findAllById(ids, criteria -> createQuery(null, criteria).all())
+            .contextWrite(QueryShape.named("task.findAllById"));
+    }
+
+    @Override
+    public Flux<SearchHit<Task>> search(FullTextQuery query, SearchCursor cursor, int limit) {
+        return entityManager
+            .search(Task.class, TaskRepository.SEARCH_FIELDS, query, cursor, limit, this::findAllById, Task::getId)
+            .contextWrite(QueryShape.named("task.search"));
+    }
+
+    @Override
+    public Flux<Task> fetchIncluded(Flux<Task> tasks, Include include) {
+        return include.has("jobs") ? jobRepository.fetchByTasks(tasks, include.get("jobs")) : tasks;
+    }
+
+    private Function<Row, Task> plan(RowMetadata metadata) {
+        return taskMapper.plan(metadata, "e");
     }
 
     @Override
     public <S extends Task> Mono<S> insert(S entity) {
-        return entityManager.insert(entity);
+        return entityManager.insert(entity).contextWrite(QueryShape.named("task.insert"));
     }
 
     @Override
@@ -119,20 +156,24 @@ class TaskRepositoryInternalImpl implements TaskRepositoryInternal {
     }
 
     @Override
-    public Mono<Integer> update(Task entity) {
-        //fixme is this the proper way?
-        return r2dbcEntityTemplate.update(entity).thenReturn(1);
+    public <S extends Task> Flux<S> saveAll(Iterable<S> entities) {
+        return saveAll(Flux.fromIterable(entities));
     }
-}
 
-class TaskSqlHelper {
+    @Override
+    public <S extends Task> Flux<S> saveAll(Publisher<S> entityStream) {
+        return entityManager.saveAll(entityStream, this::save).contextWrite(QueryShape.named("task.saveAll"));
+    }
 
-    static List<Expression> getColumns(Table table, String columnPrefix) {
-        List<Expression> columns = new ArrayList<>();
-        columns.add(Column.aliased("id", table, columnPrefix + "_id"));
-        columns.add(Column.aliased("title", table, columnPrefix + "_title"));
-        columns.add(Column.aliased("description", table, columnPrefix + "_description"));
+    @Override
+    public Mono<Integer> update(Task entity) {
+        return entityManager.update(entity).contextWrite(QueryShape.named("task.update"));
+    }
 
-        return columns;
+    @Override
+    public Mono<Task> partialUpdate(Task patch) {
+        return entityManager
+            .partialUpdate(patch, RowMappingPlan.of(metadata -> taskMapper.plan(metadata, EntityManager.ENTITY_ALIAS)))
+            .contextWrite(QueryShape.named("task.partialUpdate"));
     }
 }
@@ -0,0 +1,137 @@
+package com.mycompany.myapp.repository.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Wrapped;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+/**
+ * Times the statements of its connections, by {@link QueryShape}: their duration until their rows are all read, the time to their
+ * first row and their number of rows. The statements slower than the threshold are written to the slow-query log, with their SQL
+ * and the types of their bind values.
+ */
+public class QueryMetricsConnectionFactory implements ConnectionFactory, Wrapped<ConnectionFactory>, Disposable {
+
+    public static final String QUERY_METRIC = "repository.query";
+    public static final String FIRST_ROW_METRIC = "repository.query.first.row";
+    public static final String ROWS_METRIC = "repository.query.rows";
+
+    /**
+     * The name of the slow-query log, so that it can be routed to its own appender.
+     */
+    public static final String SLOW_QUERY_LOG = "com.mycompany.myapp.repository.SlowQueries";
+
+    private static final Logger slowQueryLog = LoggerFactory.getLogger(SLOW_QUERY_LOG);
+
+    private static final String SHAPE_TAG = "shape";
+
+    private final ConnectionFactory delegate;
+    private final MeterRegistry registry;
+    private final long slowQueryThreshold;
+
+    private final Map<String, ShapeMeters> meters = new ConcurrentHashMap<>();
+
+    /**
+     * @param delegate the connection factory of the timed connections.
+     * @param registry the registry of the metrics.
+     * @param slowQueryThreshold the duration above which a statement is written to the slow-query log.
+     */
+    public QueryMetricsConnectionFactory(ConnectionFactory delegate, MeterRegistry registry, Duration slowQueryThreshold) {
+        this.delegate = delegate;
+        this.registry = registry;
+        this.slowQueryThreshold = slowQueryThreshold.toNanos();
+    }
+
+    @Override
+    public Mono<Connection> create() {
+        return Mono.from(delegate.create()).map(connection -> new QueryMetricsConnection(connection, this));
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return delegate.getMetadata();
+    }
+
+    @Override
+    public ConnectionFactory unwrap() {
+        return delegate;
+    }
+
+    @Override
+    public void dispose() {
+        if (delegate instanceof Disposable) {
+            ((Disposable) delegate).dispose();
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return delegate instanceof Disposable && ((Disposable) delegate).isDisposed();
+    }
+
+    void record(TimedStatement.Execution execution, long duration, boolean failed) {
+        ShapeMeters shapeMeters = meters.computeIfAbsent(execution.shape, ShapeMeters::new);
+        (failed ? shapeMeters.failed : shapeMeters.succeeded).record(duration, TimeUnit.NANOSECONDS);
+        if (execution.firstRow >= 0) {
+            shapeMeters.firstRow.record(execution.firstRow, TimeUnit.NANOSECONDS);
+        }
+        shapeMeters.rows.record(execution.rows.get());
+        if (duration >= slowQueryThreshold) {
+            slowQueryLog.warn(
+                "{} took {} ms{}, {} rows: {} bound to {}",
+                execution.shape,
+                TimeUnit.NANOSECONDS.toMillis(duration),
+                failed ? " and failed" : "",
+                execution.rows.get(),
+                execution.sql,
+                execution.bindTypes
+            );
+        }
+    }
+
+    private final class ShapeMeters {
+
+        private final Timer succeeded;
+        private final Timer failed;
+        private final Timer firstRow;
+        private final DistributionSummary rows;
+
+        ShapeMeters(String shape) {
+            succeeded = queryTimer(shape, "success");
+            failed = queryTimer(shape, "error");
+            firstRow =
+                Timer
+                    .builder(FIRST_ROW_METRIC)
+                    .description("Time from the execution of a statement to its first row.")
+                    .tag(SHAPE_TAG, shape)
+                    .register(registry);
+            rows =
+                DistributionSummary
+                    .builder(ROWS_METRIC)
+                    .description("Rows read or written by a statement.")
+                    .baseUnit("rows")
+                    .tag(SHAPE_TAG, shape)
+                    .register(registry);
+        }
+
+        private Timer queryTimer(String shape, String outcome) {
+            return Timer
+                .builder(QUERY_METRIC)
+                .description("Time from the execution of a statement until its rows are all read.")
+                .tag(SHAPE_TAG, shape)
+                .tag("outcome", outcome)
+                .register(registry);
+        }
+    }
+}
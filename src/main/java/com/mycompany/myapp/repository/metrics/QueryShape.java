@@ -0,0 +1,72 @@
+package com.mycompany.myapp.repository.metrics;
+
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.springframework.data.domain.Pageable;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+/**
+ * Names the statements of a publisher, through its subscriber context, with a low-cardinality name, such as
+ * {@code employee.findAllBy.sorted}: the {@code shape} tag of their metrics. The innermost name wins, so that the statements of a
+ * nested repository call keep the name of that call.
+ */
+public final class QueryShape {
+
+    private static final String KEY = QueryShape.class.getName();
+
+    private static final Pattern VERB = Pattern.compile("^\\s*(\\w+)");
+    private static final Pattern TABLE = Pattern.compile("\\b(?:FROM|INTO|UPDATE)\\s+\"?(\\w+)", Pattern.CASE_INSENSITIVE);
+
+    private QueryShape() {}
+
+    /**
+     * @param name the name of the statements, usually the entity and the repository method.
+     * @return the function which adds the name to a subscriber context.
+     */
+    public static Function<Context, Context> named(String name) {
+        return context -> context.put(KEY, name);
+    }
+
+    /**
+     * Names the statements of a query which can be sorted, with a {@code .sorted} suffix when it is, since its plan differs.
+     *
+     * @param name the name of the statements, usually the entity and the repository method.
+     * @param pageable the page of the query, maybe {@code null}.
+     * @return the function which adds the name to a subscriber context.
+     */
+    public static Function<Context, Context> named(String name, Pageable pageable) {
+        return named(pageable != null && pageable.getSort().isSorted() ? name + ".sorted" : name);
+    }
+
+    /**
+     * Names the statements of a nested call after the enclosing call, such as {@code employee.findPage.count}.
+     *
+     * @param suffix the suffix of the name of the enclosing call, such as {@code .count}.
+     * @return the function which adds the suffix to the name of a subscriber context, if it has one.
+     */
+    public static Function<Context, Context> suffixed(String suffix) {
+        return context -> context.<String>getOrEmpty(KEY).map(name -> context.put(KEY, name + suffix)).orElse(context);
+    }
+
+    /**
+     * Tells the name of a statement, the name given upstream or otherwise the verb and the table of its SQL, such as
+     * {@code delete.job}.
+     *
+     * @param context the subscriber context of the statement.
+     * @param sql the SQL of the statement.
+     * @return the name of the statement.
+     */
+    static String of(ContextView context, String sql) {
+        return context.<String>getOrEmpty(KEY).orElseGet(() -> fromSql(sql));
+    }
+
+    static String fromSql(String sql) {
+        Matcher verb = VERB.matcher(sql);
+        String name = verb.find() ? verb.group(1).toLowerCase(Locale.ROOT) : "statement";
+        Matcher table = TABLE.matcher(sql);
+        return table.find() ? name + "." + table.group(1).toLowerCase(Locale.ROOT) : name;
+    }
+}
@@ -0,0 +1,186 @@
+package com.mycompany.myapp.repository.metrics;
+
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * A statement which records its execution once its results are all read, or once it fails.
+ */
+class TimedStatement implements Statement {
+
+    private final Statement delegate;
+    private final String sql;
+    private final QueryMetricsConnectionFactory metrics;
+
+    // the types of the bind values of the first binding, by index or name, and the number of bindings
+    private final Map<String, String> bindTypes = new LinkedHashMap<>();
+    private int bindings = 1;
+
+    TimedStatement(Statement delegate, String sql, QueryMetricsConnectionFactory metrics) {
+        this.delegate = delegate;
+        this.sql = sql;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Statement add() {
+        delegate.add();
+        bindings++;
+        return this;
+    }
+
+    @Override
+    public Statement bind(int index, Object value) {
+        delegate.bind(index, value);
+        bindTypes.putIfAbsent(String.valueOf(index), value.getClass().getSimpleName());
+        return this;
+    }
+
+    @Override
+    public Statement bind(String name, Object value) {
+        delegate.bind(name, value);
+        bindTypes.putIfAbsent(name, value.getClass().getSimpleName());
+        return this;
+    }
+
+    @Override
+    public Statement bindNull(int index, Class<?> type) {
+        delegate.bindNull(index, type);
+        bindTypes.putIfAbsent(String.valueOf(index), type.getSimpleName() + "(null)");
+        return this;
+    }
+
+    @Override
+    public Statement bindNull(String name, Class<?> type) {
+        delegate.bindNull(name, type);
+        bindTypes.putIfAbsent(name, type.getSimpleName() + "(null)");
+        return this;
+    }
+
+    @Override
+    public Statement returnGeneratedValues(String... columns) {
+        delegate.returnGeneratedValues(columns);
+        return this;
+    }
+
+    @Override
+    public Statement fetchSize(int rows) {
+        delegate.fetchSize(rows);
+        return this;
+    }
+
+    @Override
+    public Publisher<? extends Result> execute() {
+        String binds = bindings > 1 ? bindTypes + " x " + bindings : bindTypes.toString();
+        return Flux.deferContextual(
+            context -> {
+                Execution execution = new Execution(QueryShape.of(context, sql), sql, binds);
+                return Flux
+                    .from(delegate.execute())
+                    .<Result>map(execution::read)
+                    .doOnError(e -> execution.finish(true))
+                    .doOnComplete(execution::executed)
+                    .doOnCancel(execution::executed);
+            }
+        );
+    }
+
+    final class Execution {
+
+        final String shape;
+        final String sql;
+        final String bindTypes;
+        final AtomicLong rows = new AtomicLong();
+        volatile long firstRow = -1;
+
+        private final long start = System.nanoTime();
+        private final AtomicBoolean recorded = new AtomicBoolean();
+        // the rows of a result are read after the statement has emitted it, maybe after the statement has completed
+        private final AtomicInteger unreadResults = new AtomicInteger();
+        private volatile boolean executed;
+
+        Execution(String shape, String sql, String bindTypes) {
+            this.shape = shape;
+            this.sql = sql;
+            this.bindTypes = bindTypes;
+        }
+
+        Result read(Result result) {
+            unreadResults.incrementAndGet();
+            return new TimedResult(result, this);
+        }
+
+        void executed() {
+            executed = true;
+            if (unreadResults.get() == 0) {
+                finish(false);
+            }
+        }
+
+        void resultRead() {
+            if (unreadResults.decrementAndGet() == 0 && executed) {
+                finish(false);
+            }
+        }
+
+        void row() {
+            if (rows.getAndIncrement() == 0) {
+                firstRow = System.nanoTime() - start;
+            }
+        }
+
+        void finish(boolean failed) {
+            if (recorded.compareAndSet(false, true)) {
+                metrics.record(this, System.nanoTime() - start, failed);
+            }
+        }
+    }
+
+    private static final class TimedResult implements Result {
+
+        private final Result delegate;
+        private final Execution execution;
+
+        TimedResult(Result delegate, Execution execution) {
+            this.delegate = delegate;
+            this.execution = execution;
+        }
+
+        @Override
+        public Publisher<Integer> getRowsUpdated() {
+            return Mono
+                .from(delegate.getRowsUpdated())
+                .doOnNext(execution.rows::addAndGet)
+                .doOnError(e -> execution.finish(true))
+                .doOnSuccess(rowsUpdated -> execution.resultRead())
+                .doOnCancel(execution::resultRead);
+        }
+
+        @Override
+        public <T> Publisher<T> map(BiFunction<Row, RowMetadata, ? extends T> mappingFunction) {
+            return Flux
+                .from(
+                    delegate.<T>map(
+                        (row, metadata) -> {
+                            execution.row();
+                            return mappingFunction.apply(row, metadata);
+                        }
+                    )
+                )
+                .doOnError(e -> execution.finish(true))
+                .doOnComplete(execution::resultRead)
+                .doOnCancel(execution::resultRead);
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Timing of the SQL statements, by query shape, and the slow-query log.
+ */
+package com.mycompany.myapp.repository.metrics;
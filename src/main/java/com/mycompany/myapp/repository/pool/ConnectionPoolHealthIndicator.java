@@ -0,0 +1,55 @@
+package com.mycompany.myapp.repository.pool;
+
+import java.time.Duration;
+import org.springframework.boot.actuate.health.AbstractReactiveHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reports the connection pool as {@link #DEGRADED} once the acquisitions waiting for a connection have stayed above the threshold for
+ * the saturation period, with the sizes of the pool.
+ */
+public class ConnectionPoolHealthIndicator extends AbstractReactiveHealthIndicator {
+
+    /**
+     * The requests still get their connections, but they wait for them.
+     */
+    public static final Status DEGRADED = new Status("DEGRADED", "Connection acquisitions have been pending above the threshold");
+
+    private final MeteredConnectionPool pool;
+    private final Duration saturationPeriod;
+
+    /**
+     * @param pool the pool.
+     * @param saturationPeriod how long the pending acquisitions stay above the threshold before the pool is degraded.
+     */
+    public ConnectionPoolHealthIndicator(MeteredConnectionPool pool, Duration saturationPeriod) {
+        super("Connection pool health check failed");
+        this.pool = pool;
+        this.saturationPeriod = saturationPeriod;
+    }
+
+    @Override
+    protected Mono<Health> doHealthCheck(Health.Builder builder) {
+        return Mono.fromSupplier(
+            () -> {
+                pool
+                    .getMetrics()
+                    .ifPresent(
+                        metrics ->
+                            builder
+                                .withDetail("acquired", metrics.acquiredSize())
+                                .withDetail("idle", metrics.idleSize())
+                                .withDetail("pending", metrics.pendingAcquireSize())
+                                .withDetail("max", metrics.getMaxAllocatedSize())
+                    );
+                Duration saturation = pool.getSaturation();
+                if (saturation.isZero() || saturation.compareTo(saturationPeriod) < 0) {
+                    return builder.up().build();
+                }
+                return builder.status(DEGRADED).withDetail("saturatedFor", saturation.toString()).build();
+            }
+        );
+    }
+}
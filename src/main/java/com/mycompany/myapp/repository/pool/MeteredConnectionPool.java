@@ -0,0 +1,112 @@
+package com.mycompany.myapp.repository.pool;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.PoolMetrics;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Wrapped;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+/**
+ * A {@link ConnectionPool} which times the acquisition of its connections, and tells for how long the acquisitions waiting for a
+ * connection have stayed above a threshold: how long the pool has been saturated.
+ */
+public class MeteredConnectionPool implements ConnectionFactory, Wrapped<ConnectionFactory>, Disposable {
+
+    public static final String ACQUIRE_METRIC = "r2dbc.pool.acquire";
+
+    private final ConnectionPool pool;
+    private final int saturationThreshold;
+    private final MeterRegistry registry;
+    private final Timer acquired;
+    private final Timer failed;
+
+    // when the pending acquisitions went above the threshold, as a System.nanoTime(), null while they are below it
+    private final AtomicReference<Long> saturatedSince = new AtomicReference<>();
+
+    /**
+     * @param pool the pool.
+     * @param name the name of the pool, the {@code name} tag of its metrics.
+     * @param registry the registry of the acquisition timer.
+     * @param saturationThreshold the number of pending acquisitions above which the pool is saturated.
+     */
+    public MeteredConnectionPool(ConnectionPool pool, String name, MeterRegistry registry, int saturationThreshold) {
+        this.pool = pool;
+        this.saturationThreshold = saturationThreshold;
+        this.registry = registry;
+        this.acquired = acquireTimer(name, "success", registry);
+        this.failed = acquireTimer(name, "error", registry);
+    }
+
+    private static Timer acquireTimer(String name, String outcome, MeterRegistry registry) {
+        return Timer
+            .builder(ACQUIRE_METRIC)
+            .description("Time to acquire a connection from the pool, waiting for a free one included.")
+            .tag("name", name)
+            .tag("outcome", outcome)
+            .register(registry);
+    }
+
+    @Override
+    public Mono<Connection> create() {
+        return Mono.defer(
+            () -> {
+                checkSaturation();
+                Timer.Sample sample = Timer.start(registry);
+                return pool.create().doOnSuccess(connection -> sample.stop(acquired)).doOnError(e -> sample.stop(failed));
+            }
+        );
+    }
+
+    /**
+     * @return the sizes of the pool, empty if the pool doesn't tell them.
+     */
+    public Optional<PoolMetrics> getMetrics() {
+        return pool.getMetrics();
+    }
+
+    /**
+     * @return for how long the pending acquisitions have stayed above the threshold, {@link Duration#ZERO} if they are below it.
+     */
+    public Duration getSaturation() {
+        checkSaturation();
+        Long since = saturatedSince.get();
+        return since == null ? Duration.ZERO : Duration.ofNanos(System.nanoTime() - since);
+    }
+
+    private void checkSaturation() {
+        int pending = pool.getMetrics().map(PoolMetrics::pendingAcquireSize).orElse(0);
+        if (pending > saturationThreshold) {
+            saturatedSince.compareAndSet(null, System.nanoTime());
+        } else {
+            saturatedSince.set(null);
+        }
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return pool.getMetadata();
+    }
+
+    @Override
+    public ConnectionFactory unwrap() {
+        return pool;
+    }
+
+    @Override
+    public void dispose() {
+        pool.dispose();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return pool.isDisposed();
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Instrumentation of the database connection pool.
+ */
+package com.mycompany.myapp.repository.pool;
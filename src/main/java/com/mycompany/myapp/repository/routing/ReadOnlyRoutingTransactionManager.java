@@ -0,0 +1,29 @@
+package com.mycompany.myapp.repository.routing;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+
+/**
+ * A {@link R2dbcTransactionManager} which tells whether the transaction is read-only before it obtains its connection, so that the
+ * {@link ReplicaRoutingConnectionFactory} can route it.
+ */
+public class ReadOnlyRoutingTransactionManager extends R2dbcTransactionManager {
+
+    public ReadOnlyRoutingTransactionManager(ConnectionFactory connectionFactory) {
+        super(connectionFactory);
+    }
+
+    @Override
+    protected Mono<Void> doBegin(
+        TransactionSynchronizationManager synchronizationManager,
+        Object transaction,
+        TransactionDefinition definition
+    ) {
+        // otherwise only set once the transaction has begun, with its connection
+        synchronizationManager.setCurrentTransactionReadOnly(definition.isReadOnly());
+        return super.doBegin(synchronizationManager, transaction, definition);
+    }
+}
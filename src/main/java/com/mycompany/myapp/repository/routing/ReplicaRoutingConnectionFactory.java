@@ -0,0 +1,236 @@
+package com.mycompany.myapp.repository.routing;
+
+import com.mycompany.myapp.security.SecurityUtils;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Wrapped;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+/**
+ * Routes the connections of the read-only transactions, and of the reads of GET requests outside of any transaction, to the replicas,
+ * and all the others to the primary.
+ * <p>
+ * A read goes to the replica with the fewest connections in use. A replica whose replication lag goes above the maximum lag is left
+ * aside until it catches up. The reads of a user who has just written go to the primary for a while, so that users read their own
+ * writes.
+ */
+public class ReplicaRoutingConnectionFactory implements ConnectionFactory, Wrapped<ConnectionFactory> {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingConnectionFactory.class);
+
+    private static final String READ_ONLY_REQUEST = ReplicaRoutingConnectionFactory.class.getName() + ".READ_ONLY_REQUEST";
+
+    private static final String ANONYMOUS = "";
+
+    private final ConnectionFactory primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final String lagQuery;
+    private final Duration maxLag;
+    private final Duration readYourWritesWindow;
+
+    // the last write of each user, as a System.nanoTime()
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    private Disposable lagChecks;
+
+    /**
+     * @param primary the connection factory of the primary.
+     * @param replicas the connection factories of the replicas.
+     * @param lagQuery the query which returns the replication lag of a replica in seconds, {@code null} to never leave a replica aside.
+     * @param maxLag the replication lag above which a replica is left aside.
+     * @param readYourWritesWindow how long the reads of a user who has written go to the primary.
+     */
+    public ReplicaRoutingConnectionFactory(
+        ConnectionFactory primary,
+        List<ConnectionFactory> replicas,
+        String lagQuery,
+        Duration maxLag,
+        Duration readYourWritesWindow
+    ) {
+        this.primary = primary;
+        for (int i = 0; i < replicas.size(); i++) {
+            this.replicas.add(new Replica("replica-" + (i + 1), replicas.get(i)));
+        }
+        this.lagQuery = lagQuery;
+        this.maxLag = maxLag;
+        this.readYourWritesWindow = readYourWritesWindow;
+    }
+
+    /**
+     * Marks the connections created downstream, outside of any transaction, as read-only: the reads of a GET request.
+     *
+     * @return the function which adds the mark to a subscriber context.
+     */
+    public static Function<Context, Context> readOnlyRequest() {
+        return context -> context.put(READ_ONLY_REQUEST, Boolean.TRUE);
+    }
+
+    /**
+     * Starts checking the replication lag of the replicas, at the given interval.
+     *
+     * @param lagCheckInterval the interval between two checks.
+     */
+    public void start(Duration lagCheckInterval) {
+        lagChecks =
+            Flux.interval(Duration.ZERO, lagCheckInterval).onBackpressureDrop().concatMap(tick -> checkReplicationLag()).subscribe();
+    }
+
+    /**
+     * Stops checking the replication lag, and closes the connection factories of the replicas.
+     */
+    public void stop() {
+        if (lagChecks != null) {
+            lagChecks.dispose();
+        }
+        for (Replica replica : replicas) {
+            if (replica.factory instanceof Disposable) {
+                ((Disposable) replica.factory).dispose();
+            }
+        }
+    }
+
+    @Override
+    public Mono<Connection> create() {
+        return isReadOnly()
+            .zipWith(SecurityUtils.getCurrentUserLogin().defaultIfEmpty(ANONYMOUS))
+            .flatMap(route -> route.getT1() ? read(route.getT2()) : write(route.getT2()));
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return primary.getMetadata();
+    }
+
+    @Override
+    public ConnectionFactory unwrap() {
+        return primary;
+    }
+
+    /**
+     * Checks the replication lag of every replica, and leaves aside the ones which lag too much, or can't tell.
+     *
+     * @return the completion of the check.
+     */
+    public Mono<Void> checkReplicationLag() {
+        long now = System.nanoTime();
+        lastWrites.values().removeIf(lastWrite -> now - lastWrite > readYourWritesWindow.toNanos());
+        if (lagQuery == null) {
+            return Mono.empty();
+        }
+        return Flux
+            .fromIterable(replicas)
+            .flatMap(
+                replica ->
+                    readLag(replica)
+                        .map(lag -> !lag.isPresent() || lag.get() <= maxLag.toMillis() / 1000.0)
+                        .onErrorResume(
+                            e -> {
+                                log.warn("Could not read the replication lag of {}: {}", replica.name, e.getMessage());
+                                return Mono.just(false);
+                            }
+                        )
+                        .doOnNext(replica::setInSync)
+            )
+            .then();
+    }
+
+    private Mono<Optional<Double>> readLag(Replica replica) {
+        return Mono.usingWhen(
+            replica.factory.create(),
+            connection ->
+                Flux
+                    .from(connection.createStatement(lagQuery).execute())
+                    .flatMap(
+                        result -> result.map((row, metadata) -> Optional.ofNullable(row.get(0, Number.class)).map(Number::doubleValue))
+                    )
+                    .next(),
+            Connection::close
+        );
+    }
+
+    private Mono<Boolean> isReadOnly() {
+        return TransactionSynchronizationManager
+            .forCurrentTransaction()
+            .map(TransactionSynchronizationManager::isCurrentTransactionReadOnly)
+            .onErrorResume(
+                NoTransactionException.class,
+                e -> Mono.deferContextual(context -> Mono.just(context.getOrDefault(READ_ONLY_REQUEST, Boolean.FALSE)))
+            );
+    }
+
+    private Mono<Connection> write(String user) {
+        if (!ANONYMOUS.equals(user)) {
+            lastWrites.put(user, System.nanoTime());
+        }
+        return Mono.from(primary.create());
+    }
+
+    private Mono<Connection> read(String user) {
+        Long lastWrite = lastWrites.get(user);
+        if (lastWrite != null && System.nanoTime() - lastWrite <= readYourWritesWindow.toNanos()) {
+            return Mono.from(primary.create());
+        }
+        Replica replica = leastBusyReplica();
+        if (replica == null) {
+            return Mono.from(primary.create());
+        }
+        replica.outstanding.incrementAndGet();
+        return Mono
+            .from(replica.factory.create())
+            .<Connection>map(connection -> new ReplicaConnection(connection, replica.outstanding))
+            .doOnError(e -> replica.outstanding.decrementAndGet())
+            .doOnCancel(replica.outstanding::decrementAndGet);
+    }
+
+    private Replica leastBusyReplica() {
+        // the scan starts at a different replica each time, so that idle replicas share the reads
+        int start = Math.floorMod(nextReplica.getAndIncrement(), Math.max(replicas.size(), 1));
+        Replica leastBusy = null;
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.inSync && (leastBusy == null || replica.outstanding.get() < leastBusy.outstanding.get())) {
+                leastBusy = replica;
+            }
+        }
+        return leastBusy;
+    }
+
+    private static final class Replica {
+
+        private final String name;
+        private final ConnectionFactory factory;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private volatile boolean inSync = true;
+
+        Replica(String name, ConnectionFactory factory) {
+            this.name = name;
+            this.factory = factory;
+        }
+
+        void setInSync(boolean inSync) {
+            if (this.inSync && !inSync) {
+                log.warn("Leaving {} aside, its replication lag is above the maximum", name);
+            } else if (!this.inSync && inSync) {
+                log.info("Routing reads to {} again, it caught up", name);
+            }
+            this.inSync = inSync;
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Routing of the connections between the primary database and its read replicas.
+ */
+package com.mycompany.myapp.repository.routing;
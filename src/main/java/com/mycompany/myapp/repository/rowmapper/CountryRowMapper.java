@@ -1,33 +0,0 @@
-package com.mycompany.myapp.repository.rowmapper;
-
-import com.mycompany.myapp.domain.Country;
-import com.mycompany.myapp.service.ColumnConverter;
-import io.r2dbc.spi.Row;
-import java.util.function.BiFunction;
-import org.springframework.stereotype.Service;
-
-/**
- * Converter between {@link Row} to {@link Country}, with proper type conversions.
- */
-@Service
-public class CountryRowMapper implements BiFunction<Row, String, Country> {
-
-    private final ColumnConverter converter;
-
-    public CountryRowMapper(ColumnConverter converter) {
-        this.converter = converter;
-    }
-
-    /**
-     * Take a {@link Row} and a column prefix, and extract all the fields.
-     * @return the {@link Country} stored in the database.
-     */
-    @Override
-    public Country apply(Row row, String prefix) {
-        Country entity = new Country();
-        entity.setId(converter.fromRow(row, prefix + "_id", Long.class));
-        entity.setCountryName(converter.fromRow(row, prefix + "_country_name", String.class));
-        entity.setRegionId(converter.fromRow(row, prefix + "_region_id", Long.class));
-        return entity;
-    }
-}
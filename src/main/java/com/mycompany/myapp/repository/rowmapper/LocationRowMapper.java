@@ -1,36 +0,0 @@
-package com.mycompany.myapp.repository.rowmapper;
-
-import com.mycompany.myapp.domain.Location;
-import com.mycompany.myapp.service.ColumnConverter;
-import io.r2dbc.spi.Row;
-import java.util.function.BiFunction;
-import org.springframework.stereotype.Service;
-
-/**
- * Converter between {@link Row} to {@link Location}, with proper type conversions.
- */
-@Service
-public class LocationRowMapper implements BiFunction<Row, String, Location> {
-
-    private final ColumnConverter converter;
-
-    public LocationRowMapper(ColumnConverter converter) {
-        this.converter = converter;
-    }
-
-    /**
-     * Take a {@link Row} and a column prefix, and extract all the fields.
-     * @return the {@link Location} stored in the database.
-     */
-    @Override
-    public Location apply(Row row, String prefix) {
-        Location entity = new Location();
-        entity.setId(converter.fromRow(row, prefix + "_id", Long.class));
-        entity.setStreetAddress(converter.fromRow(row, prefix + "_street_address", String.class));
-        entity.setPostalCode(converter.fromRow(row, prefix + "_postal_code", String.class));
-        entity.setCity(converter.fromRow(row, prefix + "_city", String.class));
-        entity.setStateProvince(converter.fromRow(row, prefix + "_state_province", String.class));
-        entity.setCountryId(converter.fromRow(row, prefix + "_country_id", Long.class));
-        return entity;
-    }
-}
@@ -0,0 +1,54 @@
+package com.mycompany.myapp.repository.rowmapper;
+
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Maps the rows of a result set with a plan built from its {@link RowMetadata}: the plan is built when the first row arrives, and reused
+ * for the following rows, which share the same metadata.
+ *
+ * @param <T> the type of the mapped rows.
+ */
+public final class RowMappingPlan<T> implements BiFunction<Row, RowMetadata, T> {
+
+    private final Function<RowMetadata, Function<Row, T>> planner;
+
+    private volatile Plan<T> plan;
+
+    private RowMappingPlan(Function<RowMetadata, Function<Row, T>> planner) {
+        this.planner = planner;
+    }
+
+    /**
+     * Creates a mapping function for one query.
+     * @param planner builds the mapping of the rows of a result set, from its metadata.
+     * @param <T> the type of the mapped rows.
+     * @return the mapping function, to pass to {@link org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec#map(BiFunction)}.
+     */
+    public static <T> RowMappingPlan<T> of(Function<RowMetadata, Function<Row, T>> planner) {
+        return new RowMappingPlan<>(planner);
+    }
+
+    @Override
+    public T apply(Row row, RowMetadata metadata) {
+        Plan<T> current = plan;
+        if (current == null || current.metadata != metadata) {
+            current = new Plan<>(metadata, planner.apply(metadata));
+            plan = current;
+        }
+        return current.mapping.apply(row);
+    }
+
+    private static final class Plan<T> {
+
+        private final RowMetadata metadata;
+        private final Function<Row, T> mapping;
+
+        Plan(RowMetadata metadata, Function<Row, T> mapping) {
+            this.metadata = metadata;
+            this.mapping = mapping;
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.mycompany.myapp.repository.rowmapper.processor;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+/**
+ * Generates, for each {@code @Table} domain class, its row mapper in {@code repository.rowmapper} and its column list in
+ * {@code repository}, both sibling packages of the domain package.
+ * <p>
+ * The columns are the fields of the class, in declaration order, except the static, transient and {@code @Transient} ones. A field
+ * is read from the column of its {@code @Column} annotation, or from its name in snake case, and written through its setter.
+ * <p>
+ * The processor is compiled, then run on the sources, before the main compilation: see the {@code maven-compiler-plugin} executions of
+ * the {@code pom.xml}.
+ */
+@SupportedAnnotationTypes(RowMapperProcessor.TABLE_ANNOTATION)
+public class RowMapperProcessor extends AbstractProcessor {
+
+    static final String TABLE_ANNOTATION = "org.springframework.data.relational.core.mapping.Table";
+    private static final String COLUMN_ANNOTATION = "org.springframework.data.relational.core.mapping.Column";
+    private static final String TRANSIENT_ANNOTATION = "org.springframework.data.annotation.Transient";
+    private static final Set<String> RESERVED_NAMES = Set.of("converter", "metadata", "prefix", "row", "entity");
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (TypeElement entity : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(annotation))) {
+                List<ColumnField> columns = getColumns(entity);
+                if (columns != null) {
+                    String basePackage = getBasePackage(entity);
+                    writeRowMapper(entity, basePackage, columns);
+                    writeSqlHelper(entity, basePackage, columns);
+                }
+            }
+        }
+        return false;
+    }
+
+    private List<ColumnField> getColumns(TypeElement entity) {
+        List<ColumnField> columns = new ArrayList<>();
+        List<ExecutableElement> methods = ElementFilter.methodsIn(entity.getEnclosedElements());
+        boolean valid = true;
+        for (VariableElement field : ElementFilter.fieldsIn(entity.getEnclosedElements())) {
+            if (
+                field.getModifiers().contains(Modifier.STATIC) ||
+                field.getModifiers().contains(Modifier.TRANSIENT) ||
+                getAnnotation(field, TRANSIENT_ANNOTATION) != null
+            ) {
+                continue;
+            }
+            String name = field.getSimpleName().toString();
+            String setter = "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+            boolean hasSetter = methods
+                .stream()
+                .anyMatch(method -> method.getSimpleName().contentEquals(setter) && method.getParameters().size() == 1);
+            TypeMirror type = field.asType();
+            if (type.getKind().isPrimitive()) {
+                type = processingEnv.getTypeUtils().boxedClass((PrimitiveType) type).asType();
+            }
+            if (!hasSetter || type.getKind() != TypeKind.DECLARED || !((DeclaredType) type).getTypeArguments().isEmpty()) {
+                processingEnv
+                    .getMessager()
+                    .printMessage(Diagnostic.Kind.ERROR, "A column needs a setter, and a type without type arguments", field);
+                valid = false;
+                continue;
+            }
+            String typeName = ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString();
+            String variable = RESERVED_NAMES.contains(name) ? name + "Column" : name;
+            columns.add(new ColumnField(getColumnName(field), name, typeName, setter, variable));
+        }
+        return valid ? columns : null;
+    }
+
+    private String getColumnName(VariableElement field) {
+        AnnotationMirror column = getAnnotation(field, COLUMN_ANNOTATION);
+        if (column != null) {
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value : column.getElementValues().entrySet()) {
+                if (value.getKey().getSimpleName().contentEquals("value")) {
+                    return value.getValue().getValue().toString();
+                }
+            }
+        }
+        // the default naming strategy of Spring Data
+        return field.getSimpleName().toString().replaceAll("([a-z0-9])([A-Z])", "$1_$2").toLowerCase(Locale.ROOT);
+    }
+
+    private static AnnotationMirror getAnnotation(Element element, String annotationType) {
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            if (((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotationType)) {
+                return annotation;
+            }
+        }
+        return null;
+    }
+
+    private String getBasePackage(TypeElement entity) {
+        PackageElement domainPackage = processingEnv.getElementUtils().getPackageOf(entity);
+        String name = domainPackage.getQualifiedName().toString();
+        int lastDot = name.lastIndexOf('.');
+        return lastDot < 0 ? "" : name.substring(0, lastDot + 1);
+    }
+
+    private void writeRowMapper(TypeElement entity, String basePackage, List<ColumnField> columns) {
+        String entityName = entity.getSimpleName().toString();
+        String entityType = entity.getQualifiedName().toString();
+        String mapperName = entityName + "RowMapper";
+        try (PrintWriter out = createSourceFile(basePackage + "repository.rowmapper", mapperName, entity)) {
+            out.println("package " + basePackage + "repository.rowmapper;");
+            out.println();
+            out.println("import " + basePackage + "service.ColumnConverter;");
+            out.println("import io.r2dbc.spi.Row;");
+            out.println("import io.r2dbc.spi.RowMetadata;");
+            out.println("import java.util.function.Function;");
+            out.println("import javax.annotation.processing.Generated;");
+            out.println("import org.springframework.stereotype.Service;");
+            out.println();
+            out.println("/**");
+            out.println(" * Converter between {@link Row} to {@link " + entityType + "}, with proper type conversions.");
+            out.println(" */");
+            out.println("@Generated(\"" + RowMapperProcessor.class.getName() + "\")");
+            out.println("@Service");
+            out.println("public class " + mapperName + " {");
+            out.println();
+            out.println("    private final ColumnConverter converter;");
+            out.println();
+            out.println("    public " + mapperName + "(ColumnConverter converter) {");
+            out.println("        this.converter = converter;");
+            out.println("    }");
+            out.println();
+            out.println("    /**");
+            out.println(
+                "     * Take the {@link RowMetadata} of a result set and a column prefix, and resolve the columns of all the fields once."
+            );
+            out.println("     * The fields whose column isn't selected are left null.");
+            out.println(
+                "     * @return the mapping of a {@link Row} of the result set to the {@link " + entityType + "} stored in the database."
+            );
+            out.println("     */");
+            out.println("    public Function<Row, " + entityType + "> plan(RowMetadata metadata, String prefix) {");
+            for (ColumnField column : columns) {
+                out.println(
+                    "        Function<Row, " +
+                    column.type +
+                    "> " +
+                    column.field +
+                    " = converter.optionalColumnReader(metadata, prefix + \"_" +
+                    column.name +
+                    "\", " +
+                    column.type +
+                    ".class);"
+                );
+            }
+            out.println("        return row -> {");
+            out.println("            " + entityType + " entity = new " + entityType + "();");
+            for (ColumnField column : columns) {
+                out.println("            if (" + column.field + " != null) {");
+                out.println("                entity." + column.setter + "(" + column.field + ".apply(row));");
+                out.println("            }");
+            }
+            out.println("            return entity;");
+            out.println("        };");
+            out.println("    }");
+            out.println("}");
+        }
+    }
+
+    private void writeSqlHelper(TypeElement entity, String basePackage, List<ColumnField> columns) {
+        String helperName = entity.getSimpleName() + "SqlHelper";
+        try (PrintWriter out = createSourceFile(basePackage + "repository", helperName, entity)) {
+            out.println("package " + basePackage + "repository;");
+            out.println();
+            out.println("import java.util.ArrayList;");
+            out.println("import java.util.Collection;");
+            out.println("import java.util.Collections;");
+            out.println("import java.util.LinkedHashMap;");
+            out.println("import java.util.List;");
+            out.println("import java.util.Map;");
+            out.println("import javax.annotation.processing.Generated;");
+            out.println("import org.springframework.data.relational.core.sql.Column;");
+            out.println("import org.springframework.data.relational.core.sql.Expression;");
+            out.println("import org.springframework.data.relational.core.sql.Table;");
+            out.println();
+            out.println("/**");
+            out.println(" * The columns of {@link " + entity.getQualifiedName() + "}.");
+            out.println(" */");
+            out.println("@Generated(\"" + RowMapperProcessor.class.getName() + "\")");
+            out.println("class " + helperName + " {");
+            out.println();
+            out.println("    static final List<String> COLUMNS = List.of(");
+            for (int i = 0; i < columns.size(); i++) {
+                out.println("        \"" + columns.get(i).name + "\"" + (i < columns.size() - 1 ? "," : ""));
+            }
+            out.println("    );");
+            out.println();
+            out.println("    /**");
+            out.println("     * The columns, keyed by the name of their property.");
+            out.println("     */");
+            out.println("    static final Map<String, String> PROPERTY_COLUMNS;");
+            out.println();
+            out.println("    static {");
+            out.println("        Map<String, String> propertyColumns = new LinkedHashMap<>();");
+            for (ColumnField column : columns) {
+                out.println("        propertyColumns.put(\"" + column.property + "\", \"" + column.name + "\");");
+            }
+            out.println("        PROPERTY_COLUMNS = Collections.unmodifiableMap(propertyColumns);");
+            out.println("    }");
+            out.println();
+            out.println("    static List<Expression> getColumns(Table table, String columnPrefix) {");
+            out.println("        List<Expression> columns = new ArrayList<>(COLUMNS.size());");
+            out.println("        for (String column : COLUMNS) {");
+            out.println("            columns.add(Column.aliased(column, table, columnPrefix + \"_\" + column));");
+            out.println("        }");
+            out.println("        return columns;");
+            out.println("    }");
+            out.println();
+            out.println("    /**");
+            out.println("     * The columns of some properties only, in the order of {@link #COLUMNS}.");
+            out.println("     */");
+            out.println("    static List<Expression> getColumns(Table table, String columnPrefix, Collection<String> properties) {");
+            out.println("        List<Expression> columns = new ArrayList<>(properties.size());");
+            out.println("        for (Map.Entry<String, String> column : PROPERTY_COLUMNS.entrySet()) {");
+            out.println("            if (properties.contains(column.getKey())) {");
+            out.println("                columns.add(Column.aliased(column.getValue(), table, columnPrefix + \"_\" + column.getValue()));");
+            out.println("            }");
+            out.println("        }");
+            out.println("        return columns;");
+            out.println("    }");
+            out.println("}");
+        }
+    }
+
+    private PrintWriter createSourceFile(String packageName, String simpleName, TypeElement origin) {
+        try {
+            return new PrintWriter(processingEnv.getFiler().createSourceFile(packageName + "." + simpleName, origin).openWriter());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class ColumnField {
+
+        private final String name;
+        private final String property;
+        private final String type;
+        private final String setter;
+        private final String field;
+
+        ColumnField(String name, String property, String type, String setter, String field) {
+            this.name = name;
+            this.property = property;
+            this.type = type;
+            this.setter = setter;
+            this.field = field;
+        }
+    }
+}
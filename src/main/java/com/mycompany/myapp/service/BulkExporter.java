@@ -0,0 +1,91 @@
+package com.mycompany.myapp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+import org.springframework.data.r2dbc.convert.R2dbcConverter;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.mapping.OutboundRow;
+import org.springframework.data.relational.core.mapping.RelationalPersistentProperty;
+import org.springframework.data.relational.core.sql.SqlIdentifier;
+import org.springframework.r2dbc.core.Parameter;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+/**
+ * Renders streamed entities as the lines of a {@link BulkFormat}, one entity at a time, so an export never holds more than a line.
+ * The CSV columns are the columns of the table, with the values written to the database, which {@link BulkImporter} reads back.
+ */
+@Service
+public class BulkExporter {
+
+    private static final String LINE_SEPARATOR = "\n";
+
+    private final R2dbcConverter converter;
+    private final ObjectMapper objectMapper;
+
+    public BulkExporter(R2dbcEntityTemplate r2dbcEntityTemplate, ObjectMapper objectMapper) {
+        this.converter = r2dbcEntityTemplate.getConverter();
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Renders the entities as lines, each one terminated by a new line. In CSV, the header comes first.
+     * @param entities the entities to export.
+     * @param format the format of the lines.
+     * @param entityType the type of the exported entities.
+     * @param <T> the type of the exported entities.
+     * @return the lines.
+     */
+    public <T> Flux<String> export(Flux<T> entities, BulkFormat format, Class<T> entityType) {
+        if (format == BulkFormat.NDJSON) {
+            return entities.handle(
+                (entity, sink) -> {
+                    try {
+                        sink.next(objectMapper.writeValueAsString(entity) + LINE_SEPARATOR);
+                    } catch (JsonProcessingException e) {
+                        sink.error(e);
+                    }
+                }
+            );
+        }
+        List<SqlIdentifier> columns = new ArrayList<>();
+        for (RelationalPersistentProperty property : converter.getMappingContext().getRequiredPersistentEntity(entityType)) {
+            columns.add(property.getColumnName());
+        }
+        String header = columns.stream().map(SqlIdentifier::getReference).collect(csvJoining());
+        return entities
+            .map(
+                entity -> {
+                    OutboundRow row = new OutboundRow();
+                    converter.write(entity, row);
+                    return columns.stream().map(column -> toCsvValue(row.get(column))).collect(csvJoining());
+                }
+            )
+            .startWith(header);
+    }
+
+    private static Collector<CharSequence, ?, String> csvJoining() {
+        return Collectors.joining(String.valueOf(BulkFormat.CSV_SEPARATOR), "", LINE_SEPARATOR);
+    }
+
+    private static String toCsvValue(Parameter parameter) {
+        if (parameter == null || !parameter.hasValue()) {
+            return "";
+        }
+        String value = String.valueOf(parameter.getValue());
+        String quote = String.valueOf(BulkFormat.CSV_QUOTE);
+        if (
+            value.indexOf(BulkFormat.CSV_SEPARATOR) < 0 &&
+            !value.contains(quote) &&
+            !value.contains(LINE_SEPARATOR) &&
+            !value.contains("\r")
+        ) {
+            return value;
+        }
+        return quote + value.replace(quote, quote + quote) + quote;
+    }
+}
@@ -0,0 +1,38 @@
+package com.mycompany.myapp.service;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Line based formats of the bulk imports and exports: NDJSON, one entity per line in the JSON of the REST API, or CSV, a header with
+ * the column names then {@code ;} separated values, the layout of the Liquibase fake-data files.
+ */
+public enum BulkFormat {
+    NDJSON(MediaType.APPLICATION_NDJSON),
+    CSV(MediaType.valueOf(BulkFormat.TEXT_CSV_VALUE));
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    public static final MediaType TEXT_CSV = MediaType.valueOf(TEXT_CSV_VALUE);
+
+    static final char CSV_SEPARATOR = ';';
+
+    static final char CSV_QUOTE = '"';
+
+    private final MediaType mediaType;
+
+    BulkFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * @param contentType the content type of a request body.
+     * @return CSV for {@code text/csv}, NDJSON otherwise.
+     */
+    public static BulkFormat of(MediaType contentType) {
+        return TEXT_CSV.isCompatibleWith(contentType) ? CSV : NDJSON;
+    }
+}
@@ -0,0 +1,405 @@
+package com.mycompany.myapp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.myapp.config.ApplicationProperties;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.StringDecoder;
+import org.springframework.core.convert.ConversionException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.data.mapping.PersistentPropertyAccessor;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.mapping.RelationalPersistentEntity;
+import org.springframework.data.relational.core.mapping.RelationalPersistentProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+/**
+ * Imports entities from a streamed request body, in one of the {@link BulkFormat}s.
+ * <p>
+ * The body is split into lines as it arrives, or into CSV records, whose quoted values can span lines, and they are inserted in
+ * batches of {@code application.persistence.batch-size}, one batch at a time, each in its own transaction: the body is read only as
+ * fast as the database accepts the rows, and at most one batch is held in memory. Ids are always generated; lines which can't be
+ * parsed are skipped and reported with their batch.
+ */
+@Service
+public class BulkImporter {
+
+    private final Logger log = LoggerFactory.getLogger(BulkImporter.class);
+
+    private final EntityManager entityManager;
+    private final R2dbcEntityTemplate r2dbcEntityTemplate;
+    private final ColumnConverter columnConverter;
+    private final ObjectMapper objectMapper;
+    private final TransactionalOperator transactionalOperator;
+    private final int batchSize;
+    private final StringDecoder lineDecoder = StringDecoder.allMimeTypes();
+    // the line breaks of the quoted CSV values are kept
+    private final StringDecoder csvLineDecoder = StringDecoder.allMimeTypes(StringDecoder.DEFAULT_DELIMITERS, false);
+
+    public BulkImporter(
+        EntityManager entityManager,
+        R2dbcEntityTemplate r2dbcEntityTemplate,
+        ColumnConverter columnConverter,
+        ObjectMapper objectMapper,
+        ReactiveTransactionManager transactionManager,
+        ApplicationProperties applicationProperties
+    ) {
+        this.entityManager = entityManager;
+        this.r2dbcEntityTemplate = r2dbcEntityTemplate;
+        this.columnConverter = columnConverter;
+        this.objectMapper = objectMapper;
+        this.transactionalOperator = TransactionalOperator.create(transactionManager);
+        this.batchSize = applicationProperties.getPersistence().getBatchSize();
+    }
+
+    /**
+     * Imports the entities of the given body.
+     * @param body the request body.
+     * @param format the format of the body.
+     * @param entityType the type of the imported entities.
+     * @param <T> the type of the imported entities.
+     * @return the progress, one element per batch.
+     */
+    public <T> Flux<ImportProgress> importEntities(Flux<DataBuffer> body, BulkFormat format, Class<T> entityType) {
+        return importEntities(body, format, entityType, imported -> {});
+    }
+
+    /**
+     * Imports the entities of the given body, and hands the entities of each batch over once it is committed.
+     * @param body the request body.
+     * @param format the format of the body.
+     * @param entityType the type of the imported entities.
+     * @param onImported receives the imported entities of a batch, with their ids.
+     * @param <T> the type of the imported entities.
+     * @return the progress, one element per batch.
+     */
+    public <T> Flux<ImportProgress> importEntities(
+        Flux<DataBuffer> body,
+        BulkFormat format,
+        Class<T> entityType,
+        Consumer<List<T>> onImported
+    ) {
+        RelationalPersistentEntity<?> entity = r2dbcEntityTemplate
+            .getConverter()
+            .getMappingContext()
+            .getRequiredPersistentEntity(entityType);
+        Flux<ParsedLine<T>> parsed = format == BulkFormat.CSV
+            ? parseCsv(joinCsvRecords(decodeLines(body, csvLineDecoder)), entity, entityType)
+            : parseNdjson(decodeLines(body, lineDecoder), entity, entityType);
+        AtomicLong batches = new AtomicLong();
+        AtomicLong totalImported = new AtomicLong();
+        return parsed
+            .buffer(batchSize)
+            .concatMap(batch -> importBatch(batch, batches.incrementAndGet(), totalImported, onImported), 1)
+            .takeUntil(ImportProgress::isFailed)
+            .onErrorResume(
+                ImportException.class,
+                e ->
+                    Mono.just(
+                        new ImportProgress(
+                            batches.incrementAndGet(),
+                            e.line,
+                            e.line,
+                            0,
+                            totalImported.get(),
+                            e.getMessage(),
+                            Collections.emptyList()
+                        )
+                    )
+            );
+    }
+
+    private <T> Mono<ImportProgress> importBatch(
+        List<ParsedLine<T>> batch,
+        long batchNumber,
+        AtomicLong totalImported,
+        Consumer<List<T>> onImported
+    ) {
+        List<T> entities = new ArrayList<>(batch.size());
+        List<ImportProgress.LineError> errors = new ArrayList<>();
+        for (ParsedLine<T> line : batch) {
+            if (line.entity != null) {
+                entities.add(line.entity);
+            } else {
+                errors.add(new ImportProgress.LineError(line.line, line.error));
+            }
+        }
+        long firstLine = batch.get(0).line;
+        long lastLine = batch.get(batch.size() - 1).line;
+        return entityManager
+            .insertAll(Flux.fromIterable(entities), batchSize)
+            .as(transactionalOperator::transactional)
+            .collectList()
+            .doOnNext(onImported)
+            .map(
+                imported ->
+                    new ImportProgress(
+                        batchNumber,
+                        firstLine,
+                        lastLine,
+                        imported.size(),
+                        totalImported.addAndGet(imported.size()),
+                        null,
+                        errors
+                    )
+            )
+            .onErrorResume(
+                e -> {
+                    log.warn("Batch {} (lines {}-{}) of the import was rejected: {}", batchNumber, firstLine, lastLine, e.getMessage());
+                    return Mono.just(new ImportProgress(batchNumber, firstLine, lastLine, 0, totalImported.get(), e.getMessage(), errors));
+                }
+            );
+    }
+
+    private static Flux<Tuple2<Long, String>> decodeLines(Flux<DataBuffer> body, StringDecoder decoder) {
+        return decoder
+            .decode(body, ResolvableType.forClass(String.class), null, Collections.emptyMap())
+            .index((index, line) -> Tuples.of(index + 1, line));
+    }
+
+    /**
+     * Joins the lines of the CSV records whose quoted values contain line breaks, and strips the line break which ends a record. A
+     * record is numbered with its first line.
+     */
+    private static Flux<Tuple2<Long, String>> joinCsvRecords(Flux<Tuple2<Long, String>> lines) {
+        return Flux.defer(
+            () -> {
+                CsvRecord pending = new CsvRecord();
+                return lines
+                    .<Tuple2<Long, String>>handle(
+                        (line, sink) -> {
+                            if (pending.append(line)) {
+                                sink.next(pending.take());
+                            }
+                        }
+                    )
+                    // an unterminated quoted value ends with the body
+                    .concatWith(Mono.fromSupplier(() -> pending.isEmpty() ? null : pending.take()));
+            }
+        );
+    }
+
+    private <T> Flux<ParsedLine<T>> parseNdjson(
+        Flux<Tuple2<Long, String>> lines,
+        RelationalPersistentEntity<?> entity,
+        Class<T> entityType
+    ) {
+        return lines
+            .filter(line -> !line.getT2().isBlank())
+            .map(
+                line -> {
+                    try {
+                        T bean = objectMapper.readValue(line.getT2(), entityType);
+                        entity.getPropertyAccessor(bean).setProperty(entity.getRequiredIdProperty(), null);
+                        return ParsedLine.of(line.getT1(), bean);
+                    } catch (JsonProcessingException e) {
+                        return ParsedLine.error(line.getT1(), e.getOriginalMessage());
+                    }
+                }
+            );
+    }
+
+    private <T> Flux<ParsedLine<T>> parseCsv(Flux<Tuple2<Long, String>> lines, RelationalPersistentEntity<?> entity, Class<T> entityType) {
+        return lines
+            .filter(line -> !line.getT2().isBlank())
+            .switchOnFirst(
+                (first, all) -> {
+                    if (!first.hasValue()) {
+                        return Flux.empty();
+                    }
+                    List<RelationalPersistentProperty> columns = parseCsvHeader(first.get(), entity);
+                    return all.skip(1).map(line -> parseCsvLine(line, columns, entity, entityType));
+                }
+            );
+    }
+
+    /**
+     * Resolves the columns of the header; the id column is accepted, but its values are ignored.
+     */
+    private List<RelationalPersistentProperty> parseCsvHeader(Tuple2<Long, String> header, RelationalPersistentEntity<?> entity) {
+        List<RelationalPersistentProperty> columns = new ArrayList<>();
+        for (String name : splitCsvLine(header.getT2())) {
+            RelationalPersistentProperty property = null;
+            for (RelationalPersistentProperty candidate : entity) {
+                if (candidate.isWritable() && candidate.getColumnName().getReference().equalsIgnoreCase(name.trim())) {
+                    property = candidate;
+                }
+            }
+            if (property == null) {
+                throw new ImportException(header.getT1(), "Unknown column: " + name);
+            }
+            columns.add(property.isIdProperty() ? null : property);
+        }
+        return columns;
+    }
+
+    private <T> ParsedLine<T> parseCsvLine(
+        Tuple2<Long, String> line,
+        List<RelationalPersistentProperty> columns,
+        RelationalPersistentEntity<?> entity,
+        Class<T> entityType
+    ) {
+        List<String> values = splitCsvLine(line.getT2());
+        if (values.size() != columns.size()) {
+            return ParsedLine.error(line.getT1(), "Expected " + columns.size() + " values, got " + values.size());
+        }
+        T bean = BeanUtils.instantiateClass(entityType);
+        PersistentPropertyAccessor<T> accessor = entity.getPropertyAccessor(bean);
+        for (int i = 0; i < columns.size(); i++) {
+            RelationalPersistentProperty property = columns.get(i);
+            if (property == null) {
+                continue;
+            }
+            try {
+                accessor.setProperty(property, parseValue(values.get(i), property.getType()));
+            } catch (DateTimeException | ConversionException | IllegalArgumentException e) {
+                return ParsedLine.error(line.getT1(), "Invalid " + property.getColumnName().getReference() + ": " + values.get(i));
+            }
+        }
+        return ParsedLine.of(line.getT1(), bean);
+    }
+
+    private Object parseValue(String value, Class<?> type) {
+        if (value.isEmpty()) {
+            return null;
+        }
+        if (Instant.class.equals(type)) {
+            // the fake-data files have no offset, their timestamps are in UTC
+            return value.endsWith("Z") ? Instant.parse(value) : LocalDateTime.parse(value).toInstant(ZoneOffset.UTC);
+        }
+        if (LocalDate.class.equals(type)) {
+            return LocalDate.parse(value);
+        }
+        if (ZonedDateTime.class.equals(type)) {
+            return ZonedDateTime.parse(value);
+        }
+        return columnConverter.convert(value, type);
+    }
+
+    private static List<String> splitCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == BulkFormat.CSV_QUOTE && i + 1 < line.length() && line.charAt(i + 1) == BulkFormat.CSV_QUOTE) {
+                    value.append(BulkFormat.CSV_QUOTE);
+                    i++;
+                } else if (c == BulkFormat.CSV_QUOTE) {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == BulkFormat.CSV_QUOTE) {
+                quoted = true;
+            } else if (c == BulkFormat.CSV_SEPARATOR) {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    private static final class ParsedLine<T> {
+
+        private final long line;
+        private final T entity;
+        private final String error;
+
+        private ParsedLine(long line, T entity, String error) {
+            this.line = line;
+            this.entity = entity;
+            this.error = error;
+        }
+
+        static <T> ParsedLine<T> of(long line, T entity) {
+            return new ParsedLine<>(line, entity, null);
+        }
+
+        static <T> ParsedLine<T> error(long line, String error) {
+            return new ParsedLine<>(line, null, error);
+        }
+    }
+
+    private static final class CsvRecord {
+
+        private final StringBuilder text = new StringBuilder();
+        private long line;
+        private boolean quoted;
+
+        /**
+         * @return true, if the line ends the record.
+         */
+        boolean append(Tuple2<Long, String> next) {
+            if (text.length() == 0) {
+                line = next.getT1();
+            }
+            String chunk = next.getT2();
+            for (int i = 0; i < chunk.length(); i++) {
+                // an escaped quote toggles twice
+                if (chunk.charAt(i) == BulkFormat.CSV_QUOTE) {
+                    quoted = !quoted;
+                }
+            }
+            text.append(chunk);
+            return !quoted;
+        }
+
+        boolean isEmpty() {
+            return text.length() == 0;
+        }
+
+        Tuple2<Long, String> take() {
+            int end = text.length();
+            if (end > 0 && text.charAt(end - 1) == '\n') {
+                end--;
+                if (end > 0 && text.charAt(end - 1) == '\r') {
+                    end--;
+                }
+            }
+            Tuple2<Long, String> record = Tuples.of(line, text.substring(0, end));
+            text.setLength(0);
+            quoted = false;
+            return record;
+        }
+    }
+
+    /**
+     * Stops the whole import, for example when the CSV header is invalid.
+     */
+    private static final class ImportException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long line;
+
+        ImportException(long line, String message) {
+            super(message);
+            this.line = line;
+        }
+    }
+}
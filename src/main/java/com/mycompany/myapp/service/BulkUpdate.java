@@ -0,0 +1,67 @@
+package com.mycompany.myapp.service;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.util.Assert;
+
+/**
+ * The changes of a set-based update, applied by one statement to all the entities matching a criteria: new values of properties, and
+ * percentage changes of numeric properties, computed by the database from the current values.
+ */
+public final class BulkUpdate {
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private final Map<String, Object> values = new LinkedHashMap<>();
+    private final Map<String, BigDecimal> factors = new LinkedHashMap<>();
+
+    /**
+     * Sets a property of the entities to a value.
+     *
+     * @param property the name of the property, or its column.
+     * @param value the new value, maybe {@code null}.
+     * @return this update.
+     */
+    public BulkUpdate set(String property, Object value) {
+        Assert.isTrue(!factors.containsKey(property), "the property " + property + " already changes by a percentage");
+        values.put(property, value);
+        return this;
+    }
+
+    /**
+     * Increases a numeric property of the entities by a percentage of its current value, rounded to the type of the column; a
+     * negative percentage decreases it, a {@code null} value stays {@code null}.
+     *
+     * @param property the name of the property, or its column.
+     * @param percent the percentage, such as {@code 5} for 5%.
+     * @return this update.
+     */
+    public BulkUpdate increaseByPercent(String property, BigDecimal percent) {
+        Assert.notNull(percent, "percent is null");
+        Assert.isTrue(!values.containsKey(property), "the property " + property + " is already set");
+        factors.put(property, BigDecimal.ONE.add(percent.divide(HUNDRED)));
+        return this;
+    }
+
+    /**
+     * @return whether there is nothing to change.
+     */
+    public boolean isEmpty() {
+        return values.isEmpty() && factors.isEmpty();
+    }
+
+    Map<String, Object> getValues() {
+        return Collections.unmodifiableMap(values);
+    }
+
+    Map<String, BigDecimal> getFactors() {
+        return Collections.unmodifiableMap(factors);
+    }
+
+    @Override
+    public String toString() {
+        return "BulkUpdate{values=" + values + ", factors=" + factors + "}";
+    }
+}
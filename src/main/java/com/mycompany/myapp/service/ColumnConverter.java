@@ -1,6 +1,9 @@
 package com.mycompany.myapp.service;
 
+import io.r2dbc.spi.ColumnMetadata;
 import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import java.util.function.Function;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.data.r2dbc.convert.R2dbcConverter;
 import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
@@ -46,8 +49,68 @@ public class ColumnConverter {
         return conversionService.convert(value, target);
     }
 
+    /**
+     * Resolves a column of a result set, and returns a function reading it from the rows of that result set: the index of the column
+     * and the conversion to the target class are chosen once, so each row is read by index, without name lookups or exceptions.
+     * @param metadata the metadata of the result set.
+     * @param columnName the name of the column, case insensitive.
+     * @param target class.
+     * @param <T> the parameter for the intended type.
+     * @return the reader of the column.
+     * @throws IllegalArgumentException if the result set has no such column.
+     */
+    public <T> Function<Row, T> columnReader(RowMetadata metadata, String columnName, Class<T> target) {
+        Function<Row, T> reader = optionalColumnReader(metadata, columnName, target);
+        if (reader == null) {
+            throw new IllegalArgumentException("Unknown column: " + columnName);
+        }
+        return reader;
+    }
+
+    /**
+     * Resolves a column of a result set like {@link #columnReader(RowMetadata, String, Class)}, for selects which may leave the column out.
+     * @param metadata the metadata of the result set.
+     * @param columnName the name of the column, case insensitive.
+     * @param target class.
+     * @param <T> the parameter for the intended type.
+     * @return the reader of the column, or {@code null} if the result set has no such column.
+     */
+    @Nullable
+    public <T> Function<Row, T> optionalColumnReader(RowMetadata metadata, String columnName, Class<T> target) {
+        int index = 0;
+        for (ColumnMetadata column : metadata.getColumnMetadatas()) {
+            if (column.getName().equalsIgnoreCase(columnName)) {
+                return columnReader(index, column.getJavaType(), target);
+            }
+            index++;
+        }
+        return null;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private <T> Function<Row, T> columnReader(int index, @Nullable Class<?> nativeType, Class<T> target) {
+        if (nativeType == null || Object.class.equals(nativeType)) {
+            // the driver doesn't tell, each value is converted according to its own class
+            return row -> convert(row.get(index), target);
+        }
+        if (target.isAssignableFrom(ClassUtils.resolvePrimitiveIfNecessary(nativeType))) {
+            return row -> row.get(index, target);
+        }
+        if (!conversions.hasCustomReadTarget(nativeType, target) && Enum.class.isAssignableFrom(target)) {
+            Class<Enum> enumType = (Class<Enum>) target;
+            return row -> {
+                Object value = row.get(index);
+                return value == null ? null : (T) Enum.valueOf(enumType, value.toString());
+            };
+        }
+        return row -> conversionService.convert(row.get(index), target);
+    }
+
     /**
      * Convert a value from the {@link Row} to a type - throws an exception, it it's impossible.
+     * <p>
+     * When the driver can't read the column as the target class, the failure is caught and the value converted: to map a whole
+     * result set, prefer {@link #columnReader(RowMetadata, String, Class)}.
      * @param row which contains the column values.
      * @param target class.
      * @param columnName the name of the column which to convert.
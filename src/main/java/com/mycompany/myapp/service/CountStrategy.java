@@ -0,0 +1,26 @@
+package com.mycompany.myapp.service;
+
+/**
+ * How the total number of rows is computed for an offset page.
+ */
+public enum CountStrategy {
+    /**
+     * A separate {@code COUNT(*)} query, run next to the page query.
+     */
+    EXACT,
+
+    /**
+     * The exact total, read from a {@code COUNT(*) OVER()} column of the page query itself, so only one query is run.
+     */
+    WINDOW,
+
+    /**
+     * The row count estimated by the database statistics, cached for a while. Only the page query hits the table.
+     */
+    ESTIMATE,
+
+    /**
+     * No total at all: one extra row is fetched to know whether a next page exists.
+     */
+    NONE,
+}
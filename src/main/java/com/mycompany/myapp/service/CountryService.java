@@ -17,14 +17,30 @@ public interface CountryService {
      */
     Mono<Country> save(Country country);
 
+    /**
+     * Update a country.
+     *
+     * @param country the entity to update.
+     * @return the persisted entity, or empty if it doesn't exist.
+     */
+    Mono<Country> update(Country country);
+
     /**
      * Partially updates a country.
      *
      * @param country the entity to update partially.
-     * @return the persisted entity.
+     * @return the persisted entity, or empty if it doesn't exist.
      */
     Mono<Country> partialUpdate(Country country);
 
+    /**
+     * Insert the countries, or update the existing ones with the same natural key.
+     *
+     * @param countries the entities to upsert.
+     * @return the number of created, updated and unchanged entities.
+     */
+    Mono<UpsertResult> upsertAll(List<Country> countries);
+
     /**
      * Get all the countries.
      *
@@ -32,6 +48,32 @@ public interface CountryService {
      */
     Flux<Country> findAll();
 
+    /**
+     * Get all the countries matching the filters.
+     *
+     * @param filter the filters the entities must match.
+     * @return the list of entities.
+     */
+    Flux<Country> findAll(EntityFilter filter);
+
+    /**
+     * Get a keyset page of the countries, which starts after the cursor position.
+     *
+     * @param cursor the position after which the page starts.
+     * @param limit the maximum number of entities to return.
+     * @param filter the filters the entities must match.
+     * @return the list of entities.
+     */
+    Flux<Country> findAllAfter(KeysetCursor cursor, int limit, EntityFilter filter);
+
+    /**
+     * Export all the countries, streamed from the database in one read-only transaction.
+     *
+     * @param format the format of the export.
+     * @return the lines of the export.
+     */
+    Flux<String> exportAll(BulkFormat format);
+
     /**
      * Returns the number of countries available.
      * @return the number of entities in the database.
@@ -47,6 +89,14 @@ public interface CountryService {
      */
     Mono<Country> findOne(Long id);
 
+    /**
+     * Get the countrys with the given ids.
+     *
+     * @param ids the ids of the entities.
+     * @return the entities found, in no particular order.
+     */
+    Flux<Country> findAllById(List<Long> ids);
+
     /**
      * Delete the "id" country.
      *
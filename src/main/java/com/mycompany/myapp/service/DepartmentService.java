@@ -17,11 +17,19 @@ public interface DepartmentService {
      */
     Mono<Department> save(Department department);
 
+    /**
+     * Update a department.
+     *
+     * @param department the entity to update.
+     * @return the persisted entity, or empty if it doesn't exist.
+     */
+    Mono<Department> update(Department department);
+
     /**
      * Partially updates a department.
      *
      * @param department the entity to update partially.
-     * @return the persisted entity.
+     * @return the persisted entity, or empty if it doesn't exist.
      */
     Mono<Department> partialUpdate(Department department);
 
@@ -32,6 +40,43 @@ public interface DepartmentService {
      */
     Flux<Department> findAll();
 
+    /**
+     * Get a keyset page of the departments, which starts after the cursor position.
+     *
+     * @param cursor the position after which the page starts.
+     * @param limit the maximum number of entities to return.
+     * @return the list of entities.
+     */
+    Flux<Department> findAllAfter(KeysetCursor cursor, int limit);
+
+    /**
+     * Get all the departments matching the filters, along with the included relationships.
+     *
+     * @param filter the filters the entities must match.
+     * @param include the relationships to load.
+     * @return the list of entities.
+     */
+    Flux<Department> findAll(EntityFilter filter, Include include);
+
+    /**
+     * Get a keyset page of the departments, which starts after the cursor position, along with the included relationships.
+     *
+     * @param cursor the position after which the page starts.
+     * @param limit the maximum number of entities to return.
+     * @param filter the filters the entities must match.
+     * @param include the relationships to load.
+     * @return the list of entities.
+     */
+    Flux<Department> findAllAfter(KeysetCursor cursor, int limit, EntityFilter filter, Include include);
+
+    /**
+     * Export all the departments, streamed from the database in one read-only transaction.
+     *
+     * @param format the format of the export.
+     * @return the lines of the export.
+     */
+    Flux<String> exportAll(BulkFormat format);
+
     /**
      * Returns the number of departments available.
      * @return the number of entities in the database.
@@ -47,6 +92,24 @@ public interface DepartmentService {
      */
     Mono<Department> findOne(Long id);
 
+    /**
+     * Get the "id" department, along with the included relationships.
+     *
+     * @param id the id of the entity.
+     * @param include the relationships to load.
+     * @return the entity.
+     */
+    Mono<Department> findOne(Long id, Include include);
+
+    /**
+     * Get the departments with the given ids, along with the included relationships.
+     *
+     * @param ids the ids of the entities.
+     * @param include the relationships to load.
+     * @return the entities found, in no particular order.
+     */
+    Flux<Department> findAllById(List<Long> ids, Include include);
+
     /**
      * Delete the "id" department.
      *
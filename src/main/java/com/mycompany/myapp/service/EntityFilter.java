@@ -0,0 +1,308 @@
+package com.mycompany.myapp.service;
+
+import java.beans.PropertyDescriptor;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.springframework.beans.BeanUtils;
+import org.springframework.core.convert.ConversionException;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.data.relational.core.query.Criteria;
+
+/**
+ * The filters of a list of entities, parsed from request parameters such as {@code salary.greaterThan=5000},
+ * {@code hireDate.in=2021-01-04T00:00:00Z,2021-02-01T00:00:00Z} or {@code lastName.startsWith=Mc}. All the filters must match. They
+ * become a {@link Criteria}, whose values the entity manager binds to the statement, so no value is ever part of the SQL text.
+ */
+public final class EntityFilter {
+
+    /**
+     * No filter: every entity matches.
+     */
+    public static final EntityFilter NONE = new EntityFilter(Collections.emptyList());
+
+    private static final char OPERATOR_SEPARATOR = '.';
+
+    private static final String VALUE_SEPARATOR = ",";
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    /**
+     * The comparisons of a filter, named after the JHipster filters.
+     */
+    public enum Operator {
+        EQUALS("equals", true),
+        NOT_EQUALS("notEquals", true),
+        IN("in", true),
+        NOT_IN("notIn", true),
+        SPECIFIED("specified", true),
+        GREATER_THAN("greaterThan", true),
+        GREATER_THAN_OR_EQUAL("greaterThanOrEqual", true),
+        LESS_THAN("lessThan", true),
+        LESS_THAN_OR_EQUAL("lessThanOrEqual", true),
+        STARTS_WITH("startsWith", true),
+        // a substring is searched in every row, whatever the indexes
+        CONTAINS("contains", false),
+        DOES_NOT_CONTAIN("doesNotContain", false);
+
+        private final String parameter;
+        private final boolean indexable;
+
+        Operator(String parameter, boolean indexable) {
+            this.parameter = parameter;
+            this.indexable = indexable;
+        }
+
+        public String getParameter() {
+            return parameter;
+        }
+
+        /**
+         * @return whether an index on the column can serve the comparison.
+         */
+        public boolean isIndexable() {
+            return indexable;
+        }
+
+        static Operator fromParameter(String parameter) {
+            for (Operator operator : values()) {
+                if (operator.parameter.equals(parameter)) {
+                    return operator;
+                }
+            }
+            throw new IllegalArgumentException("Unknown filter operator: '" + parameter + "'");
+        }
+    }
+
+    /**
+     * One filter: a property compared to a value, already converted to the type of the property.
+     */
+    public static final class Condition {
+
+        private final String property;
+        private final Operator operator;
+        private final Object value;
+
+        private Condition(String property, Operator operator, Object value) {
+            this.property = property;
+            this.operator = operator;
+            this.value = value;
+        }
+
+        public String getProperty() {
+            return property;
+        }
+
+        public Operator getOperator() {
+            return operator;
+        }
+
+        /**
+         * @return the value, a {@link List} for {@link Operator#IN} and {@link Operator#NOT_IN}, a {@link Boolean} for
+         * {@link Operator#SPECIFIED}.
+         */
+        public Object getValue() {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return property + OPERATOR_SEPARATOR + operator.parameter + "=" + value;
+        }
+    }
+
+    private final List<Condition> conditions;
+
+    private EntityFilter(List<Condition> conditions) {
+        this.conditions = conditions;
+    }
+
+    /**
+     * Parses the filters among request parameters: the parameters named {@code property.operator}, the others are left aside.
+     *
+     * @param parameters the request parameters, with all their values.
+     * @param entityType the type of the entities, which holds the types of the properties.
+     * @return the parsed filter, {@link #NONE} if there is no filter parameter.
+     * @throws IllegalArgumentException if a property isn't a simple property of the entities, if an operator is unknown or doesn't apply
+     * to the type of its property, or if a value can't be converted to it.
+     */
+    public static EntityFilter parse(Map<String, List<String>> parameters, Class<?> entityType) {
+        List<Condition> conditions = new ArrayList<>();
+        for (Map.Entry<String, List<String>> parameter : parameters.entrySet()) {
+            int separator = parameter.getKey().lastIndexOf(OPERATOR_SEPARATOR);
+            if (separator < 0) {
+                continue;
+            }
+            String property = parameter.getKey().substring(0, separator);
+            Operator operator = Operator.fromParameter(parameter.getKey().substring(separator + 1));
+            PropertyDescriptor descriptor = BeanUtils.getPropertyDescriptor(entityType, property);
+            if (descriptor == null || !BeanUtils.isSimpleValueType(descriptor.getPropertyType())) {
+                throw new IllegalArgumentException("Unknown filter property: '" + property + "'");
+            }
+            Class<?> type = descriptor.getPropertyType();
+            checkApplies(operator, property, type);
+            for (String value : parameter.getValue()) {
+                conditions.add(new Condition(property, operator, convert(operator, value, type)));
+            }
+        }
+        return conditions.isEmpty() ? NONE : new EntityFilter(Collections.unmodifiableList(conditions));
+    }
+
+    private static void checkApplies(Operator operator, String property, Class<?> type) {
+        boolean text = String.class.equals(type);
+        switch (operator) {
+            case STARTS_WITH:
+            case CONTAINS:
+            case DOES_NOT_CONTAIN:
+                if (!text) {
+                    throw new IllegalArgumentException(
+                        "The filter " + operator.parameter + " only applies to text, not to '" + property + "'"
+                    );
+                }
+                break;
+            case GREATER_THAN:
+            case GREATER_THAN_OR_EQUAL:
+            case LESS_THAN:
+            case LESS_THAN_OR_EQUAL:
+                if (text || Boolean.class.equals(type) || boolean.class.equals(type) || type.isEnum()) {
+                    throw new IllegalArgumentException(
+                        "The filter " + operator.parameter + " only applies to numbers and dates, not to '" + property + "'"
+                    );
+                }
+                break;
+            default:
+        }
+    }
+
+    private static Object convert(Operator operator, String value, Class<?> type) {
+        switch (operator) {
+            case SPECIFIED:
+                if (!"true".equals(value) && !"false".equals(value)) {
+                    throw new IllegalArgumentException("Invalid filter value: '" + value + "', expected true or false");
+                }
+                return Boolean.valueOf(value);
+            case IN:
+            case NOT_IN:
+                List<Object> values = new ArrayList<>();
+                for (String item : value.split(VALUE_SEPARATOR)) {
+                    values.add(convert(item.trim(), type));
+                }
+                return Collections.unmodifiableList(values);
+            case STARTS_WITH:
+            case CONTAINS:
+            case DOES_NOT_CONTAIN:
+                return value;
+            default:
+                return convert(value, type);
+        }
+    }
+
+    private static Object convert(String value, Class<?> type) {
+        try {
+            if (Instant.class.equals(type)) {
+                return Instant.parse(value);
+            }
+            if (LocalDate.class.equals(type)) {
+                return LocalDate.parse(value);
+            }
+            if (ZonedDateTime.class.equals(type)) {
+                return ZonedDateTime.parse(value);
+            }
+            return DefaultConversionService.getSharedInstance().convert(value, type);
+        } catch (DateTimeException | ConversionException e) {
+            throw new IllegalArgumentException("Invalid filter value: '" + value + "'", e);
+        }
+    }
+
+    public boolean isEmpty() {
+        return conditions.isEmpty();
+    }
+
+    public List<Condition> getConditions() {
+        return conditions;
+    }
+
+    /**
+     * Lists the filters which no index can serve, so that the database would read every row to evaluate them.
+     *
+     * @param indexed the properties which lead an index.
+     * @return the unindexed filters, empty if they are all served by an index.
+     */
+    public List<Condition> getUnindexed(Collection<String> indexed) {
+        return conditions
+            .stream()
+            .filter(condition -> !condition.operator.indexable || !indexed.contains(condition.property))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Creates the criteria matching all the filters.
+     *
+     * @return the criteria, empty if there is no filter.
+     */
+    public Criteria toCriteria() {
+        Criteria criteria = Criteria.empty();
+        for (Condition condition : conditions) {
+            criteria = criteria.and(toCriteria(condition));
+        }
+        return criteria;
+    }
+
+    private static Criteria toCriteria(Condition condition) {
+        Criteria.CriteriaStep property = Criteria.where(condition.property);
+        Object value = condition.value;
+        switch (condition.operator) {
+            case EQUALS:
+                return property.is(value);
+            case NOT_EQUALS:
+                return property.not(value);
+            case IN:
+                return property.in((Collection<?>) value);
+            case NOT_IN:
+                return property.notIn((Collection<?>) value);
+            case SPECIFIED:
+                return (Boolean) value ? property.isNotNull() : property.isNull();
+            case GREATER_THAN:
+                return property.greaterThan(value);
+            case GREATER_THAN_OR_EQUAL:
+                return property.greaterThanOrEquals(value);
+            case LESS_THAN:
+                return property.lessThan(value);
+            case LESS_THAN_OR_EQUAL:
+                return property.lessThanOrEquals(value);
+            case STARTS_WITH:
+                // case sensitive, so that an index on the column serves the prefix
+                return property.like(escapeLike((String) value) + "%");
+            case CONTAINS:
+                return property.like("%" + escapeLike((String) value) + "%").ignoreCase(true);
+            case DOES_NOT_CONTAIN:
+                return property.notLike("%" + escapeLike((String) value) + "%").ignoreCase(true);
+            default:
+                throw new IllegalStateException("Unsupported filter operator: " + condition.operator);
+        }
+    }
+
+    private static String escapeLike(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+
+    @Override
+    public String toString() {
+        return conditions.toString();
+    }
+}
@@ -1,38 +1,72 @@
 package com.mycompany.myapp.service;
 
+import com.carrotsearch.hppc.LongArrayList;
+import com.carrotsearch.hppc.LongObjectMap;
+import com.carrotsearch.hppc.LongObjectScatterMap;
+import com.carrotsearch.hppc.LongScatterSet;
+import com.carrotsearch.hppc.cursors.LongCursor;
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.repository.metrics.QueryShape;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Statement;
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.reactivestreams.Publisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
-import org.springframework.data.r2dbc.convert.R2dbcConverter;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.r2dbc.core.StatementMapper;
+import org.springframework.data.r2dbc.dialect.H2Dialect;
+import org.springframework.data.r2dbc.dialect.PostgresDialect;
+import org.springframework.data.r2dbc.dialect.R2dbcDialect;
 import org.springframework.data.r2dbc.mapping.OutboundRow;
 import org.springframework.data.r2dbc.query.UpdateMapper;
 import org.springframework.data.relational.core.mapping.RelationalPersistentEntity;
+import org.springframework.data.relational.core.mapping.RelationalPersistentProperty;
 import org.springframework.data.relational.core.query.Criteria;
-import org.springframework.data.relational.core.sql.Conditions;
-import org.springframework.data.relational.core.sql.OrderByField;
+import org.springframework.data.relational.core.query.CriteriaDefinition;
+import org.springframework.data.relational.core.query.Query;
 import org.springframework.data.relational.core.sql.Select;
-import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoin;
-import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoinCondition;
-import org.springframework.data.relational.core.sql.SelectBuilder.SelectOrdered;
 import org.springframework.data.relational.core.sql.SqlIdentifier;
-import org.springframework.data.relational.core.sql.Table;
 import org.springframework.data.relational.core.sql.render.SqlRenderer;
+import org.springframework.data.util.Pair;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
 import org.springframework.r2dbc.core.Parameter;
+import org.springframework.r2dbc.core.binding.BindMarkers;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
 
 /**
  * Helper class to create SQL selects based on the entity, paging parameters and criteria.
- *
+ * Selects are rendered into parameterized SQL templates, which are cached per query shape.
  */
 @Service
 public class EntityManager {
@@ -40,6 +74,31 @@ public class EntityManager {
     public static final String ENTITY_ALIAS = "e";
     public static final String ALIAS_PREFIX = "e_";
 
+    /**
+     * The PostgreSQL column of the searchable entities, a {@code tsvector} generated from their searched properties.
+     */
+    public static final String SEARCH_VECTOR_COLUMN = "search_vector";
+
+    private static final int MAX_TEMPLATES = 512;
+
+    // tokens of the where clause structure in the template keys
+    private static final Object GROUP_START = new Object();
+    private static final Object GROUP_END = new Object();
+    private static final Object KEYSET = new Object();
+
+    private static final String LINK_TABLE_SYNCS_METRIC = "link.table.syncs";
+    private static final String LINK_TABLE_ROWS_METRIC = "link.table.rows";
+    private static final String TABLE_TAG = "table";
+
+    private static final String SELECT_PREFIX = "SELECT ";
+    private static final String TOTAL_COUNT_ALIAS = "total_count";
+    private static final String TOTAL_COUNT_COLUMN = "COUNT(*) OVER() AS " + TOTAL_COUNT_ALIAS;
+    private static final String KEYSET_VALUE_ALIAS = "keyset_value";
+    private static final String KEYSET_ID_ALIAS = "keyset_id";
+    private static final String KEYSET_PAGE_ALIAS = "keyset_page";
+    private static final String LINK_ALIAS = "link";
+    private static final String SEARCH_RANK_ALIAS = "search_rank";
+
     public static class LinkTable {
 
         final String tableName;
@@ -56,96 +115,826 @@ public class EntityManager {
         }
     }
 
+    /**
+     * The value of a criteria on the id of the entities linked to any of some referenced entities, see {@link #linkedTo}.
+     */
+    private static final class LinkedIds {
+
+        private final LinkTable table;
+        private final Collection<Long> referencedIds;
+
+        private LinkedIds(LinkTable table, Collection<Long> referencedIds) {
+            this.table = table;
+            this.referencedIds = referencedIds;
+        }
+
+        @Override
+        public String toString() {
+            return table.tableName + "." + table.referenceColumn + " in " + referencedIds;
+        }
+    }
+
     private final SqlRenderer sqlRenderer;
     private final UpdateMapper updateMapper;
     private final R2dbcEntityTemplate r2dbcEntityTemplate;
     private final StatementMapper statementMapper;
+    private final R2dbcDialect dialect;
+    private final RowCountEstimator rowCountEstimator;
+    private final int batchSize;
+    private final int fetchSize;
+    private final int multiGetChunkSize;
+    private final int multiGetConcurrency;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Rendered SQL templates, keyed by query shape. Bounded, so unexpected shapes can't grow it without limit.
+     */
+    private final Map<TemplateKey, String> templates = new ConcurrentHashMap<>();
+
+    /**
+     * Rendered selects of linked and referring entities, without their where clause, keyed by base select and owner id column.
+     */
+    private final Map<Pair<Select, String>, String> relatedTemplates = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a criteria on the entities linked through the table to any of the given referenced entities. It is rendered as a
+     * subselect of the link table, so that the entities are filtered in the same statement.
+     * @param table describes the link table, it contains a table name, the column name for the id, and for the referred entity id.
+     * @param referencedIds the ids of the referenced entities.
+     * @return the criteria on the id of the entities.
+     */
+    public static Criteria linkedTo(LinkTable table, Collection<Long> referencedIds) {
+        Assert.notNull(table, "table is null");
+        Assert.notNull(referencedIds, "referencedIds is null");
+        return Criteria.where(KeysetCursor.ID_PROPERTY).is(new LinkedIds(table, referencedIds));
+    }
 
-    public EntityManager(SqlRenderer sqlRenderer, UpdateMapper updateMapper, R2dbcEntityTemplate r2dbcEntityTemplate) {
+    public EntityManager(
+        SqlRenderer sqlRenderer,
+        UpdateMapper updateMapper,
+        R2dbcEntityTemplate r2dbcEntityTemplate,
+        R2dbcDialect dialect,
+        RowCountEstimator rowCountEstimator,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
         this.sqlRenderer = sqlRenderer;
         this.updateMapper = updateMapper;
         this.r2dbcEntityTemplate = r2dbcEntityTemplate;
+        this.dialect = dialect;
         this.statementMapper = r2dbcEntityTemplate.getDataAccessStrategy().getStatementMapper();
+        this.rowCountEstimator = rowCountEstimator;
+        this.batchSize = applicationProperties.getPersistence().getBatchSize();
+        this.fetchSize = applicationProperties.getPersistence().getFetchSize();
+        this.multiGetChunkSize = applicationProperties.getPersistence().getMultiGetChunkSize();
+        this.multiGetConcurrency = applicationProperties.getPersistence().getMultiGetConcurrency();
+        this.meterRegistry = meterRegistry;
     }
 
     /**
-     * Creates an SQL select statement from the given fragment and pagination parameters.
-     * @param selectFrom a representation of a select statement.
+     * @return whether the database is PostgreSQL, and not H2, whose dialect extends the PostgreSQL one.
+     */
+    public boolean isPostgreSQL() {
+        return dialect instanceof PostgresDialect && !(dialect instanceof H2Dialect);
+    }
+
+    /**
+     * @return whether the database supports {@link #upsertAll(Publisher, List)}: PostgreSQL and H2, the databases of the application.
+     */
+    public boolean supportsUpsert() {
+        return dialect instanceof PostgresDialect;
+    }
+
+    /**
+     * Creates a parameterized SQL select from the given base select, pagination parameters and criteria, and binds the values to it.
+     * The SQL text is rendered once per query shape (base select, sort, paging and criteria structure) and cached, so repeated
+     * calls only bind new values to the same statement, which the driver can prepare and reuse.
+     * @param select the base select, with the columns and the joins, but without where, order by and limit clauses.
      * @param entityType the entity type which holds the table name.
      * @param pageable page parameter, or null, if everything needs to be returned
-     * @return sql select statement
-     */
-    public String createSelect(SelectFromAndJoin selectFrom, Class<?> entityType, Pageable pageable, Criteria criteria) {
-        if (pageable != null) {
-            if (criteria != null) {
-                return createSelectImpl(
-                    selectFrom.limitOffset(pageable.getPageSize(), pageable.getOffset()).where(Conditions.just(criteria.toString())),
-                    entityType,
-                    pageable.getSort()
-                );
-            } else {
-                return createSelectImpl(
-                    selectFrom.limitOffset(pageable.getPageSize(), pageable.getOffset()),
-                    entityType,
-                    pageable.getSort()
-                );
-            }
+     * @param criteria the filter criteria, or null, if everything needs to be returned
+     * @return the statement, with all the values bound.
+     */
+    public GenericExecuteSpec createQuery(Select select, Class<?> entityType, Pageable pageable, Criteria criteria) {
+        if (pageable == null || pageable.isUnpaged()) {
+            Sort sort = pageable != null ? pageable.getSort() : Sort.unsorted();
+            return createQuery(select, getPersistentEntity(entityType), criteria, null, sort, LimitClause.NONE, false);
+        }
+        return createQuery(
+            select,
+            getPersistentEntity(entityType),
+            criteria,
+            null,
+            pageable.getSort(),
+            LimitClause.LIMIT_OFFSET,
+            false,
+            pageable.getPageSize(),
+            pageable.getOffset()
+        );
+    }
+
+    /**
+     * Fetches one offset page of the entities matching the criteria, with its total computed by the given strategy.
+     * @param select the base select, with the columns and the joins, but without where, order by and limit clauses.
+     * @param entityType the entity type which holds the table name.
+     * @param pageable page parameter.
+     * @param criteria the filter criteria, or null, if all the entities are paged.
+     * @param countStrategy how the total number of entities is computed. An estimate is the size of the whole table, so a filtered
+     * page is counted with {@link CountStrategy#WINDOW} instead.
+     * @param mappingFunction maps a row to an entity.
+     * @param <T> the type of the entities.
+     * @return a {@link Page} with the total, or only a {@link Slice} knowing whether a next page exists with {@link CountStrategy#NONE}.
+     */
+    public <T> Mono<Slice<T>> createPage(
+        Select select,
+        Class<T> entityType,
+        Pageable pageable,
+        Criteria criteria,
+        CountStrategy countStrategy,
+        BiFunction<Row, RowMetadata, T> mappingFunction
+    ) {
+        if (pageable.isUnpaged()) {
+            return createQuery(select, entityType, pageable, criteria).map(mappingFunction).all().collectList().map(PageImpl::new);
+        }
+        RelationalPersistentEntity<?> entity = getPersistentEntity(entityType);
+        int size = pageable.getPageSize();
+        long offset = pageable.getOffset();
+        boolean filtered = criteria != null && !criteria.isEmpty();
+        switch (countStrategy == CountStrategy.ESTIMATE && filtered ? CountStrategy.WINDOW : countStrategy) {
+            case WINDOW:
+                return createQuery(select, entity, criteria, null, pageable.getSort(), LimitClause.LIMIT_OFFSET, true, size, offset)
+                    .map((row, metadata) -> Tuples.of(mappingFunction.apply(row, metadata), row.get(TOTAL_COUNT_ALIAS, Long.class)))
+                    .all()
+                    .collectList()
+                    .flatMap(
+                        rows -> {
+                            if (rows.isEmpty() && offset > 0) {
+                                // past the last page, there is no row to read the total from
+                                return count(entity, criteria).map(total -> new PageImpl<T>(Collections.emptyList(), pageable, total));
+                            }
+                            List<T> content = rows.stream().map(Tuple2::getT1).collect(Collectors.toList());
+                            long total = rows.isEmpty() ? 0 : rows.get(0).getT2();
+                            return Mono.just(new PageImpl<>(content, pageable, total));
+                        }
+                    );
+            case ESTIMATE:
+                return rowCountEstimator
+                    .estimate(entityType)
+                    .contextWrite(QueryShape.suffixed(".estimate"))
+                    .zipWith(createQuery(select, entityType, pageable, null).map(mappingFunction).all().collectList())
+                    .map(
+                        estimateWithEntities -> {
+                            List<T> content = estimateWithEntities.getT2();
+                            long seen = offset + content.size();
+                            // a partial page is the last one, so its total is exact, otherwise the estimate can't be lower than what
+                            // was seen
+                            boolean last = content.size() < size && (!content.isEmpty() || offset == 0);
+                            long total = last ? seen : Math.max(estimateWithEntities.getT1(), seen);
+                            return new PageImpl<>(content, pageable, total);
+                        }
+                    );
+            case NONE:
+                return createQuery(select, entity, criteria, null, pageable.getSort(), LimitClause.LIMIT_OFFSET, false, size + 1, offset)
+                    .map(mappingFunction)
+                    .all()
+                    .collectList()
+                    .map(rows -> new SliceImpl<>(rows.size() > size ? rows.subList(0, size) : rows, pageable, rows.size() > size));
+            default:
+                return count(entity, criteria)
+                    .zipWith(createQuery(select, entityType, pageable, criteria).map(mappingFunction).all().collectList())
+                    .map(countWithEntities -> new PageImpl<>(countWithEntities.getT2(), pageable, countWithEntities.getT1()));
+        }
+    }
+
+    private Mono<Long> count(RelationalPersistentEntity<?> entity, Criteria criteria) {
+        if (criteria == null || criteria.isEmpty()) {
+            return r2dbcEntityTemplate.count(Query.empty(), entity.getType()).contextWrite(QueryShape.suffixed(".count"));
+        }
+        BindMarkers bindMarkers = dialect.getBindMarkersFactory().create();
+        List<Object> values = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM ").append(toSql(entity.getTableName()));
+        sql.append(' ').append(ENTITY_ALIAS);
+        renderWhere(criteria, entity, bindMarkers, values, sql);
+        return bind(r2dbcEntityTemplate.getDatabaseClient().sql(sql.toString()), values)
+            .map(row -> row.get(0, Long.class))
+            .one()
+            .contextWrite(QueryShape.suffixed(".count"));
+    }
+
+    /**
+     * Creates a select of all the entities, ordered by id, which the driver fetches {@code application.persistence.fetch-size} rows at
+     * a time. Inside a transaction, PostgreSQL serves them from a server-side cursor, so the whole table is never held in memory.
+     * @param select the base select, with the columns and the joins, but without where, order by and limit clauses.
+     * @param entityType the entity type which holds the table name.
+     * @return the statement.
+     */
+    public GenericExecuteSpec createStreamingQuery(Select select, Class<?> entityType) {
+        return createQuery(select, getPersistentEntity(entityType), null, null, Sort.by(KeysetCursor.ID_PROPERTY), LimitClause.NONE, false)
+            .filter(statement -> statement.fetchSize(fetchSize));
+    }
+
+    /**
+     * Creates a parameterized SQL select for a keyset (seek) page: instead of skipping rows with an offset, it starts right after the
+     * position stored in the cursor, and orders by the cursor's sort property and the id, so the cost doesn't depend on the page depth.
+     * @param select the base select, with the columns and the joins, but without where, order by and limit clauses.
+     * @param entityType the entity type which holds the table name.
+     * @param cursor the position after which the page starts, see {@link KeysetCursor#first(Sort)} for the first page.
+     * @param limit the maximum number of rows to return.
+     * @param criteria the filter criteria, or null, if everything needs to be returned
+     * @return the statement, with all the values bound.
+     */
+    public GenericExecuteSpec createQuery(Select select, Class<?> entityType, KeysetCursor cursor, int limit, Criteria criteria) {
+        Assert.notNull(cursor, "cursor is null");
+        return createQuery(select, getPersistentEntity(entityType), criteria, cursor, cursor.getSort(), LimitClause.LIMIT, false, limit);
+    }
+
+    /**
+     * Loads the entities with the given ids, without one query per id: the distinct ids are split in chunks of
+     * {@code application.persistence.multi-get-chunk-size}, the entities of a chunk are loaded with one {@code IN} query, and up to
+     * {@code application.persistence.multi-get-concurrency} chunks are loaded at a time. A chunk is padded to the next power of two
+     * by repeating its last id, so that a handful of statement shapes serve any number of ids.
+     * @param ids the ids of the entities.
+     * @param query runs the query of the entities matching a criteria on their id, with the usual joins.
+     * @param <T> the type of the entities.
+     * @return the entities found, in no particular order.
+     */
+    public <T> Flux<T> findAllById(Iterable<Long> ids, Function<Criteria, Flux<T>> query) {
+        Assert.notNull(ids, "ids is null");
+        return Flux
+            .fromIterable(ids)
+            .filter(Objects::nonNull)
+            .distinct()
+            .buffer(multiGetChunkSize)
+            .flatMap(chunk -> query.apply(Criteria.where(KeysetCursor.ID_PROPERTY).in(padChunk(chunk))), multiGetConcurrency);
+    }
+
+    private List<Long> padChunk(List<Long> chunk) {
+        int size = chunk.size() == 1 ? 1 : Math.min(Integer.highestOneBit(chunk.size() - 1) << 1, multiGetChunkSize);
+        List<Long> padded = new ArrayList<>(size);
+        padded.addAll(chunk);
+        Long last = chunk.get(chunk.size() - 1);
+        while (padded.size() < size) {
+            padded.add(last);
+        }
+        return padded;
+    }
+
+    /**
+     * Searches the entities matching all the terms of a full-text query, by descending rank, then by id, for a page which starts after
+     * the position of the cursor. On PostgreSQL, the {@link #SEARCH_VECTOR_COLUMN} of the table is matched through its GIN index, and
+     * ranked with {@code ts_rank}, so the cost depends on the number of matches rather than on the size of the table. On the other
+     * databases, which are used for tests, each term is matched as a substring of any of the searched properties, and all the matches
+     * have the same rank. Only the ids and ranks are searched, the page of entities is then loaded by id.
+     * @param entityType the entity type which holds the table name.
+     * @param properties the searched properties, the ones the {@link #SEARCH_VECTOR_COLUMN} is generated from.
+     * @param query the full-text query.
+     * @param cursor the position after which the page starts, see {@link SearchCursor#first()} for the first page.
+     * @param limit the maximum number of entities to return.
+     * @param loader loads the entities with the given ids, in any order.
+     * @param idGetter returns the id of an entity.
+     * @param <T> the type of the entities.
+     * @return the matching entities with their rank, in the order of the ranks, one per matching row: the entity of a hit is null when
+     * it was deleted between the search and the load.
+     */
+    public <T> Flux<SearchHit<T>> search(
+        Class<T> entityType,
+        List<String> properties,
+        FullTextQuery query,
+        SearchCursor cursor,
+        int limit,
+        Function<List<Long>, Flux<T>> loader,
+        Function<T, Long> idGetter
+    ) {
+        Assert.notNull(query, "query is null");
+        Assert.notNull(cursor, "cursor is null");
+        RelationalPersistentEntity<?> entity = getPersistentEntity(entityType);
+        String table = toSql(entity.getTableName());
+        BindMarkers bindMarkers = dialect.getBindMarkersFactory().create();
+        List<Object> values = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT id, ").append(SEARCH_RANK_ALIAS).append(" FROM (SELECT ");
+        sql.append(ENTITY_ALIAS).append(".id, ");
+        // H2 extends the PostgreSQL dialect, but has no text search
+        if (dialect instanceof PostgresDialect && !(dialect instanceof H2Dialect)) {
+            String vector = ENTITY_ALIAS + "." + SEARCH_VECTOR_COLUMN;
+            sql.append("ts_rank(").append(vector).append(", search_query) AS ").append(SEARCH_RANK_ALIAS);
+            sql.append(" FROM ").append(table).append(' ').append(ENTITY_ALIAS);
+            sql.append(", to_tsquery('simple', ").append(bindMarkers.next().getPlaceholder()).append(") search_query");
+            sql.append(" WHERE ").append(vector).append(" @@ search_query");
+            values.add(query.toTsQuery());
         } else {
-            if (criteria != null) {
-                return createSelectImpl(selectFrom.where(Conditions.just(criteria.toString())), entityType, null);
-            } else {
-                return createSelectImpl(selectFrom, entityType, null);
+            sql.append("CAST(1 AS REAL) AS ").append(SEARCH_RANK_ALIAS);
+            sql.append(" FROM ").append(table).append(' ').append(ENTITY_ALIAS).append(" WHERE ");
+            List<String> terms = query.getTerms();
+            for (int i = 0; i < terms.size(); i++) {
+                sql.append(i > 0 ? " AND (" : "(");
+                for (int j = 0; j < properties.size(); j++) {
+                    sql.append(j > 0 ? " OR " : "").append("LOWER(").append(ENTITY_ALIAS).append('.');
+                    sql.append(getColumnName(entity, properties.get(j))).append(") LIKE ").append(bindMarkers.next().getPlaceholder());
+                    values.add(FullTextQuery.toLikePattern(terms.get(i)));
+                }
+                sql.append(')');
+            }
+        }
+        sql.append(") ranked");
+        if (!cursor.isFirstPage()) {
+            sql.append(" WHERE ").append(SEARCH_RANK_ALIAS).append(" < ").append(bindMarkers.next().getPlaceholder());
+            sql.append(" OR (").append(SEARCH_RANK_ALIAS).append(" = ").append(bindMarkers.next().getPlaceholder());
+            sql.append(" AND id > ").append(bindMarkers.next().getPlaceholder()).append(')');
+            values.add(cursor.getRank());
+            values.add(cursor.getRank());
+            values.add(cursor.getId());
+        }
+        sql.append(" ORDER BY ").append(SEARCH_RANK_ALIAS).append(" DESC, id ASC LIMIT ").append(bindMarkers.next().getPlaceholder());
+        values.add(limit);
+        return bind(r2dbcEntityTemplate.getDatabaseClient().sql(sql.toString()), values)
+            .map(row -> Tuples.of(row.get(0, Long.class), row.get(1, Float.class)))
+            .all()
+            .collectList()
+            .flatMapMany(
+                ranks -> {
+                    if (ranks.isEmpty()) {
+                        return Flux.empty();
+                    }
+                    List<Long> ids = ranks.stream().map(Tuple2::getT1).collect(Collectors.toList());
+                    return loader
+                        .apply(ids)
+                        .collectMap(idGetter)
+                        .flatMapIterable(
+                            entities ->
+                                ranks
+                                    .stream()
+                                    // an entity deleted since the search is kept without entity, so that the page still ends after it
+                                    .map(rank -> new SearchHit<>(rank.getT1(), rank.getT2(), entities.get(rank.getT1())))
+                                    .collect(Collectors.toList())
+                        );
+                }
+            );
+    }
+
+    private GenericExecuteSpec createQuery(
+        Select select,
+        RelationalPersistentEntity<?> entity,
+        Criteria criteria,
+        KeysetCursor cursor,
+        Sort sort,
+        LimitClause limitClause,
+        boolean totalCount,
+        Object... limitValues
+    ) {
+        // the key holds the structure of the where clause, so that a known shape is neither rendered nor parsed again
+        List<Object> where = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+        if (criteria != null && !criteria.isEmpty()) {
+            describeCriteria(criteria, where, values);
+        }
+        List<Object> criteriaValues = new ArrayList<>(values);
+        if (cursor != null && !cursor.isFirstPage()) {
+            describeKeyset(cursor, entity, where, values);
+        }
+
+        TemplateKey key = new TemplateKey(select, sort, limitClause, totalCount, where);
+        String sql = templates.get(key);
+        if (sql == null) {
+            sql = createTemplate(select, entity, criteria, cursor, sort, limitClause, totalCount);
+            if (templates.size() < MAX_TEMPLATES) {
+                templates.putIfAbsent(key, sql);
             }
         }
+        if (isSplitKeyset(cursor)) {
+            // the seek of the nulls binds the criteria again, and each seek is limited to the page, as the page itself
+            Collections.addAll(values, limitValues);
+            values.addAll(criteriaValues);
+            Collections.addAll(values, limitValues);
+        }
+        Collections.addAll(values, limitValues);
+        return bind(r2dbcEntityTemplate.getDatabaseClient().sql(sql), values);
     }
 
     /**
-     * Creates an SQL select statement from the given fragment and pagination parameters.
-     * @param selectFrom a representation of a select statement.
-     * @param entityType the entity type which holds the table name.
-     * @param pageable page parameter, or null, if everything needs to be returned
-     * @return sql select statement
-     */
-    public String createSelect(SelectFromAndJoinCondition selectFrom, Class<?> entityType, Pageable pageable, Criteria criteria) {
-        if (pageable != null) {
-            if (criteria != null) {
-                return createSelectImpl(
-                    selectFrom.limitOffset(pageable.getPageSize(), pageable.getOffset()).where(Conditions.just(criteria.toString())),
-                    entityType,
-                    pageable.getSort()
-                );
+     * Whether the keyset page can still reach the rows without a sort value: a single seek would need an {@code OR col IS NULL},
+     * which no index serves, so they are read by a second seek.
+     */
+    private static boolean isSplitKeyset(KeysetCursor cursor) {
+        return cursor != null && !cursor.isIdOnly() && (cursor.isFirstPage() || cursor.getValue() != null);
+    }
+
+    private String createTemplate(
+        Select select,
+        RelationalPersistentEntity<?> entity,
+        Criteria criteria,
+        KeysetCursor cursor,
+        Sort sort,
+        LimitClause limitClause,
+        boolean totalCount
+    ) {
+        if (isSplitKeyset(cursor)) {
+            return createKeysetTemplate(select, entity, criteria, cursor);
+        }
+        BindMarkers bindMarkers = dialect.getBindMarkersFactory().create();
+        // the values are collected by describeCriteria and describeKeyset
+        List<Object> values = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(createSelect(select));
+        if (totalCount) {
+            sql.insert(SELECT_PREFIX.length(), TOTAL_COUNT_COLUMN + ", ");
+        }
+        String keyword = " WHERE ";
+        if (criteria != null && !criteria.isEmpty()) {
+            sql.append(keyword).append('(');
+            renderCriteria(criteria, entity, bindMarkers, values, sql);
+            sql.append(')');
+            keyword = " AND ";
+        }
+        if (cursor != null && !cursor.isFirstPage()) {
+            sql.append(keyword);
+            renderKeyset(cursor, entity, bindMarkers, values, sql);
+        }
+        if (sort.isSorted()) {
+            sql.append(" ORDER BY ");
+            boolean first = true;
+            for (Sort.Order order : sort) {
+                if (!first) {
+                    sql.append(", ");
+                }
+                sql.append(ENTITY_ALIAS).append('.').append(getColumnName(entity, order.getProperty()));
+                sql.append(order.isAscending() ? " ASC" : " DESC");
+                if (order.getNullHandling() == Sort.NullHandling.NULLS_FIRST) {
+                    sql.append(" NULLS FIRST");
+                } else if (order.getNullHandling() == Sort.NullHandling.NULLS_LAST) {
+                    sql.append(" NULLS LAST");
+                }
+                first = false;
+            }
+        }
+        if (limitClause != LimitClause.NONE) {
+            sql.append(" LIMIT ").append(bindMarkers.next().getPlaceholder());
+        }
+        if (limitClause == LimitClause.LIMIT_OFFSET) {
+            sql.append(" OFFSET ").append(bindMarkers.next().getPlaceholder());
+        }
+        return sql.toString();
+    }
+
+    /**
+     * Renders a keyset page sorted by a property as the union of two seeks, each served by the index of the property and the id: the
+     * rows with a value after the cursor, then the rows without a value, which are sorted last. Both are limited to the page, and the
+     * union is sorted and limited again on the columns the seeks add.
+     */
+    private String createKeysetTemplate(Select select, RelationalPersistentEntity<?> entity, Criteria criteria, KeysetCursor cursor) {
+        BindMarkers bindMarkers = dialect.getBindMarkersFactory().create();
+        // the values are collected by describeCriteria and describeKeyset
+        List<Object> values = new ArrayList<>();
+        String column = ENTITY_ALIAS + "." + getColumnName(entity, cursor.getProperty());
+        String idColumn = ENTITY_ALIAS + "." + getColumnName(entity, KeysetCursor.ID_PROPERTY);
+        String direction = cursor.getDirection().isAscending() ? " ASC" : " DESC";
+        String keysetColumns = column + " AS " + KEYSET_VALUE_ALIAS + ", " + idColumn + " AS " + KEYSET_ID_ALIAS + ", ";
+        StringBuilder sql = new StringBuilder(SELECT_PREFIX).append("* FROM (");
+        for (boolean nulls : new boolean[] { false, true }) {
+            sql.append(nulls ? " UNION ALL (" : "(");
+            sql.append(new StringBuilder(createSelect(select)).insert(SELECT_PREFIX.length(), keysetColumns));
+            sql.append(" WHERE ");
+            if (criteria != null && !criteria.isEmpty()) {
+                sql.append('(');
+                renderCriteria(criteria, entity, bindMarkers, values, sql);
+                sql.append(") AND ");
+            }
+            if (nulls) {
+                sql.append(column).append(" IS NULL ORDER BY ").append(idColumn).append(direction);
             } else {
-                return createSelectImpl(
-                    selectFrom.limitOffset(pageable.getPageSize(), pageable.getOffset()),
-                    entityType,
-                    pageable.getSort()
-                );
+                if (cursor.isFirstPage()) {
+                    sql.append(column).append(" IS NOT NULL");
+                } else {
+                    renderKeyset(cursor, entity, bindMarkers, values, sql);
+                }
+                sql.append(" ORDER BY ").append(column).append(direction).append(", ").append(idColumn).append(direction);
             }
-        } else {
-            if (criteria != null) {
-                return createSelectImpl(selectFrom.where(Conditions.just(criteria.toString())), entityType, null);
+            sql.append(" LIMIT ").append(bindMarkers.next().getPlaceholder()).append(')');
+        }
+        sql.append(") ").append(KEYSET_PAGE_ALIAS);
+        sql.append(" ORDER BY ").append(KEYSET_VALUE_ALIAS).append(direction).append(" NULLS LAST, ");
+        sql.append(KEYSET_ID_ALIAS).append(direction);
+        sql.append(" LIMIT ").append(bindMarkers.next().getPlaceholder());
+        return sql.toString();
+    }
+
+    /**
+     * Renders the seek predicate: rows after the cursor's (value, id) in the sort direction. The rows without a value, sorted last,
+     * are read by their own seek, see {@link #createKeysetTemplate}, unless the cursor is already among them.
+     */
+    private void renderKeyset(
+        KeysetCursor cursor,
+        RelationalPersistentEntity<?> entity,
+        BindMarkers bindMarkers,
+        List<Object> values,
+        StringBuilder builder
+    ) {
+        String idColumn = ENTITY_ALIAS + "." + getColumnName(entity, KeysetCursor.ID_PROPERTY);
+        String comparator = cursor.getDirection().isAscending() ? " > " : " < ";
+        if (cursor.isIdOnly()) {
+            builder.append(idColumn).append(comparator).append(bindMarkers.next().getPlaceholder());
+            values.add(cursor.getId());
+            return;
+        }
+        String column = ENTITY_ALIAS + "." + getColumnName(entity, cursor.getProperty());
+        if (cursor.getValue() == null) {
+            builder.append('(').append(column).append(" IS NULL AND ");
+            builder.append(idColumn).append(comparator).append(bindMarkers.next().getPlaceholder()).append(')');
+            values.add(cursor.getId());
+            return;
+        }
+        builder.append('(').append(column).append(", ").append(idColumn).append(')').append(comparator);
+        builder
+            .append('(')
+            .append(bindMarkers.next().getPlaceholder())
+            .append(", ")
+            .append(bindMarkers.next().getPlaceholder())
+            .append(')');
+        values.add(cursor.parseValue(entity.getType()));
+        values.add(cursor.getId());
+    }
+
+    private void describeKeyset(KeysetCursor cursor, RelationalPersistentEntity<?> entity, List<Object> where, List<Object> values) {
+        where.add(KEYSET);
+        where.add(cursor.getDirection());
+        if (cursor.isIdOnly()) {
+            values.add(cursor.getId());
+            return;
+        }
+        where.add(cursor.getProperty());
+        where.add(cursor.getValue() == null);
+        if (cursor.getValue() != null) {
+            values.add(cursor.parseValue(entity.getType()));
+        }
+        values.add(cursor.getId());
+    }
+
+    private GenericExecuteSpec bind(GenericExecuteSpec spec, List<Object> values) {
+        for (int i = 0; i < values.size(); i++) {
+            Object value = values.get(i);
+            // a typed parameter can be null
+            Parameter parameter = updateMapper.getBindValue(value instanceof Parameter ? (Parameter) value : Parameter.from(value));
+            spec = parameter.hasValue() ? spec.bind(i, parameter.getValue()) : spec.bindNull(i, parameter.getType());
+        }
+        return spec;
+    }
+
+    private String getColumnName(RelationalPersistentEntity<?> entity, String propertyOrColumn) {
+        if (entity != null) {
+            RelationalPersistentProperty property = entity.getPersistentProperty(propertyOrColumn);
+            if (property != null) {
+                return property.getColumnName().getReference();
+            }
+            for (RelationalPersistentProperty candidate : entity) {
+                if (candidate.getColumnName().getReference().equals(propertyOrColumn)) {
+                    return propertyOrColumn;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unknown property or column: " + propertyOrColumn);
+    }
+
+    /**
+     * Renders the criteria chain with bind markers instead of the values, the values are collected in the same order as the markers.
+     */
+    private void renderCriteria(
+        CriteriaDefinition criteria,
+        RelationalPersistentEntity<?> entity,
+        BindMarkers bindMarkers,
+        List<Object> values,
+        StringBuilder builder
+    ) {
+        Deque<CriteriaDefinition> chain = new ArrayDeque<>();
+        CriteriaDefinition current = criteria;
+        chain.push(current);
+        while (current.hasPrevious()) {
+            current = current.getPrevious();
+            chain.push(current);
+        }
+        boolean first = true;
+        for (CriteriaDefinition criterion : chain) {
+            if (criterion.isEmpty()) {
+                continue;
+            }
+            if (!first) {
+                CriteriaDefinition.Combinator combinator = criterion.getCombinator() == CriteriaDefinition.Combinator.INITIAL
+                    ? CriteriaDefinition.Combinator.AND
+                    : criterion.getCombinator();
+                builder.append(' ').append(combinator.name()).append(' ');
+            }
+            if (criterion.isGroup()) {
+                renderGroup(criterion.getGroup(), entity, bindMarkers, values, builder);
             } else {
-                return createSelectImpl(selectFrom, entityType, null);
+                renderCriterion(criterion, entity, bindMarkers, values, builder);
             }
+            first = false;
         }
     }
 
-    private String createSelectImpl(SelectOrdered selectFrom, Class<?> entityType, Sort sortParameter) {
-        if (sortParameter != null && sortParameter.isSorted()) {
-            RelationalPersistentEntity<?> entity = getPersistentEntity(entityType);
-            if (entity != null) {
-                Sort sort = updateMapper.getMappedObject(sortParameter, entity);
-                selectFrom =
-                    selectFrom.orderBy(createOrderByFields(Table.create(entity.getTableName()).as(EntityManager.ENTITY_ALIAS), sort));
+    private void renderGroup(
+        List<CriteriaDefinition> group,
+        RelationalPersistentEntity<?> entity,
+        BindMarkers bindMarkers,
+        List<Object> values,
+        StringBuilder builder
+    ) {
+        builder.append('(');
+        boolean first = true;
+        for (CriteriaDefinition criterion : group) {
+            if (criterion.isEmpty()) {
+                continue;
+            }
+            if (!first) {
+                CriteriaDefinition.Combinator combinator = criterion.getCombinator() == CriteriaDefinition.Combinator.INITIAL
+                    ? CriteriaDefinition.Combinator.AND
+                    : criterion.getCombinator();
+                builder.append(' ').append(combinator.name()).append(' ');
             }
+            builder.append('(');
+            renderCriteria(criterion, entity, bindMarkers, values, builder);
+            builder.append(')');
+            first = false;
         }
-        return createSelect(selectFrom.build());
+        builder.append(')');
+    }
+
+    private void renderCriterion(
+        CriteriaDefinition criterion,
+        RelationalPersistentEntity<?> entity,
+        BindMarkers bindMarkers,
+        List<Object> values,
+        StringBuilder builder
+    ) {
+        String column = ENTITY_ALIAS + "." + getColumnName(entity, criterion.getColumn().getReference());
+        boolean ignoreCase = criterion.isIgnoreCase();
+        Object value = criterion.getValue();
+        if (value instanceof LinkedIds) {
+            renderLinkedIds(column, (LinkedIds) value, bindMarkers, values, builder);
+            return;
+        }
+        CriteriaDefinition.Comparator comparator = criterion.getComparator();
+        if (value == null && comparator == CriteriaDefinition.Comparator.EQ) {
+            comparator = CriteriaDefinition.Comparator.IS_NULL;
+        } else if (value == null && comparator == CriteriaDefinition.Comparator.NEQ) {
+            comparator = CriteriaDefinition.Comparator.IS_NOT_NULL;
+        }
+        switch (comparator) {
+            case IS_NULL:
+            case IS_NOT_NULL:
+            case IS_TRUE:
+            case IS_FALSE:
+                builder.append(column).append(' ').append(comparator.getComparator());
+                break;
+            case IN:
+            case NOT_IN:
+                Collection<?> items = value instanceof Collection ? (Collection<?>) value : Collections.singletonList(value);
+                if (items.isEmpty()) {
+                    builder.append(comparator == CriteriaDefinition.Comparator.IN ? "1 = 0" : "1 = 1");
+                    break;
+                }
+                builder.append(column).append(' ').append(comparator.getComparator()).append(" (");
+                boolean first = true;
+                for (Object item : items) {
+                    if (!first) {
+                        builder.append(", ");
+                    }
+                    builder.append(bindMarkers.next().getPlaceholder());
+                    values.add(item);
+                    first = false;
+                }
+                builder.append(')');
+                break;
+            case BETWEEN:
+            case NOT_BETWEEN:
+                Pair<?, ?> range = (Pair<?, ?>) value;
+                builder.append(column).append(' ').append(comparator.getComparator()).append(' ');
+                builder.append(bindMarkers.next().getPlaceholder()).append(" AND ").append(bindMarkers.next().getPlaceholder());
+                values.add(range.getFirst());
+                values.add(range.getSecond());
+                break;
+            default:
+                String marker = bindMarkers.next().getPlaceholder();
+                if (ignoreCase) {
+                    builder.append("UPPER(").append(column).append(") ").append(comparator.getComparator());
+                    builder.append(" UPPER(").append(marker).append(')');
+                } else {
+                    builder.append(column).append(' ').append(comparator.getComparator()).append(' ').append(marker);
+                }
+                values.add(value);
+        }
+    }
+
+    /**
+     * Collects the structure of the criteria chain, which decides its rendering: the columns, the comparators with the nulls and the
+     * sizes of the IN lists, the combinators, and the bounds of the groups. The values are collected in the order of renderCriteria's
+     * bind markers.
+     */
+    private void describeCriteria(CriteriaDefinition criteria, List<Object> where, List<Object> values) {
+        Deque<CriteriaDefinition> chain = new ArrayDeque<>();
+        CriteriaDefinition current = criteria;
+        chain.push(current);
+        while (current.hasPrevious()) {
+            current = current.getPrevious();
+            chain.push(current);
+        }
+        boolean first = true;
+        for (CriteriaDefinition criterion : chain) {
+            if (criterion.isEmpty()) {
+                continue;
+            }
+            if (!first) {
+                where.add(criterion.getCombinator() == CriteriaDefinition.Combinator.OR);
+            }
+            if (criterion.isGroup()) {
+                where.add(GROUP_START);
+                for (CriteriaDefinition member : criterion.getGroup()) {
+                    if (!member.isEmpty()) {
+                        where.add(member.getCombinator() == CriteriaDefinition.Combinator.OR);
+                        where.add(GROUP_START);
+                        describeCriteria(member, where, values);
+                        where.add(GROUP_END);
+                    }
+                }
+                where.add(GROUP_END);
+            } else {
+                describeCriterion(criterion, where, values);
+            }
+            first = false;
+        }
+    }
+
+    private void describeCriterion(CriteriaDefinition criterion, List<Object> where, List<Object> values) {
+        where.add(criterion.getColumn().getReference());
+        Object value = criterion.getValue();
+        if (value instanceof LinkedIds) {
+            LinkedIds linkedIds = (LinkedIds) value;
+            where.add(linkedIds.table.tableName);
+            where.add(linkedIds.table.idColumn);
+            where.add(linkedIds.table.referenceColumn);
+            where.add(linkedIds.referencedIds.size());
+            values.addAll(linkedIds.referencedIds);
+            return;
+        }
+        CriteriaDefinition.Comparator comparator = criterion.getComparator();
+        if (value == null && comparator == CriteriaDefinition.Comparator.EQ) {
+            comparator = CriteriaDefinition.Comparator.IS_NULL;
+        } else if (value == null && comparator == CriteriaDefinition.Comparator.NEQ) {
+            comparator = CriteriaDefinition.Comparator.IS_NOT_NULL;
+        }
+        where.add(comparator);
+        where.add(criterion.isIgnoreCase());
+        switch (comparator) {
+            case IS_NULL:
+            case IS_NOT_NULL:
+            case IS_TRUE:
+            case IS_FALSE:
+                break;
+            case IN:
+            case NOT_IN:
+                Collection<?> items = value instanceof Collection ? (Collection<?>) value : Collections.singletonList(value);
+                where.add(items.size());
+                values.addAll(items);
+                break;
+            case BETWEEN:
+            case NOT_BETWEEN:
+                Pair<?, ?> range = (Pair<?, ?>) value;
+                values.add(range.getFirst());
+                values.add(range.getSecond());
+                break;
+            default:
+                values.add(value);
+        }
+    }
+
+    private void renderLinkedIds(String column, LinkedIds linkedIds, BindMarkers bindMarkers, List<Object> values, StringBuilder builder) {
+        if (linkedIds.referencedIds.isEmpty()) {
+            builder.append("1 = 0");
+            return;
+        }
+        LinkTable table = linkedIds.table;
+        builder.append(column).append(" IN (SELECT ").append(table.idColumn).append(" FROM ").append(table.tableName);
+        builder.append(" WHERE ").append(table.referenceColumn).append(" IN (");
+        boolean first = true;
+        for (Long referencedId : linkedIds.referencedIds) {
+            builder.append(first ? "" : ", ").append(bindMarkers.next().getPlaceholder());
+            values.add(referencedId);
+            first = false;
+        }
+        builder.append("))");
     }
 
     private RelationalPersistentEntity<?> getPersistentEntity(Class<?> entityType) {
         return r2dbcEntityTemplate.getConverter().getMappingContext().getPersistentEntity(entityType);
     }
 
+    private String toSql(SqlIdentifier identifier) {
+        return identifier.toSql(dialect.getIdentifierProcessing());
+    }
+
+    private OutboundRow getOutboundRow(Object bean) {
+        OutboundRow row = new OutboundRow();
+        r2dbcEntityTemplate.getConverter().write(bean, row);
+        return row;
+    }
+
     /**
      * Delete all the entity with the given type, and return the number of deletions.
      * @param entityType the entity type which holds the table name.
@@ -165,6 +954,96 @@ public class EntityManager {
         return r2dbcEntityTemplate.getDatabaseClient().sql(statementMapper.getMappedObject(delete)).fetch().rowsUpdated();
     }
 
+    /**
+     * Delete all the entities matching the criteria, with one statement, and return the number of deletions.
+     * @param entityType the entity type which holds the table name.
+     * @param criteria the filter criteria, on the {@link #ENTITY_ALIAS} alias of the table.
+     * @return the number of deleted entities.
+     */
+    public Mono<Integer> deleteAll(Class<?> entityType, Criteria criteria) {
+        RelationalPersistentEntity<?> entity = getPersistentEntity(entityType);
+        BindMarkers bindMarkers = dialect.getBindMarkersFactory().create();
+        List<Object> values = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("DELETE FROM ").append(toSql(entity.getTableName()));
+        sql.append(' ').append(ENTITY_ALIAS);
+        renderWhere(criteria, entity, bindMarkers, values, sql);
+        return bind(r2dbcEntityTemplate.getDatabaseClient().sql(sql.toString()), values).fetch().rowsUpdated();
+    }
+
+    /**
+     * Delete all the entities matching the criteria, with one statement, and return their ids, from a {@code RETURNING} clause, which
+     * only PostgreSQL supports: see {@link #isPostgreSQL()}.
+     * @param entityType the entity type which holds the table name.
+     * @param criteria the filter criteria, on the {@link #ENTITY_ALIAS} alias of the table.
+     * @return the ids of the deleted entities.
+     */
+    public Flux<Long> deleteAllReturningIds(Class<?> entityType, Criteria criteria) {
+        Assert.state(isPostgreSQL(), "only PostgreSQL returns the ids of the deleted rows");
+        RelationalPersistentEntity<?> entity = getPersistentEntity(entityType);
+        BindMarkers bindMarkers = dialect.getBindMarkersFactory().create();
+        List<Object> values = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("DELETE FROM ").append(toSql(entity.getTableName()));
+        sql.append(' ').append(ENTITY_ALIAS);
+        renderWhere(criteria, entity, bindMarkers, values, sql);
+        sql.append(" RETURNING ").append(ENTITY_ALIAS).append('.').append(toSql(entity.getRequiredIdProperty().getColumnName()));
+        return bind(r2dbcEntityTemplate.getDatabaseClient().sql(sql.toString()), values).map(row -> row.get(0, Long.class)).all();
+    }
+
+    /**
+     * Updates all the entities matching the criteria, with one set-based statement, instead of reading and writing them one by one.
+     * @param entityType the entity type which holds the table name.
+     * @param update the changes of the entities.
+     * @param criteria the filter criteria, on the {@link #ENTITY_ALIAS} alias of the table.
+     * @return the number of updated entities.
+     */
+    public Mono<Integer> updateAll(Class<?> entityType, BulkUpdate update, Criteria criteria) {
+        Assert.isTrue(!update.isEmpty(), "update is empty");
+        RelationalPersistentEntity<?> entity = getPersistentEntity(entityType);
+        BindMarkers bindMarkers = dialect.getBindMarkersFactory().create();
+        List<Object> values = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("UPDATE ").append(toSql(entity.getTableName()));
+        sql.append(' ').append(ENTITY_ALIAS).append(" SET ");
+        boolean first = true;
+        for (Map.Entry<String, Object> value : update.getValues().entrySet()) {
+            String column = getColumnName(entity, value.getKey());
+            sql.append(first ? "" : ", ").append(column).append(" = ").append(bindMarkers.next().getPlaceholder());
+            values.add(Parameter.fromOrEmpty(value.getValue(), getPropertyType(entity, column)));
+            first = false;
+        }
+        for (Map.Entry<String, BigDecimal> factor : update.getFactors().entrySet()) {
+            String column = getColumnName(entity, factor.getKey());
+            sql.append(first ? "" : ", ").append(column).append(" = ROUND(").append(ENTITY_ALIAS).append('.').append(column);
+            // cast, since H2 otherwise types the factor after the column, and truncates it to an integer
+            sql.append(" * CAST(").append(bindMarkers.next().getPlaceholder()).append(" AS NUMERIC))");
+            values.add(factor.getValue());
+            first = false;
+        }
+        renderWhere(criteria, entity, bindMarkers, values, sql);
+        return bind(r2dbcEntityTemplate.getDatabaseClient().sql(sql.toString()), values).fetch().rowsUpdated();
+    }
+
+    private void renderWhere(
+        Criteria criteria,
+        RelationalPersistentEntity<?> entity,
+        BindMarkers bindMarkers,
+        List<Object> values,
+        StringBuilder builder
+    ) {
+        if (criteria != null && !criteria.isEmpty()) {
+            builder.append(" WHERE ");
+            renderCriteria(criteria, entity, bindMarkers, values, builder);
+        }
+    }
+
+    private static Class<?> getPropertyType(RelationalPersistentEntity<?> entity, String column) {
+        for (RelationalPersistentProperty property : entity) {
+            if (property.getColumnName().getReference().equals(column)) {
+                return property.getType();
+            }
+        }
+        return Object.class;
+    }
+
     /**
      * Generate an actual SQL from the given {@link Select}.
      * @param select a representation of a select statement.
@@ -185,38 +1064,739 @@ public class EntityManager {
     }
 
     /**
-     * Updates the table, which links the entity with the referred entities.
+     * Inserts the given new entities into the database in batches of {@code application.persistence.batch-size}, and sets their ids.
+     * @param <S> the type of the persisted entities.
+     * @param entities the entities to be inserted into the database.
+     * @return the persisted entities, in the same order.
+     * @see #insertAll(Publisher, int)
+     */
+    public <S> Flux<S> insertAll(Publisher<S> entities) {
+        return insertAll(entities, batchSize);
+    }
+
+    /**
+     * Inserts the given new entities into the database in batches, and sets their ids. Each batch is sent as one statement with a
+     * binding per entity, so it costs one round trip instead of one per entity.
+     * @param <S> the type of the persisted entities.
+     * @param entities the entities to be inserted into the database, all of the same type and without id.
+     * @param batchSize the maximum number of entities in one batch.
+     * @return the persisted entities, in the same order.
+     */
+    public <S> Flux<S> insertAll(Publisher<S> entities, int batchSize) {
+        Assert.isTrue(batchSize > 0, "batchSize must be positive");
+        return Flux.from(entities).buffer(batchSize).concatMap(this::insertBatch);
+    }
+
+    /**
+     * Saves the given entities: the new ones are inserted in batches, see {@link #insertAll(Publisher)}, the others are updated one by one.
+     * @param <S> the type of the persisted entities.
+     * @param entities the entities to be saved.
+     * @param update updates one existing entity.
+     * @return the persisted entities, in the same order.
+     */
+    public <S> Flux<S> saveAll(Publisher<S> entities, Function<S, Mono<S>> update) {
+        return saveAll(entities, update, Mono::just);
+    }
+
+    /**
+     * Saves the given entities: the new ones are inserted in batches, see {@link #insertAll(Publisher)}, the others are updated one by one.
+     * @param <S> the type of the persisted entities.
+     * @param entities the entities to be saved.
+     * @param update updates one existing entity.
+     * @param afterInsert completes one inserted entity, which has its id, for example by writing its relations.
+     * @return the persisted entities, in the same order.
+     */
+    public <S> Flux<S> saveAll(Publisher<S> entities, Function<S, Mono<S>> update, Function<S, Mono<S>> afterInsert) {
+        return Flux
+            .from(entities)
+            .buffer(batchSize)
+            .concatMap(
+                batch -> {
+                    Map<Boolean, List<S>> byNew = batch.stream().collect(Collectors.partitioningBy(this::isNew));
+                    return insertBatch(byNew.get(true))
+                        .concatMap(afterInsert)
+                        .thenMany(Flux.fromIterable(byNew.get(false)).concatMap(update))
+                        .thenMany(Flux.fromIterable(batch));
+                }
+            );
+    }
+
+    private <S> Flux<S> insertBatch(List<S> batch) {
+        if (batch.isEmpty()) {
+            return Flux.empty();
+        }
+        RelationalPersistentEntity<?> entity = getPersistentEntity(batch.get(0).getClass());
+        RelationalPersistentProperty idProperty = entity.getRequiredIdProperty();
+        List<OutboundRow> rows = new ArrayList<>(batch.size());
+        for (S bean : batch) {
+            Assert.isTrue(getPersistentEntity(bean.getClass()) == entity, "all the entities of a batch must have the same type");
+            Assert.isTrue(isNew(bean), "only new entities can be inserted in a batch");
+            OutboundRow row = getOutboundRow(bean);
+            row.remove(idProperty.getColumnName());
+            rows.add(row);
+        }
+        List<SqlIdentifier> columns = new ArrayList<>(rows.get(0).keySet());
+        BindMarkers bindMarkers = dialect.getBindMarkersFactory().create();
+        String sql =
+            "INSERT INTO " +
+            toSql(entity.getTableName()) +
+            " (" +
+            columns.stream().map(this::toSql).collect(Collectors.joining(", ")) +
+            ") VALUES (" +
+            columns.stream().map(column -> bindMarkers.next().getPlaceholder()).collect(Collectors.joining(", ")) +
+            ")";
+        String idColumn = toSql(idProperty.getColumnName());
+        return r2dbcEntityTemplate
+            .getDatabaseClient()
+            .inConnectionMany(
+                connection -> {
+                    Statement statement = connection.createStatement(sql).returnGeneratedValues(idColumn);
+                    for (int i = 0; i < rows.size(); i++) {
+                        if (i > 0) {
+                            statement.add();
+                        }
+                        OutboundRow row = rows.get(i);
+                        for (int j = 0; j < columns.size(); j++) {
+                            Parameter value = updateMapper.getBindValue(row.get(columns.get(j)));
+                            if (value.hasValue()) {
+                                statement.bind(j, value.getValue());
+                            } else {
+                                statement.bindNull(j, value.getType());
+                            }
+                        }
+                    }
+                    return Flux
+                        .from(statement.execute())
+                        .concatMap(result -> result.map((row, metadata) -> row.get(0, idProperty.getType())));
+                }
+            )
+            .collectList()
+            .flatMapMany(
+                ids -> {
+                    if (ids.size() != batch.size()) {
+                        return Flux.error(
+                            new IllegalStateException(
+                                "Expected " + batch.size() + " generated ids for " + entity.getName() + ", got " + ids.size()
+                            )
+                        );
+                    }
+                    for (int i = 0; i < batch.size(); i++) {
+                        entity.getPropertyAccessor(batch.get(i)).setProperty(idProperty, ids.get(i));
+                    }
+                    return Flux.fromIterable(batch);
+                }
+            );
+    }
+
+    private boolean isNew(Object bean) {
+        return getPersistentEntity(bean.getClass()).isNew(bean);
+    }
+
+    /**
+     * Inserts the given entities, or updates the existing ones with the same natural key, in batches of
+     * {@code application.persistence.batch-size}. Each batch costs two statements: a select of the existing rows with the keys of the
+     * batch, and a batched upsert of the new and changed entities, an {@code INSERT ... ON CONFLICT DO UPDATE} on PostgreSQL, which needs
+     * a unique index on the key, or a {@code MERGE} on H2. The unchanged entities aren't written, and the ids of the entities are ignored.
+     * The other databases fail before the first batch, see {@link #supportsUpsert()}.
+     * @param entities the entities, all of the same type, with their key properties set.
+     * @param keyProperties the properties of the natural key.
+     * @param <S> the type of the entities.
+     * @return the number of created, updated and unchanged entities.
+     */
+    public <S> Mono<UpsertResult> upsertAll(Publisher<S> entities, List<String> keyProperties) {
+        Assert.notEmpty(keyProperties, "keyProperties is empty");
+        Assert.state(supportsUpsert(), () -> "Upserts aren't supported with " + dialect.getClass().getSimpleName());
+        return Flux
+            .from(entities)
+            .buffer(batchSize)
+            .concatMap(batch -> upsertBatch(batch, keyProperties))
+            .reduce(UpsertResult.NONE, UpsertResult::plus);
+    }
+
+    private <S> Mono<UpsertResult> upsertBatch(List<S> batch, List<String> keyProperties) {
+        RelationalPersistentEntity<?> entity = getPersistentEntity(batch.get(0).getClass());
+        SqlIdentifier idColumn = entity.getRequiredIdProperty().getColumnName();
+        List<SqlIdentifier> columns = null;
+        List<List<Parameter>> rows = new ArrayList<>(batch.size());
+        for (S bean : batch) {
+            Assert.isTrue(getPersistentEntity(bean.getClass()) == entity, "all the entities of a batch must have the same type");
+            OutboundRow row = getOutboundRow(bean);
+            row.remove(idColumn);
+            if (columns == null) {
+                columns = new ArrayList<>(row.keySet());
+            }
+            List<Parameter> values = new ArrayList<>(columns.size());
+            for (SqlIdentifier column : columns) {
+                values.add(updateMapper.getBindValue(row.get(column)));
+            }
+            rows.add(values);
+        }
+        List<String> columnNames = columns.stream().map(SqlIdentifier::getReference).collect(Collectors.toList());
+        int[] keyIndexes = new int[keyProperties.size()];
+        for (int i = 0; i < keyIndexes.length; i++) {
+            keyIndexes[i] = columnNames.indexOf(getColumnName(entity, keyProperties.get(i)));
+        }
+        Map<List<Object>, List<Object>> keyed = new LinkedHashMap<>();
+        for (List<Parameter> row : rows) {
+            List<Object> key = keyOf(row, keyIndexes);
+            Assert.isTrue(!key.contains(null), "the key of an upserted entity can't be null");
+            keyed.putIfAbsent(key, null);
+        }
+        List<Class<?>> types = rows.get(0).stream().map(Parameter::getType).collect(Collectors.toList());
+        return findByKeys(entity, columnNames, keyIndexes, keyed.keySet(), types)
+            .flatMap(
+                existing -> {
+                    int created = 0;
+                    int updated = 0;
+                    int unchanged = 0;
+                    // the last row of a key repeated in the batch wins, ON CONFLICT can't update a row twice in a statement
+                    Map<List<Object>, List<Parameter>> changed = new LinkedHashMap<>();
+                    for (List<Parameter> row : rows) {
+                        List<Object> values = row.stream().map(Parameter::getValue).collect(Collectors.toList());
+                        // a key repeated in the batch is compared with its previous values
+                        List<Object> current = existing.put(keyOf(row, keyIndexes), values);
+                        if (values.equals(current)) {
+                            unchanged++;
+                            continue;
+                        }
+                        if (current == null) {
+                            created++;
+                        } else {
+                            updated++;
+                        }
+                        changed.put(keyOf(row, keyIndexes), row);
+                    }
+                    UpsertResult result = new UpsertResult(created, updated, unchanged);
+                    return executeUpsert(entity, columnNames, keyIndexes, new ArrayList<>(changed.values())).thenReturn(result);
+                }
+            );
+    }
+
+    private static List<Object> keyOf(List<Parameter> row, int[] keyIndexes) {
+        List<Object> key = new ArrayList<>(keyIndexes.length);
+        for (int keyIndex : keyIndexes) {
+            key.add(row.get(keyIndex).getValue());
+        }
+        return key;
+    }
+
+    private Mono<Map<List<Object>, List<Object>>> findByKeys(
+        RelationalPersistentEntity<?> entity,
+        List<String> columns,
+        int[] keyIndexes,
+        Collection<List<Object>> keys,
+        List<Class<?>> types
+    ) {
+        BindMarkers bindMarkers = dialect.getBindMarkersFactory().create();
+        List<Object> values = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(SELECT_PREFIX).append(String.join(", ", columns));
+        sql.append(" FROM ").append(toSql(entity.getTableName())).append(" WHERE ");
+        boolean first = true;
+        for (List<Object> key : keys) {
+            sql.append(first ? "(" : " OR (");
+            for (int i = 0; i < keyIndexes.length; i++) {
+                sql.append(i > 0 ? " AND " : "").append(columns.get(keyIndexes[i])).append(" = ");
+                sql.append(bindMarkers.next().getPlaceholder());
+                values.add(key.get(i));
+            }
+            sql.append(')');
+            first = false;
+        }
+        return bind(r2dbcEntityTemplate.getDatabaseClient().sql(sql.toString()), values)
+            .map(
+                row -> {
+                    List<Object> current = new ArrayList<>(types.size());
+                    for (int i = 0; i < types.size(); i++) {
+                        current.add(row.get(i, types.get(i)));
+                    }
+                    return current;
+                }
+            )
+            .all()
+            .collectMap(
+                current -> {
+                    List<Object> key = new ArrayList<>(keyIndexes.length);
+                    for (int keyIndex : keyIndexes) {
+                        key.add(current.get(keyIndex));
+                    }
+                    return key;
+                },
+                Function.identity(),
+                HashMap::new
+            );
+    }
+
+    private Mono<Void> executeUpsert(
+        RelationalPersistentEntity<?> entity,
+        List<String> columns,
+        int[] keyIndexes,
+        List<List<Parameter>> rows
+    ) {
+        if (rows.isEmpty()) {
+            return Mono.empty();
+        }
+        String table = toSql(entity.getTableName());
+        List<String> keyColumns = Arrays.stream(keyIndexes).mapToObj(columns::get).collect(Collectors.toList());
+        BindMarkers bindMarkers = dialect.getBindMarkersFactory().create();
+        String insert =
+            " (" +
+            String.join(", ", columns) +
+            ") " +
+            (dialect instanceof H2Dialect ? "KEY (" + String.join(", ", keyColumns) + ") " : "") +
+            "VALUES (" +
+            columns.stream().map(column -> bindMarkers.next().getPlaceholder()).collect(Collectors.joining(", ")) +
+            ")";
+        String sql;
+        // H2 extends the PostgreSQL dialect, but doesn't support ON CONFLICT
+        if (dialect instanceof H2Dialect) {
+            sql = "MERGE INTO " + table + insert;
+        } else {
+            String updates = columns
+                .stream()
+                .filter(column -> !keyColumns.contains(column))
+                .map(column -> column + " = EXCLUDED." + column)
+                .collect(Collectors.joining(", "));
+            sql =
+                "INSERT INTO " +
+                table +
+                insert +
+                " ON CONFLICT (" +
+                String.join(", ", keyColumns) +
+                ") " +
+                (updates.isEmpty() ? "DO NOTHING" : "DO UPDATE SET " + updates);
+        }
+        return r2dbcEntityTemplate
+            .getDatabaseClient()
+            .inConnectionMany(
+                connection -> {
+                    Statement statement = connection.createStatement(sql);
+                    for (int i = 0; i < rows.size(); i++) {
+                        if (i > 0) {
+                            statement.add();
+                        }
+                        List<Parameter> row = rows.get(i);
+                        for (int j = 0; j < row.size(); j++) {
+                            Parameter value = row.get(j);
+                            if (value.hasValue()) {
+                                statement.bind(j, value.getValue());
+                            } else {
+                                statement.bindNull(j, value.getType());
+                            }
+                        }
+                    }
+                    return Flux.from(statement.execute()).concatMap(Result::getRowsUpdated);
+                }
+            )
+            .then();
+    }
+
+    /**
+     * Updates all the columns of the given entity, with one statement, and without checking first that it exists.
+     * @param entity the entity to be updated, with its id.
+     * @return the number of updated rows, {@code 0} if no entity has the id.
+     */
+    public Mono<Integer> update(Object entity) {
+        return createUpdate(entity, true, null).fetch().rowsUpdated();
+    }
+
+    /**
+     * Updates the columns of the non-null properties of the given patch, with one statement, and reads the updated entity back: in the
+     * same round trip with {@code RETURNING} where the dialect supports it, with a select by id afterwards otherwise.
+     * @param patch the changes, with the id of the entity to update.
+     * @param mappingFunction maps a row, with the {@link #ALIAS_PREFIX} prefixed columns of the entity table, to an entity.
+     * @param <T> the type of the entity.
+     * @return the updated entity, or empty if no entity has the id.
+     */
+    public <T> Mono<T> partialUpdate(T patch, BiFunction<Row, RowMetadata, T> mappingFunction) {
+        RelationalPersistentEntity<?> entity = getPersistentEntity(patch.getClass());
+        Object id = entity.getIdentifierAccessor(patch).getRequiredIdentifier();
+        String columns = StreamSupport
+            .stream(entity.spliterator(), false)
+            .map(property -> toSql(property.getColumnName()))
+            .map(column -> column + " AS " + ALIAS_PREFIX + column)
+            .collect(Collectors.joining(", "));
+        String select =
+            SELECT_PREFIX +
+            columns +
+            " FROM " +
+            toSql(entity.getTableName()) +
+            " WHERE " +
+            toSql(entity.getRequiredIdProperty().getColumnName()) +
+            " = " +
+            firstBindMarker();
+        // H2 extends the PostgreSQL dialect, but its data change delta tables can't read the updated values back
+        boolean returning = dialect instanceof PostgresDialect && !(dialect instanceof H2Dialect);
+        GenericExecuteSpec update = createUpdate(patch, false, returning ? columns : null);
+        if (update == null) {
+            return r2dbcEntityTemplate.getDatabaseClient().sql(select).bind(0, id).map(mappingFunction).one();
+        }
+        if (returning) {
+            return update.map(mappingFunction).one();
+        }
+        return update
+            .fetch()
+            .rowsUpdated()
+            .filter(updated -> updated > 0)
+            .flatMap(updated -> r2dbcEntityTemplate.getDatabaseClient().sql(select).bind(0, id).map(mappingFunction).one());
+    }
+
+    /**
+     * Creates an update by id of the columns of the given entity.
+     * @param bean the entity, with its id.
+     * @param allColumns whether the columns of the null properties are set to null, or left out.
+     * @param returning the columns to return, or null.
+     * @return the statement, with all the values bound, or null if there is no column to set.
+     */
+    private GenericExecuteSpec createUpdate(Object bean, boolean allColumns, String returning) {
+        RelationalPersistentEntity<?> entity = getPersistentEntity(bean.getClass());
+        RelationalPersistentProperty idProperty = entity.getRequiredIdProperty();
+        OutboundRow row = getOutboundRow(bean);
+        Parameter id = row.remove(idProperty.getColumnName());
+        Assert.isTrue(id != null && id.hasValue(), "only entities with an id can be updated");
+        List<Parameter> values = new ArrayList<>(row.size() + 1);
+        BindMarkers bindMarkers = dialect.getBindMarkersFactory().create();
+        StringBuilder sql = new StringBuilder("UPDATE ").append(toSql(entity.getTableName())).append(" SET ");
+        for (Map.Entry<SqlIdentifier, Parameter> column : row.entrySet()) {
+            Parameter value = updateMapper.getBindValue(column.getValue());
+            if (allColumns || value.hasValue()) {
+                sql.append(values.isEmpty() ? "" : ", ").append(toSql(column.getKey()));
+                sql.append(" = ").append(bindMarkers.next().getPlaceholder());
+                values.add(value);
+            }
+        }
+        if (values.isEmpty()) {
+            return null;
+        }
+        sql.append(" WHERE ").append(toSql(idProperty.getColumnName()));
+        sql.append(" = ").append(bindMarkers.next().getPlaceholder());
+        values.add(updateMapper.getBindValue(id));
+        if (returning != null) {
+            sql.append(" RETURNING ").append(returning);
+        }
+        GenericExecuteSpec spec = r2dbcEntityTemplate.getDatabaseClient().sql(sql.toString());
+        for (int i = 0; i < values.size(); i++) {
+            Parameter value = values.get(i);
+            spec = value.hasValue() ? spec.bind(i, value.getValue()) : spec.bindNull(i, value.getType());
+        }
+        return spec;
+    }
+
+    /**
+     * Updates the table, which links the entity with the referred entities. The current links are read first, and only the difference
+     * is written: one delete for the removed links, and batched inserts for the added ones. Nothing is written if the links didn't change.
      * @param table describes the link table, it contains a table name, the column name for the id, and for the referred entity id.
      * @param entityId the id of the entity, for which the links are created.
      * @param referencedIds the id of the referred entities.
-     * @return the number of inserted rows.
+     * @return the number of inserted and deleted rows.
      */
     public Mono<Integer> updateLinkTable(LinkTable table, Long entityId, Stream<Long> referencedIds) {
-        return deleteFromLinkTable(table, entityId)
-            .then(
-                Flux
-                    .fromStream(referencedIds)
-                    .flatMap(
-                        (Long referenceId) -> {
-                            StatementMapper.InsertSpec insert = r2dbcEntityTemplate
-                                .getDataAccessStrategy()
-                                .getStatementMapper()
-                                .createInsert(table.tableName)
-                                .withColumn(table.idColumn, Parameter.from(entityId))
-                                .withColumn(table.referenceColumn, Parameter.from(referenceId));
-
-                            return r2dbcEntityTemplate
-                                .getDatabaseClient()
-                                .sql(statementMapper.getMappedObject(insert))
-                                .fetch()
-                                .rowsUpdated();
+        Assert.notNull(entityId, "entityId is null");
+        LongScatterSet wanted = new LongScatterSet();
+        referencedIds.filter(Objects::nonNull).forEach(wanted::add);
+        return findLinks(table, entityId)
+            .flatMap(
+                current -> {
+                    LongArrayList removed = difference(current, wanted);
+                    LongArrayList added = difference(wanted, current);
+                    if (removed.isEmpty() && added.isEmpty()) {
+                        meterRegistry.counter(LINK_TABLE_SYNCS_METRIC, TABLE_TAG, table.tableName, "result", "unchanged").increment();
+                        return Mono.just(0);
+                    }
+                    meterRegistry.counter(LINK_TABLE_SYNCS_METRIC, TABLE_TAG, table.tableName, "result", "changed").increment();
+                    // one after the other, the statements share the connection of the transaction
+                    return deleteLinks(table, entityId, removed)
+                        .flatMap(deleted -> insertLinks(table, entityId, added).map(inserted -> deleted + inserted));
+                }
+            );
+    }
+
+    private static LongArrayList difference(LongScatterSet ids, LongScatterSet excluded) {
+        LongArrayList difference = new LongArrayList();
+        for (LongCursor id : ids) {
+            if (!excluded.contains(id.value)) {
+                difference.add(id.value);
+            }
+        }
+        return difference;
+    }
+
+    private Mono<LongScatterSet> findLinks(LinkTable table, Long entityId) {
+        String sql =
+            "SELECT " + table.referenceColumn + " FROM " + table.tableName + " WHERE " + table.idColumn + " = " + firstBindMarker();
+        return r2dbcEntityTemplate
+            .getDatabaseClient()
+            .sql(sql)
+            .bind(0, entityId)
+            .map(row -> row.get(0, Long.class))
+            .all()
+            .collect(LongScatterSet::new, LongScatterSet::add);
+    }
+
+    private Mono<Integer> deleteLinks(LinkTable table, Long entityId, LongArrayList referenceIds) {
+        if (referenceIds.isEmpty()) {
+            return Mono.just(0);
+        }
+        BindMarkers bindMarkers = dialect.getBindMarkersFactory().create();
+        StringBuilder sql = new StringBuilder("DELETE FROM ").append(table.tableName);
+        sql.append(" WHERE ").append(table.idColumn).append(" = ").append(bindMarkers.next().getPlaceholder());
+        sql.append(" AND ").append(table.referenceColumn).append(" IN (");
+        for (int i = 0; i < referenceIds.size(); i++) {
+            sql.append(i > 0 ? ", " : "").append(bindMarkers.next().getPlaceholder());
+        }
+        sql.append(')');
+        List<Object> values = new ArrayList<>(referenceIds.size() + 1);
+        values.add(entityId);
+        for (LongCursor referenceId : referenceIds) {
+            values.add(referenceId.value);
+        }
+        return bind(r2dbcEntityTemplate.getDatabaseClient().sql(sql.toString()), values)
+            .fetch()
+            .rowsUpdated()
+            .doOnNext(deleted -> countLinkRows(table, "deleted", deleted));
+    }
+
+    private Mono<Integer> insertLinks(LinkTable table, Long entityId, LongArrayList referenceIds) {
+        if (referenceIds.isEmpty()) {
+            return Mono.just(0);
+        }
+        BindMarkers bindMarkers = dialect.getBindMarkersFactory().create();
+        String sql =
+            "INSERT INTO " +
+            table.tableName +
+            " (" +
+            table.idColumn +
+            ", " +
+            table.referenceColumn +
+            ") VALUES (" +
+            bindMarkers.next().getPlaceholder() +
+            ", " +
+            bindMarkers.next().getPlaceholder() +
+            ")";
+        return Flux
+            .range(0, referenceIds.size())
+            .map(referenceIds::get)
+            .buffer(batchSize)
+            // one batch at a time, on the connection of the current transaction
+            .concatMap(
+                batch ->
+                    r2dbcEntityTemplate
+                        .getDatabaseClient()
+                        .inConnectionMany(
+                            connection -> {
+                                Statement statement = connection.createStatement(sql);
+                                for (int i = 0; i < batch.size(); i++) {
+                                    if (i > 0) {
+                                        statement.add();
+                                    }
+                                    statement.bind(0, entityId).bind(1, batch.get(i));
+                                }
+                                return Flux.from(statement.execute()).concatMap(Result::getRowsUpdated);
+                            }
+                        )
+            )
+            .reduce(0, Integer::sum)
+            .doOnNext(inserted -> countLinkRows(table, "inserted", inserted));
+    }
+
+    private void countLinkRows(LinkTable table, String operation, int rows) {
+        meterRegistry.counter(LINK_TABLE_ROWS_METRIC, TABLE_TAG, table.tableName, "operation", operation).increment(rows);
+    }
+
+    private String firstBindMarker() {
+        return dialect.getBindMarkersFactory().create().next().getPlaceholder();
+    }
+
+    /**
+     * Loads the entities referred through a link table by a stream of entities, without one query per entity: the entities are
+     * buffered in batches of {@code application.persistence.batch-size}, the referred entities of a whole batch are loaded with one
+     * {@code IN} query on the link table, and handed to each entity of the batch.
+     * @param entities the entities, for which the referred entities are loaded.
+     * @param idGetter returns the id of an entity.
+     * @param table describes the link table, it contains a table name, the column name for the id, and for the referred entity id.
+     * @param select the base select of the referred entities, with the {@link #ENTITY_ALIAS} alias, and without where and order by clauses.
+     * @param mappingFunction maps a row of the select to a referred entity.
+     * @param setter hands its referred entities, in the order of their ids, to an entity.
+     * @param <E> the type of the entities.
+     * @param <T> the type of the referred entities.
+     * @return the entities, once their referred entities are set.
+     */
+    public <E, T> Flux<E> fetchLinked(
+        Flux<E> entities,
+        Function<E, Long> idGetter,
+        LinkTable table,
+        Select select,
+        BiFunction<Row, RowMetadata, T> mappingFunction,
+        BiConsumer<E, List<T>> setter
+    ) {
+        return fetchLinked(entities, idGetter, table, select, mappingFunction, Function.identity(), setter);
+    }
+
+    /**
+     * Loads the entities referred through a link table by a stream of entities, like
+     * {@link #fetchLinked(Flux, Function, LinkTable, Select, BiFunction, BiConsumer)}, and lets the referred entities of each batch
+     * load their own relationships before they are handed over.
+     * @param entities the entities, for which the referred entities are loaded.
+     * @param idGetter returns the id of an entity.
+     * @param table describes the link table, it contains a table name, the column name for the id, and for the referred entity id.
+     * @param select the base select of the referred entities, with the {@link #ENTITY_ALIAS} alias, and without where and order by clauses.
+     * @param mappingFunction maps a row of the select to a referred entity.
+     * @param fetchNested loads the relationships of the referred entities of a batch, and returns them.
+     * @param setter hands its referred entities, in the order of their ids, to an entity.
+     * @param <E> the type of the entities.
+     * @param <T> the type of the referred entities.
+     * @return the entities, once their referred entities are set.
+     */
+    public <E, T> Flux<E> fetchLinked(
+        Flux<E> entities,
+        Function<E, Long> idGetter,
+        LinkTable table,
+        Select select,
+        BiFunction<Row, RowMetadata, T> mappingFunction,
+        Function<Flux<T>, Flux<T>> fetchNested,
+        BiConsumer<E, List<T>> setter
+    ) {
+        String ownerColumn = LINK_ALIAS + "." + table.idColumn;
+        String template = relatedTemplates.computeIfAbsent(
+            Pair.of(select, table.tableName + "." + table.idColumn),
+            key -> createLinkedTemplate(select, table)
+        );
+        return fetchRelated(entities, idGetter, template, ownerColumn, mappingFunction, fetchNested, setter);
+    }
+
+    /**
+     * Loads the entities which refer to a stream of entities through a foreign key, the many side of a one-to-many relationship,
+     * without one query per entity: the entities are buffered in batches of {@code application.persistence.batch-size}, the
+     * referring entities of a whole batch are loaded with one {@code IN} query on the foreign key, and handed to each entity of the batch.
+     * @param entities the entities, for which the referring entities are loaded.
+     * @param idGetter returns the id of an entity.
+     * @param foreignKeyColumn the column of the referring table which holds the id of an entity.
+     * @param select the base select of the referring entities, with the {@link #ENTITY_ALIAS} alias, and without where and order by
+     * clauses.
+     * @param mappingFunction maps a row of the select to a referring entity.
+     * @param fetchNested loads the relationships of the referring entities of a batch, and returns them.
+     * @param setter hands its referring entities, in the order of their ids, to an entity.
+     * @param <E> the type of the entities.
+     * @param <T> the type of the referring entities.
+     * @return the entities, once their referring entities are set.
+     */
+    public <E, T> Flux<E> fetchReferring(
+        Flux<E> entities,
+        Function<E, Long> idGetter,
+        String foreignKeyColumn,
+        Select select,
+        BiFunction<Row, RowMetadata, T> mappingFunction,
+        Function<Flux<T>, Flux<T>> fetchNested,
+        BiConsumer<E, List<T>> setter
+    ) {
+        String ownerColumn = ENTITY_ALIAS + "." + foreignKeyColumn;
+        String template = relatedTemplates.computeIfAbsent(
+            Pair.of(select, ownerColumn),
+            key -> createReferringTemplate(select, ownerColumn)
+        );
+        return fetchRelated(entities, idGetter, template, ownerColumn, mappingFunction, fetchNested, setter);
+    }
+
+    private <E, T> Flux<E> fetchRelated(
+        Flux<E> entities,
+        Function<E, Long> idGetter,
+        String template,
+        String ownerColumn,
+        BiFunction<Row, RowMetadata, T> mappingFunction,
+        Function<Flux<T>, Flux<T>> fetchNested,
+        BiConsumer<E, List<T>> setter
+    ) {
+        return entities
+            .buffer(batchSize)
+            .concatMap(
+                batch -> {
+                    LongScatterSet ids = new LongScatterSet(batch.size());
+                    for (E entity : batch) {
+                        Long id = idGetter.apply(entity);
+                        if (id != null) {
+                            ids.add(id);
                         }
-                    )
-                    .collectList()
-                    .map((List<Integer> updates) -> updates.stream().reduce(Integer::sum).orElse(0))
+                    }
+                    return findAllRelated(template, ownerColumn, ids, mappingFunction, fetchNested)
+                        .map(
+                            related -> {
+                                for (E entity : batch) {
+                                    Long id = idGetter.apply(entity);
+                                    setter.accept(
+                                        entity,
+                                        id == null ? Collections.emptyList() : related.getOrDefault(id, Collections.emptyList())
+                                    );
+                                }
+                                return batch;
+                            }
+                        )
+                        .flatMapIterable(Function.identity());
+                }
             );
     }
 
+    private <T> Mono<LongObjectMap<List<T>>> findAllRelated(
+        String template,
+        String ownerColumn,
+        LongScatterSet ownerIds,
+        BiFunction<Row, RowMetadata, T> mappingFunction,
+        Function<Flux<T>, Flux<T>> fetchNested
+    ) {
+        if (ownerIds.isEmpty()) {
+            return Mono.just(new LongObjectScatterMap<>());
+        }
+        BindMarkers bindMarkers = dialect.getBindMarkersFactory().create();
+        StringBuilder sql = new StringBuilder(template);
+        sql.append(" WHERE ").append(ownerColumn).append(" IN (");
+        for (int i = 0; i < ownerIds.size(); i++) {
+            sql.append(i > 0 ? ", " : "").append(bindMarkers.next().getPlaceholder());
+        }
+        sql.append(") ORDER BY ").append(ownerColumn).append(", ").append(ENTITY_ALIAS).append(".id");
+        List<Object> values = new ArrayList<>(ownerIds.size());
+        for (LongCursor ownerId : ownerIds) {
+            values.add(ownerId.value);
+        }
+        return bind(r2dbcEntityTemplate.getDatabaseClient().sql(sql.toString()), values)
+            .map((row, metadata) -> Tuples.of(row.get(0, Long.class), mappingFunction.apply(row, metadata)))
+            .all()
+            .collectList()
+            .flatMap(
+                rows -> fetchNested.apply(Flux.fromIterable(rows).map(Tuple2::getT2)).then(Mono.fromSupplier(() -> groupByOwner(rows)))
+            );
+    }
+
+    private static <T> LongObjectMap<List<T>> groupByOwner(List<Tuple2<Long, T>> rows) {
+        LongObjectMap<List<T>> groups = new LongObjectScatterMap<>();
+        for (Tuple2<Long, T> row : rows) {
+            List<T> group = groups.get(row.getT1());
+            if (group == null) {
+                group = new ArrayList<>();
+                groups.put(row.getT1(), group);
+            }
+            group.add(row.getT2());
+        }
+        return groups;
+    }
+
+    /**
+     * Renders the base select with the id of the referring entity as first column, joined with the link table.
+     */
+    private String createLinkedTemplate(Select select, LinkTable table) {
+        StringBuilder sql = new StringBuilder(sqlRenderer.render(select));
+        sql.insert(SELECT_PREFIX.length(), LINK_ALIAS + "." + table.idColumn + ", ");
+        sql.append(" JOIN ").append(table.tableName).append(' ').append(LINK_ALIAS);
+        sql.append(" ON ").append(LINK_ALIAS).append('.').append(table.referenceColumn).append(" = ").append(ENTITY_ALIAS).append(".id");
+        return sql.toString();
+    }
+
+    /**
+     * Renders the base select with the foreign key to the referred entity as first column.
+     */
+    private String createReferringTemplate(Select select, String ownerColumn) {
+        StringBuilder sql = new StringBuilder(sqlRenderer.render(select));
+        sql.insert(SELECT_PREFIX.length(), ownerColumn + ", ");
+        return sql.toString();
+    }
+
     public Mono<Void> deleteFromLinkTable(LinkTable table, Long entityId) {
         Assert.notNull(entityId, "entityId is null");
         StatementMapper.DeleteSpec deleteSpec = r2dbcEntityTemplate
@@ -227,16 +1807,76 @@ public class EntityManager {
         return r2dbcEntityTemplate.getDatabaseClient().sql(statementMapper.getMappedObject(deleteSpec)).then();
     }
 
-    private static Collection<? extends OrderByField> createOrderByFields(Table table, Sort sortToUse) {
-        List<OrderByField> fields = new ArrayList<>();
+    /**
+     * Deletes the links of all the entities matching the criteria, with one statement, for example before deleting the entities.
+     * @param table describes the link table, it contains a table name, the column name for the id, and for the referred entity id.
+     * @param entityType the entity type which holds the table name.
+     * @param criteria the filter criteria of the entities, on the {@link #ENTITY_ALIAS} alias of their table.
+     * @return the number of deleted links.
+     */
+    public Mono<Integer> deleteFromLinkTable(LinkTable table, Class<?> entityType, Criteria criteria) {
+        RelationalPersistentEntity<?> entity = getPersistentEntity(entityType);
+        BindMarkers bindMarkers = dialect.getBindMarkersFactory().create();
+        List<Object> values = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("DELETE FROM ").append(table.tableName);
+        sql.append(" WHERE ").append(table.idColumn).append(" IN (SELECT ").append(ENTITY_ALIAS).append('.');
+        sql.append(toSql(entity.getRequiredIdProperty().getColumnName()));
+        sql.append(" FROM ").append(toSql(entity.getTableName())).append(' ').append(ENTITY_ALIAS);
+        renderWhere(criteria, entity, bindMarkers, values, sql);
+        sql.append(')');
+        return bind(r2dbcEntityTemplate.getDatabaseClient().sql(sql.toString()), values)
+            .fetch()
+            .rowsUpdated()
+            .doOnNext(deleted -> countLinkRows(table, "deleted", deleted));
+    }
+
+    private enum LimitClause {
+        NONE,
+        LIMIT,
+        LIMIT_OFFSET,
+    }
+
+    /**
+     * Identifies one query shape: the base select, the sort order, the limit clause, the total count column, and the structure of
+     * the where clause.
+     */
+    private static final class TemplateKey {
+
+        private final Select select;
+        private final Sort sort;
+        private final LimitClause limitClause;
+        private final boolean totalCount;
+        private final List<Object> where;
 
-        for (Sort.Order order : sortToUse) {
-            String propertyName = order.getProperty();
-            OrderByField orderByField = OrderByField.from(table.column(propertyName).as(EntityManager.ALIAS_PREFIX + propertyName));
+        TemplateKey(Select select, Sort sort, LimitClause limitClause, boolean totalCount, List<Object> where) {
+            this.select = select;
+            this.sort = sort;
+            this.limitClause = limitClause;
+            this.totalCount = totalCount;
+            this.where = where;
+        }
 
-            fields.add(order.isAscending() ? orderByField.asc() : orderByField.desc());
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TemplateKey)) {
+                return false;
+            }
+            TemplateKey other = (TemplateKey) o;
+            return (
+                select == other.select &&
+                limitClause == other.limitClause &&
+                totalCount == other.totalCount &&
+                sort.equals(other.sort) &&
+                where.equals(other.where)
+            );
         }
 
-        return fields;
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(select), sort, limitClause, totalCount, where);
+        }
     }
 }
@@ -0,0 +1,106 @@
+package com.mycompany.myapp.service;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The properties of the entities to read and to render: a sparse fieldset, such as {@code id,firstName,lastName}. The id is always
+ * part of it. {@link #ALL} reads every property.
+ */
+public final class FieldSet {
+
+    /**
+     * Every property.
+     */
+    public static final FieldSet ALL = new FieldSet(null);
+
+    public static final String ID = "id";
+
+    private static final String SEPARATOR = ",";
+
+    private final Set<String> properties;
+
+    private FieldSet(Set<String> properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Parses comma separated property names.
+     *
+     * @param value the property names, or {@code null}.
+     * @param supported the properties which can be requested.
+     * @return the parsed fieldset, {@link #ALL} if the value is {@code null} or blank.
+     * @throws IllegalArgumentException if a property isn't supported.
+     */
+    public static FieldSet parse(String value, Collection<String> supported) {
+        if (value == null || value.isBlank()) {
+            return ALL;
+        }
+        Set<String> properties = new LinkedHashSet<>();
+        properties.add(ID);
+        for (String property : value.split(SEPARATOR)) {
+            String name = property.trim();
+            if (!supported.contains(name)) {
+                throw new IllegalArgumentException("Unknown field: '" + name + "'");
+            }
+            properties.add(name);
+        }
+        return new FieldSet(Collections.unmodifiableSet(properties));
+    }
+
+    public boolean isAll() {
+        return properties == null;
+    }
+
+    /**
+     * @param property the name of a property.
+     * @return whether the property is read.
+     */
+    public boolean contains(String property) {
+        return properties == null || properties.contains(property);
+    }
+
+    /**
+     * @return the properties, empty for {@link #ALL}.
+     */
+    public Set<String> getProperties() {
+        return properties == null ? Collections.emptySet() : properties;
+    }
+
+    /**
+     * @param extraProperties properties needed to process the entities, such as the sort properties of a keyset page.
+     * @return this fieldset, with the extra properties.
+     */
+    public FieldSet with(Collection<String> extraProperties) {
+        if (properties == null || properties.containsAll(extraProperties)) {
+            return this;
+        }
+        Set<String> union = new LinkedHashSet<>(properties);
+        union.addAll(extraProperties);
+        return new FieldSet(Collections.unmodifiableSet(union));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof FieldSet)) {
+            return false;
+        }
+        return Objects.equals(properties, ((FieldSet) o).properties);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(properties);
+    }
+
+    @Override
+    public String toString() {
+        return properties == null ? "*" : String.join(SEPARATOR, properties);
+    }
+}
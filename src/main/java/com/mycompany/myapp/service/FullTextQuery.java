@@ -0,0 +1,107 @@
+package com.mycompany.myapp.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * A full-text search query: the terms of the searched text, lower-cased and stripped of the characters which have a meaning in a query.
+ * An entity matches when each term is a prefix of a word of its searched properties, so that a partly typed name already matches.
+ */
+public final class FullTextQuery {
+
+    public static final int MAX_TERMS = 8;
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private final List<String> terms;
+
+    private FullTextQuery(List<String> terms) {
+        this.terms = terms;
+    }
+
+    /**
+     * Parses the searched text, its terms are separated by white space.
+     * @param text the searched text.
+     * @return the query.
+     * @throws IllegalArgumentException if the text has no term, or more than {@link #MAX_TERMS}.
+     */
+    public static FullTextQuery parse(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text != null) {
+            for (String word : text.trim().split("\\s+")) {
+                String term = normalize(word);
+                if (!term.isEmpty() && !terms.contains(term)) {
+                    terms.add(term);
+                }
+            }
+        }
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("The search query has no term");
+        }
+        if (terms.size() > MAX_TERMS) {
+            throw new IllegalArgumentException("The search query has more than " + MAX_TERMS + " terms");
+        }
+        return new FullTextQuery(Collections.unmodifiableList(terms));
+    }
+
+    // keeps the characters of names, emails and phone numbers, the others are operators of a tsquery
+    private static String normalize(String word) {
+        StringBuilder term = new StringBuilder(word.length());
+        for (char c : word.toLowerCase(Locale.ROOT).toCharArray()) {
+            if (Character.isLetterOrDigit(c) || c == '@' || c == '.' || c == '-' || c == '_' || c == '+') {
+                term.append(c);
+            }
+        }
+        return term.toString();
+    }
+
+    public List<String> getTerms() {
+        return terms;
+    }
+
+    /**
+     * @return the query as the text of a PostgreSQL {@code tsquery}: each term quoted, matched as a prefix, and all required.
+     */
+    public String toTsQuery() {
+        return terms.stream().map(term -> "'" + term + "':*").collect(Collectors.joining(" & "));
+    }
+
+    /**
+     * @param term one of the terms.
+     * @return the pattern of a case-insensitive {@code LIKE} on a lower-cased column, which matches the values containing the term.
+     */
+    public static String toLikePattern(String term) {
+        StringBuilder pattern = new StringBuilder(term.length() + 2).append('%');
+        for (char c : term.toCharArray()) {
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                pattern.append(LIKE_ESCAPE);
+            }
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof FullTextQuery)) {
+            return false;
+        }
+        return terms.equals(((FullTextQuery) o).terms);
+    }
+
+    @Override
+    public int hashCode() {
+        return terms.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "FullTextQuery{terms=" + terms + "}";
+    }
+}
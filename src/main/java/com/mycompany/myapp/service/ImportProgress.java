@@ -0,0 +1,107 @@
+package com.mycompany.myapp.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Progress of a bulk import, reported once per batch: the lines of the batch, the rows it imported, and the lines it rejected.
+ * When the database rejects a batch, the batch is reported with the failure, and the import stops there.
+ */
+public class ImportProgress {
+
+    private final long batch;
+    private final long firstLine;
+    private final long lastLine;
+    private final int imported;
+    private final long totalImported;
+    private final String failure;
+    private final List<LineError> errors;
+
+    ImportProgress(long batch, long firstLine, long lastLine, int imported, long totalImported, String failure, List<LineError> errors) {
+        this.batch = batch;
+        this.firstLine = firstLine;
+        this.lastLine = lastLine;
+        this.imported = imported;
+        this.totalImported = totalImported;
+        this.failure = failure;
+        this.errors = Collections.unmodifiableList(new ArrayList<>(errors));
+    }
+
+    public long getBatch() {
+        return batch;
+    }
+
+    public long getFirstLine() {
+        return firstLine;
+    }
+
+    public long getLastLine() {
+        return lastLine;
+    }
+
+    public int getImported() {
+        return imported;
+    }
+
+    public long getTotalImported() {
+        return totalImported;
+    }
+
+    public boolean isFailed() {
+        return failure != null;
+    }
+
+    public String getFailure() {
+        return failure;
+    }
+
+    public List<LineError> getErrors() {
+        return errors;
+    }
+
+    @Override
+    public String toString() {
+        return (
+            "ImportProgress{" +
+            "batch=" +
+            batch +
+            ", lines=" +
+            firstLine +
+            "-" +
+            lastLine +
+            ", imported=" +
+            imported +
+            ", totalImported=" +
+            totalImported +
+            ", failure='" +
+            failure +
+            "'" +
+            ", errors=" +
+            errors.size() +
+            "}"
+        );
+    }
+
+    /**
+     * A line which couldn't be imported, with the reason.
+     */
+    public static class LineError {
+
+        private final long line;
+        private final String message;
+
+        LineError(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.mycompany.myapp.service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The relationships to load along with some entities, as a tree: {@code employees.jobs.tasks} loads the employees, their jobs, and
+ * the tasks of their jobs. Each level is loaded with one query per batch of entities, whatever the number of entities.
+ */
+public final class Include {
+
+    /**
+     * No relationship at all.
+     */
+    public static final Include NONE = new Include(Collections.emptyMap());
+
+    private static final String PATH_SEPARATOR = ",";
+    private static final String LEVEL_SEPARATOR = ".";
+
+    private final Map<String, Include> relationships;
+
+    private Include(Map<String, Include> relationships) {
+        this.relationships = relationships;
+    }
+
+    /**
+     * Parses comma separated paths of relationships, such as {@code employees.jobs.tasks,location}.
+     *
+     * @param value the paths, or {@code null}.
+     * @return the parsed relationships, {@link #NONE} if the value is {@code null} or blank.
+     * @throws IllegalArgumentException if a path has an empty relationship name.
+     */
+    public static Include parse(String value) {
+        if (value == null || value.isBlank()) {
+            return NONE;
+        }
+        Map<String, Include> relationships = new LinkedHashMap<>();
+        for (String path : value.split(PATH_SEPARATOR, -1)) {
+            Map<String, Include> level = relationships;
+            for (String relationship : path.trim().split("\\" + LEVEL_SEPARATOR, -1)) {
+                if (relationship.isEmpty()) {
+                    throw new IllegalArgumentException("Invalid include path: '" + path.trim() + "'");
+                }
+                level = level.computeIfAbsent(relationship, key -> new Include(new LinkedHashMap<>())).relationships;
+            }
+        }
+        return new Include(relationships);
+    }
+
+    public boolean isEmpty() {
+        return relationships.isEmpty();
+    }
+
+    /**
+     * @param relationship the name of a relationship.
+     * @return whether the relationship is loaded.
+     */
+    public boolean has(String relationship) {
+        return relationships.containsKey(relationship);
+    }
+
+    /**
+     * @return the names of the relationships loaded along with the entities, without the nested ones.
+     */
+    public Set<String> getRelationships() {
+        return Collections.unmodifiableSet(relationships.keySet());
+    }
+
+    /**
+     * @param relationship the name of a relationship.
+     * @return the relationships to load along with the entities of the relationship, {@link #NONE} if it isn't loaded.
+     */
+    public Include get(String relationship) {
+        return relationships.getOrDefault(relationship, NONE);
+    }
+
+    /**
+     * @param supported the relationships which can be loaded.
+     * @return whether every path of these relationships is a path, or the start of a path, of the supported ones.
+     */
+    public boolean isWithin(Include supported) {
+        return relationships
+            .entrySet()
+            .stream()
+            .allMatch(
+                relationship ->
+                    supported.has(relationship.getKey()) && relationship.getValue().isWithin(supported.get(relationship.getKey()))
+            );
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Include)) {
+            return false;
+        }
+        return relationships.equals(((Include) o).relationships);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(relationships);
+    }
+
+    @Override
+    public String toString() {
+        return toString("");
+    }
+
+    private String toString(String prefix) {
+        return relationships
+            .entrySet()
+            .stream()
+            .map(
+                relationship ->
+                    relationship.getValue().isEmpty()
+                        ? prefix + relationship.getKey()
+                        : relationship.getValue().toString(prefix + relationship.getKey() + LEVEL_SEPARATOR)
+            )
+            .collect(Collectors.joining(PATH_SEPARATOR));
+    }
+}
@@ -0,0 +1,122 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.repository.JobHistoryRepository;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Maintenance of the {@code job_history} table, when the application is ready and then on the scheduling pool.
+ * <p>
+ * When the table is partitioned by month of start date, see {@code application.job-history.partitioned}, the partitions of the
+ * current and next months are created ahead of the inserts, and the partitions older than the retention are detached or dropped as a
+ * whole. Otherwise, the job histories older than the retention are deleted with one statement. The months are the months of UTC.
+ */
+@Service
+public class JobHistoryMaintenance {
+
+    private final Logger log = LoggerFactory.getLogger(JobHistoryMaintenance.class);
+
+    // Liquibase may still be migrating the table when the application is ready
+    private static final Retry STARTUP_RETRY = Retry.backoff(5, Duration.ofSeconds(1));
+
+    private final JobHistoryRepository jobHistoryRepository;
+    private final ApplicationProperties.JobHistory properties;
+
+    public JobHistoryMaintenance(JobHistoryRepository jobHistoryRepository, ApplicationProperties applicationProperties) {
+        this.jobHistoryRepository = jobHistoryRepository;
+        this.properties = applicationProperties.getJobHistory();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void maintainOnStartup() {
+        maintain(YearMonth.now(ZoneOffset.UTC))
+            .retryWhen(STARTUP_RETRY)
+            .onErrorResume(
+                e -> {
+                    log.warn("Couldn't maintain the job histories: {}", e.getMessage());
+                    return Mono.empty();
+                }
+            )
+            .subscribe();
+    }
+
+    @Scheduled(cron = "${application.job-history.maintenance-cron:0 0 3 * * ?}")
+    public void maintainOnSchedule() {
+        maintain(YearMonth.now(ZoneOffset.UTC)).block();
+    }
+
+    /**
+     * Creates the partitions of the given month and of the next ones, and removes the job histories older than the retention.
+     * @param currentMonth the current month.
+     * @return a Mono to signal the end of the maintenance.
+     */
+    public Mono<Void> maintain(YearMonth currentMonth) {
+        return jobHistoryRepository
+            .isPartitioned()
+            .flatMap(
+                partitioned -> {
+                    if (partitioned) {
+                        return createPartitions(currentMonth).then(expirePartitions(currentMonth));
+                    }
+                    if (properties.isPartitioned()) {
+                        log.warn("application.job-history.partitioned is set, but job_history isn't partitioned, which only PostgreSQL is");
+                    }
+                    return deleteExpired(currentMonth);
+                }
+            );
+    }
+
+    private Mono<Void> createPartitions(YearMonth currentMonth) {
+        return Flux
+            .range(0, properties.getPremadePartitions() + 1)
+            .map(currentMonth::plusMonths)
+            // the job histories of a month which were inserted into the default partition are moved into the month's partition
+            .concatMap(jobHistoryRepository::createPartition)
+            .then();
+    }
+
+    private Mono<Void> expirePartitions(YearMonth currentMonth) {
+        if (properties.getRetentionMonths() <= 0) {
+            return Mono.empty();
+        }
+        YearMonth oldestKept = currentMonth.minusMonths(properties.getRetentionMonths());
+        return jobHistoryRepository
+            .findPartitions()
+            .filter(month -> month.isBefore(oldestKept))
+            .concatMap(
+                month -> {
+                    if (properties.isDropExpiredPartitions()) {
+                        return jobHistoryRepository
+                            .dropPartition(month)
+                            .doOnSuccess(v -> log.info("Dropped the job_history partition of {}", month));
+                    }
+                    return jobHistoryRepository
+                        .detachPartition(month)
+                        .doOnSuccess(v -> log.info("Detached the job_history partition of {}", month));
+                }
+            )
+            .then();
+    }
+
+    private Mono<Void> deleteExpired(YearMonth currentMonth) {
+        if (properties.getRetentionMonths() <= 0) {
+            return Mono.empty();
+        }
+        YearMonth oldestKept = currentMonth.minusMonths(properties.getRetentionMonths());
+        return jobHistoryRepository
+            .deleteByStartDateBefore(oldestKept.atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC))
+            .doOnNext(deleted -> log.info("Deleted {} job histories which started before {}", deleted, oldestKept))
+            .then();
+    }
+}
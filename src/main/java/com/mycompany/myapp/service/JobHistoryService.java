@@ -1,7 +1,10 @@
 package com.mycompany.myapp.service;
 
 import com.mycompany.myapp.domain.JobHistory;
+import java.util.List;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -17,14 +20,31 @@ public interface JobHistoryService {
      */
     Mono<JobHistory> save(JobHistory jobHistory);
 
+    /**
+     * Update a jobHistory.
+     *
+     * @param jobHistory the entity to update.
+     * @return the persisted entity, or empty if it doesn't exist.
+     */
+    Mono<JobHistory> update(JobHistory jobHistory);
+
     /**
      * Partially updates a jobHistory.
      *
      * @param jobHistory the entity to update partially.
-     * @return the persisted entity.
+     * @return the persisted entity, or empty if it doesn't exist.
      */
     Mono<JobHistory> partialUpdate(JobHistory jobHistory);
 
+    /**
+     * Import jobHistories in bulk.
+     *
+     * @param body the jobHistories, as streamed in the request body.
+     * @param format the format of the body.
+     * @return the import progress, one element per batch.
+     */
+    Flux<ImportProgress> importAll(Flux<DataBuffer> body, BulkFormat format);
+
     /**
      * Get all the jobHistories.
      *
@@ -33,6 +53,56 @@ public interface JobHistoryService {
      */
     Flux<JobHistory> findAll(Pageable pageable);
 
+    /**
+     * Get a keyset page of the jobHistories, which starts after the cursor position.
+     *
+     * @param cursor the position after which the page starts.
+     * @param limit the maximum number of entities to return.
+     * @return the list of entities.
+     */
+    Flux<JobHistory> findAllAfter(KeysetCursor cursor, int limit);
+
+    /**
+     * Get a keyset page of the jobHistories, which starts after the cursor position, with some of their properties and relationships.
+     *
+     * @param cursor the position after which the page starts.
+     * @param limit the maximum number of entities to return.
+     * @param fields the properties to read.
+     * @param include the relationships to join.
+     * @param filter the filters the entities must match.
+     * @return the list of entities.
+     */
+    Flux<JobHistory> findAllAfter(KeysetCursor cursor, int limit, FieldSet fields, Include include, EntityFilter filter);
+
+    /**
+     * Get a page of the jobHistories, with the total computed by the given strategy.
+     *
+     * @param pageable the pagination information.
+     * @param countStrategy how the total number of entities is computed.
+     * @return the page of entities, a {@link Slice} without total with {@link CountStrategy#NONE}.
+     */
+    Mono<Slice<JobHistory>> findPage(Pageable pageable, CountStrategy countStrategy);
+
+    /**
+     * Get a page of the jobHistories, with some of their properties and relationships.
+     *
+     * @param pageable the pagination information.
+     * @param countStrategy how the total number of entities is computed.
+     * @param fields the properties to read.
+     * @param include the relationships to join.
+     * @param filter the filters the entities must match.
+     * @return the page of entities, a {@link Slice} without total with {@link CountStrategy#NONE}.
+     */
+    Mono<Slice<JobHistory>> findPage(Pageable pageable, CountStrategy countStrategy, FieldSet fields, Include include, EntityFilter filter);
+
+    /**
+     * Export all the jobHistories, streamed from the database in one read-only transaction.
+     *
+     * @param format the format of the export.
+     * @return the lines of the export.
+     */
+    Flux<String> exportAll(BulkFormat format);
+
     /**
      * Returns the number of jobHistories available.
      * @return the number of entities in the database.
@@ -48,6 +118,26 @@ public interface JobHistoryService {
      */
     Mono<JobHistory> findOne(Long id);
 
+    /**
+     * Get the "id" jobHistory, with some of its properties and relationships.
+     *
+     * @param id the id of the entity.
+     * @param fields the properties to read.
+     * @param include the relationships to join.
+     * @return the entity.
+     */
+    Mono<JobHistory> findOne(Long id, FieldSet fields, Include include);
+
+    /**
+     * Get the jobHistorys with the given ids, with some of their properties and relationships.
+     *
+     * @param ids the ids of the entities.
+     * @param fields the properties to read.
+     * @param include the relationships to join.
+     * @return the entities found, in no particular order.
+     */
+    Flux<JobHistory> findAllById(List<Long> ids, FieldSet fields, Include include);
+
     /**
      * Delete the "id" jobHistory.
      *
@@ -0,0 +1,216 @@
+package com.mycompany.myapp.service;
+
+import java.beans.PropertyDescriptor;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Objects;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.core.convert.ConversionException;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.Assert;
+
+/**
+ * Position of a keyset (seek) page: the sort property and direction, and the sort value and id of the last row of the previous page.
+ * The next page starts strictly after that row, so it costs the same whatever its depth. Clients receive it as an opaque, URL-safe token.
+ */
+public final class KeysetCursor {
+
+    public static final String ID_PROPERTY = "id";
+
+    private static final char SEPARATOR = '|';
+
+    private final String property;
+    private final Sort.Direction direction;
+    private final Long id;
+    private final String value;
+
+    private KeysetCursor(String property, Sort.Direction direction, Long id, String value) {
+        this.property = property;
+        this.direction = direction;
+        this.id = id;
+        this.value = value;
+    }
+
+    /**
+     * Creates the cursor of the first page for the given sort, which can be unsorted, sorted by id, or by one property (with the id as
+     * tie-breaker).
+     * @param sort the requested sort.
+     * @return the cursor for the first page.
+     * @throws IllegalArgumentException if the sort contains more than one property besides the id.
+     */
+    public static KeysetCursor first(Sort sort) {
+        String property = ID_PROPERTY;
+        Sort.Direction direction = Sort.Direction.ASC;
+        Iterator<Sort.Order> orders = sort.iterator();
+        if (orders.hasNext()) {
+            Sort.Order order = orders.next();
+            property = order.getProperty();
+            direction = order.getDirection();
+            if (orders.hasNext()) {
+                Sort.Order tieBreaker = orders.next();
+                if (!ID_PROPERTY.equals(tieBreaker.getProperty()) || tieBreaker.getDirection() != direction || orders.hasNext()) {
+                    throw new IllegalArgumentException("Keyset pagination supports a single sort property, with the id as tie-breaker");
+                }
+            }
+        }
+        return new KeysetCursor(property, direction, null, null);
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()}.
+     * @param token the token sent by the client.
+     * @return the decoded cursor.
+     * @throws IllegalArgumentException if the token is malformed.
+     */
+    public static KeysetCursor decode(String token) {
+        String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        String[] parts = decoded.split("\\" + SEPARATOR, 4);
+        if (parts.length != 4 || parts[0].isEmpty() || parts[2].isEmpty()) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        String value = parts[3].isEmpty() ? null : parts[3].substring(1);
+        try {
+            return new KeysetCursor(parts[0], Sort.Direction.fromString(parts[1]), Long.valueOf(parts[2]), value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+
+    /**
+     * Encodes the cursor into an opaque token.
+     * @return the token.
+     */
+    public String encode() {
+        Assert.state(id != null, "the cursor of the first page can't be encoded");
+        String raw = property + SEPARATOR + direction.name() + SEPARATOR + id + SEPARATOR + (value == null ? "" : "v" + value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Creates the cursor which continues after the given entity, with the same sort.
+     * @param entity the last entity of the current page.
+     * @return the cursor of the next page.
+     */
+    public KeysetCursor after(Object entity) {
+        BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(entity);
+        Long entityId = (Long) wrapper.getPropertyValue(ID_PROPERTY);
+        Object sortValue = isIdOnly() ? null : wrapper.getPropertyValue(property);
+        return new KeysetCursor(property, direction, entityId, sortValue == null ? null : sortValue.toString());
+    }
+
+    /**
+     * Checks that a decoded cursor is used with the sort it was created for.
+     * @param sort the requested sort, or unsorted.
+     * @return true, if the sort matches the cursor, or if no sort was requested.
+     */
+    public boolean matches(Sort sort) {
+        if (sort.isUnsorted()) {
+            return true;
+        }
+        KeysetCursor requested = first(sort);
+        return property.equals(requested.property) && direction == requested.direction;
+    }
+
+    /**
+     * Parses the sort value into the type of the sort property, which checks that the cursor can be used on the given entity.
+     * @param entityType the type of the paged entities.
+     * @return the sort value, or null on the first page, when sorted by id, or when the last row had no value.
+     * @throws IllegalArgumentException if the entity has no such sortable property, or if the value isn't one of its values.
+     */
+    public Object parseValue(Class<?> entityType) {
+        if (isIdOnly()) {
+            return null;
+        }
+        PropertyDescriptor descriptor = BeanUtils.getPropertyDescriptor(entityType, property);
+        if (descriptor == null || descriptor.getReadMethod() == null || !BeanUtils.isSimpleValueType(descriptor.getPropertyType())) {
+            throw new IllegalArgumentException("Unknown sort property: " + property);
+        }
+        if (value == null) {
+            return null;
+        }
+        Class<?> type = descriptor.getPropertyType();
+        try {
+            if (Instant.class.equals(type)) {
+                return Instant.parse(value);
+            }
+            if (LocalDate.class.equals(type)) {
+                return LocalDate.parse(value);
+            }
+            if (ZonedDateTime.class.equals(type)) {
+                return ZonedDateTime.parse(value);
+            }
+            return DefaultConversionService.getSharedInstance().convert(value, type);
+        } catch (DateTimeException | ConversionException e) {
+            throw new IllegalArgumentException("Invalid cursor value: " + value, e);
+        }
+    }
+
+    /**
+     * @return the order of the keyset: the sort property with nulls last, then the id, in the same direction.
+     */
+    public Sort getSort() {
+        if (isIdOnly()) {
+            return Sort.by(direction, ID_PROPERTY);
+        }
+        return Sort.by(new Sort.Order(direction, property).nullsLast(), new Sort.Order(direction, ID_PROPERTY));
+    }
+
+    public boolean isIdOnly() {
+        return ID_PROPERTY.equals(property);
+    }
+
+    public boolean isFirstPage() {
+        return id == null;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public Sort.Direction getDirection() {
+        return direction;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof KeysetCursor)) {
+            return false;
+        }
+        KeysetCursor other = (KeysetCursor) o;
+        return (
+            property.equals(other.property) &&
+            direction == other.direction &&
+            Objects.equals(id, other.id) &&
+            Objects.equals(value, other.value)
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(property, direction, id, value);
+    }
+
+    @Override
+    public String toString() {
+        return "KeysetCursor{property='" + property + "', direction=" + direction + ", id=" + id + ", value='" + value + "'}";
+    }
+}
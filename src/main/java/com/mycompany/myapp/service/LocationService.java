@@ -17,14 +17,30 @@ public interface LocationService {
      */
     Mono<Location> save(Location location);
 
+    /**
+     * Update a location.
+     *
+     * @param location the entity to update.
+     * @return the persisted entity, or empty if it doesn't exist.
+     */
+    Mono<Location> update(Location location);
+
     /**
      * Partially updates a location.
      *
      * @param location the entity to update partially.
-     * @return the persisted entity.
+     * @return the persisted entity, or empty if it doesn't exist.
      */
     Mono<Location> partialUpdate(Location location);
 
+    /**
+     * Insert the locations, or update the existing ones with the same natural key.
+     *
+     * @param locations the entities to upsert.
+     * @return the number of created, updated and unchanged entities.
+     */
+    Mono<UpsertResult> upsertAll(List<Location> locations);
+
     /**
      * Get all the locations.
      *
@@ -32,6 +48,32 @@ public interface LocationService {
      */
     Flux<Location> findAll();
 
+    /**
+     * Get all the locations matching the filters.
+     *
+     * @param filter the filters the entities must match.
+     * @return the list of entities.
+     */
+    Flux<Location> findAll(EntityFilter filter);
+
+    /**
+     * Get a keyset page of the locations, which starts after the cursor position.
+     *
+     * @param cursor the position after which the page starts.
+     * @param limit the maximum number of entities to return.
+     * @param filter the filters the entities must match.
+     * @return the list of entities.
+     */
+    Flux<Location> findAllAfter(KeysetCursor cursor, int limit, EntityFilter filter);
+
+    /**
+     * Export all the locations, streamed from the database in one read-only transaction.
+     *
+     * @param format the format of the export.
+     * @return the lines of the export.
+     */
+    Flux<String> exportAll(BulkFormat format);
+
     /**
      * Returns the number of locations available.
      * @return the number of entities in the database.
@@ -47,6 +89,14 @@ public interface LocationService {
      */
     Mono<Location> findOne(Long id);
 
+    /**
+     * Get the locations with the given ids.
+     *
+     * @param ids the ids of the entities.
+     * @return the entities found, in no particular order.
+     */
+    Flux<Location> findAllById(List<Long> ids);
+
     /**
      * Delete the "id" location.
      *
@@ -0,0 +1,208 @@
+package com.mycompany.myapp.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * In-memory prefix index of some text properties of the entities of one type, which serves the typeahead endpoints without any query.
+ * <p>
+ * Each word of an indexed value starts a term: "San Francisco" is found by "san" and by "fran". The terms are lower-cased, and kept in
+ * a sorted concurrent map, whose keys end with the id and property, so that the suggestions for a prefix are the entries which follow
+ * it: the cost of a lookup depends on the number of suggestions returned, not on the number of entities. Writes update the entries of
+ * one entity, and can run concurrently with the lookups and with a {@link #load(Flux) load}.
+ *
+ * @param <T> the type of the entities.
+ */
+public class PrefixIndex<T> {
+
+    private static final char SEPARATOR = '\u0000';
+
+    private final Function<T, Long> idGetter;
+    private final Function<T, String> labelGetter;
+    private final Map<String, Function<T, String>> properties;
+
+    private final ConcurrentSkipListMap<String, Suggestion> entries = new ConcurrentSkipListMap<>();
+
+    /**
+     * The keys of the entries of each entity, and the load they were written by.
+     */
+    private final Map<Long, Indexed> indexed = new ConcurrentHashMap<>();
+
+    private final AtomicLong loads = new AtomicLong();
+
+    private static final class Indexed {
+
+        private final List<String> keys;
+        private final long load;
+
+        private Indexed(List<String> keys, long load) {
+            this.keys = keys;
+            this.load = load;
+        }
+    }
+
+    /**
+     * @param idGetter returns the id of an entity.
+     * @param labelGetter returns the label the suggestions of an entity are displayed with.
+     * @param properties the getters of the indexed properties, by property name.
+     */
+    public PrefixIndex(Function<T, Long> idGetter, Function<T, String> labelGetter, Map<String, Function<T, String>> properties) {
+        Assert.notEmpty(properties, "properties is empty");
+        this.idGetter = idGetter;
+        this.labelGetter = labelGetter;
+        this.properties = new LinkedHashMap<>(properties);
+    }
+
+    /**
+     * Indexes the current values of an entity, in place of its previous ones.
+     * @param entity the entity, with its id.
+     */
+    public void put(T entity) {
+        Long id = idGetter.apply(entity);
+        Assert.notNull(id, "the indexed entity has no id");
+        String label = labelGetter.apply(entity);
+        Map<String, Suggestion> added = new LinkedHashMap<>();
+        for (Map.Entry<String, Function<T, String>> property : properties.entrySet()) {
+            String value = property.getValue().apply(entity);
+            if (value == null) {
+                continue;
+            }
+            Suggestion suggestion = new Suggestion(id, property.getKey(), value, label);
+            for (String term : terms(value)) {
+                added.put(term + SEPARATOR + id + SEPARATOR + property.getKey(), suggestion);
+            }
+        }
+        // the entries of an entity are replaced one entity at a time
+        indexed.compute(
+            id,
+            (key, previous) -> {
+                if (previous != null) {
+                    previous.keys.stream().filter(previousKey -> !added.containsKey(previousKey)).forEach(entries::remove);
+                }
+                entries.putAll(added);
+                return new Indexed(new ArrayList<>(added.keySet()), loads.get());
+            }
+        );
+    }
+
+    /**
+     * Removes an entity from the index.
+     * @param id the id of the entity.
+     */
+    public void remove(Long id) {
+        indexed.computeIfPresent(
+            id,
+            (key, previous) -> {
+                previous.keys.forEach(entries::remove);
+                return null;
+            }
+        );
+    }
+
+    /**
+     * Removes all the entities from the index, but the ones written concurrently.
+     */
+    public void clear() {
+        removeOlderThan(loads.incrementAndGet());
+    }
+
+    /**
+     * Indexes all the entities, and then removes the ones which weren't part of them, nor written since the load started.
+     * @param entities all the entities, streamed from the database.
+     * @return the number of loaded entities.
+     */
+    public Mono<Long> load(Flux<T> entities) {
+        return Mono.defer(
+            () -> {
+                long load = loads.incrementAndGet();
+                return entities.doOnNext(this::put).count().doOnNext(count -> removeOlderThan(load));
+            }
+        );
+    }
+
+    private void removeOlderThan(long load) {
+        for (Long id : indexed.keySet()) {
+            indexed.computeIfPresent(
+                id,
+                (key, previous) -> {
+                    if (previous.load >= load) {
+                        return previous;
+                    }
+                    previous.keys.forEach(entries::remove);
+                    return null;
+                }
+            );
+        }
+    }
+
+    /**
+     * Finds the entities which have a word starting with the given prefix, in the alphabetical order of the matching words. An entity
+     * is suggested once, for its first matching word.
+     * @param prefix the typed text.
+     * @param limit the maximum number of suggestions.
+     * @return the suggestions.
+     */
+    public List<Suggestion> find(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        Map<Long, Suggestion> found = new LinkedHashMap<>();
+        for (Map.Entry<String, Suggestion> entry : entries.tailMap(normalized).entrySet()) {
+            if (!entry.getKey().startsWith(normalized)) {
+                break;
+            }
+            found.putIfAbsent(entry.getValue().getId(), entry.getValue());
+            if (found.size() == limit) {
+                break;
+            }
+        }
+        return new ArrayList<>(found.values());
+    }
+
+    /**
+     * @return the number of indexed entities.
+     */
+    public int size() {
+        return indexed.size();
+    }
+
+    private static List<String> terms(String value) {
+        String normalized = normalize(value);
+        List<String> terms = new ArrayList<>();
+        for (int i = 0; i < normalized.length(); i++) {
+            if (normalized.charAt(i) != ' ' && (i == 0 || normalized.charAt(i - 1) == ' ')) {
+                terms.add(normalized.substring(i));
+            }
+        }
+        return terms;
+    }
+
+    // lower-cases, and turns the white space and control characters, such as the separator of the keys, into single spaces
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(text.length());
+        for (char c : text.toLowerCase(Locale.ROOT).toCharArray()) {
+            boolean space = Character.isWhitespace(c) || Character.isISOControl(c);
+            if (!space) {
+                normalized.append(c);
+            } else if (normalized.length() > 0 && normalized.charAt(normalized.length() - 1) != ' ') {
+                normalized.append(' ');
+            }
+        }
+        return normalized.toString().trim();
+    }
+}
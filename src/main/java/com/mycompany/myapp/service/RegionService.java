@@ -17,14 +17,30 @@ public interface RegionService {
      */
     Mono<Region> save(Region region);
 
+    /**
+     * Update a region.
+     *
+     * @param region the entity to update.
+     * @return the persisted entity, or empty if it doesn't exist.
+     */
+    Mono<Region> update(Region region);
+
     /**
      * Partially updates a region.
      *
      * @param region the entity to update partially.
-     * @return the persisted entity.
+     * @return the persisted entity, or empty if it doesn't exist.
      */
     Mono<Region> partialUpdate(Region region);
 
+    /**
+     * Insert the regions, or update the existing ones with the same natural key.
+     *
+     * @param regions the entities to upsert.
+     * @return the number of created, updated and unchanged entities.
+     */
+    Mono<UpsertResult> upsertAll(List<Region> regions);
+
     /**
      * Get all the regions.
      *
@@ -32,6 +48,32 @@ public interface RegionService {
      */
     Flux<Region> findAll();
 
+    /**
+     * Get all the regions matching the filters.
+     *
+     * @param filter the filters the entities must match.
+     * @return the list of entities.
+     */
+    Flux<Region> findAll(EntityFilter filter);
+
+    /**
+     * Get a keyset page of the regions, which starts after the cursor position.
+     *
+     * @param cursor the position after which the page starts.
+     * @param limit the maximum number of entities to return.
+     * @param filter the filters the entities must match.
+     * @return the list of entities.
+     */
+    Flux<Region> findAllAfter(KeysetCursor cursor, int limit, EntityFilter filter);
+
+    /**
+     * Export all the regions, streamed from the database in one read-only transaction.
+     *
+     * @param format the format of the export.
+     * @return the lines of the export.
+     */
+    Flux<String> exportAll(BulkFormat format);
+
     /**
      * Returns the number of regions available.
      * @return the number of entities in the database.
@@ -47,6 +89,14 @@ public interface RegionService {
      */
     Mono<Region> findOne(Long id);
 
+    /**
+     * Get the regions with the given ids.
+     *
+     * @param ids the ids of the entities.
+     * @return the entities found, in no particular order.
+     */
+    Flux<Region> findAllById(List<Long> ids);
+
     /**
      * Delete the "id" region.
      *
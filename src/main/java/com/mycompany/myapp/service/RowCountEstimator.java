@@ -0,0 +1,95 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.dialect.H2Dialect;
+import org.springframework.data.r2dbc.dialect.PostgresDialect;
+import org.springframework.data.r2dbc.dialect.R2dbcDialect;
+import org.springframework.data.relational.core.query.Query;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * Estimates the number of rows of a table from the database statistics (the planner's {@code reltuples} on PostgreSQL, the
+ * {@code ROW_COUNT_ESTIMATE} of H2), instead of counting them. Estimates are cached per table for
+ * {@code application.pagination.count-estimate-ttl}; when the database has no statistics, the rows are counted once per period.
+ */
+@Service
+public class RowCountEstimator {
+
+    private static final String POSTGRES_ESTIMATE = "SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass($1)";
+
+    private static final String H2_ESTIMATE = "SELECT ROW_COUNT_ESTIMATE FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = UPPER($1)";
+
+    private final Logger log = LoggerFactory.getLogger(RowCountEstimator.class);
+
+    private final R2dbcEntityTemplate r2dbcEntityTemplate;
+    private final String estimateQuery;
+    private final long ttlNanos;
+
+    private final Map<Class<?>, Estimate> estimates = new ConcurrentHashMap<>();
+
+    public RowCountEstimator(R2dbcEntityTemplate r2dbcEntityTemplate, R2dbcDialect dialect, ApplicationProperties applicationProperties) {
+        this.r2dbcEntityTemplate = r2dbcEntityTemplate;
+        if (dialect instanceof H2Dialect) {
+            this.estimateQuery = H2_ESTIMATE;
+        } else if (dialect instanceof PostgresDialect) {
+            this.estimateQuery = POSTGRES_ESTIMATE;
+        } else {
+            this.estimateQuery = null;
+        }
+        Duration ttl = applicationProperties.getPagination().getCountEstimateTtl();
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * Returns the estimated number of rows of the entity's table.
+     * @param entityType the entity type which holds the table name.
+     * @return the estimate, never negative.
+     */
+    public Mono<Long> estimate(Class<?> entityType) {
+        Estimate cached = estimates.get(entityType);
+        if (cached != null && System.nanoTime() - cached.createdAt < ttlNanos) {
+            return Mono.just(cached.rows);
+        }
+        return readStatistics(entityType)
+            .switchIfEmpty(Mono.defer(() -> r2dbcEntityTemplate.count(Query.empty(), entityType)))
+            .doOnNext(rows -> estimates.put(entityType, new Estimate(rows, System.nanoTime())));
+    }
+
+    private Mono<Long> readStatistics(Class<?> entityType) {
+        if (estimateQuery == null) {
+            return Mono.empty();
+        }
+        String tableName = r2dbcEntityTemplate.getDataAccessStrategy().getTableName(entityType).getReference();
+        return r2dbcEntityTemplate
+            .getDatabaseClient()
+            .sql(estimateQuery)
+            .bind(0, tableName)
+            .map(row -> row.get(0, Long.class))
+            .one()
+            .filter(rows -> rows >= 0)
+            .onErrorResume(
+                e -> {
+                    log.warn("Unable to read the row count estimate of {}, counting the rows instead: {}", tableName, e.getMessage());
+                    return Mono.empty();
+                }
+            );
+    }
+
+    private static final class Estimate {
+
+        private final long rows;
+        private final long createdAt;
+
+        Estimate(long rows, long createdAt) {
+            this.rows = rows;
+            this.createdAt = createdAt;
+        }
+    }
+}
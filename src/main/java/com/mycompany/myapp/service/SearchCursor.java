@@ -0,0 +1,104 @@
+package com.mycompany.myapp.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+import org.springframework.util.Assert;
+
+/**
+ * Position of a page of search results, which are ordered by descending rank, then by id: the rank and id of the last result of the
+ * previous page. Like a {@link KeysetCursor}, the next page starts strictly after that result, and clients receive it as an opaque token.
+ */
+public final class SearchCursor {
+
+    private static final SearchCursor FIRST = new SearchCursor(null, null);
+
+    private static final char SEPARATOR = '|';
+
+    private final Float rank;
+    private final Long id;
+
+    private SearchCursor(Float rank, Long id) {
+        this.rank = rank;
+        this.id = id;
+    }
+
+    /**
+     * @return the cursor of the first page.
+     */
+    public static SearchCursor first() {
+        return FIRST;
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()}.
+     * @param token the token sent by the client.
+     * @return the decoded cursor.
+     * @throws IllegalArgumentException if the token is malformed.
+     */
+    public static SearchCursor decode(String token) {
+        String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        int separator = decoded.indexOf(SEPARATOR);
+        if (separator < 0) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        try {
+            return new SearchCursor(Float.valueOf(decoded.substring(0, separator)), Long.valueOf(decoded.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+
+    /**
+     * Encodes the cursor into an opaque token.
+     * @return the token.
+     */
+    public String encode() {
+        Assert.state(id != null, "the cursor of the first page can't be encoded");
+        String raw = Float.toString(rank) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Creates the cursor which continues after the given result.
+     * @param hit the last result of the current page.
+     * @return the cursor of the next page.
+     */
+    public static SearchCursor after(SearchHit<?> hit) {
+        return new SearchCursor(hit.getRank(), hit.getId());
+    }
+
+    public boolean isFirstPage() {
+        return id == null;
+    }
+
+    public Float getRank() {
+        return rank;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SearchCursor)) {
+            return false;
+        }
+        SearchCursor other = (SearchCursor) o;
+        return Objects.equals(rank, other.rank) && Objects.equals(id, other.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(rank, id);
+    }
+
+    @Override
+    public String toString() {
+        return "SearchCursor{rank=" + rank + ", id=" + id + "}";
+    }
+}
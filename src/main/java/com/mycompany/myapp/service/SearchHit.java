@@ -0,0 +1,38 @@
+package com.mycompany.myapp.service;
+
+/**
+ * An entity which matches a full-text search, with its rank: the higher, the more relevant.
+ * @param <T> the type of the entity.
+ */
+public class SearchHit<T> {
+
+    private final Long id;
+    private final float rank;
+    private final T entity;
+
+    public SearchHit(Long id, float rank, T entity) {
+        this.id = id;
+        this.rank = rank;
+        this.entity = entity;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public float getRank() {
+        return rank;
+    }
+
+    /**
+     * @return the entity, or null if it was deleted since it matched.
+     */
+    public T getEntity() {
+        return entity;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchHit{id=" + id + ", rank=" + rank + "}";
+    }
+}
@@ -0,0 +1,64 @@
+package com.mycompany.myapp.service;
+
+import java.util.Objects;
+
+/**
+ * A typeahead suggestion: an entity, the property whose value starts with the typed text, and a label to display the entity with.
+ */
+public class Suggestion {
+
+    private final Long id;
+    private final String property;
+    private final String value;
+    private final String label;
+
+    public Suggestion(Long id, String property, String value, String label) {
+        this.id = id;
+        this.property = property;
+        this.value = value;
+        this.label = label;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Suggestion)) {
+            return false;
+        }
+        Suggestion other = (Suggestion) o;
+        return (
+            Objects.equals(id, other.id) &&
+            Objects.equals(property, other.property) &&
+            Objects.equals(value, other.value) &&
+            Objects.equals(label, other.label)
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, property, value, label);
+    }
+
+    @Override
+    public String toString() {
+        return "Suggestion{id=" + id + ", property='" + property + "', value='" + value + "', label='" + label + "'}";
+    }
+}
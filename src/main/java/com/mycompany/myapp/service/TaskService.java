@@ -17,11 +17,19 @@ public interface TaskService {
      */
     Mono<Task> save(Task task);
 
+    /**
+     * Update a task.
+     *
+     * @param task the entity to update.
+     * @return the persisted entity, or empty if it doesn't exist.
+     */
+    Mono<Task> update(Task task);
+
     /**
      * Partially updates a task.
      *
      * @param task the entity to update partially.
-     * @return the persisted entity.
+     * @return the persisted entity, or empty if it doesn't exist.
      */
     Mono<Task> partialUpdate(Task task);
 
@@ -32,6 +40,43 @@ public interface TaskService {
      */
     Flux<Task> findAll();
 
+    /**
+     * Get a keyset page of the tasks, which starts after the cursor position.
+     *
+     * @param cursor the position after which the page starts.
+     * @param limit the maximum number of entities to return.
+     * @return the list of entities.
+     */
+    Flux<Task> findAllAfter(KeysetCursor cursor, int limit);
+
+    /**
+     * Get all the tasks matching the filters, along with the included relationships.
+     *
+     * @param filter the filters the entities must match.
+     * @param include the relationships to load.
+     * @return the list of entities.
+     */
+    Flux<Task> findAll(EntityFilter filter, Include include);
+
+    /**
+     * Get a keyset page of the tasks, which starts after the cursor position, along with the included relationships.
+     *
+     * @param cursor the position after which the page starts.
+     * @param limit the maximum number of entities to return.
+     * @param filter the filters the entities must match.
+     * @param include the relationships to load.
+     * @return the list of entities.
+     */
+    Flux<Task> findAllAfter(KeysetCursor cursor, int limit, EntityFilter filter, Include include);
+
+    /**
+     * Export all the tasks, streamed from the database in one read-only transaction.
+     *
+     * @param format the format of the export.
+     * @return the lines of the export.
+     */
+    Flux<String> exportAll(BulkFormat format);
+
     /**
      * Returns the number of tasks available.
      * @return the number of entities in the database.
@@ -47,6 +92,34 @@ public interface TaskService {
      */
     Mono<Task> findOne(Long id);
 
+    /**
+     * Get the "id" task, along with the included relationships.
+     *
+     * @param id the id of the entity.
+     * @param include the relationships to load.
+     * @return the entity.
+     */
+    Mono<Task> findOne(Long id, Include include);
+
+    /**
+     * Get the tasks with the given ids, along with the included relationships.
+     *
+     * @param ids the ids of the entities.
+     * @param include the relationships to load.
+     * @return the entities found, in no particular order.
+     */
+    Flux<Task> findAllById(List<Long> ids, Include include);
+
+    /**
+     * Search a page of the tasks matching the query by title or description, by descending rank, which starts after the cursor position.
+     *
+     * @param query the full-text query.
+     * @param cursor the position after which the page starts.
+     * @param limit the maximum number of entities to return.
+     * @return the matching entities, with their rank, and without entity for the ones deleted since they matched.
+     */
+    Flux<SearchHit<Task>> search(FullTextQuery query, SearchCursor cursor, int limit);
+
     /**
      * Delete the "id" task.
      *
@@ -0,0 +1,172 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Employee;
+import com.mycompany.myapp.domain.Location;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * The {@link PrefixIndex}es of the typeahead endpoints: the employees by first name, last name and email, and the locations by city
+ * and postal code.
+ * <p>
+ * They are loaded when the application is ready, by streaming the indexed columns of the tables, and kept current by the writes of
+ * the employee and location repositories, which are applied once their transaction commits, see {@link #afterCommit(Runnable)}.
+ * <p>
+ * The indexes are held in the memory of each instance: an instance only sees its own writes, and the writes which bypass the
+ * repositories, such as the deletes of the tests or the writes of the other instances, are only seen by the next load. The indexes
+ * are loaded again on the schedule of {@code application.typeahead.refresh-cron}, which bounds how stale the suggestions of an
+ * instance can get.
+ */
+@Service
+public class TypeaheadIndex {
+
+    /**
+     * Number of suggestions of the typeahead endpoints, when the request doesn't limit them.
+     */
+    public static final String DEFAULT_LIMIT = "10";
+
+    private final Logger log = LoggerFactory.getLogger(TypeaheadIndex.class);
+
+    // Liquibase may still be creating the tables when the application is ready
+    private static final Retry LOAD_RETRY = Retry.backoff(5, Duration.ofSeconds(1));
+
+    private final R2dbcEntityTemplate r2dbcEntityTemplate;
+    private final int maxResults;
+
+    private final PrefixIndex<Employee> employees = new PrefixIndex<>(
+        Employee::getId,
+        employee -> join(employee.getFirstName(), employee.getLastName()),
+        Map.of("firstName", Employee::getFirstName, "lastName", Employee::getLastName, "email", Employee::getEmail)
+    );
+
+    private final PrefixIndex<Location> locations = new PrefixIndex<>(
+        Location::getId,
+        location -> join(location.getPostalCode(), location.getCity()),
+        Map.of("city", Location::getCity, "postalCode", Location::getPostalCode)
+    );
+
+    public TypeaheadIndex(R2dbcEntityTemplate r2dbcEntityTemplate, ApplicationProperties applicationProperties) {
+        this.r2dbcEntityTemplate = r2dbcEntityTemplate;
+        this.maxResults = applicationProperties.getTypeahead().getMaxResults();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadAll() {
+        loadEmployees().subscribe();
+        loadLocations().subscribe();
+    }
+
+    @Scheduled(cron = "${application.typeahead.refresh-cron:0 */10 * * * ?}")
+    public void refresh() {
+        loadEmployees().then(loadLocations()).block();
+    }
+
+    /**
+     * Applies a change of the indexes once the current transaction commits, so that a rolled back write leaves them as they were, or
+     * right away when there is no transaction.
+     * @param change the change of the indexes.
+     * @return a Mono to signal that the change is applied, or registered for the commit.
+     */
+    public static Mono<Void> afterCommit(Runnable change) {
+        return TransactionSynchronizationManager
+            .forCurrentTransaction()
+            .filter(TransactionSynchronizationManager::isSynchronizationActive)
+            .doOnNext(
+                synchronizationManager ->
+                    synchronizationManager.registerSynchronization(
+                        new TransactionSynchronization() {
+                            @Override
+                            public Mono<Void> afterCommit() {
+                                return Mono.fromRunnable(change);
+                            }
+                        }
+                    )
+            )
+            .switchIfEmpty(Mono.fromRunnable(change))
+            .onErrorResume(NoTransactionException.class, e -> Mono.fromRunnable(change))
+            .then();
+    }
+
+    /**
+     * Loads the employees index from the table again. A failure is logged, and removes no entity from the index.
+     * @return the number of indexed employees.
+     */
+    public Mono<Long> loadEmployees() {
+        return load("employees", employees, Employee.class, "id", "first_name", "last_name", "email");
+    }
+
+    /**
+     * Loads the locations index from the table again. A failure is logged, and removes no entity from the index.
+     * @return the number of indexed locations.
+     */
+    public Mono<Long> loadLocations() {
+        return load("locations", locations, Location.class, "id", "city", "postal_code");
+    }
+
+    private <T> Mono<Long> load(String name, PrefixIndex<T> index, Class<T> entityType, String... columns) {
+        long start = System.nanoTime();
+        return index
+            .load(r2dbcEntityTemplate.select(Query.empty().columns(columns).sort(Sort.by("id")), entityType))
+            .retryWhen(LOAD_RETRY)
+            .doOnNext(
+                count -> log.info("Loaded {} {} into the typeahead index in {} ms", count, name, (System.nanoTime() - start) / 1_000_000)
+            )
+            .onErrorResume(
+                e -> {
+                    log.warn("Couldn't load the {} into the typeahead index: {}", name, e.getMessage());
+                    return Mono.empty();
+                }
+            );
+    }
+
+    public PrefixIndex<Employee> getEmployees() {
+        return employees;
+    }
+
+    public PrefixIndex<Location> getLocations() {
+        return locations;
+    }
+
+    /**
+     * Finds the employees whose first name, last name or email has a word starting with the given prefix.
+     * @param prefix the typed text.
+     * @param limit the maximum number of suggestions, at most {@code application.typeahead.max-results}.
+     * @return the suggestions.
+     */
+    public List<Suggestion> findEmployees(String prefix, int limit) {
+        return employees.find(prefix, Math.min(limit, maxResults));
+    }
+
+    /**
+     * Finds the locations whose city or postal code has a word starting with the given prefix.
+     * @param prefix the typed text.
+     * @param limit the maximum number of suggestions, at most {@code application.typeahead.max-results}.
+     * @return the suggestions.
+     */
+    public List<Suggestion> findLocations(String prefix, int limit) {
+        return locations.find(prefix, Math.min(limit, maxResults));
+    }
+
+    private static String join(String... values) {
+        return Stream.of(values).filter(Objects::nonNull).collect(Collectors.joining(" "));
+    }
+}
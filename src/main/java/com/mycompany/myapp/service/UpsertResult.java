@@ -0,0 +1,45 @@
+package com.mycompany.myapp.service;
+
+/**
+ * The outcome of an upsert of entities by natural key: how many were created, updated, and left unchanged, since they already
+ * existed with the same values.
+ */
+public class UpsertResult {
+
+    public static final UpsertResult NONE = new UpsertResult(0, 0, 0);
+
+    private final int created;
+    private final int updated;
+    private final int unchanged;
+
+    public UpsertResult(int created, int updated, int unchanged) {
+        this.created = created;
+        this.updated = updated;
+        this.unchanged = unchanged;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    public int getUnchanged() {
+        return unchanged;
+    }
+
+    /**
+     * @param other the outcome of another batch.
+     * @return the outcome of both batches.
+     */
+    public UpsertResult plus(UpsertResult other) {
+        return new UpsertResult(created + other.created, updated + other.updated, unchanged + other.unchanged);
+    }
+
+    @Override
+    public String toString() {
+        return "UpsertResult{created=" + created + ", updated=" + updated + ", unchanged=" + unchanged + "}";
+    }
+}
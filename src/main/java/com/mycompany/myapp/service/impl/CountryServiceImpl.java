@@ -2,7 +2,12 @@ package com.mycompany.myapp.service.impl;
 
 import com.mycompany.myapp.domain.Country;
 import com.mycompany.myapp.repository.CountryRepository;
+import com.mycompany.myapp.service.BulkExporter;
+import com.mycompany.myapp.service.BulkFormat;
 import com.mycompany.myapp.service.CountryService;
+import com.mycompany.myapp.service.EntityFilter;
+import com.mycompany.myapp.service.KeysetCursor;
+import com.mycompany.myapp.service.UpsertResult;
 import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,8 +27,11 @@ public class CountryServiceImpl implements CountryService {
 
     private final CountryRepository countryRepository;
 
-    public CountryServiceImpl(CountryRepository countryRepository) {
+    private final BulkExporter bulkExporter;
+
+    public CountryServiceImpl(CountryRepository countryRepository, BulkExporter bulkExporter) {
         this.countryRepository = countryRepository;
+        this.bulkExporter = bulkExporter;
     }
 
     @Override
@@ -32,22 +40,22 @@ public class CountryServiceImpl implements CountryService {
         return countryRepository.save(country);
     }
 
+    @Override
+    public Mono<Country> update(Country country) {
+        log.debug("Request to update Country : {}", country);
+        return countryRepository.update(country).filter(updated -> updated > 0).map(updated -> country);
+    }
+
     @Override
     public Mono<Country> partialUpdate(Country country) {
         log.debug("Request to partially update Country : {}", country);
+        return countryRepository.partialUpdate(country);
+    }
 
-        return countryRepository
-            .findById(country.getId())
-            .map(
-                existingCountry -> {
-                    if (country.getCountryName() != null) {
-                        existingCountry.setCountryName(country.getCountryName());
-                    }
-
-                    return existingCountry;
-                }
-            )
-            .flatMap(countryRepository::save);
+    @Override
+    public Mono<UpsertResult> upsertAll(List<Country> countries) {
+        log.debug("Request to upsert {} Countrys", countries.size());
+        return countryRepository.upsertAll(Flux.fromIterable(countries));
     }
 
     @Override
@@ -57,6 +65,27 @@ public class CountryServiceImpl implements CountryService {
         return countryRepository.findAll();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<Country> findAll(EntityFilter filter) {
+        log.debug("Request to get all Countries matching : {}", filter);
+        return countryRepository.findAllBy(null, filter.toCriteria());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<Country> findAllAfter(KeysetCursor cursor, int limit, EntityFilter filter) {
+        log.debug("Request to get a keyset page of Countries after : {}", cursor);
+        return countryRepository.findAllAfter(cursor, limit, filter.toCriteria());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<String> exportAll(BulkFormat format) {
+        log.debug("Request to export all Countries as {}", format);
+        return bulkExporter.export(countryRepository.streamAll(), format, Country.class);
+    }
+
     public Mono<Long> countAll() {
         return countryRepository.count();
     }
@@ -68,6 +97,13 @@ public class CountryServiceImpl implements CountryService {
         return countryRepository.findById(id);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<Country> findAllById(List<Long> ids) {
+        log.debug("Request to get Countrys : {}", ids);
+        return countryRepository.findAllById(ids);
+    }
+
     @Override
     public Mono<Void> delete(Long id) {
         log.debug("Request to delete Country : {}", id);
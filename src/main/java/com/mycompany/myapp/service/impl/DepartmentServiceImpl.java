@@ -2,7 +2,12 @@ package com.mycompany.myapp.service.impl;
 
 import com.mycompany.myapp.domain.Department;
 import com.mycompany.myapp.repository.DepartmentRepository;
+import com.mycompany.myapp.service.BulkExporter;
+import com.mycompany.myapp.service.BulkFormat;
 import com.mycompany.myapp.service.DepartmentService;
+import com.mycompany.myapp.service.EntityFilter;
+import com.mycompany.myapp.service.Include;
+import com.mycompany.myapp.service.KeysetCursor;
 import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,8 +27,11 @@ public class DepartmentServiceImpl implements DepartmentService {
 
     private final DepartmentRepository departmentRepository;
 
-    public DepartmentServiceImpl(DepartmentRepository departmentRepository) {
+    private final BulkExporter bulkExporter;
+
+    public DepartmentServiceImpl(DepartmentRepository departmentRepository, BulkExporter bulkExporter) {
         this.departmentRepository = departmentRepository;
+        this.bulkExporter = bulkExporter;
     }
 
     @Override
@@ -32,22 +40,16 @@ public class DepartmentServiceImpl implements DepartmentService {
         return departmentRepository.save(department);
     }
 
+    @Override
+    public Mono<Department> update(Department department) {
+        log.debug("Request to update Department : {}", department);
+        return departmentRepository.update(department).filter(updated -> updated > 0).map(updated -> department);
+    }
+
     @Override
     public Mono<Department> partialUpdate(Department department) {
         log.debug("Request to partially update Department : {}", department);
-
-        return departmentRepository
-            .findById(department.getId())
-            .map(
-                existingDepartment -> {
-                    if (department.getDepartmentName() != null) {
-                        existingDepartment.setDepartmentName(department.getDepartmentName());
-                    }
-
-                    return existingDepartment;
-                }
-            )
-            .flatMap(departmentRepository::save);
+        return departmentRepository.partialUpdate(department);
     }
 
     @Override
@@ -57,6 +59,34 @@ public class DepartmentServiceImpl implements DepartmentService {
         return departmentRepository.findAll();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<Department> findAllAfter(KeysetCursor cursor, int limit) {
+        log.debug("Request to get a keyset page of Departments after : {}", cursor);
+        return departmentRepository.findAllAfter(cursor, limit, null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<Department> findAll(EntityFilter filter, Include include) {
+        log.debug("Request to get all Departments including : {}", include);
+        return departmentRepository.fetchIncluded(departmentRepository.findAllBy(null, filter.toCriteria()), include);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<Department> findAllAfter(KeysetCursor cursor, int limit, EntityFilter filter, Include include) {
+        log.debug("Request to get a keyset page of Departments after : {} including : {}", cursor, include);
+        return departmentRepository.fetchIncluded(departmentRepository.findAllAfter(cursor, limit, filter.toCriteria()), include);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<String> exportAll(BulkFormat format) {
+        log.debug("Request to export all Departments as {}", format);
+        return bulkExporter.export(departmentRepository.streamAll(), format, Department.class);
+    }
+
     public Mono<Long> countAll() {
         return departmentRepository.count();
     }
@@ -68,6 +98,20 @@ public class DepartmentServiceImpl implements DepartmentService {
         return departmentRepository.findById(id);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Mono<Department> findOne(Long id, Include include) {
+        log.debug("Request to get Department : {} including : {}", id, include);
+        return departmentRepository.fetchIncluded(departmentRepository.findById(id).flux(), include).next();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<Department> findAllById(List<Long> ids, Include include) {
+        log.debug("Request to get Departments : {} including : {}", ids, include);
+        return departmentRepository.fetchIncluded(departmentRepository.findAllById(ids), include);
+    }
+
     @Override
     public Mono<Void> delete(Long id) {
         log.debug("Request to delete Department : {}", id);
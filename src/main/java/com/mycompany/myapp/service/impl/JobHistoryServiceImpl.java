@@ -2,11 +2,24 @@ package com.mycompany.myapp.service.impl;
 
 import com.mycompany.myapp.domain.JobHistory;
 import com.mycompany.myapp.repository.JobHistoryRepository;
+import com.mycompany.myapp.service.BulkExporter;
+import com.mycompany.myapp.service.BulkFormat;
+import com.mycompany.myapp.service.BulkImporter;
+import com.mycompany.myapp.service.CountStrategy;
+import com.mycompany.myapp.service.EntityFilter;
+import com.mycompany.myapp.service.FieldSet;
+import com.mycompany.myapp.service.ImportProgress;
+import com.mycompany.myapp.service.Include;
 import com.mycompany.myapp.service.JobHistoryService;
+import com.mycompany.myapp.service.KeysetCursor;
+import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -22,8 +35,14 @@ public class JobHistoryServiceImpl implements JobHistoryService {
 
     private final JobHistoryRepository jobHistoryRepository;
 
-    public JobHistoryServiceImpl(JobHistoryRepository jobHistoryRepository) {
+    private final BulkImporter bulkImporter;
+
+    private final BulkExporter bulkExporter;
+
+    public JobHistoryServiceImpl(JobHistoryRepository jobHistoryRepository, BulkImporter bulkImporter, BulkExporter bulkExporter) {
         this.jobHistoryRepository = jobHistoryRepository;
+        this.bulkImporter = bulkImporter;
+        this.bulkExporter = bulkExporter;
     }
 
     @Override
@@ -32,28 +51,23 @@ public class JobHistoryServiceImpl implements JobHistoryService {
         return jobHistoryRepository.save(jobHistory);
     }
 
+    @Override
+    public Mono<JobHistory> update(JobHistory jobHistory) {
+        log.debug("Request to update JobHistory : {}", jobHistory);
+        return jobHistoryRepository.update(jobHistory).filter(updated -> updated > 0).map(updated -> jobHistory);
+    }
+
     @Override
     public Mono<JobHistory> partialUpdate(JobHistory jobHistory) {
         log.debug("Request to partially update JobHistory : {}", jobHistory);
+        return jobHistoryRepository.partialUpdate(jobHistory);
+    }
 
-        return jobHistoryRepository
-            .findById(jobHistory.getId())
-            .map(
-                existingJobHistory -> {
-                    if (jobHistory.getStartDate() != null) {
-                        existingJobHistory.setStartDate(jobHistory.getStartDate());
-                    }
-                    if (jobHistory.getEndDate() != null) {
-                        existingJobHistory.setEndDate(jobHistory.getEndDate());
-                    }
-                    if (jobHistory.getLanguage() != null) {
-                        existingJobHistory.setLanguage(jobHistory.getLanguage());
-                    }
-
-                    return existingJobHistory;
-                }
-            )
-            .flatMap(jobHistoryRepository::save);
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Flux<ImportProgress> importAll(Flux<DataBuffer> body, BulkFormat format) {
+        log.debug("Request to import JobHistories as {}", format);
+        return bulkImporter.importEntities(body, format, JobHistory.class);
     }
 
     @Override
@@ -63,6 +77,47 @@ public class JobHistoryServiceImpl implements JobHistoryService {
         return jobHistoryRepository.findAllBy(pageable);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<JobHistory> findAllAfter(KeysetCursor cursor, int limit) {
+        log.debug("Request to get a keyset page of JobHistories after : {}", cursor);
+        return jobHistoryRepository.findAllAfter(cursor, limit, null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<JobHistory> findAllAfter(KeysetCursor cursor, int limit, FieldSet fields, Include include, EntityFilter filter) {
+        log.debug("Request to get a keyset page of JobHistories after : {} with fields : {} including : {}", cursor, fields, include);
+        return jobHistoryRepository.findAllAfter(cursor, limit, fields, include, filter.toCriteria());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Mono<Slice<JobHistory>> findPage(Pageable pageable, CountStrategy countStrategy) {
+        log.debug("Request to get a page of JobHistories with count strategy : {}", countStrategy);
+        return jobHistoryRepository.findPage(pageable, countStrategy, null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Mono<Slice<JobHistory>> findPage(
+        Pageable pageable,
+        CountStrategy countStrategy,
+        FieldSet fields,
+        Include include,
+        EntityFilter filter
+    ) {
+        log.debug("Request to get a page of JobHistories with fields : {} including : {}", fields, include);
+        return jobHistoryRepository.findPage(pageable, countStrategy, fields, include, filter.toCriteria());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<String> exportAll(BulkFormat format) {
+        log.debug("Request to export all JobHistories as {}", format);
+        return bulkExporter.export(jobHistoryRepository.streamAll(), format, JobHistory.class);
+    }
+
     public Mono<Long> countAll() {
         return jobHistoryRepository.count();
     }
@@ -74,6 +129,20 @@ public class JobHistoryServiceImpl implements JobHistoryService {
         return jobHistoryRepository.findById(id);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Mono<JobHistory> findOne(Long id, FieldSet fields, Include include) {
+        log.debug("Request to get JobHistory : {} with fields : {} including : {}", id, fields, include);
+        return jobHistoryRepository.findById(id, fields, include);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<JobHistory> findAllById(List<Long> ids, FieldSet fields, Include include) {
+        log.debug("Request to get JobHistorys : {} with fields : {} including : {}", ids, fields, include);
+        return jobHistoryRepository.findAllById(ids, fields, include);
+    }
+
     @Override
     public Mono<Void> delete(Long id) {
         log.debug("Request to delete JobHistory : {}", id);
@@ -2,7 +2,12 @@ package com.mycompany.myapp.service.impl;
 
 import com.mycompany.myapp.domain.Location;
 import com.mycompany.myapp.repository.LocationRepository;
+import com.mycompany.myapp.service.BulkExporter;
+import com.mycompany.myapp.service.BulkFormat;
+import com.mycompany.myapp.service.EntityFilter;
+import com.mycompany.myapp.service.KeysetCursor;
 import com.mycompany.myapp.service.LocationService;
+import com.mycompany.myapp.service.UpsertResult;
 import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,8 +27,11 @@ public class LocationServiceImpl implements LocationService {
 
     private final LocationRepository locationRepository;
 
-    public LocationServiceImpl(LocationRepository locationRepository) {
+    private final BulkExporter bulkExporter;
+
+    public LocationServiceImpl(LocationRepository locationRepository, BulkExporter bulkExporter) {
         this.locationRepository = locationRepository;
+        this.bulkExporter = bulkExporter;
     }
 
     @Override
@@ -32,31 +40,22 @@ public class LocationServiceImpl implements LocationService {
         return locationRepository.save(location);
     }
 
+    @Override
+    public Mono<Location> update(Location location) {
+        log.debug("Request to update Location : {}", location);
+        return locationRepository.update(location).filter(updated -> updated > 0).map(updated -> location);
+    }
+
     @Override
     public Mono<Location> partialUpdate(Location location) {
         log.debug("Request to partially update Location : {}", location);
+        return locationRepository.partialUpdate(location);
+    }
 
-        return locationRepository
-            .findById(location.getId())
-            .map(
-                existingLocation -> {
-                    if (location.getStreetAddress() != null) {
-                        existingLocation.setStreetAddress(location.getStreetAddress());
-                    }
-                    if (location.getPostalCode() != null) {
-                        existingLocation.setPostalCode(location.getPostalCode());
-                    }
-                    if (location.getCity() != null) {
-                        existingLocation.setCity(location.getCity());
-                    }
-                    if (location.getStateProvince() != null) {
-                        existingLocation.setStateProvince(location.getStateProvince());
-                    }
-
-                    return existingLocation;
-                }
-            )
-            .flatMap(locationRepository::save);
+    @Override
+    public Mono<UpsertResult> upsertAll(List<Location> locations) {
+        log.debug("Request to upsert {} Locations", locations.size());
+        return locationRepository.upsertAll(Flux.fromIterable(locations));
     }
 
     @Override
@@ -66,6 +65,27 @@ public class LocationServiceImpl implements LocationService {
         return locationRepository.findAll();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<Location> findAll(EntityFilter filter) {
+        log.debug("Request to get all Locations matching : {}", filter);
+        return locationRepository.findAllBy(null, filter.toCriteria());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<Location> findAllAfter(KeysetCursor cursor, int limit, EntityFilter filter) {
+        log.debug("Request to get a keyset page of Locations after : {}", cursor);
+        return locationRepository.findAllAfter(cursor, limit, filter.toCriteria());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<String> exportAll(BulkFormat format) {
+        log.debug("Request to export all Locations as {}", format);
+        return bulkExporter.export(locationRepository.streamAll(), format, Location.class);
+    }
+
     public Mono<Long> countAll() {
         return locationRepository.count();
     }
@@ -77,6 +97,13 @@ public class LocationServiceImpl implements LocationService {
         return locationRepository.findById(id);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<Location> findAllById(List<Long> ids) {
+        log.debug("Request to get Locations : {}", ids);
+        return locationRepository.findAllById(ids);
+    }
+
     @Override
     public Mono<Void> delete(Long id) {
         log.debug("Request to delete Location : {}", id);
@@ -2,7 +2,12 @@ package com.mycompany.myapp.service.impl;
 
 import com.mycompany.myapp.domain.Region;
 import com.mycompany.myapp.repository.RegionRepository;
+import com.mycompany.myapp.service.BulkExporter;
+import com.mycompany.myapp.service.BulkFormat;
+import com.mycompany.myapp.service.EntityFilter;
+import com.mycompany.myapp.service.KeysetCursor;
 import com.mycompany.myapp.service.RegionService;
+import com.mycompany.myapp.service.UpsertResult;
 import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,8 +27,11 @@ public class RegionServiceImpl implements RegionService {
 
     private final RegionRepository regionRepository;
 
-    public RegionServiceImpl(RegionRepository regionRepository) {
+    private final BulkExporter bulkExporter;
+
+    public RegionServiceImpl(RegionRepository regionRepository, BulkExporter bulkExporter) {
         this.regionRepository = regionRepository;
+        this.bulkExporter = bulkExporter;
     }
 
     @Override
@@ -32,22 +40,22 @@ public class RegionServiceImpl implements RegionService {
         return regionRepository.save(region);
     }
 
+    @Override
+    public Mono<Region> update(Region region) {
+        log.debug("Request to update Region : {}", region);
+        return regionRepository.update(region).filter(updated -> updated > 0).map(updated -> region);
+    }
+
     @Override
     public Mono<Region> partialUpdate(Region region) {
         log.debug("Request to partially update Region : {}", region);
+        return regionRepository.partialUpdate(region);
+    }
 
-        return regionRepository
-            .findById(region.getId())
-            .map(
-                existingRegion -> {
-                    if (region.getRegionName() != null) {
-                        existingRegion.setRegionName(region.getRegionName());
-                    }
-
-                    return existingRegion;
-                }
-            )
-            .flatMap(regionRepository::save);
+    @Override
+    public Mono<UpsertResult> upsertAll(List<Region> regions) {
+        log.debug("Request to upsert {} Regions", regions.size());
+        return regionRepository.upsertAll(Flux.fromIterable(regions));
     }
 
     @Override
@@ -57,6 +65,27 @@ public class RegionServiceImpl implements RegionService {
         return regionRepository.findAll();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<Region> findAll(EntityFilter filter) {
+        log.debug("Request to get all Regions matching : {}", filter);
+        return regionRepository.findAllBy(null, filter.toCriteria());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<Region> findAllAfter(KeysetCursor cursor, int limit, EntityFilter filter) {
+        log.debug("Request to get a keyset page of Regions after : {}", cursor);
+        return regionRepository.findAllAfter(cursor, limit, filter.toCriteria());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<String> exportAll(BulkFormat format) {
+        log.debug("Request to export all Regions as {}", format);
+        return bulkExporter.export(regionRepository.streamAll(), format, Region.class);
+    }
+
     public Mono<Long> countAll() {
         return regionRepository.count();
     }
@@ -68,6 +97,13 @@ public class RegionServiceImpl implements RegionService {
         return regionRepository.findById(id);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<Region> findAllById(List<Long> ids) {
+        log.debug("Request to get Regions : {}", ids);
+        return regionRepository.findAllById(ids);
+    }
+
     @Override
     public Mono<Void> delete(Long id) {
         log.debug("Request to delete Region : {}", id);
@@ -2,6 +2,14 @@ package com.mycompany.myapp.service.impl;
 
 import com.mycompany.myapp.domain.Task;
 import com.mycompany.myapp.repository.TaskRepository;
+import com.mycompany.myapp.service.BulkExporter;
+import com.mycompany.myapp.service.BulkFormat;
+import com.mycompany.myapp.service.EntityFilter;
+import com.mycompany.myapp.service.FullTextQuery;
+import com.mycompany.myapp.service.Include;
+import com.mycompany.myapp.service.KeysetCursor;
+import com.mycompany.myapp.service.SearchCursor;
+import com.mycompany.myapp.service.SearchHit;
 import com.mycompany.myapp.service.TaskService;
 import java.util.List;
 import org.slf4j.Logger;
@@ -22,8 +30,11 @@ public class TaskServiceImpl implements TaskService {
 
     private final TaskRepository taskRepository;
 
-    public TaskServiceImpl(TaskRepository taskRepository) {
+    private final BulkExporter bulkExporter;
+
+    public TaskServiceImpl(TaskRepository taskRepository, BulkExporter bulkExporter) {
         this.taskRepository = taskRepository;
+        this.bulkExporter = bulkExporter;
     }
 
     @Override
@@ -32,25 +43,16 @@ public class TaskServiceImpl implements TaskService {
         return taskRepository.save(task);
     }
 
+    @Override
+    public Mono<Task> update(Task task) {
+        log.debug("Request to update Task : {}", task);
+        return taskRepository.update(task).filter(updated -> updated > 0).map(updated -> task);
+    }
+
     @Override
     public Mono<Task> partialUpdate(Task task) {
         log.debug("Request to partially update Task : {}", task);
-
-        return taskRepository
-            .findById(task.getId())
-            .map(
-                existingTask -> {
-                    if (task.getTitle() != null) {
-                        existingTask.setTitle(task.getTitle());
-                    }
-                    if (task.getDescription() != null) {
-                        existingTask.setDescription(task.getDescription());
-                    }
-
-                    return existingTask;
-                }
-            )
-            .flatMap(taskRepository::save);
+        return taskRepository.partialUpdate(task);
     }
 
     @Override
@@ -60,6 +62,34 @@ public class TaskServiceImpl implements TaskService {
         return taskRepository.findAll();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<Task> findAllAfter(KeysetCursor cursor, int limit) {
+        log.debug("Request to get a keyset page of Tasks after : {}", cursor);
+        return taskRepository.findAllAfter(cursor, limit, null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<Task> findAll(EntityFilter filter, Include include) {
+        log.debug("Request to get all Tasks including : {}", include);
+        return taskRepository.fetchIncluded(taskRepository.findAllBy(null, filter.toCriteria()), include);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<Task> findAllAfter(KeysetCursor cursor, int limit, EntityFilter filter, Include include) {
+        log.debug("Request to get a keyset page of Tasks after : {} including : {}", cursor, include);
+        return taskRepository.fetchIncluded(taskRepository.findAllAfter(cursor, limit, filter.toCriteria()), include);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<String> exportAll(BulkFormat format) {
+        log.debug("Request to export all Tasks as {}", format);
+        return bulkExporter.export(taskRepository.streamAll(), format, Task.class);
+    }
+
     public Mono<Long> countAll() {
         return taskRepository.count();
     }
@@ -71,6 +101,27 @@ public class TaskServiceImpl implements TaskService {
         return taskRepository.findById(id);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Mono<Task> findOne(Long id, Include include) {
+        log.debug("Request to get Task : {} including : {}", id, include);
+        return taskRepository.fetchIncluded(taskRepository.findById(id).flux(), include).next();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<Task> findAllById(List<Long> ids, Include include) {
+        log.debug("Request to get Tasks : {} including : {}", ids, include);
+        return taskRepository.fetchIncluded(taskRepository.findAllById(ids), include);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<SearchHit<Task>> search(FullTextQuery query, SearchCursor cursor, int limit) {
+        log.debug("Request to search Tasks : {} after : {}", query, cursor);
+        return taskRepository.search(query, cursor, limit);
+    }
+
     @Override
     public Mono<Void> delete(Long id) {
         log.debug("Request to delete Task : {}", id);
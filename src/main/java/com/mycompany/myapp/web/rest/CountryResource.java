@@ -2,8 +2,16 @@ package com.mycompany.myapp.web.rest;
 
 import com.mycompany.myapp.domain.Country;
 import com.mycompany.myapp.repository.CountryRepository;
+import com.mycompany.myapp.service.BulkFormat;
 import com.mycompany.myapp.service.CountryService;
+import com.mycompany.myapp.service.EntityFilter;
+import com.mycompany.myapp.service.KeysetCursor;
+import com.mycompany.myapp.service.UpsertResult;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import com.mycompany.myapp.web.rest.util.ExportUtil;
+import com.mycompany.myapp.web.rest.util.FilterUtil;
+import com.mycompany.myapp.web.rest.util.KeysetPaginationUtil;
+import com.mycompany.myapp.web.rest.util.MultiGetUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -12,11 +20,14 @@ import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.UriComponentsBuilder;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import tech.jhipster.web.util.HeaderUtil;
@@ -36,6 +47,9 @@ public class CountryResource {
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
+    @Value(FilterUtil.ALLOW_UNINDEXED_FILTERS)
+    private boolean allowUnindexedFilters;
+
     private final CountryService countryService;
 
     private final CountryRepository countryRepository;
@@ -74,6 +88,23 @@ public class CountryResource {
             );
     }
 
+    /**
+     * {@code PUT  /_upsert/countries} : Creates the given countries, or updates the existing ones with the same name, in a few batched
+     * statements.
+     *
+     * @param countries the countries to upsert.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the number of created, updated and unchanged countries,
+     * or with status {@code 400 (Bad Request)} if a country has no name.
+     */
+    @PutMapping("/_upsert/countries")
+    public Mono<ResponseEntity<UpsertResult>> upsertCountries(@RequestBody List<Country> countries) {
+        log.debug("REST request to upsert {} Countrys", countries.size());
+        if (countries.stream().anyMatch(country -> country.getCountryName() == null)) {
+            throw new BadRequestAlertException("A country to upsert needs its name", ENTITY_NAME, "keynull");
+        }
+        return countryService.upsertAll(countries).map(ResponseEntity::ok);
+    }
+
     /**
      * {@code PUT  /countries/:id} : Updates an existing country.
      *
@@ -97,27 +128,15 @@ public class CountryResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        return countryRepository
-            .existsById(id)
-            .flatMap(
-                exists -> {
-                    if (!exists) {
-                        return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                    }
-
-                    return countryService
-                        .save(country)
-                        .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                        .map(
-                            result ->
-                                ResponseEntity
-                                    .ok()
-                                    .headers(
-                                        HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, result.getId().toString())
-                                    )
-                                    .body(result)
-                        );
-                }
+        return countryService
+            .update(country)
+            .switchIfEmpty(Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound")))
+            .map(
+                result ->
+                    ResponseEntity
+                        .ok()
+                        .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, result.getId().toString()))
+                        .body(result)
             );
     }
 
@@ -145,40 +164,42 @@ public class CountryResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        return countryRepository
-            .existsById(id)
-            .flatMap(
-                exists -> {
-                    if (!exists) {
-                        return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                    }
-
-                    Mono<Country> result = countryService.partialUpdate(country);
-
-                    return result
-                        .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                        .map(
-                            res ->
-                                ResponseEntity
-                                    .ok()
-                                    .headers(
-                                        HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, res.getId().toString())
-                                    )
-                                    .body(res)
-                        );
-                }
+        return countryService
+            .partialUpdate(country)
+            .switchIfEmpty(Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound")))
+            .map(
+                result ->
+                    ResponseEntity
+                        .ok()
+                        .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, result.getId().toString()))
+                        .body(result)
             );
     }
 
     /**
-     * {@code GET  /countries} : get all the countries.
+     * {@code GET  /countries} : get all the countries matching the filters.
      *
+     * @param pageable the pagination information, used in keyset mode.
+     * @param cursor the keyset pagination cursor, empty for the first page, or absent to get all the countries.
+     * @param request a {@link ServerHttpRequest} request, whose {@code property.operator} parameters filter the countries.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of countries in body.
      */
     @GetMapping("/countries")
-    public Mono<List<Country>> getAllCountries() {
+    public Mono<ResponseEntity<List<Country>>> getAllCountries(
+        Pageable pageable,
+        @RequestParam(name = KeysetPaginationUtil.CURSOR_PARAMETER, required = false) String cursor,
+        ServerHttpRequest request
+    ) {
         log.debug("REST request to get all Countries");
-        return countryService.findAll().collectList();
+        EntityFilter filter = FilterUtil.parseFilter(request, Country.class, CountryRepository.FILTERS, allowUnindexedFilters, ENTITY_NAME);
+        if (cursor != null) {
+            KeysetCursor position = KeysetPaginationUtil.parseCursor(cursor, pageable.getSort(), Country.class, ENTITY_NAME);
+            return countryService
+                .findAllAfter(position, KeysetPaginationUtil.fetchLimit(pageable), filter)
+                .collectList()
+                .map(rows -> KeysetPaginationUtil.createResponse(UriComponentsBuilder.fromHttpRequest(request), position, pageable, rows));
+        }
+        return countryService.findAll(filter).collectList().map(ResponseEntity::ok);
     }
 
     /**
@@ -191,6 +212,38 @@ public class CountryResource {
         return countryService.findAll();
     }
 
+    /**
+     * {@code GET  /countries/export} : export all the countries.
+     *
+     * @param request a {@link ServerHttpRequest} request, its {@code Accept} header selects NDJSON or CSV, and its
+     * {@code Accept-Encoding} header gzip.
+     * @param response the {@link ServerHttpResponse} the countries are streamed to.
+     * @return the completion of the export.
+     */
+    @GetMapping(value = "/countries/export", produces = { MediaType.APPLICATION_NDJSON_VALUE, BulkFormat.TEXT_CSV_VALUE })
+    public Mono<Void> exportCountries(ServerHttpRequest request, ServerHttpResponse response) {
+        log.debug("REST request to export Countries");
+        BulkFormat format = ExportUtil.resolveFormat(request);
+        return ExportUtil.writeExport(request, response, "countries", format, countryService.exportAll(format));
+    }
+
+    /**
+     * {@code GET  /countries?ids=} : get the countries with the given ids, loaded by chunks of ids rather than one by one.
+     *
+     * @param ids the ids of the countries to retrieve, at most {@link MultiGetUtil#MAX_IDS}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the countries found in body, in the order of the ids, and the ids
+     * of the missing countries in the {@code X-Missing-Ids} header.
+     */
+    @GetMapping(value = "/countries", params = MultiGetUtil.IDS_PARAMETER)
+    public Mono<ResponseEntity<List<Country>>> getCountriesById(@RequestParam(name = MultiGetUtil.IDS_PARAMETER) List<Long> ids) {
+        log.debug("REST request to get Countries : {}", ids);
+        List<Long> requested = MultiGetUtil.parseIds(ids, ENTITY_NAME);
+        return countryService
+            .findAllById(requested)
+            .collectList()
+            .map(countries -> MultiGetUtil.createResponse(requested, countries, Country::getId));
+    }
+
     /**
      * {@code GET  /countries/:id} : get the "id" country.
      *
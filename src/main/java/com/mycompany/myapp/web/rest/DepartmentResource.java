@@ -2,8 +2,17 @@ package com.mycompany.myapp.web.rest;
 
 import com.mycompany.myapp.domain.Department;
 import com.mycompany.myapp.repository.DepartmentRepository;
+import com.mycompany.myapp.service.BulkFormat;
 import com.mycompany.myapp.service.DepartmentService;
+import com.mycompany.myapp.service.EntityFilter;
+import com.mycompany.myapp.service.Include;
+import com.mycompany.myapp.service.KeysetCursor;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import com.mycompany.myapp.web.rest.util.ExportUtil;
+import com.mycompany.myapp.web.rest.util.FilterUtil;
+import com.mycompany.myapp.web.rest.util.IncludeUtil;
+import com.mycompany.myapp.web.rest.util.KeysetPaginationUtil;
+import com.mycompany.myapp.web.rest.util.MultiGetUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -14,11 +23,14 @@ import javax.validation.constraints.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.UriComponentsBuilder;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import tech.jhipster.web.util.HeaderUtil;
@@ -35,9 +47,14 @@ public class DepartmentResource {
 
     private static final String ENTITY_NAME = "jhipsterDepartment";
 
+    private static final Include SUPPORTED_INCLUDES = Include.parse("employees.jobs.tasks");
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
+    @Value(FilterUtil.ALLOW_UNINDEXED_FILTERS)
+    private boolean allowUnindexedFilters;
+
     private final DepartmentService departmentService;
 
     private final DepartmentRepository departmentRepository;
@@ -99,27 +116,15 @@ public class DepartmentResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        return departmentRepository
-            .existsById(id)
-            .flatMap(
-                exists -> {
-                    if (!exists) {
-                        return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                    }
-
-                    return departmentService
-                        .save(department)
-                        .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                        .map(
-                            result ->
-                                ResponseEntity
-                                    .ok()
-                                    .headers(
-                                        HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, result.getId().toString())
-                                    )
-                                    .body(result)
-                        );
-                }
+        return departmentService
+            .update(department)
+            .switchIfEmpty(Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound")))
+            .map(
+                result ->
+                    ResponseEntity
+                        .ok()
+                        .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, result.getId().toString()))
+                        .body(result)
             );
     }
 
@@ -147,40 +152,51 @@ public class DepartmentResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        return departmentRepository
-            .existsById(id)
-            .flatMap(
-                exists -> {
-                    if (!exists) {
-                        return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                    }
-
-                    Mono<Department> result = departmentService.partialUpdate(department);
-
-                    return result
-                        .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                        .map(
-                            res ->
-                                ResponseEntity
-                                    .ok()
-                                    .headers(
-                                        HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, res.getId().toString())
-                                    )
-                                    .body(res)
-                        );
-                }
+        return departmentService
+            .partialUpdate(department)
+            .switchIfEmpty(Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound")))
+            .map(
+                result ->
+                    ResponseEntity
+                        .ok()
+                        .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, result.getId().toString()))
+                        .body(result)
             );
     }
 
     /**
-     * {@code GET  /departments} : get all the departments.
+     * {@code GET  /departments} : get all the departments matching the filters.
      *
+     * @param pageable the pagination information, used in keyset mode.
+     * @param cursor the keyset pagination cursor, empty for the first page, or absent to get all the departments.
+     * @param include the relationships to load along with the departments, such as {@code employees.jobs.tasks}.
+     * @param request a {@link ServerHttpRequest} request, whose {@code property.operator} parameters filter the departments.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of departments in body.
      */
     @GetMapping("/departments")
-    public Mono<List<Department>> getAllDepartments() {
+    public Mono<ResponseEntity<List<Department>>> getAllDepartments(
+        Pageable pageable,
+        @RequestParam(name = KeysetPaginationUtil.CURSOR_PARAMETER, required = false) String cursor,
+        @RequestParam(name = IncludeUtil.INCLUDE_PARAMETER, required = false) String include,
+        ServerHttpRequest request
+    ) {
         log.debug("REST request to get all Departments");
-        return departmentService.findAll().collectList();
+        Include relationships = IncludeUtil.parseInclude(include, SUPPORTED_INCLUDES, ENTITY_NAME);
+        EntityFilter filter = FilterUtil.parseFilter(
+            request,
+            Department.class,
+            DepartmentRepository.FILTERS,
+            allowUnindexedFilters,
+            ENTITY_NAME
+        );
+        if (cursor != null) {
+            KeysetCursor position = KeysetPaginationUtil.parseCursor(cursor, pageable.getSort(), Department.class, ENTITY_NAME);
+            return departmentService
+                .findAllAfter(position, KeysetPaginationUtil.fetchLimit(pageable), filter, relationships)
+                .collectList()
+                .map(rows -> KeysetPaginationUtil.createResponse(UriComponentsBuilder.fromHttpRequest(request), position, pageable, rows));
+        }
+        return departmentService.findAll(filter, relationships).collectList().map(ResponseEntity::ok);
     }
 
     /**
@@ -193,16 +209,58 @@ public class DepartmentResource {
         return departmentService.findAll();
     }
 
+    /**
+     * {@code GET  /departments/export} : export all the departments.
+     *
+     * @param request a {@link ServerHttpRequest} request, its {@code Accept} header selects NDJSON or CSV, and its
+     * {@code Accept-Encoding} header gzip.
+     * @param response the {@link ServerHttpResponse} the departments are streamed to.
+     * @return the completion of the export.
+     */
+    @GetMapping(value = "/departments/export", produces = { MediaType.APPLICATION_NDJSON_VALUE, BulkFormat.TEXT_CSV_VALUE })
+    public Mono<Void> exportDepartments(ServerHttpRequest request, ServerHttpResponse response) {
+        log.debug("REST request to export Departments");
+        BulkFormat format = ExportUtil.resolveFormat(request);
+        return ExportUtil.writeExport(request, response, "departments", format, departmentService.exportAll(format));
+    }
+
+    /**
+     * {@code GET  /departments?ids=} : get the departments with the given ids, loaded by chunks of ids rather than one by one.
+     *
+     * @param ids the ids of the departments to retrieve, at most {@link MultiGetUtil#MAX_IDS}.
+     * @param include the relationships to load along with the departments, such as {@code employees.jobs.tasks}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the departments found in body, in the order of the ids, and the
+     * ids of the missing departments in the {@code X-Missing-Ids} header.
+     */
+    @GetMapping(value = "/departments", params = MultiGetUtil.IDS_PARAMETER)
+    public Mono<ResponseEntity<List<Department>>> getDepartmentsById(
+        @RequestParam(name = MultiGetUtil.IDS_PARAMETER) List<Long> ids,
+        @RequestParam(name = IncludeUtil.INCLUDE_PARAMETER, required = false) String include
+    ) {
+        log.debug("REST request to get Departments : {}", ids);
+        List<Long> requested = MultiGetUtil.parseIds(ids, ENTITY_NAME);
+        Include relationships = IncludeUtil.parseInclude(include, SUPPORTED_INCLUDES, ENTITY_NAME);
+        return departmentService
+            .findAllById(requested, relationships)
+            .collectList()
+            .map(departments -> MultiGetUtil.createResponse(requested, departments, Department::getId));
+    }
+
     /**
      * {@code GET  /departments/:id} : get the "id" department.
      *
      * @param id the id of the department to retrieve.
+     * @param include the relationships to load along with the department, such as {@code employees.jobs.tasks}.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the department, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/departments/{id}")
-    public Mono<ResponseEntity<Department>> getDepartment(@PathVariable Long id) {
+    public Mono<ResponseEntity<Department>> getDepartment(
+        @PathVariable Long id,
+        @RequestParam(name = IncludeUtil.INCLUDE_PARAMETER, required = false) String include
+    ) {
         log.debug("REST request to get Department : {}", id);
-        Mono<Department> department = departmentService.findOne(id);
+        Include relationships = IncludeUtil.parseInclude(include, SUPPORTED_INCLUDES, ENTITY_NAME);
+        Mono<Department> department = departmentService.findOne(id, relationships);
         return ResponseUtil.wrapOrNotFound(department);
     }
 
@@ -2,9 +2,34 @@ package com.mycompany.myapp.web.rest;
 
 import com.mycompany.myapp.domain.Employee;
 import com.mycompany.myapp.repository.EmployeeRepository;
+import com.mycompany.myapp.service.BulkExporter;
+import com.mycompany.myapp.service.BulkFormat;
+import com.mycompany.myapp.service.BulkImporter;
+import com.mycompany.myapp.service.BulkUpdate;
+import com.mycompany.myapp.service.CountStrategy;
+import com.mycompany.myapp.service.EntityFilter;
+import com.mycompany.myapp.service.FieldSet;
+import com.mycompany.myapp.service.FullTextQuery;
+import com.mycompany.myapp.service.ImportProgress;
+import com.mycompany.myapp.service.Include;
+import com.mycompany.myapp.service.KeysetCursor;
+import com.mycompany.myapp.service.SearchCursor;
+import com.mycompany.myapp.service.Suggestion;
+import com.mycompany.myapp.service.TypeaheadIndex;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import com.mycompany.myapp.web.rest.util.CountPaginationUtil;
+import com.mycompany.myapp.web.rest.util.ExportUtil;
+import com.mycompany.myapp.web.rest.util.FieldSetUtil;
+import com.mycompany.myapp.web.rest.util.FilterUtil;
+import com.mycompany.myapp.web.rest.util.IncludeUtil;
+import com.mycompany.myapp.web.rest.util.KeysetPaginationUtil;
+import com.mycompany.myapp.web.rest.util.MultiGetUtil;
+import com.mycompany.myapp.web.rest.util.SearchUtil;
+import com.mycompany.myapp.web.rest.vm.BulkResultVM;
+import com.mycompany.myapp.web.rest.vm.EmployeeBulkUpdateVM;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
@@ -13,21 +38,22 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.relational.core.query.Criteria;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.util.UriComponentsBuilder;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import tech.jhipster.web.util.HeaderUtil;
-import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.reactive.ResponseUtil;
 
 /**
@@ -42,13 +68,34 @@ public class EmployeeResource {
 
     private static final String ENTITY_NAME = "jhipsterEmployee";
 
+    private static final Include SUPPORTED_INCLUDES = Include.parse("jobs.tasks,manager,department");
+
+    private static final Include DEFAULT_INCLUDES = Include.parse("manager,department");
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
+    @Value(FilterUtil.ALLOW_UNINDEXED_FILTERS)
+    private boolean allowUnindexedFilters;
+
     private final EmployeeRepository employeeRepository;
 
-    public EmployeeResource(EmployeeRepository employeeRepository) {
+    private final BulkExporter bulkExporter;
+
+    private final BulkImporter bulkImporter;
+
+    private final TypeaheadIndex typeaheadIndex;
+
+    public EmployeeResource(
+        EmployeeRepository employeeRepository,
+        BulkImporter bulkImporter,
+        BulkExporter bulkExporter,
+        TypeaheadIndex typeaheadIndex
+    ) {
         this.employeeRepository = employeeRepository;
+        this.bulkImporter = bulkImporter;
+        this.bulkExporter = bulkExporter;
+        this.typeaheadIndex = typeaheadIndex;
     }
 
     /**
@@ -80,6 +127,30 @@ public class EmployeeResource {
             );
     }
 
+    /**
+     * {@code POST  /employees/import} : Import employees in bulk.
+     *
+     * @param contentType the format of the body: NDJSON, or CSV with the columns of the employee table.
+     * @param request a {@link ServerHttpRequest} request, with the employees in the body.
+     * @return the import progress, streamed as NDJSON, one element per batch.
+     */
+    @PostMapping(
+        value = "/employees/import",
+        consumes = { MediaType.APPLICATION_NDJSON_VALUE, BulkFormat.TEXT_CSV_VALUE },
+        produces = MediaType.APPLICATION_NDJSON_VALUE
+    )
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Flux<ImportProgress> importEmployees(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType, ServerHttpRequest request) {
+        log.debug("REST request to import Employees as {}", contentType);
+        // the import doesn't go through the repository, it hands the imported employees over to the typeahead index itself
+        return bulkImporter.importEntities(
+            request.getBody(),
+            BulkFormat.of(contentType),
+            Employee.class,
+            employees -> employees.forEach(typeaheadIndex.getEmployees()::put)
+        );
+    }
+
     /**
      * {@code PUT  /employees/:id} : Updates an existing employee.
      *
@@ -104,26 +175,16 @@ public class EmployeeResource {
         }
 
         return employeeRepository
-            .existsById(id)
-            .flatMap(
-                exists -> {
-                    if (!exists) {
-                        return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                    }
-
-                    return employeeRepository
-                        .save(employee)
-                        .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                        .map(
-                            result ->
-                                ResponseEntity
-                                    .ok()
-                                    .headers(
-                                        HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, result.getId().toString())
-                                    )
-                                    .body(result)
-                        );
-                }
+            .update(employee)
+            .filter(updated -> updated > 0)
+            .map(updated -> employee)
+            .switchIfEmpty(Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound")))
+            .map(
+                result ->
+                    ResponseEntity
+                        .ok()
+                        .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, result.getId().toString()))
+                        .body(result)
             );
     }
 
@@ -152,98 +213,259 @@ public class EmployeeResource {
         }
 
         return employeeRepository
-            .existsById(id)
-            .flatMap(
-                exists -> {
-                    if (!exists) {
-                        return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                    }
+            .partialUpdate(employee)
+            .switchIfEmpty(Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound")))
+            .map(
+                result ->
+                    ResponseEntity
+                        .ok()
+                        .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, result.getId().toString()))
+                        .body(result)
+            );
+    }
 
-                    Mono<Employee> result = employeeRepository
-                        .findById(employee.getId())
-                        .map(
-                            existingEmployee -> {
-                                if (employee.getFirstName() != null) {
-                                    existingEmployee.setFirstName(employee.getFirstName());
-                                }
-                                if (employee.getLastName() != null) {
-                                    existingEmployee.setLastName(employee.getLastName());
-                                }
-                                if (employee.getEmail() != null) {
-                                    existingEmployee.setEmail(employee.getEmail());
-                                }
-                                if (employee.getPhoneNumber() != null) {
-                                    existingEmployee.setPhoneNumber(employee.getPhoneNumber());
-                                }
-                                if (employee.getHireDate() != null) {
-                                    existingEmployee.setHireDate(employee.getHireDate());
-                                }
-                                if (employee.getSalary() != null) {
-                                    existingEmployee.setSalary(employee.getSalary());
-                                }
-                                if (employee.getCommissionPct() != null) {
-                                    existingEmployee.setCommissionPct(employee.getCommissionPct());
-                                }
+    /**
+     * {@code POST  /employees/bulk-update} : Updates all the employees matching the filter, with one set-based statement.
+     *
+     * @param departmentId the ids of the departments of the employees to update.
+     * @param managerId the ids of the managers of the employees to update.
+     * @param jobId the ids of the jobs held by the employees to update.
+     * @param hireDateFrom the earliest hire date of the employees to update, inclusive.
+     * @param hireDateTo the latest hire date of the employees to update, exclusive.
+     * @param update the changes of the employees.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the number of updated employees,
+     * or with status {@code 400 (Bad Request)} if the filter or the update is empty.
+     */
+    @PostMapping("/employees/bulk-update")
+    public Mono<ResponseEntity<BulkResultVM>> updateEmployees(
+        @RequestParam(required = false) List<Long> departmentId,
+        @RequestParam(required = false) List<Long> managerId,
+        @RequestParam(required = false) List<Long> jobId,
+        @RequestParam(required = false) Instant hireDateFrom,
+        @RequestParam(required = false) Instant hireDateTo,
+        @RequestBody EmployeeBulkUpdateVM update
+    ) {
+        log.debug("REST request to update Employees : {}", update);
+        Criteria criteria = createBulkCriteria(departmentId, managerId, jobId, hireDateFrom, hireDateTo);
+        BulkUpdate bulkUpdate = new BulkUpdate();
+        if (update.getSalaryRaisePercent() != null) {
+            bulkUpdate.increaseByPercent("salary", update.getSalaryRaisePercent());
+        }
+        if (update.getDepartmentId() != null) {
+            bulkUpdate.set("departmentId", update.getDepartmentId());
+        }
+        if (update.getManagerId() != null) {
+            bulkUpdate.set("managerId", update.getManagerId());
+        }
+        if (bulkUpdate.isEmpty()) {
+            throw new BadRequestAlertException("A bulk update needs a change", ENTITY_NAME, "updateempty");
+        }
+        return employeeRepository.updateMatching(criteria, bulkUpdate).map(updated -> ResponseEntity.ok(new BulkResultVM(updated)));
+    }
 
-                                return existingEmployee;
-                            }
-                        )
-                        .flatMap(employeeRepository::save);
+    /**
+     * {@code DELETE  /employees} : Deletes all the employees matching the filter, with one statement. Their reports, jobs and job
+     * histories are kept, without a reference to them.
+     *
+     * @param departmentId the ids of the departments of the employees to delete.
+     * @param managerId the ids of the managers of the employees to delete.
+     * @param jobId the ids of the jobs held by the employees to delete.
+     * @param hireDateFrom the earliest hire date of the employees to delete, inclusive.
+     * @param hireDateTo the latest hire date of the employees to delete, exclusive.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the number of deleted employees,
+     * or with status {@code 400 (Bad Request)} if the filter is empty.
+     */
+    @DeleteMapping("/employees")
+    public Mono<ResponseEntity<BulkResultVM>> deleteEmployees(
+        @RequestParam(required = false) List<Long> departmentId,
+        @RequestParam(required = false) List<Long> managerId,
+        @RequestParam(required = false) List<Long> jobId,
+        @RequestParam(required = false) Instant hireDateFrom,
+        @RequestParam(required = false) Instant hireDateTo
+    ) {
+        log.debug("REST request to delete Employees");
+        Criteria criteria = createBulkCriteria(departmentId, managerId, jobId, hireDateFrom, hireDateTo);
+        return employeeRepository.deleteMatching(criteria).map(deleted -> ResponseEntity.ok(new BulkResultVM(deleted)));
+    }
 
-                    return result
-                        .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                        .map(
-                            res ->
-                                ResponseEntity
-                                    .ok()
-                                    .headers(
-                                        HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, res.getId().toString())
-                                    )
-                                    .body(res)
-                        );
-                }
-            );
+    private static Criteria createBulkCriteria(
+        List<Long> departmentId,
+        List<Long> managerId,
+        List<Long> jobId,
+        Instant hireDateFrom,
+        Instant hireDateTo
+    ) {
+        Criteria criteria = Criteria.empty();
+        if (departmentId != null) {
+            criteria = criteria.and("departmentId").in(departmentId);
+        }
+        if (managerId != null) {
+            criteria = criteria.and("managerId").in(managerId);
+        }
+        if (jobId != null) {
+            criteria = criteria.and(EmployeeRepository.holdingAnyJob(jobId));
+        }
+        if (hireDateFrom != null) {
+            criteria = criteria.and("hireDate").greaterThanOrEquals(hireDateFrom);
+        }
+        if (hireDateTo != null) {
+            criteria = criteria.and("hireDate").lessThan(hireDateTo);
+        }
+        // a bulk change of the whole table is never what was meant
+        if (criteria.isEmpty()) {
+            throw new BadRequestAlertException("A bulk change needs a filter", ENTITY_NAME, "filterempty");
+        }
+        return criteria;
     }
 
     /**
-     * {@code GET  /employees} : get all the employees.
+     * {@code GET  /employees} : get all the employees matching the filters.
      *
      * @param pageable the pagination information.
-     * @param request a {@link ServerHttpRequest} request.
+     * @param cursor the keyset pagination cursor, empty for the first page, or absent for offset pagination.
+     * @param count the count strategy of offset pagination: {@code exact}, {@code window}, {@code estimate} or {@code none}.
+     * @param fields the properties of the employees to return, such as {@code firstName,lastName}, all of them if absent.
+     * @param include the relationships to load along with the employees, such as {@code jobs.tasks} or {@code manager}, the manager
+     * and the department if both the fields and the relationships are absent.
+     * @param request a {@link ServerHttpRequest} request, whose {@code property.operator} parameters filter the employees.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of employees in body.
      */
     @GetMapping("/employees")
-    public Mono<ResponseEntity<List<Employee>>> getAllEmployees(Pageable pageable, ServerHttpRequest request) {
+    @Transactional(readOnly = true)
+    public Mono<ResponseEntity<MappingJacksonValue>> getAllEmployees(
+        Pageable pageable,
+        @RequestParam(name = KeysetPaginationUtil.CURSOR_PARAMETER, required = false) String cursor,
+        @RequestParam(name = CountPaginationUtil.COUNT_PARAMETER, defaultValue = CountPaginationUtil.DEFAULT_COUNT_STRATEGY) String count,
+        @RequestParam(name = FieldSetUtil.FIELDS_PARAMETER, required = false) String fields,
+        @RequestParam(name = IncludeUtil.INCLUDE_PARAMETER, required = false) String include,
+        ServerHttpRequest request
+    ) {
         log.debug("REST request to get a page of Employees");
+        FieldSet properties = FieldSetUtil.parseFields(fields, EmployeeRepository.FIELDS, ENTITY_NAME);
+        Include relationships = parseInclude(fields, include);
+        EntityFilter filter = FilterUtil.parseFilter(
+            request,
+            Employee.class,
+            EmployeeRepository.FILTERS,
+            allowUnindexedFilters,
+            ENTITY_NAME
+        );
+        Criteria criteria = filter.toCriteria();
+        if (cursor != null) {
+            KeysetCursor position = KeysetPaginationUtil.parseCursor(cursor, pageable.getSort(), Employee.class, ENTITY_NAME);
+            return employeeRepository
+                .fetchIncluded(
+                    employeeRepository.findAllAfter(
+                        position,
+                        KeysetPaginationUtil.fetchLimit(pageable),
+                        properties,
+                        relationships,
+                        criteria
+                    ),
+                    relationships
+                )
+                .collectList()
+                .map(rows -> KeysetPaginationUtil.createResponse(UriComponentsBuilder.fromHttpRequest(request), position, pageable, rows))
+                .map(response -> FieldSetUtil.filter(response, properties, relationships));
+        }
+        CountStrategy countStrategy = CountPaginationUtil.parseCountStrategy(count, ENTITY_NAME);
         return employeeRepository
-            .count()
-            .zipWith(employeeRepository.findAllBy(pageable).collectList())
+            .findPage(pageable, countStrategy, properties, relationships, criteria)
+            .flatMap(page -> employeeRepository.fetchIncluded(Flux.fromIterable(page.getContent()), relationships).then(Mono.just(page)))
             .map(
-                countWithEntities -> {
-                    return ResponseEntity
+                page ->
+                    ResponseEntity
                         .ok()
                         .headers(
-                            PaginationUtil.generatePaginationHttpHeaders(
+                            CountPaginationUtil.generatePaginationHttpHeaders(
                                 UriComponentsBuilder.fromHttpRequest(request),
-                                new PageImpl<>(countWithEntities.getT2(), pageable, countWithEntities.getT1())
+                                countStrategy,
+                                page
                             )
                         )
-                        .body(countWithEntities.getT2());
-                }
-            );
+                        .body(page.getContent())
+            )
+            .map(response -> FieldSetUtil.filter(response, properties, relationships));
+    }
+
+    /**
+     * {@code GET  /employees/export} : export all the employees.
+     *
+     * @param request a {@link ServerHttpRequest} request, its {@code Accept} header selects NDJSON or CSV, and its
+     * {@code Accept-Encoding} header gzip.
+     * @param response the {@link ServerHttpResponse} the employees are streamed to.
+     * @return the completion of the export.
+     */
+    @GetMapping(value = "/employees/export", produces = { MediaType.APPLICATION_NDJSON_VALUE, BulkFormat.TEXT_CSV_VALUE })
+    @Transactional(readOnly = true)
+    public Mono<Void> exportEmployees(ServerHttpRequest request, ServerHttpResponse response) {
+        log.debug("REST request to export Employees");
+        BulkFormat format = ExportUtil.resolveFormat(request);
+        return ExportUtil.writeExport(
+            request,
+            response,
+            "employees",
+            format,
+            bulkExporter.export(employeeRepository.streamAll(), format, Employee.class)
+        );
+    }
+
+    /**
+     * {@code GET  /employees?ids=} : get the employees with the given ids, loaded by chunks of ids rather than one by one.
+     *
+     * @param ids the ids of the employees to retrieve, at most {@link MultiGetUtil#MAX_IDS}.
+     * @param fields the properties of the employees to return, such as {@code firstName,lastName}, all of them if absent.
+     * @param include the relationships to load along with the employees, such as {@code jobs.tasks} or {@code manager}, the manager
+     * and the department if both the fields and the relationships are absent.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the employees found in body, in the order of the ids, and the ids
+     * of the missing employees in the {@code X-Missing-Ids} header.
+     */
+    @GetMapping(value = "/employees", params = MultiGetUtil.IDS_PARAMETER)
+    @Transactional(readOnly = true)
+    public Mono<ResponseEntity<MappingJacksonValue>> getEmployeesById(
+        @RequestParam(name = MultiGetUtil.IDS_PARAMETER) List<Long> ids,
+        @RequestParam(name = FieldSetUtil.FIELDS_PARAMETER, required = false) String fields,
+        @RequestParam(name = IncludeUtil.INCLUDE_PARAMETER, required = false) String include
+    ) {
+        log.debug("REST request to get Employees : {}", ids);
+        List<Long> requested = MultiGetUtil.parseIds(ids, ENTITY_NAME);
+        FieldSet properties = FieldSetUtil.parseFields(fields, EmployeeRepository.FIELDS, ENTITY_NAME);
+        Include relationships = parseInclude(fields, include);
+        return employeeRepository
+            .fetchIncluded(employeeRepository.findAllById(requested, properties, relationships), relationships)
+            .collectList()
+            .map(employees -> MultiGetUtil.createResponse(requested, employees, Employee::getId))
+            .map(response -> FieldSetUtil.filter(response, properties, relationships));
     }
 
     /**
      * {@code GET  /employees/:id} : get the "id" employee.
      *
      * @param id the id of the employee to retrieve.
+     * @param fields the properties of the employee to return, such as {@code firstName,lastName}, all of them if absent.
+     * @param include the relationships to load along with the employee, such as {@code jobs.tasks} or {@code manager}, the manager
+     * and the department if both the fields and the relationships are absent.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the employee, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/employees/{id}")
-    public Mono<ResponseEntity<Employee>> getEmployee(@PathVariable Long id) {
+    @Transactional(readOnly = true)
+    public Mono<ResponseEntity<MappingJacksonValue>> getEmployee(
+        @PathVariable Long id,
+        @RequestParam(name = FieldSetUtil.FIELDS_PARAMETER, required = false) String fields,
+        @RequestParam(name = IncludeUtil.INCLUDE_PARAMETER, required = false) String include
+    ) {
         log.debug("REST request to get Employee : {}", id);
-        Mono<Employee> employee = employeeRepository.findById(id);
-        return ResponseUtil.wrapOrNotFound(employee);
+        FieldSet properties = FieldSetUtil.parseFields(fields, EmployeeRepository.FIELDS, ENTITY_NAME);
+        Include relationships = parseInclude(fields, include);
+        Mono<Employee> employee = employeeRepository
+            .fetchIncluded(employeeRepository.findById(id, properties, relationships).flux(), relationships)
+            .next();
+        return ResponseUtil.wrapOrNotFound(employee).map(response -> FieldSetUtil.filter(response, properties, relationships));
+    }
+
+    private static Include parseInclude(String fields, String include) {
+        // without any of the parameters, the employees come with their manager and department, as they always did
+        return fields == null && include == null ? DEFAULT_INCLUDES : IncludeUtil.parseInclude(include, SUPPORTED_INCLUDES, ENTITY_NAME);
     }
 
     /**
@@ -266,4 +488,49 @@ public class EmployeeResource {
                         .build()
             );
     }
+
+    /**
+     * {@code GET  /_search/employees?q=} : search the employees by name, email or phone number, the most relevant first.
+     *
+     * @param query the searched text, each of its terms must start a word of the employee.
+     * @param cursor the cursor of the next page, absent for the first page.
+     * @param pageable the pagination information, only its size is used.
+     * @param request a {@link ServerHttpRequest} request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the page of employees in body, and the cursor of the next page
+     * in the {@code X-Next-Cursor} header.
+     */
+    @GetMapping("/_search/employees")
+    @Transactional(readOnly = true)
+    public Mono<ResponseEntity<List<Employee>>> searchEmployees(
+        @RequestParam(name = SearchUtil.QUERY_PARAMETER) String query,
+        @RequestParam(name = KeysetPaginationUtil.CURSOR_PARAMETER, required = false) String cursor,
+        Pageable pageable,
+        ServerHttpRequest request
+    ) {
+        log.debug("REST request to search Employees : {}", query);
+        FullTextQuery terms = SearchUtil.parseQuery(query, ENTITY_NAME);
+        SearchCursor position = SearchUtil.parseCursor(cursor, ENTITY_NAME);
+        return employeeRepository
+            .search(terms, position, KeysetPaginationUtil.fetchLimit(pageable))
+            .collectList()
+            .map(hits -> SearchUtil.createResponse(UriComponentsBuilder.fromHttpRequest(request), pageable, hits));
+    }
+
+    /**
+     * {@code GET  /_typeahead/employees?q=} : suggest the employees whose first name, last name or email has a word starting with the
+     * typed text, from an in-memory index, without any query.
+     *
+     * @param prefix the typed text.
+     * @param limit the maximum number of suggestions, at most {@code application.typeahead.max-results}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the suggestions in body, in the alphabetical order of the words.
+     */
+    @GetMapping("/_typeahead/employees")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Mono<ResponseEntity<List<Suggestion>>> suggestEmployees(
+        @RequestParam(name = SearchUtil.QUERY_PARAMETER) String prefix,
+        @RequestParam(name = "limit", defaultValue = TypeaheadIndex.DEFAULT_LIMIT) int limit
+    ) {
+        log.debug("REST request to suggest Employees : {}", prefix);
+        return Mono.fromSupplier(() -> ResponseEntity.ok(typeaheadIndex.findEmployees(prefix, limit)));
+    }
 }
@@ -2,8 +2,22 @@ package com.mycompany.myapp.web.rest;
 
 import com.mycompany.myapp.domain.JobHistory;
 import com.mycompany.myapp.repository.JobHistoryRepository;
+import com.mycompany.myapp.service.BulkFormat;
+import com.mycompany.myapp.service.CountStrategy;
+import com.mycompany.myapp.service.EntityFilter;
+import com.mycompany.myapp.service.FieldSet;
+import com.mycompany.myapp.service.ImportProgress;
+import com.mycompany.myapp.service.Include;
 import com.mycompany.myapp.service.JobHistoryService;
+import com.mycompany.myapp.service.KeysetCursor;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import com.mycompany.myapp.web.rest.util.CountPaginationUtil;
+import com.mycompany.myapp.web.rest.util.ExportUtil;
+import com.mycompany.myapp.web.rest.util.FieldSetUtil;
+import com.mycompany.myapp.web.rest.util.FilterUtil;
+import com.mycompany.myapp.web.rest.util.IncludeUtil;
+import com.mycompany.myapp.web.rest.util.KeysetPaginationUtil;
+import com.mycompany.myapp.web.rest.util.MultiGetUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
@@ -14,20 +28,19 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.util.UriComponentsBuilder;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import tech.jhipster.web.util.HeaderUtil;
-import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.reactive.ResponseUtil;
 
 /**
@@ -41,9 +54,14 @@ public class JobHistoryResource {
 
     private static final String ENTITY_NAME = "jhipsterJobHistory";
 
+    private static final Include SUPPORTED_INCLUDES = Include.parse("job,department,employee");
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
+    @Value(FilterUtil.ALLOW_UNINDEXED_FILTERS)
+    private boolean allowUnindexedFilters;
+
     private final JobHistoryService jobHistoryService;
 
     private final JobHistoryRepository jobHistoryRepository;
@@ -82,6 +100,26 @@ public class JobHistoryResource {
             );
     }
 
+    /**
+     * {@code POST  /job-histories/import} : Import jobHistories in bulk.
+     *
+     * @param contentType the format of the body: NDJSON, or CSV with the columns of the job_history table.
+     * @param request a {@link ServerHttpRequest} request, with the jobHistories in the body.
+     * @return the import progress, streamed as NDJSON, one element per batch.
+     */
+    @PostMapping(
+        value = "/job-histories/import",
+        consumes = { MediaType.APPLICATION_NDJSON_VALUE, BulkFormat.TEXT_CSV_VALUE },
+        produces = MediaType.APPLICATION_NDJSON_VALUE
+    )
+    public Flux<ImportProgress> importJobHistories(
+        @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+        ServerHttpRequest request
+    ) {
+        log.debug("REST request to import JobHistories as {}", contentType);
+        return jobHistoryService.importAll(request.getBody(), BulkFormat.of(contentType));
+    }
+
     /**
      * {@code PUT  /job-histories/:id} : Updates an existing jobHistory.
      *
@@ -105,27 +143,15 @@ public class JobHistoryResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        return jobHistoryRepository
-            .existsById(id)
-            .flatMap(
-                exists -> {
-                    if (!exists) {
-                        return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                    }
-
-                    return jobHistoryService
-                        .save(jobHistory)
-                        .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                        .map(
-                            result ->
-                                ResponseEntity
-                                    .ok()
-                                    .headers(
-                                        HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, result.getId().toString())
-                                    )
-                                    .body(result)
-                        );
-                }
+        return jobHistoryService
+            .update(jobHistory)
+            .switchIfEmpty(Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound")))
+            .map(
+                result ->
+                    ResponseEntity
+                        .ok()
+                        .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, result.getId().toString()))
+                        .body(result)
             );
     }
 
@@ -153,70 +179,143 @@ public class JobHistoryResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        return jobHistoryRepository
-            .existsById(id)
-            .flatMap(
-                exists -> {
-                    if (!exists) {
-                        return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                    }
-
-                    Mono<JobHistory> result = jobHistoryService.partialUpdate(jobHistory);
-
-                    return result
-                        .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                        .map(
-                            res ->
-                                ResponseEntity
-                                    .ok()
-                                    .headers(
-                                        HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, res.getId().toString())
-                                    )
-                                    .body(res)
-                        );
-                }
+        return jobHistoryService
+            .partialUpdate(jobHistory)
+            .switchIfEmpty(Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound")))
+            .map(
+                result ->
+                    ResponseEntity
+                        .ok()
+                        .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, result.getId().toString()))
+                        .body(result)
             );
     }
 
     /**
-     * {@code GET  /job-histories} : get all the jobHistories.
+     * {@code GET  /job-histories} : get all the jobHistories matching the filters.
      *
      * @param pageable the pagination information.
-     * @param request a {@link ServerHttpRequest} request.
+     * @param cursor the keyset pagination cursor, empty for the first page, or absent for offset pagination.
+     * @param count the count strategy of offset pagination: {@code exact}, {@code window}, {@code estimate} or {@code none}.
+     * @param fields the properties of the jobHistories to return, such as {@code startDate,endDate}, all of them if absent.
+     * @param include the relationships to return along with the jobHistories, among {@code job}, {@code department} and
+     * {@code employee}, all of them if both the fields and the relationships are absent.
+     * @param request a {@link ServerHttpRequest} request, whose {@code property.operator} parameters filter the jobHistories.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of jobHistories in body.
      */
     @GetMapping("/job-histories")
-    public Mono<ResponseEntity<List<JobHistory>>> getAllJobHistories(Pageable pageable, ServerHttpRequest request) {
+    public Mono<ResponseEntity<MappingJacksonValue>> getAllJobHistories(
+        Pageable pageable,
+        @RequestParam(name = KeysetPaginationUtil.CURSOR_PARAMETER, required = false) String cursor,
+        @RequestParam(name = CountPaginationUtil.COUNT_PARAMETER, defaultValue = CountPaginationUtil.DEFAULT_COUNT_STRATEGY) String count,
+        @RequestParam(name = FieldSetUtil.FIELDS_PARAMETER, required = false) String fields,
+        @RequestParam(name = IncludeUtil.INCLUDE_PARAMETER, required = false) String include,
+        ServerHttpRequest request
+    ) {
         log.debug("REST request to get a page of JobHistories");
+        FieldSet properties = FieldSetUtil.parseFields(fields, JobHistoryRepository.FIELDS, ENTITY_NAME);
+        Include relationships = parseInclude(fields, include);
+        EntityFilter filter = FilterUtil.parseFilter(
+            request,
+            JobHistory.class,
+            JobHistoryRepository.FILTERS,
+            allowUnindexedFilters,
+            ENTITY_NAME
+        );
+        if (cursor != null) {
+            KeysetCursor position = KeysetPaginationUtil.parseCursor(cursor, pageable.getSort(), JobHistory.class, ENTITY_NAME);
+            return jobHistoryService
+                .findAllAfter(position, KeysetPaginationUtil.fetchLimit(pageable), properties, relationships, filter)
+                .collectList()
+                .map(rows -> KeysetPaginationUtil.createResponse(UriComponentsBuilder.fromHttpRequest(request), position, pageable, rows))
+                .map(response -> FieldSetUtil.filter(response, properties, relationships));
+        }
+        CountStrategy countStrategy = CountPaginationUtil.parseCountStrategy(count, ENTITY_NAME);
         return jobHistoryService
-            .countAll()
-            .zipWith(jobHistoryService.findAll(pageable).collectList())
+            .findPage(pageable, countStrategy, properties, relationships, filter)
             .map(
-                countWithEntities -> {
-                    return ResponseEntity
+                page ->
+                    ResponseEntity
                         .ok()
                         .headers(
-                            PaginationUtil.generatePaginationHttpHeaders(
+                            CountPaginationUtil.generatePaginationHttpHeaders(
                                 UriComponentsBuilder.fromHttpRequest(request),
-                                new PageImpl<>(countWithEntities.getT2(), pageable, countWithEntities.getT1())
+                                countStrategy,
+                                page
                             )
                         )
-                        .body(countWithEntities.getT2());
-                }
-            );
+                        .body(page.getContent())
+            )
+            .map(response -> FieldSetUtil.filter(response, properties, relationships));
+    }
+
+    /**
+     * {@code GET  /job-histories/export} : export all the jobHistories.
+     *
+     * @param request a {@link ServerHttpRequest} request, its {@code Accept} header selects NDJSON or CSV, and its
+     * {@code Accept-Encoding} header gzip.
+     * @param response the {@link ServerHttpResponse} the jobHistories are streamed to.
+     * @return the completion of the export.
+     */
+    @GetMapping(value = "/job-histories/export", produces = { MediaType.APPLICATION_NDJSON_VALUE, BulkFormat.TEXT_CSV_VALUE })
+    public Mono<Void> exportJobHistories(ServerHttpRequest request, ServerHttpResponse response) {
+        log.debug("REST request to export JobHistories");
+        BulkFormat format = ExportUtil.resolveFormat(request);
+        return ExportUtil.writeExport(request, response, "job-histories", format, jobHistoryService.exportAll(format));
+    }
+
+    /**
+     * {@code GET  /job-histories?ids=} : get the jobHistories with the given ids, loaded by chunks of ids rather than one by one.
+     *
+     * @param ids the ids of the jobHistories to retrieve, at most {@link MultiGetUtil#MAX_IDS}.
+     * @param fields the properties of the jobHistories to return, such as {@code startDate,endDate}, all of them if absent.
+     * @param include the relationships to return along with the jobHistories, among {@code job}, {@code department} and
+     * {@code employee}, all of them if both the fields and the relationships are absent.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the jobHistories found in body, in the order of the ids, and the
+     * ids of the missing jobHistories in the {@code X-Missing-Ids} header.
+     */
+    @GetMapping(value = "/job-histories", params = MultiGetUtil.IDS_PARAMETER)
+    public Mono<ResponseEntity<MappingJacksonValue>> getJobHistoriesById(
+        @RequestParam(name = MultiGetUtil.IDS_PARAMETER) List<Long> ids,
+        @RequestParam(name = FieldSetUtil.FIELDS_PARAMETER, required = false) String fields,
+        @RequestParam(name = IncludeUtil.INCLUDE_PARAMETER, required = false) String include
+    ) {
+        log.debug("REST request to get JobHistories : {}", ids);
+        List<Long> requested = MultiGetUtil.parseIds(ids, ENTITY_NAME);
+        FieldSet properties = FieldSetUtil.parseFields(fields, JobHistoryRepository.FIELDS, ENTITY_NAME);
+        Include relationships = parseInclude(fields, include);
+        return jobHistoryService
+            .findAllById(requested, properties, relationships)
+            .collectList()
+            .map(jobHistories -> MultiGetUtil.createResponse(requested, jobHistories, JobHistory::getId))
+            .map(response -> FieldSetUtil.filter(response, properties, relationships));
     }
 
     /**
      * {@code GET  /job-histories/:id} : get the "id" jobHistory.
      *
      * @param id the id of the jobHistory to retrieve.
+     * @param fields the properties of the jobHistory to return, such as {@code startDate,endDate}, all of them if absent.
+     * @param include the relationships to return along with the jobHistory, among {@code job}, {@code department} and
+     * {@code employee}, all of them if both the fields and the relationships are absent.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the jobHistory, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/job-histories/{id}")
-    public Mono<ResponseEntity<JobHistory>> getJobHistory(@PathVariable Long id) {
+    public Mono<ResponseEntity<MappingJacksonValue>> getJobHistory(
+        @PathVariable Long id,
+        @RequestParam(name = FieldSetUtil.FIELDS_PARAMETER, required = false) String fields,
+        @RequestParam(name = IncludeUtil.INCLUDE_PARAMETER, required = false) String include
+    ) {
         log.debug("REST request to get JobHistory : {}", id);
-        Mono<JobHistory> jobHistory = jobHistoryService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(jobHistory);
+        FieldSet properties = FieldSetUtil.parseFields(fields, JobHistoryRepository.FIELDS, ENTITY_NAME);
+        Include relationships = parseInclude(fields, include);
+        Mono<JobHistory> jobHistory = jobHistoryService.findOne(id, properties, relationships);
+        return ResponseUtil.wrapOrNotFound(jobHistory).map(response -> FieldSetUtil.filter(response, properties, relationships));
+    }
+
+    private static Include parseInclude(String fields, String include) {
+        // without any of the parameters, the jobHistories come whole, as they always did
+        return fields == null && include == null ? SUPPORTED_INCLUDES : IncludeUtil.parseInclude(include, SUPPORTED_INCLUDES, ENTITY_NAME);
     }
 
     /**
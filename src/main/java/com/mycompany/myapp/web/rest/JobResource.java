@@ -2,7 +2,18 @@ package com.mycompany.myapp.web.rest;
 
 import com.mycompany.myapp.domain.Job;
 import com.mycompany.myapp.repository.JobRepository;
+import com.mycompany.myapp.service.BulkExporter;
+import com.mycompany.myapp.service.BulkFormat;
+import com.mycompany.myapp.service.CountStrategy;
+import com.mycompany.myapp.service.EntityFilter;
+import com.mycompany.myapp.service.KeysetCursor;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import com.mycompany.myapp.web.rest.util.CountPaginationUtil;
+import com.mycompany.myapp.web.rest.util.ExportUtil;
+import com.mycompany.myapp.web.rest.util.FilterUtil;
+import com.mycompany.myapp.web.rest.util.KeysetPaginationUtil;
+import com.mycompany.myapp.web.rest.util.MultiGetUtil;
+import com.mycompany.myapp.web.rest.vm.BulkResultVM;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
@@ -13,21 +24,20 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.relational.core.query.Criteria;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.util.UriComponentsBuilder;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import tech.jhipster.web.util.HeaderUtil;
-import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.reactive.ResponseUtil;
 
 /**
@@ -45,10 +55,16 @@ public class JobResource {
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
+    @Value(FilterUtil.ALLOW_UNINDEXED_FILTERS)
+    private boolean allowUnindexedFilters;
+
     private final JobRepository jobRepository;
 
-    public JobResource(JobRepository jobRepository) {
+    private final BulkExporter bulkExporter;
+
+    public JobResource(JobRepository jobRepository, BulkExporter bulkExporter) {
         this.jobRepository = jobRepository;
+        this.bulkExporter = bulkExporter;
     }
 
     /**
@@ -102,26 +118,16 @@ public class JobResource {
         }
 
         return jobRepository
-            .existsById(id)
-            .flatMap(
-                exists -> {
-                    if (!exists) {
-                        return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                    }
-
-                    return jobRepository
-                        .save(job)
-                        .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                        .map(
-                            result ->
-                                ResponseEntity
-                                    .ok()
-                                    .headers(
-                                        HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, result.getId().toString())
-                                    )
-                                    .body(result)
-                        );
-                }
+            .update(job)
+            .filter(updated -> updated > 0)
+            .flatMap(updated -> jobRepository.updateRelations(job))
+            .switchIfEmpty(Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound")))
+            .map(
+                result ->
+                    ResponseEntity
+                        .ok()
+                        .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, result.getId().toString()))
+                        .body(result)
             );
     }
 
@@ -148,80 +154,100 @@ public class JobResource {
         }
 
         return jobRepository
-            .existsById(id)
-            .flatMap(
-                exists -> {
-                    if (!exists) {
-                        return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                    }
-
-                    Mono<Job> result = jobRepository
-                        .findById(job.getId())
-                        .map(
-                            existingJob -> {
-                                if (job.getJobTitle() != null) {
-                                    existingJob.setJobTitle(job.getJobTitle());
-                                }
-                                if (job.getMinSalary() != null) {
-                                    existingJob.setMinSalary(job.getMinSalary());
-                                }
-                                if (job.getMaxSalary() != null) {
-                                    existingJob.setMaxSalary(job.getMaxSalary());
-                                }
-
-                                return existingJob;
-                            }
-                        )
-                        .flatMap(jobRepository::save);
-
-                    return result
-                        .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                        .map(
-                            res ->
-                                ResponseEntity
-                                    .ok()
-                                    .headers(
-                                        HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, res.getId().toString())
-                                    )
-                                    .body(res)
-                        );
-                }
+            .partialUpdate(job)
+            .switchIfEmpty(Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound")))
+            .map(
+                result ->
+                    ResponseEntity
+                        .ok()
+                        .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, result.getId().toString()))
+                        .body(result)
             );
     }
 
     /**
-     * {@code GET  /jobs} : get all the jobs.
+     * {@code GET  /jobs} : get all the jobs matching the filters.
      *
      * @param pageable the pagination information.
-     * @param request a {@link ServerHttpRequest} request.
+     * @param request a {@link ServerHttpRequest} request, whose {@code property.operator} parameters filter the jobs.
      * @param eagerload flag to eager load entities from relationships (This is applicable for many-to-many).
+     * @param cursor the keyset pagination cursor, empty for the first page, or absent for offset pagination.
+     * @param count the count strategy of offset pagination: {@code exact}, {@code window}, {@code estimate} or {@code none}.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of jobs in body.
      */
     @GetMapping("/jobs")
+    @Transactional(readOnly = true)
     public Mono<ResponseEntity<List<Job>>> getAllJobs(
         Pageable pageable,
         ServerHttpRequest request,
-        @RequestParam(required = false, defaultValue = "false") boolean eagerload
+        @RequestParam(required = false, defaultValue = "false") boolean eagerload,
+        @RequestParam(name = KeysetPaginationUtil.CURSOR_PARAMETER, required = false) String cursor,
+        @RequestParam(name = CountPaginationUtil.COUNT_PARAMETER, defaultValue = CountPaginationUtil.DEFAULT_COUNT_STRATEGY) String count
     ) {
         log.debug("REST request to get a page of Jobs");
-        return jobRepository
-            .count()
-            .zipWith(jobRepository.findAllBy(pageable).collectList())
-            .map(
-                countWithEntities -> {
-                    return ResponseEntity
+        EntityFilter filter = FilterUtil.parseFilter(request, Job.class, JobRepository.FILTERS, allowUnindexedFilters, ENTITY_NAME);
+        Criteria criteria = filter.toCriteria();
+        if (cursor != null) {
+            KeysetCursor position = KeysetPaginationUtil.parseCursor(cursor, pageable.getSort(), Job.class, ENTITY_NAME);
+            return jobRepository
+                .findAllAfter(position, KeysetPaginationUtil.fetchLimit(pageable), criteria)
+                .collectList()
+                .map(rows -> KeysetPaginationUtil.createResponse(UriComponentsBuilder.fromHttpRequest(request), position, pageable, rows));
+        }
+        CountStrategy countStrategy = CountPaginationUtil.parseCountStrategy(count, ENTITY_NAME);
+        return (
+            eagerload
+                ? jobRepository.findPageWithEagerRelationships(pageable, countStrategy, criteria)
+                : jobRepository.findPage(pageable, countStrategy, criteria)
+        ).map(
+                page ->
+                    ResponseEntity
                         .ok()
                         .headers(
-                            PaginationUtil.generatePaginationHttpHeaders(
+                            CountPaginationUtil.generatePaginationHttpHeaders(
                                 UriComponentsBuilder.fromHttpRequest(request),
-                                new PageImpl<>(countWithEntities.getT2(), pageable, countWithEntities.getT1())
+                                countStrategy,
+                                page
                             )
                         )
-                        .body(countWithEntities.getT2());
-                }
+                        .body(page.getContent())
             );
     }
 
+    /**
+     * {@code GET  /jobs/export} : export all the jobs.
+     *
+     * @param request a {@link ServerHttpRequest} request, its {@code Accept} header selects NDJSON or CSV, and its
+     * {@code Accept-Encoding} header gzip.
+     * @param response the {@link ServerHttpResponse} the jobs are streamed to.
+     * @return the completion of the export.
+     */
+    @GetMapping(value = "/jobs/export", produces = { MediaType.APPLICATION_NDJSON_VALUE, BulkFormat.TEXT_CSV_VALUE })
+    @Transactional(readOnly = true)
+    public Mono<Void> exportJobs(ServerHttpRequest request, ServerHttpResponse response) {
+        log.debug("REST request to export Jobs");
+        BulkFormat format = ExportUtil.resolveFormat(request);
+        return ExportUtil.writeExport(request, response, "jobs", format, bulkExporter.export(jobRepository.streamAll(), format, Job.class));
+    }
+
+    /**
+     * {@code GET  /jobs?ids=} : get the jobs with the given ids, loaded by chunks of ids rather than one by one.
+     *
+     * @param ids the ids of the jobs to retrieve, at most {@link MultiGetUtil#MAX_IDS}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the jobs found in body, in the order of the ids, and the ids
+     * of the missing jobs in the {@code X-Missing-Ids} header.
+     */
+    @GetMapping(value = "/jobs", params = MultiGetUtil.IDS_PARAMETER)
+    @Transactional(readOnly = true)
+    public Mono<ResponseEntity<List<Job>>> getJobsById(@RequestParam(name = MultiGetUtil.IDS_PARAMETER) List<Long> ids) {
+        log.debug("REST request to get Jobs : {}", ids);
+        List<Long> requested = MultiGetUtil.parseIds(ids, ENTITY_NAME);
+        return jobRepository
+            .findAllByIdWithEagerRelationships(requested)
+            .collectList()
+            .map(jobs -> MultiGetUtil.createResponse(requested, jobs, Job::getId));
+    }
+
     /**
      * {@code GET  /jobs/:id} : get the "id" job.
      *
@@ -229,12 +255,42 @@ public class JobResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the job, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/jobs/{id}")
+    @Transactional(readOnly = true)
     public Mono<ResponseEntity<Job>> getJob(@PathVariable Long id) {
         log.debug("REST request to get Job : {}", id);
         Mono<Job> job = jobRepository.findOneWithEagerRelationships(id);
         return ResponseUtil.wrapOrNotFound(job);
     }
 
+    /**
+     * {@code DELETE  /jobs} : Deletes all the jobs matching the filter, and their links to tasks, with one set-based statement each.
+     * Their job histories are kept, without a reference to them.
+     *
+     * @param id the ids of the jobs to delete.
+     * @param employeeId the ids of the employees of the jobs to delete.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the number of deleted jobs,
+     * or with status {@code 400 (Bad Request)} if the filter is empty.
+     */
+    @DeleteMapping("/jobs")
+    public Mono<ResponseEntity<BulkResultVM>> deleteJobs(
+        @RequestParam(required = false) List<Long> id,
+        @RequestParam(required = false) List<Long> employeeId
+    ) {
+        log.debug("REST request to delete Jobs : {}, {}", id, employeeId);
+        Criteria criteria = Criteria.empty();
+        if (id != null) {
+            criteria = criteria.and("id").in(id);
+        }
+        if (employeeId != null) {
+            criteria = criteria.and("employeeId").in(employeeId);
+        }
+        // a bulk delete of the whole table is never what was meant
+        if (criteria.isEmpty()) {
+            throw new BadRequestAlertException("A bulk change needs a filter", ENTITY_NAME, "filterempty");
+        }
+        return jobRepository.deleteMatching(criteria).map(deleted -> ResponseEntity.ok(new BulkResultVM(deleted)));
+    }
+
     /**
      * {@code DELETE  /jobs/:id} : delete the "id" job.
      *
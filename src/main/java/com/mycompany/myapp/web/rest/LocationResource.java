@@ -2,8 +2,19 @@ package com.mycompany.myapp.web.rest;
 
 import com.mycompany.myapp.domain.Location;
 import com.mycompany.myapp.repository.LocationRepository;
+import com.mycompany.myapp.service.BulkFormat;
+import com.mycompany.myapp.service.EntityFilter;
+import com.mycompany.myapp.service.KeysetCursor;
 import com.mycompany.myapp.service.LocationService;
+import com.mycompany.myapp.service.Suggestion;
+import com.mycompany.myapp.service.TypeaheadIndex;
+import com.mycompany.myapp.service.UpsertResult;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import com.mycompany.myapp.web.rest.util.ExportUtil;
+import com.mycompany.myapp.web.rest.util.FilterUtil;
+import com.mycompany.myapp.web.rest.util.KeysetPaginationUtil;
+import com.mycompany.myapp.web.rest.util.MultiGetUtil;
+import com.mycompany.myapp.web.rest.util.SearchUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -12,11 +23,14 @@ import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.UriComponentsBuilder;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import tech.jhipster.web.util.HeaderUtil;
@@ -36,13 +50,19 @@ public class LocationResource {
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
+    @Value(FilterUtil.ALLOW_UNINDEXED_FILTERS)
+    private boolean allowUnindexedFilters;
+
     private final LocationService locationService;
 
     private final LocationRepository locationRepository;
 
-    public LocationResource(LocationService locationService, LocationRepository locationRepository) {
+    private final TypeaheadIndex typeaheadIndex;
+
+    public LocationResource(LocationService locationService, LocationRepository locationRepository, TypeaheadIndex typeaheadIndex) {
         this.locationService = locationService;
         this.locationRepository = locationRepository;
+        this.typeaheadIndex = typeaheadIndex;
     }
 
     /**
@@ -74,6 +94,31 @@ public class LocationResource {
             );
     }
 
+    /**
+     * {@code PUT  /_upsert/locations} : Creates the given locations, or updates the existing ones with the same street address, postal code
+     * and city, in a few batched statements.
+     *
+     * @param locations the locations to upsert.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the number of created, updated and unchanged locations,
+     * or with status {@code 400 (Bad Request)} if a location has no street address, postal code and city.
+     */
+    @PutMapping("/_upsert/locations")
+    public Mono<ResponseEntity<UpsertResult>> upsertLocations(@RequestBody List<Location> locations) {
+        log.debug("REST request to upsert {} Locations", locations.size());
+        if (
+            locations
+                .stream()
+                .anyMatch(location -> location.getStreetAddress() == null || location.getPostalCode() == null || location.getCity() == null)
+        ) {
+            throw new BadRequestAlertException(
+                "A location to upsert needs its street address, postal code and city",
+                ENTITY_NAME,
+                "keynull"
+            );
+        }
+        return locationService.upsertAll(locations).map(ResponseEntity::ok);
+    }
+
     /**
      * {@code PUT  /locations/:id} : Updates an existing location.
      *
@@ -97,27 +142,15 @@ public class LocationResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        return locationRepository
-            .existsById(id)
-            .flatMap(
-                exists -> {
-                    if (!exists) {
-                        return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                    }
-
-                    return locationService
-                        .save(location)
-                        .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                        .map(
-                            result ->
-                                ResponseEntity
-                                    .ok()
-                                    .headers(
-                                        HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, result.getId().toString())
-                                    )
-                                    .body(result)
-                        );
-                }
+        return locationService
+            .update(location)
+            .switchIfEmpty(Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound")))
+            .map(
+                result ->
+                    ResponseEntity
+                        .ok()
+                        .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, result.getId().toString()))
+                        .body(result)
             );
     }
 
@@ -145,40 +178,48 @@ public class LocationResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        return locationRepository
-            .existsById(id)
-            .flatMap(
-                exists -> {
-                    if (!exists) {
-                        return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                    }
-
-                    Mono<Location> result = locationService.partialUpdate(location);
-
-                    return result
-                        .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                        .map(
-                            res ->
-                                ResponseEntity
-                                    .ok()
-                                    .headers(
-                                        HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, res.getId().toString())
-                                    )
-                                    .body(res)
-                        );
-                }
+        return locationService
+            .partialUpdate(location)
+            .switchIfEmpty(Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound")))
+            .map(
+                result ->
+                    ResponseEntity
+                        .ok()
+                        .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, result.getId().toString()))
+                        .body(result)
             );
     }
 
     /**
-     * {@code GET  /locations} : get all the locations.
+     * {@code GET  /locations} : get all the locations matching the filters.
      *
+     * @param pageable the pagination information, used in keyset mode.
+     * @param cursor the keyset pagination cursor, empty for the first page, or absent to get all the locations.
+     * @param request a {@link ServerHttpRequest} request, whose {@code property.operator} parameters filter the locations.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of locations in body.
      */
     @GetMapping("/locations")
-    public Mono<List<Location>> getAllLocations() {
+    public Mono<ResponseEntity<List<Location>>> getAllLocations(
+        Pageable pageable,
+        @RequestParam(name = KeysetPaginationUtil.CURSOR_PARAMETER, required = false) String cursor,
+        ServerHttpRequest request
+    ) {
         log.debug("REST request to get all Locations");
-        return locationService.findAll().collectList();
+        EntityFilter filter = FilterUtil.parseFilter(
+            request,
+            Location.class,
+            LocationRepository.FILTERS,
+            allowUnindexedFilters,
+            ENTITY_NAME
+        );
+        if (cursor != null) {
+            KeysetCursor position = KeysetPaginationUtil.parseCursor(cursor, pageable.getSort(), Location.class, ENTITY_NAME);
+            return locationService
+                .findAllAfter(position, KeysetPaginationUtil.fetchLimit(pageable), filter)
+                .collectList()
+                .map(rows -> KeysetPaginationUtil.createResponse(UriComponentsBuilder.fromHttpRequest(request), position, pageable, rows));
+        }
+        return locationService.findAll(filter).collectList().map(ResponseEntity::ok);
     }
 
     /**
@@ -191,6 +232,38 @@ public class LocationResource {
         return locationService.findAll();
     }
 
+    /**
+     * {@code GET  /locations/export} : export all the locations.
+     *
+     * @param request a {@link ServerHttpRequest} request, its {@code Accept} header selects NDJSON or CSV, and its
+     * {@code Accept-Encoding} header gzip.
+     * @param response the {@link ServerHttpResponse} the locations are streamed to.
+     * @return the completion of the export.
+     */
+    @GetMapping(value = "/locations/export", produces = { MediaType.APPLICATION_NDJSON_VALUE, BulkFormat.TEXT_CSV_VALUE })
+    public Mono<Void> exportLocations(ServerHttpRequest request, ServerHttpResponse response) {
+        log.debug("REST request to export Locations");
+        BulkFormat format = ExportUtil.resolveFormat(request);
+        return ExportUtil.writeExport(request, response, "locations", format, locationService.exportAll(format));
+    }
+
+    /**
+     * {@code GET  /locations?ids=} : get the locations with the given ids, loaded by chunks of ids rather than one by one.
+     *
+     * @param ids the ids of the locations to retrieve, at most {@link MultiGetUtil#MAX_IDS}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the locations found in body, in the order of the ids, and the ids
+     * of the missing locations in the {@code X-Missing-Ids} header.
+     */
+    @GetMapping(value = "/locations", params = MultiGetUtil.IDS_PARAMETER)
+    public Mono<ResponseEntity<List<Location>>> getLocationsById(@RequestParam(name = MultiGetUtil.IDS_PARAMETER) List<Long> ids) {
+        log.debug("REST request to get Locations : {}", ids);
+        List<Long> requested = MultiGetUtil.parseIds(ids, ENTITY_NAME);
+        return locationService
+            .findAllById(requested)
+            .collectList()
+            .map(locations -> MultiGetUtil.createResponse(requested, locations, Location::getId));
+    }
+
     /**
      * {@code GET  /locations/:id} : get the "id" location.
      *
@@ -224,4 +297,21 @@ public class LocationResource {
                         .build()
             );
     }
+
+    /**
+     * {@code GET  /_typeahead/locations?q=} : suggest the locations whose city or postal code has a word starting with the typed text,
+     * from an in-memory index, without any query.
+     *
+     * @param prefix the typed text.
+     * @param limit the maximum number of suggestions, at most {@code application.typeahead.max-results}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the suggestions in body, in the alphabetical order of the words.
+     */
+    @GetMapping("/_typeahead/locations")
+    public ResponseEntity<List<Suggestion>> suggestLocations(
+        @RequestParam(name = SearchUtil.QUERY_PARAMETER) String prefix,
+        @RequestParam(name = "limit", defaultValue = TypeaheadIndex.DEFAULT_LIMIT) int limit
+    ) {
+        log.debug("REST request to suggest Locations : {}", prefix);
+        return ResponseEntity.ok(typeaheadIndex.findLocations(prefix, limit));
+    }
 }
@@ -2,8 +2,16 @@ package com.mycompany.myapp.web.rest;
 
 import com.mycompany.myapp.domain.Region;
 import com.mycompany.myapp.repository.RegionRepository;
+import com.mycompany.myapp.service.BulkFormat;
+import com.mycompany.myapp.service.EntityFilter;
+import com.mycompany.myapp.service.KeysetCursor;
 import com.mycompany.myapp.service.RegionService;
+import com.mycompany.myapp.service.UpsertResult;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import com.mycompany.myapp.web.rest.util.ExportUtil;
+import com.mycompany.myapp.web.rest.util.FilterUtil;
+import com.mycompany.myapp.web.rest.util.KeysetPaginationUtil;
+import com.mycompany.myapp.web.rest.util.MultiGetUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -12,11 +20,14 @@ import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.UriComponentsBuilder;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import tech.jhipster.web.util.HeaderUtil;
@@ -36,6 +47,9 @@ public class RegionResource {
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
+    @Value(FilterUtil.ALLOW_UNINDEXED_FILTERS)
+    private boolean allowUnindexedFilters;
+
     private final RegionService regionService;
 
     private final RegionRepository regionRepository;
@@ -74,6 +88,23 @@ public class RegionResource {
             );
     }
 
+    /**
+     * {@code PUT  /_upsert/regions} : Creates the given regions, or updates the existing ones with the same name, in a few batched
+     * statements.
+     *
+     * @param regions the regions to upsert.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the number of created, updated and unchanged regions,
+     * or with status {@code 400 (Bad Request)} if a region has no name.
+     */
+    @PutMapping("/_upsert/regions")
+    public Mono<ResponseEntity<UpsertResult>> upsertRegions(@RequestBody List<Region> regions) {
+        log.debug("REST request to upsert {} Regions", regions.size());
+        if (regions.stream().anyMatch(region -> region.getRegionName() == null)) {
+            throw new BadRequestAlertException("A region to upsert needs its name", ENTITY_NAME, "keynull");
+        }
+        return regionService.upsertAll(regions).map(ResponseEntity::ok);
+    }
+
     /**
      * {@code PUT  /regions/:id} : Updates an existing region.
      *
@@ -97,27 +128,15 @@ public class RegionResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        return regionRepository
-            .existsById(id)
-            .flatMap(
-                exists -> {
-                    if (!exists) {
-                        return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                    }
-
-                    return regionService
-                        .save(region)
-                        .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                        .map(
-                            result ->
-                                ResponseEntity
-                                    .ok()
-                                    .headers(
-                                        HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, result.getId().toString())
-                                    )
-                                    .body(result)
-                        );
-                }
+        return regionService
+            .update(region)
+            .switchIfEmpty(Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound")))
+            .map(
+                result ->
+                    ResponseEntity
+                        .ok()
+                        .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, result.getId().toString()))
+                        .body(result)
             );
     }
 
@@ -145,40 +164,42 @@ public class RegionResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        return regionRepository
-            .existsById(id)
-            .flatMap(
-                exists -> {
-                    if (!exists) {
-                        return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                    }
-
-                    Mono<Region> result = regionService.partialUpdate(region);
-
-                    return result
-                        .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                        .map(
-                            res ->
-                                ResponseEntity
-                                    .ok()
-                                    .headers(
-                                        HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, res.getId().toString())
-                                    )
-                                    .body(res)
-                        );
-                }
+        return regionService
+            .partialUpdate(region)
+            .switchIfEmpty(Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound")))
+            .map(
+                result ->
+                    ResponseEntity
+                        .ok()
+                        .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, result.getId().toString()))
+                        .body(result)
             );
     }
 
     /**
-     * {@code GET  /regions} : get all the regions.
+     * {@code GET  /regions} : get all the regions matching the filters.
      *
+     * @param pageable the pagination information, used in keyset mode.
+     * @param cursor the keyset pagination cursor, empty for the first page, or absent to get all the regions.
+     * @param request a {@link ServerHttpRequest} request, whose {@code property.operator} parameters filter the regions.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of regions in body.
      */
     @GetMapping("/regions")
-    public Mono<List<Region>> getAllRegions() {
+    public Mono<ResponseEntity<List<Region>>> getAllRegions(
+        Pageable pageable,
+        @RequestParam(name = KeysetPaginationUtil.CURSOR_PARAMETER, required = false) String cursor,
+        ServerHttpRequest request
+    ) {
         log.debug("REST request to get all Regions");
-        return regionService.findAll().collectList();
+        EntityFilter filter = FilterUtil.parseFilter(request, Region.class, RegionRepository.FILTERS, allowUnindexedFilters, ENTITY_NAME);
+        if (cursor != null) {
+            KeysetCursor position = KeysetPaginationUtil.parseCursor(cursor, pageable.getSort(), Region.class, ENTITY_NAME);
+            return regionService
+                .findAllAfter(position, KeysetPaginationUtil.fetchLimit(pageable), filter)
+                .collectList()
+                .map(rows -> KeysetPaginationUtil.createResponse(UriComponentsBuilder.fromHttpRequest(request), position, pageable, rows));
+        }
+        return regionService.findAll(filter).collectList().map(ResponseEntity::ok);
     }
 
     /**
@@ -191,6 +212,38 @@ public class RegionResource {
         return regionService.findAll();
     }
 
+    /**
+     * {@code GET  /regions/export} : export all the regions.
+     *
+     * @param request a {@link ServerHttpRequest} request, its {@code Accept} header selects NDJSON or CSV, and its
+     * {@code Accept-Encoding} header gzip.
+     * @param response the {@link ServerHttpResponse} the regions are streamed to.
+     * @return the completion of the export.
+     */
+    @GetMapping(value = "/regions/export", produces = { MediaType.APPLICATION_NDJSON_VALUE, BulkFormat.TEXT_CSV_VALUE })
+    public Mono<Void> exportRegions(ServerHttpRequest request, ServerHttpResponse response) {
+        log.debug("REST request to export Regions");
+        BulkFormat format = ExportUtil.resolveFormat(request);
+        return ExportUtil.writeExport(request, response, "regions", format, regionService.exportAll(format));
+    }
+
+    /**
+     * {@code GET  /regions?ids=} : get the regions with the given ids, loaded by chunks of ids rather than one by one.
+     *
+     * @param ids the ids of the regions to retrieve, at most {@link MultiGetUtil#MAX_IDS}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the regions found in body, in the order of the ids, and the ids
+     * of the missing regions in the {@code X-Missing-Ids} header.
+     */
+    @GetMapping(value = "/regions", params = MultiGetUtil.IDS_PARAMETER)
+    public Mono<ResponseEntity<List<Region>>> getRegionsById(@RequestParam(name = MultiGetUtil.IDS_PARAMETER) List<Long> ids) {
+        log.debug("REST request to get Regions : {}", ids);
+        List<Long> requested = MultiGetUtil.parseIds(ids, ENTITY_NAME);
+        return regionService
+            .findAllById(requested)
+            .collectList()
+            .map(regions -> MultiGetUtil.createResponse(requested, regions, Region::getId));
+    }
+
     /**
      * {@code GET  /regions/:id} : get the "id" region.
      *
@@ -2,8 +2,20 @@ package com.mycompany.myapp.web.rest;
 
 import com.mycompany.myapp.domain.Task;
 import com.mycompany.myapp.repository.TaskRepository;
+import com.mycompany.myapp.service.BulkFormat;
+import com.mycompany.myapp.service.EntityFilter;
+import com.mycompany.myapp.service.FullTextQuery;
+import com.mycompany.myapp.service.Include;
+import com.mycompany.myapp.service.KeysetCursor;
+import com.mycompany.myapp.service.SearchCursor;
 import com.mycompany.myapp.service.TaskService;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import com.mycompany.myapp.web.rest.util.ExportUtil;
+import com.mycompany.myapp.web.rest.util.FilterUtil;
+import com.mycompany.myapp.web.rest.util.IncludeUtil;
+import com.mycompany.myapp.web.rest.util.KeysetPaginationUtil;
+import com.mycompany.myapp.web.rest.util.MultiGetUtil;
+import com.mycompany.myapp.web.rest.util.SearchUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -12,11 +24,14 @@ import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.UriComponentsBuilder;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import tech.jhipster.web.util.HeaderUtil;
@@ -33,9 +48,14 @@ public class TaskResource {
 
     private static final String ENTITY_NAME = "jhipsterTask";
 
+    private static final Include SUPPORTED_INCLUDES = Include.parse("jobs");
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
+    @Value(FilterUtil.ALLOW_UNINDEXED_FILTERS)
+    private boolean allowUnindexedFilters;
+
     private final TaskService taskService;
 
     private final TaskRepository taskRepository;
@@ -95,27 +115,15 @@ public class TaskResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        return taskRepository
-            .existsById(id)
-            .flatMap(
-                exists -> {
-                    if (!exists) {
-                        return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                    }
-
-                    return taskService
-                        .save(task)
-                        .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                        .map(
-                            result ->
-                                ResponseEntity
-                                    .ok()
-                                    .headers(
-                                        HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, result.getId().toString())
-                                    )
-                                    .body(result)
-                        );
-                }
+        return taskService
+            .update(task)
+            .switchIfEmpty(Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound")))
+            .map(
+                result ->
+                    ResponseEntity
+                        .ok()
+                        .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, result.getId().toString()))
+                        .body(result)
             );
     }
 
@@ -143,40 +151,45 @@ public class TaskResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        return taskRepository
-            .existsById(id)
-            .flatMap(
-                exists -> {
-                    if (!exists) {
-                        return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                    }
-
-                    Mono<Task> result = taskService.partialUpdate(task);
-
-                    return result
-                        .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                        .map(
-                            res ->
-                                ResponseEntity
-                                    .ok()
-                                    .headers(
-                                        HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, res.getId().toString())
-                                    )
-                                    .body(res)
-                        );
-                }
+        return taskService
+            .partialUpdate(task)
+            .switchIfEmpty(Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound")))
+            .map(
+                result ->
+                    ResponseEntity
+                        .ok()
+                        .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, result.getId().toString()))
+                        .body(result)
             );
     }
 
     /**
-     * {@code GET  /tasks} : get all the tasks.
+     * {@code GET  /tasks} : get all the tasks matching the filters.
      *
+     * @param pageable the pagination information, used in keyset mode.
+     * @param cursor the keyset pagination cursor, empty for the first page, or absent to get all the tasks.
+     * @param include the relationships to load along with the tasks, such as {@code jobs}.
+     * @param request a {@link ServerHttpRequest} request, whose {@code property.operator} parameters filter the tasks.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of tasks in body.
      */
     @GetMapping("/tasks")
-    public Mono<List<Task>> getAllTasks() {
+    public Mono<ResponseEntity<List<Task>>> getAllTasks(
+        Pageable pageable,
+        @RequestParam(name = KeysetPaginationUtil.CURSOR_PARAMETER, required = false) String cursor,
+        @RequestParam(name = IncludeUtil.INCLUDE_PARAMETER, required = false) String include,
+        ServerHttpRequest request
+    ) {
         log.debug("REST request to get all Tasks");
-        return taskService.findAll().collectList();
+        Include relationships = IncludeUtil.parseInclude(include, SUPPORTED_INCLUDES, ENTITY_NAME);
+        EntityFilter filter = FilterUtil.parseFilter(request, Task.class, TaskRepository.FILTERS, allowUnindexedFilters, ENTITY_NAME);
+        if (cursor != null) {
+            KeysetCursor position = KeysetPaginationUtil.parseCursor(cursor, pageable.getSort(), Task.class, ENTITY_NAME);
+            return taskService
+                .findAllAfter(position, KeysetPaginationUtil.fetchLimit(pageable), filter, relationships)
+                .collectList()
+                .map(rows -> KeysetPaginationUtil.createResponse(UriComponentsBuilder.fromHttpRequest(request), position, pageable, rows));
+        }
+        return taskService.findAll(filter, relationships).collectList().map(ResponseEntity::ok);
     }
 
     /**
@@ -189,16 +202,58 @@ public class TaskResource {
         return taskService.findAll();
     }
 
+    /**
+     * {@code GET  /tasks/export} : export all the tasks.
+     *
+     * @param request a {@link ServerHttpRequest} request, its {@code Accept} header selects NDJSON or CSV, and its
+     * {@code Accept-Encoding} header gzip.
+     * @param response the {@link ServerHttpResponse} the tasks are streamed to.
+     * @return the completion of the export.
+     */
+    @GetMapping(value = "/tasks/export", produces = { MediaType.APPLICATION_NDJSON_VALUE, BulkFormat.TEXT_CSV_VALUE })
+    public Mono<Void> exportTasks(ServerHttpRequest request, ServerHttpResponse response) {
+        log.debug("REST request to export Tasks");
+        BulkFormat format = ExportUtil.resolveFormat(request);
+        return ExportUtil.writeExport(request, response, "tasks", format, taskService.exportAll(format));
+    }
+
+    /**
+     * {@code GET  /tasks?ids=} : get the tasks with the given ids, loaded by chunks of ids rather than one by one.
+     *
+     * @param ids the ids of the tasks to retrieve, at most {@link MultiGetUtil#MAX_IDS}.
+     * @param include the relationships to load along with the tasks, such as {@code jobs}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the tasks found in body, in the order of the ids, and the ids
+     * of the missing tasks in the {@code X-Missing-Ids} header.
+     */
+    @GetMapping(value = "/tasks", params = MultiGetUtil.IDS_PARAMETER)
+    public Mono<ResponseEntity<List<Task>>> getTasksById(
+        @RequestParam(name = MultiGetUtil.IDS_PARAMETER) List<Long> ids,
+        @RequestParam(name = IncludeUtil.INCLUDE_PARAMETER, required = false) String include
+    ) {
+        log.debug("REST request to get Tasks : {}", ids);
+        List<Long> requested = MultiGetUtil.parseIds(ids, ENTITY_NAME);
+        Include relationships = IncludeUtil.parseInclude(include, SUPPORTED_INCLUDES, ENTITY_NAME);
+        return taskService
+            .findAllById(requested, relationships)
+            .collectList()
+            .map(tasks -> MultiGetUtil.createResponse(requested, tasks, Task::getId));
+    }
+
     /**
      * {@code GET  /tasks/:id} : get the "id" task.
      *
      * @param id the id of the task to retrieve.
+     * @param include the relationships to load along with the task, such as {@code jobs}.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the task, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/tasks/{id}")
-    public Mono<ResponseEntity<Task>> getTask(@PathVariable Long id) {
+    public Mono<ResponseEntity<Task>> getTask(
+        @PathVariable Long id,
+        @RequestParam(name = IncludeUtil.INCLUDE_PARAMETER, required = false) String include
+    ) {
         log.debug("REST request to get Task : {}", id);
-        Mono<Task> task = taskService.findOne(id);
+        Include relationships = IncludeUtil.parseInclude(include, SUPPORTED_INCLUDES, ENTITY_NAME);
+        Mono<Task> task = taskService.findOne(id, relationships);
         return ResponseUtil.wrapOrNotFound(task);
     }
 
@@ -222,4 +277,30 @@ public class TaskResource {
                         .build()
             );
     }
+
+    /**
+     * {@code GET  /_search/tasks?q=} : search the tasks by title or description, the most relevant first.
+     *
+     * @param query the searched text, each of its terms must start a word of the task.
+     * @param cursor the cursor of the next page, absent for the first page.
+     * @param pageable the pagination information, only its size is used.
+     * @param request a {@link ServerHttpRequest} request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the page of tasks in body, and the cursor of the next page
+     * in the {@code X-Next-Cursor} header.
+     */
+    @GetMapping("/_search/tasks")
+    public Mono<ResponseEntity<List<Task>>> searchTasks(
+        @RequestParam(name = SearchUtil.QUERY_PARAMETER) String query,
+        @RequestParam(name = KeysetPaginationUtil.CURSOR_PARAMETER, required = false) String cursor,
+        Pageable pageable,
+        ServerHttpRequest request
+    ) {
+        log.debug("REST request to search Tasks : {}", query);
+        FullTextQuery terms = SearchUtil.parseQuery(query, ENTITY_NAME);
+        SearchCursor position = SearchUtil.parseCursor(cursor, ENTITY_NAME);
+        return taskService
+            .search(terms, position, KeysetPaginationUtil.fetchLimit(pageable))
+            .collectList()
+            .map(hits -> SearchUtil.createResponse(UriComponentsBuilder.fromHttpRequest(request), pageable, hits));
+    }
 }
@@ -1,5 +1,6 @@
 package com.mycompany.myapp.web.rest.errors;
 
+import io.r2dbc.spi.R2dbcException;
 import java.net.URI;
 import java.util.Arrays;
 import java.util.Collection;
@@ -13,6 +14,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.env.Environment;
 import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageConversionException;
 import org.springframework.stereotype.Component;
@@ -45,6 +47,7 @@ public class ExceptionTranslator implements ProblemHandling, SecurityAdviceTrait
     private static final String MESSAGE_KEY = "message";
     private static final String PATH_KEY = "path";
     private static final String VIOLATIONS_KEY = "violations";
+    private static final String UNIQUE_VIOLATION_SQL_STATE = "23505";
 
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
@@ -131,6 +134,16 @@ public class ExceptionTranslator implements ProblemHandling, SecurityAdviceTrait
         return create(ex, problem, request);
     }
 
+    @ExceptionHandler
+    public Mono<ResponseEntity<Problem>> handleDataIntegrityViolation(DataIntegrityViolationException ex, ServerWebExchange request) {
+        // a unique key, such as the natural key of the reference data, is already taken
+        if (ex.getCause() instanceof R2dbcException && UNIQUE_VIOLATION_SQL_STATE.equals(((R2dbcException) ex.getCause()).getSqlState())) {
+            Problem problem = Problem.builder().withStatus(Status.CONFLICT).with(MESSAGE_KEY, ErrorConstants.ERR_DUPLICATE_KEY).build();
+            return create(ex, problem, request);
+        }
+        return create(Status.INTERNAL_SERVER_ERROR, ex, request);
+    }
+
     @Override
     public ProblemBuilder prepare(final Throwable throwable, final StatusType status, final URI type) {
         Collection<String> activeProfiles = Arrays.asList(env.getActiveProfiles());
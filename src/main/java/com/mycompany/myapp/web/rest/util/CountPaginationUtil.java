@@ -0,0 +1,96 @@
+package com.mycompany.myapp.web.rest.util;
+
+import com.mycompany.myapp.service.CountStrategy;
+import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import java.text.MessageFormat;
+import java.util.Locale;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+import tech.jhipster.web.util.PaginationUtil;
+
+/**
+ * Utility class for the pagination headers of offset pages, whose total is computed with a selectable {@link CountStrategy}.
+ * <p>
+ * The strategy is chosen with the {@code count} request parameter ({@code exact}, {@code window}, {@code estimate} or {@code none}),
+ * and defaults to {@code application.pagination.count-strategy}. It is echoed in the {@code X-Count-Strategy} header, so clients
+ * know whether {@code X-Total-Count} is exact, estimated, or missing - then {@code X-Has-Next-Page} tells whether a next page exists,
+ * and the {@code Link} header has no {@code rel="last"}.
+ */
+public final class CountPaginationUtil {
+
+    public static final String COUNT_PARAMETER = "count";
+
+    public static final String DEFAULT_COUNT_STRATEGY = "${application.pagination.count-strategy:exact}";
+
+    public static final String HEADER_COUNT_STRATEGY = "X-Count-Strategy";
+
+    public static final String HEADER_HAS_NEXT_PAGE = "X-Has-Next-Page";
+
+    private static final String HEADER_LINK_FORMAT = "<{0}>; rel=\"{1}\"";
+
+    private CountPaginationUtil() {}
+
+    /**
+     * Resolves the count strategy requested by the client.
+     *
+     * @param countStrategy the name of the strategy, case insensitive.
+     * @param entityName the name of the entity, used in the error.
+     * @return the count strategy.
+     * @throws BadRequestAlertException if the strategy is unknown.
+     */
+    public static CountStrategy parseCountStrategy(String countStrategy, String entityName) {
+        try {
+            return CountStrategy.valueOf(countStrategy.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Unknown count strategy: " + countStrategy, entityName, "countstrategyinvalid");
+        }
+    }
+
+    /**
+     * Generate pagination headers for a Spring Data {@link Slice} object.
+     *
+     * @param uriBuilder the uri builder of the current request.
+     * @param countStrategy the strategy the slice was counted with.
+     * @param slice the slice, a {@link Page} unless the strategy is {@link CountStrategy#NONE}.
+     * @param <T> the type of the entities.
+     * @return http header.
+     */
+    public static <T> HttpHeaders generatePaginationHttpHeaders(
+        UriComponentsBuilder uriBuilder,
+        CountStrategy countStrategy,
+        Slice<T> slice
+    ) {
+        HttpHeaders headers;
+        if (slice instanceof Page) {
+            headers = PaginationUtil.generatePaginationHttpHeaders(uriBuilder, (Page<T>) slice);
+        } else {
+            headers = new HttpHeaders();
+            headers.add(HEADER_HAS_NEXT_PAGE, Boolean.toString(slice.hasNext()));
+            int pageNumber = slice.getNumber();
+            int pageSize = slice.getSize();
+            StringBuilder link = new StringBuilder();
+            if (slice.hasNext()) {
+                link.append(prepareLink(uriBuilder, pageNumber + 1, pageSize, "next")).append(",");
+            }
+            if (slice.hasPrevious()) {
+                link.append(prepareLink(uriBuilder, pageNumber - 1, pageSize, "prev")).append(",");
+            }
+            link.append(prepareLink(uriBuilder, 0, pageSize, "first"));
+            headers.add(HttpHeaders.LINK, link.toString());
+        }
+        headers.add(HEADER_COUNT_STRATEGY, countStrategy.name().toLowerCase(Locale.ROOT));
+        return headers;
+    }
+
+    private static String prepareLink(UriComponentsBuilder uriBuilder, int pageNumber, int pageSize, String relType) {
+        String uri = uriBuilder
+            .replaceQueryParam("page", Integer.toString(pageNumber))
+            .replaceQueryParam("size", Integer.toString(pageSize))
+            .toUriString()
+            .replace(",", "%2C")
+            .replace(";", "%3B");
+        return MessageFormat.format(HEADER_LINK_FORMAT, uri, relType);
+    }
+}
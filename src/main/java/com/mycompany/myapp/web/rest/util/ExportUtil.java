@@ -0,0 +1,151 @@
+package com.mycompany.myapp.web.rest.util;
+
+import com.mycompany.myapp.service.BulkFormat;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Utility class for streaming exports.
+ * <p>
+ * The format is negotiated with the {@code Accept} header: {@code text/csv} for CSV, NDJSON otherwise. Lines are written in chunks as
+ * they are produced, and gzipped on the fly when the {@code Accept-Encoding} header allows it.
+ */
+public final class ExportUtil {
+
+    private static final int LINES_PER_CHUNK = 256;
+
+    private static final String GZIP = "gzip";
+
+    private ExportUtil() {}
+
+    /**
+     * Resolves the export format requested by the client.
+     *
+     * @param request the current request.
+     * @return CSV if {@code text/csv} is preferred, NDJSON otherwise.
+     */
+    public static BulkFormat resolveFormat(ServerHttpRequest request) {
+        List<MediaType> accepted = new ArrayList<>(request.getHeaders().getAccept());
+        MediaType.sortBySpecificityAndQuality(accepted);
+        for (MediaType mediaType : accepted) {
+            if (mediaType.isWildcardType()) {
+                break;
+            }
+            if (BulkFormat.TEXT_CSV.isCompatibleWith(mediaType)) {
+                return BulkFormat.CSV;
+            }
+            if (MediaType.APPLICATION_NDJSON.isCompatibleWith(mediaType)) {
+                return BulkFormat.NDJSON;
+            }
+        }
+        return BulkFormat.NDJSON;
+    }
+
+    /**
+     * Streams the lines of an export to the response, as an attachment.
+     *
+     * @param request the current request.
+     * @param response the current response.
+     * @param name the name of the attachment, without extension.
+     * @param format the format of the lines.
+     * @param lines the lines, each one terminated by a new line.
+     * @return the completion of the export.
+     */
+    public static Mono<Void> writeExport(
+        ServerHttpRequest request,
+        ServerHttpResponse response,
+        String name,
+        BulkFormat format,
+        Flux<String> lines
+    ) {
+        HttpHeaders headers = response.getHeaders();
+        headers.setContentType(format.getMediaType());
+        headers.setContentDisposition(
+            ContentDisposition.attachment().filename(name + "." + format.name().toLowerCase(Locale.ROOT)).build()
+        );
+        headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        Flux<byte[]> chunks = lines.buffer(LINES_PER_CHUNK).map(chunk -> String.join("", chunk).getBytes(StandardCharsets.UTF_8));
+        if (acceptsGzip(request)) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, GZIP);
+            chunks = gzip(chunks);
+        }
+        DataBufferFactory bufferFactory = response.bufferFactory();
+        return response.writeWith(chunks.map(bufferFactory::wrap));
+    }
+
+    private static boolean acceptsGzip(ServerHttpRequest request) {
+        return request
+            .getHeaders()
+            .getOrEmpty(HttpHeaders.ACCEPT_ENCODING)
+            .stream()
+            .flatMap(value -> List.of(value.split(",")).stream())
+            .map(encoding -> encoding.split(";"))
+            .anyMatch(
+                encoding -> encoding[0].trim().equalsIgnoreCase(GZIP) && !(encoding.length > 1 && encoding[1].trim().matches("q=0(\\.0*)?"))
+            );
+    }
+
+    private static Flux<byte[]> gzip(Flux<byte[]> chunks) {
+        return Flux.using(
+            GzipChunks::new,
+            gzip -> chunks.map(gzip::compress).concatWith(Mono.fromCallable(gzip::finish)),
+            GzipChunks::close
+        );
+    }
+
+    /**
+     * A gzip stream which is flushed after each chunk, so every chunk can be sent as soon as it's compressed.
+     */
+    private static final class GzipChunks {
+
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private final GZIPOutputStream gzip;
+
+        GzipChunks() throws IOException {
+            this.gzip = new GZIPOutputStream(buffer, true);
+        }
+
+        byte[] compress(byte[] chunk) {
+            try {
+                gzip.write(chunk);
+                gzip.flush();
+                return drain();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        byte[] finish() throws IOException {
+            gzip.finish();
+            return drain();
+        }
+
+        void close() {
+            try {
+                gzip.close();
+            } catch (IOException e) {
+                // nothing left to send
+            }
+        }
+
+        private byte[] drain() {
+            byte[] compressed = buffer.toByteArray();
+            buffer.reset();
+            return compressed;
+        }
+    }
+}
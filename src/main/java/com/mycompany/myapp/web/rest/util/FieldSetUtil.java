@@ -0,0 +1,113 @@
+package com.mycompany.myapp.web.rest.util;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.mycompany.myapp.service.FieldSet;
+import com.mycompany.myapp.service.Include;
+import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+/**
+ * Utility class for the {@code fields} request parameter, which lists the properties to read and to render, such as
+ * {@code firstName,lastName}. The id is always rendered, and so are the relationships of the {@code include} parameter.
+ */
+public final class FieldSetUtil {
+
+    public static final String FIELDS_PARAMETER = "fields";
+
+    private static final String FILTER_ID = "fieldSet";
+
+    private FieldSetUtil() {}
+
+    /**
+     * Lets the given entities be rendered with some of their properties only. Unless a response asks for it, all their properties
+     * are rendered, as before.
+     *
+     * @param builder the builder of the application {@link com.fasterxml.jackson.databind.ObjectMapper}.
+     * @param entityClasses the entities which support the {@code fields} parameter.
+     */
+    public static void configure(Jackson2ObjectMapperBuilder builder, Class<?>... entityClasses) {
+        for (Class<?> entityClass : entityClasses) {
+            builder.mixIn(entityClass, FieldSetFilterMixIn.class);
+        }
+        builder.filters(new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()));
+    }
+
+    /**
+     * Resolves the properties requested by the client.
+     *
+     * @param fields the value of the {@code fields} parameter, or {@code null}.
+     * @param supported the properties of the entity.
+     * @param entityName the name of the entity, used in the error.
+     * @return the properties to read, {@link FieldSet#ALL} if the parameter is absent.
+     * @throws BadRequestAlertException if a property isn't one of the supported ones.
+     */
+    public static FieldSet parseFields(String fields, Collection<String> supported, String entityName) {
+        try {
+            return FieldSet.parse(fields, supported);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage() + ", the supported ones are: " + supported, entityName, "fieldsinvalid");
+        }
+    }
+
+    /**
+     * Renders the entities of a response, or the entity, with the requested properties and relationships only. The entities of the
+     * relationships are rendered in full.
+     *
+     * @param response the response.
+     * @param fields the requested properties.
+     * @param relationships the loaded relationships.
+     * @param <T> the type of the body.
+     * @return the response, with the same status and headers.
+     */
+    public static <T> ResponseEntity<MappingJacksonValue> filter(ResponseEntity<T> response, FieldSet fields, Include relationships) {
+        MappingJacksonValue body = new MappingJacksonValue(response.getBody());
+        if (!fields.isAll()) {
+            Set<String> rendered = new HashSet<>(fields.getProperties());
+            rendered.addAll(relationships.getRelationships());
+            body.setFilters(new SimpleFilterProvider().addFilter(FILTER_ID, new TopLevelFilter(rendered)));
+        }
+        return ResponseEntity.status(response.getStatusCode()).headers(response.getHeaders()).body(body);
+    }
+
+    @JsonFilter(FILTER_ID)
+    private interface FieldSetFilterMixIn {}
+
+    /**
+     * Keeps the given properties of the entities of the body, whether it is an entity or a list of them, and all the properties of the
+     * entities nested in them.
+     */
+    private static final class TopLevelFilter extends SimpleBeanPropertyFilter {
+
+        private final Set<String> properties;
+
+        TopLevelFilter(Set<String> properties) {
+            this.properties = properties;
+        }
+
+        @Override
+        public void serializeAsField(Object pojo, JsonGenerator generator, SerializerProvider provider, PropertyWriter writer)
+            throws Exception {
+            if (properties.contains(writer.getName()) || !isTopLevel(generator.getOutputContext())) {
+                writer.serializeAsField(pojo, generator, provider);
+            } else if (!generator.canOmitFields()) {
+                writer.serializeAsOmittedField(pojo, generator, provider);
+            }
+        }
+
+        private static boolean isTopLevel(JsonStreamContext context) {
+            JsonStreamContext parent = context.getParent();
+            return parent.inRoot() || (parent.inArray() && parent.getParent().inRoot());
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.mycompany.myapp.web.rest.util;
+
+import com.mycompany.myapp.service.EntityFilter;
+import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+
+/**
+ * Utility class for the filters of the list endpoints, the request parameters named {@code property.operator}, such as
+ * {@code salary.greaterThan=5000} or {@code lastName.startsWith=Mc}. They combine with the keyset and offset pagination, and
+ * with the {@code fields} and {@code include} parameters.
+ * <p>
+ * Only the filters an index serves are accepted, unless {@code application.pagination.allow-unindexed-filters} is set, so that a
+ * request can't make the database read a whole table.
+ */
+public final class FilterUtil {
+
+    /**
+     * The placeholder of the {@code application.pagination.allow-unindexed-filters} property, for {@code @Value}.
+     */
+    public static final String ALLOW_UNINDEXED_FILTERS = "${application.pagination.allow-unindexed-filters:false}";
+
+    private FilterUtil() {}
+
+    /**
+     * Resolves the filters sent by the client.
+     *
+     * @param request the request, whose query parameters hold the filters.
+     * @param entityType the type of the entities.
+     * @param indexed the properties which lead an index.
+     * @param allowUnindexed whether the filters no index serves are accepted.
+     * @param entityName the name of the entity, used in the errors.
+     * @return the filters, {@link EntityFilter#NONE} if there is none.
+     * @throws BadRequestAlertException if a filter is invalid, or if no index serves it and they aren't allowed.
+     */
+    public static EntityFilter parseFilter(
+        ServerHttpRequest request,
+        Class<?> entityType,
+        Collection<String> indexed,
+        boolean allowUnindexed,
+        String entityName
+    ) {
+        EntityFilter filter;
+        try {
+            filter = EntityFilter.parse(request.getQueryParams(), entityType);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), entityName, "filterinvalid");
+        }
+        if (!allowUnindexed) {
+            List<EntityFilter.Condition> unindexed = filter.getUnindexed(indexed);
+            if (!unindexed.isEmpty()) {
+                throw new BadRequestAlertException(
+                    "No index serves the filters " + unindexed + ", the indexed properties are: " + indexed,
+                    entityName,
+                    "filternotindexed"
+                );
+            }
+        }
+        return filter;
+    }
+}
@@ -0,0 +1,40 @@
+package com.mycompany.myapp.web.rest.util;
+
+import com.mycompany.myapp.service.Include;
+import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+
+/**
+ * Utility class for the {@code include} request parameter, which lists the relationships to load along with the entities, as comma
+ * separated paths such as {@code employees.jobs.tasks}. Each level is loaded with one query per batch of entities.
+ */
+public final class IncludeUtil {
+
+    public static final String INCLUDE_PARAMETER = "include";
+
+    private IncludeUtil() {}
+
+    /**
+     * Resolves the relationships requested by the client.
+     *
+     * @param include the value of the {@code include} parameter, or {@code null}.
+     * @param supported the relationships the entity can load.
+     * @param entityName the name of the entity, used in the error.
+     * @return the relationships to load, {@link Include#NONE} if the parameter is absent.
+     * @throws BadRequestAlertException if a path is invalid, or not supported.
+     */
+    public static Include parseInclude(String include, Include supported, String entityName) {
+        try {
+            Include relationships = Include.parse(include);
+            if (!relationships.isWithin(supported)) {
+                throw new BadRequestAlertException(
+                    "Unsupported include: " + include + ", the supported ones are: " + supported,
+                    entityName,
+                    "includeinvalid"
+                );
+            }
+            return relationships;
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), entityName, "includeinvalid");
+        }
+    }
+}
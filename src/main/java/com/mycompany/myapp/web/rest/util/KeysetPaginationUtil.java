@@ -0,0 +1,92 @@
+package com.mycompany.myapp.web.rest.util;
+
+import com.mycompany.myapp.service.KeysetCursor;
+import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Utility class for handling keyset (seek) pagination.
+ * <p>
+ * A list endpoint switches to keyset mode when the {@code cursor} request parameter is present - empty for the first page.
+ * The next page is advertised with an opaque token in the {@code X-Next-Cursor} header and in a {@code Link} header with
+ * {@code rel="next"}; both are missing on the last page.
+ */
+public final class KeysetPaginationUtil {
+
+    public static final String CURSOR_PARAMETER = "cursor";
+
+    public static final String HEADER_NEXT_CURSOR = "X-Next-Cursor";
+
+    private KeysetPaginationUtil() {}
+
+    /**
+     * Resolves the cursor sent by the client, and checks its sort property and value against the paged entity.
+     *
+     * @param cursor the token, or an empty string for the first page.
+     * @param sort the requested sort.
+     * @param entityType the type of the paged entities.
+     * @param entityName the name of the entity, used in the error.
+     * @return the cursor position.
+     * @throws BadRequestAlertException if the cursor is malformed, doesn't match the requested sort, or has a property or value the
+     * entity doesn't have.
+     */
+    public static KeysetCursor parseCursor(String cursor, Sort sort, Class<?> entityType, String entityName) {
+        try {
+            KeysetCursor position;
+            if (cursor.isEmpty()) {
+                position = KeysetCursor.first(sort);
+            } else {
+                position = KeysetCursor.decode(cursor);
+                if (!position.matches(sort)) {
+                    throw new BadRequestAlertException("The cursor doesn't match the requested sort", entityName, "cursorinvalid");
+                }
+            }
+            position.parseValue(entityType);
+            return position;
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), entityName, "cursorinvalid");
+        }
+    }
+
+    /**
+     * Returns how many rows to fetch for a page: one more than the page size, so the existence of a next page is known without counting.
+     *
+     * @param pageable the pagination information.
+     * @return the number of rows to fetch.
+     */
+    public static int fetchLimit(Pageable pageable) {
+        return pageable.getPageSize() + 1;
+    }
+
+    /**
+     * Creates the response of a keyset page from the rows fetched with {@link #fetchLimit(Pageable)}.
+     *
+     * @param uriBuilder the uri builder of the current request.
+     * @param cursor the position of the current page.
+     * @param pageable the pagination information.
+     * @param rows the fetched rows.
+     * @param <T> the type of the entities.
+     * @return the response, with the entities of the page in the body, and the next cursor in the headers.
+     */
+    public static <T> ResponseEntity<List<T>> createResponse(
+        UriComponentsBuilder uriBuilder,
+        KeysetCursor cursor,
+        Pageable pageable,
+        List<T> rows
+    ) {
+        HttpHeaders headers = new HttpHeaders();
+        if (rows.size() <= pageable.getPageSize()) {
+            return ResponseEntity.ok().headers(headers).body(rows);
+        }
+        List<T> content = rows.subList(0, pageable.getPageSize());
+        String next = cursor.after(content.get(content.size() - 1)).encode();
+        headers.add(HEADER_NEXT_CURSOR, next);
+        headers.add(HttpHeaders.LINK, "<" + uriBuilder.replaceQueryParam(CURSOR_PARAMETER, next).toUriString() + ">; rel=\"next\"");
+        return ResponseEntity.ok().headers(headers).body(content);
+    }
+}
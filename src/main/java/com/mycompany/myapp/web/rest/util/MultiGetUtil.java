@@ -0,0 +1,81 @@
+package com.mycompany.myapp.web.rest.util;
+
+import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Utility class for handling multi-gets: the entities of a list of ids, loaded with a few {@code IN} queries instead of a request per id.
+ * <p>
+ * A list endpoint switches to multi-get mode when the {@code ids} request parameter is present, such as {@code ?ids=3,1,2}. The
+ * entities come back in the order of the ids, each once, and the ids of the missing entities are listed in the
+ * {@code X-Missing-Ids} header, which is absent when they were all found.
+ */
+public final class MultiGetUtil {
+
+    public static final String IDS_PARAMETER = "ids";
+
+    public static final String HEADER_MISSING_IDS = "X-Missing-Ids";
+
+    /**
+     * The maximum number of ids of a multi-get, so that one request can't hold the database for long.
+     */
+    public static final int MAX_IDS = 1000;
+
+    private MultiGetUtil() {}
+
+    /**
+     * Resolves the ids sent by the client.
+     *
+     * @param ids the ids, maybe with duplicates.
+     * @param entityName the name of the entity, used in the error.
+     * @return the distinct ids, in their order.
+     * @throws BadRequestAlertException if there are more than {@link #MAX_IDS} ids.
+     */
+    public static List<Long> parseIds(List<Long> ids, String entityName) {
+        Set<Long> distinct = ids.stream().filter(Objects::nonNull).collect(Collectors.toCollection(LinkedHashSet::new));
+        if (distinct.size() > MAX_IDS) {
+            throw new BadRequestAlertException("At most " + MAX_IDS + " ids can be requested at once", entityName, "idstoomany");
+        }
+        return new ArrayList<>(distinct);
+    }
+
+    /**
+     * Creates the response of a multi-get.
+     *
+     * @param ids the requested ids, as parsed by {@link #parseIds(List, String)}.
+     * @param entities the entities found, in any order.
+     * @param idGetter returns the id of an entity.
+     * @param <T> the type of the entities.
+     * @return the response with the entities in the order of the ids, and the missing ids in a header.
+     */
+    public static <T> ResponseEntity<List<T>> createResponse(List<Long> ids, List<T> entities, Function<T, Long> idGetter) {
+        Map<Long, T> byId = new HashMap<>(entities.size() * 2);
+        for (T entity : entities) {
+            byId.put(idGetter.apply(entity), entity);
+        }
+        List<T> found = new ArrayList<>(entities.size());
+        List<String> missing = new ArrayList<>();
+        for (Long id : ids) {
+            T entity = byId.get(id);
+            if (entity != null) {
+                found.add(entity);
+            } else {
+                missing.add(id.toString());
+            }
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!missing.isEmpty()) {
+            response.header(HEADER_MISSING_IDS, String.join(",", missing));
+        }
+        return response.body(found);
+    }
+}
@@ -0,0 +1,88 @@
+package com.mycompany.myapp.web.rest.util;
+
+import com.mycompany.myapp.service.FullTextQuery;
+import com.mycompany.myapp.service.SearchCursor;
+import com.mycompany.myapp.service.SearchHit;
+import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Utility class for handling the full-text search endpoints.
+ * <p>
+ * The {@code q} request parameter holds the searched text. The results are ranked, and paged like the keyset pages: the next page is
+ * advertised with an opaque token in the {@code X-Next-Cursor} header and in a {@code Link} header with {@code rel="next"}, which the
+ * client sends back in the {@code cursor} request parameter.
+ */
+public final class SearchUtil {
+
+    public static final String QUERY_PARAMETER = "q";
+
+    private SearchUtil() {}
+
+    /**
+     * Parses the searched text.
+     *
+     * @param text the searched text.
+     * @param entityName the name of the entity, used in the error.
+     * @return the full-text query.
+     * @throws BadRequestAlertException if the text has no term, or too many.
+     */
+    public static FullTextQuery parseQuery(String text, String entityName) {
+        try {
+            return FullTextQuery.parse(text);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), entityName, "searchinvalid");
+        }
+    }
+
+    /**
+     * Resolves the cursor sent by the client.
+     *
+     * @param cursor the token, or null for the first page.
+     * @param entityName the name of the entity, used in the error.
+     * @return the cursor position.
+     * @throws BadRequestAlertException if the cursor is malformed.
+     */
+    public static SearchCursor parseCursor(String cursor, String entityName) {
+        if (cursor == null || cursor.isEmpty()) {
+            return SearchCursor.first();
+        }
+        try {
+            return SearchCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), entityName, "cursorinvalid");
+        }
+    }
+
+    /**
+     * Creates the response of a page of results fetched with {@link KeysetPaginationUtil#fetchLimit(Pageable)}.
+     *
+     * @param uriBuilder the uri builder of the current request.
+     * @param pageable the pagination information.
+     * @param hits the fetched results, including the ones whose entity was deleted since it matched.
+     * @param <T> the type of the entities.
+     * @return the response, with the entities of the page in the body, and the next cursor in the headers.
+     */
+    public static <T> ResponseEntity<List<T>> createResponse(UriComponentsBuilder uriBuilder, Pageable pageable, List<SearchHit<T>> hits) {
+        HttpHeaders headers = new HttpHeaders();
+        List<SearchHit<T>> page = hits;
+        if (hits.size() > pageable.getPageSize()) {
+            page = hits.subList(0, pageable.getPageSize());
+            String next = SearchCursor.after(page.get(page.size() - 1)).encode();
+            headers.add(KeysetPaginationUtil.HEADER_NEXT_CURSOR, next);
+            headers.add(
+                HttpHeaders.LINK,
+                "<" + uriBuilder.replaceQueryParam(KeysetPaginationUtil.CURSOR_PARAMETER, next).toUriString() + ">; rel=\"next\""
+            );
+        }
+        // the deleted entities are only left out now, so that they still count in the decision to advertise a next page
+        List<T> entities = page.stream().map(SearchHit::getEntity).filter(Objects::nonNull).collect(Collectors.toList());
+        return ResponseEntity.ok().headers(headers).body(entities);
+    }
+}
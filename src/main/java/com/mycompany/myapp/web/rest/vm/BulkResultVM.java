@@ -0,0 +1,22 @@
+package com.mycompany.myapp.web.rest.vm;
+
+/**
+ * View Model of the result of a set-based update or delete: the number of rows it changed.
+ */
+public class BulkResultVM {
+
+    private final int affected;
+
+    public BulkResultVM(int affected) {
+        this.affected = affected;
+    }
+
+    public int getAffected() {
+        return affected;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkResultVM{affected=" + affected + "}";
+    }
+}
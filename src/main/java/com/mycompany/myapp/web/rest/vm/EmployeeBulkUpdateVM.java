@@ -0,0 +1,50 @@
+package com.mycompany.myapp.web.rest.vm;
+
+import java.math.BigDecimal;
+
+/**
+ * View Model of a set-based update of employees: a percentage raise of their salary, and their new department or manager. The
+ * properties left {@code null} don't change.
+ */
+public class EmployeeBulkUpdateVM {
+
+    private BigDecimal salaryRaisePercent;
+
+    private Long departmentId;
+
+    private Long managerId;
+
+    public BigDecimal getSalaryRaisePercent() {
+        return salaryRaisePercent;
+    }
+
+    public void setSalaryRaisePercent(BigDecimal salaryRaisePercent) {
+        this.salaryRaisePercent = salaryRaisePercent;
+    }
+
+    public Long getDepartmentId() {
+        return departmentId;
+    }
+
+    public void setDepartmentId(Long departmentId) {
+        this.departmentId = departmentId;
+    }
+
+    public Long getManagerId() {
+        return managerId;
+    }
+
+    public void setManagerId(Long managerId) {
+        this.managerId = managerId;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "EmployeeBulkUpdateVM{" +
+            "salaryRaisePercent=" + salaryRaisePercent +
+            ", departmentId=" + departmentId +
+            ", managerId=" + managerId +
+            "}";
+    }
+}
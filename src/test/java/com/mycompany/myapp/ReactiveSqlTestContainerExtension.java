@@ -29,7 +29,10 @@ public class ReactiveSqlTestContainerExtension implements BeforeAllCallback {
         }
     }
 
-    private boolean useTestcontainers() {
+    /**
+     * @return whether the integration tests run on PostgreSQL, with the {@code testcontainers} profile, rather than on H2.
+     */
+    public static boolean useTestcontainers() {
         String systemProperties = StringUtils.defaultIfBlank(System.getProperty("spring.profiles.active"), "");
         String environmentVariables = StringUtils.defaultIfBlank(System.getenv("SPRING_PROFILES_ACTIVE"), "");
 
@@ -15,6 +15,7 @@ class CountryTest {
         Country country2 = new Country();
         country2.setId(country1.getId());
         assertThat(country1).isEqualTo(country2);
+        assertThat(country1).hasSameHashCodeAs(country2);
         country2.setId(2L);
         assertThat(country1).isNotEqualTo(country2);
         country1.setId(null);
@@ -15,6 +15,7 @@ class DepartmentTest {
         Department department2 = new Department();
         department2.setId(department1.getId());
         assertThat(department1).isEqualTo(department2);
+        assertThat(department1).hasSameHashCodeAs(department2);
         department2.setId(2L);
         assertThat(department1).isNotEqualTo(department2);
         department1.setId(null);
@@ -15,6 +15,7 @@ class EmployeeTest {
         Employee employee2 = new Employee();
         employee2.setId(employee1.getId());
         assertThat(employee1).isEqualTo(employee2);
+        assertThat(employee1).hasSameHashCodeAs(employee2);
         employee2.setId(2L);
         assertThat(employee1).isNotEqualTo(employee2);
         employee1.setId(null);
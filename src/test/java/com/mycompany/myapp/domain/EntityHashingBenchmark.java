@@ -0,0 +1,144 @@
+package com.mycompany.myapp.domain;
+
+import com.carrotsearch.hppc.LongScatterSet;
+import com.carrotsearch.hppc.cursors.LongCursor;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the assembly of a relationship set of persisted tasks, and the lookups in it, when the tasks hash by class, as they used to,
+ * and when they hash by id. Also compares the diff of two id sets, as done for link tables, with boxed and primitive sets.
+ * <p>
+ * Run it with {@code ./mvnw test-compile exec:exec -Pbenchmark -Dbenchmark=EntityHashingBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class EntityHashingBenchmark {
+
+    @Param("10000")
+    private int size;
+
+    private List<Task> tasksHashedById;
+    private List<Task> tasksHashedByClass;
+    private List<Long> currentIds;
+    private List<Long> wantedIds;
+
+    @Setup
+    public void setUp() {
+        tasksHashedById = new ArrayList<>(size);
+        tasksHashedByClass = new ArrayList<>(size);
+        currentIds = new ArrayList<>(size);
+        wantedIds = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            Task task = new Task();
+            task.setId(id);
+            tasksHashedById.add(task);
+            Task taskHashedByClass = new TaskHashedByClass();
+            taskHashedByClass.setId(id);
+            tasksHashedByClass.add(taskHashedByClass);
+            currentIds.add(id);
+            // half of the links are kept, the other half are replaced
+            wantedIds.add(id % 2 == 0 ? id : id + size);
+        }
+    }
+
+    @Benchmark
+    public int assembleAndLookUpHashedByClass() {
+        return assembleAndLookUp(tasksHashedByClass);
+    }
+
+    @Benchmark
+    public int assembleAndLookUpHashedById() {
+        return assembleAndLookUp(tasksHashedById);
+    }
+
+    @Benchmark
+    public int diffBoxedIds() {
+        Set<Long> current = new HashSet<>(currentIds);
+        Set<Long> wanted = new HashSet<>(wantedIds);
+        int changes = 0;
+        for (Long id : current) {
+            if (!wanted.contains(id)) {
+                changes++;
+            }
+        }
+        for (Long id : wanted) {
+            if (!current.contains(id)) {
+                changes++;
+            }
+        }
+        return changes;
+    }
+
+    @Benchmark
+    public int diffPrimitiveIds() {
+        LongScatterSet current = new LongScatterSet(size);
+        for (int i = 0; i < size; i++) {
+            current.add(currentIds.get(i));
+        }
+        LongScatterSet wanted = new LongScatterSet(size);
+        for (int i = 0; i < size; i++) {
+            wanted.add(wantedIds.get(i));
+        }
+        int changes = 0;
+        for (LongCursor id : current) {
+            if (!wanted.contains(id.value)) {
+                changes++;
+            }
+        }
+        for (LongCursor id : wanted) {
+            if (!current.contains(id.value)) {
+                changes++;
+            }
+        }
+        return changes;
+    }
+
+    private static int assembleAndLookUp(List<Task> tasks) {
+        Set<Task> set = new HashSet<>();
+        for (Task task : tasks) {
+            set.add(task);
+        }
+        int found = 0;
+        for (Task task : tasks) {
+            if (set.contains(task)) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * A task with the hash code all the entities had before: the hash code of their class.
+     */
+    private static final class TaskHashedByClass extends Task {
+
+        @Override
+        public boolean equals(Object o) {
+            return super.equals(o);
+        }
+
+        @Override
+        public int hashCode() {
+            return Task.class.hashCode();
+        }
+    }
+}
@@ -15,6 +15,7 @@ class JobHistoryTest {
         JobHistory jobHistory2 = new JobHistory();
         jobHistory2.setId(jobHistory1.getId());
         assertThat(jobHistory1).isEqualTo(jobHistory2);
+        assertThat(jobHistory1).hasSameHashCodeAs(jobHistory2);
         jobHistory2.setId(2L);
         assertThat(jobHistory1).isNotEqualTo(jobHistory2);
         jobHistory1.setId(null);
@@ -15,6 +15,7 @@ class JobTest {
         Job job2 = new Job();
         job2.setId(job1.getId());
         assertThat(job1).isEqualTo(job2);
+        assertThat(job1).hasSameHashCodeAs(job2);
         job2.setId(2L);
         assertThat(job1).isNotEqualTo(job2);
         job1.setId(null);
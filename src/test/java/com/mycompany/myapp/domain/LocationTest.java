@@ -15,6 +15,7 @@ class LocationTest {
         Location location2 = new Location();
         location2.setId(location1.getId());
         assertThat(location1).isEqualTo(location2);
+        assertThat(location1).hasSameHashCodeAs(location2);
         location2.setId(2L);
         assertThat(location1).isNotEqualTo(location2);
         location1.setId(null);
@@ -15,6 +15,7 @@ class RegionTest {
         Region region2 = new Region();
         region2.setId(region1.getId());
         assertThat(region1).isEqualTo(region2);
+        assertThat(region1).hasSameHashCodeAs(region2);
         region2.setId(2L);
         assertThat(region1).isNotEqualTo(region2);
         region1.setId(null);
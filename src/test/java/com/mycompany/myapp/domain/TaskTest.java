@@ -15,6 +15,7 @@ class TaskTest {
         Task task2 = new Task();
         task2.setId(task1.getId());
         assertThat(task1).isEqualTo(task2);
+        assertThat(task1).hasSameHashCodeAs(task2);
         task2.setId(2L);
         assertThat(task1).isNotEqualTo(task2);
         task1.setId(null);
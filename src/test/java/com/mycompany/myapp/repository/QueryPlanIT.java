@@ -0,0 +1,497 @@
+package com.mycompany.myapp.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Department;
+import com.mycompany.myapp.domain.Employee;
+import com.mycompany.myapp.domain.Job;
+import com.mycompany.myapp.domain.JobHistory;
+import com.mycompany.myapp.domain.Task;
+import com.mycompany.myapp.repository.rowmapper.DepartmentRowMapper;
+import com.mycompany.myapp.repository.rowmapper.EmployeeRowMapper;
+import com.mycompany.myapp.repository.rowmapper.JobHistoryRowMapper;
+import com.mycompany.myapp.repository.rowmapper.JobRowMapper;
+import com.mycompany.myapp.repository.rowmapper.TaskRowMapper;
+import com.mycompany.myapp.service.CountStrategy;
+import com.mycompany.myapp.service.EntityFilter;
+import com.mycompany.myapp.service.EntityManager;
+import com.mycompany.myapp.service.Include;
+import com.mycompany.myapp.service.KeysetCursor;
+import com.mycompany.myapp.service.RowCountEstimator;
+import com.mycompany.myapp.service.TypeaheadIndex;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Statement;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.convert.R2dbcConverter;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.dialect.R2dbcDialect;
+import org.springframework.data.r2dbc.query.UpdateMapper;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.sql.render.SqlRenderer;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Query plan regression test: each query shape of the repositories is explained against a seeded database, and must not read a whole
+ * large table. It runs on H2, and on PostgreSQL with the {@code testcontainers} profile, where sequential scans are disabled while
+ * explaining, so that the planner only falls back to one when no index serves the query, whatever the size of the seed.
+ */
+@IntegrationTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanIT {
+
+    /**
+     * The tables which grow with the business, a sequential scan of the others is cheap.
+     */
+    private static final Set<String> LARGE_TABLES = Set.of("employee", "job", "job_history", "rel_job__task");
+
+    // "Seq Scan on employee entity" on PostgreSQL, "/* PUBLIC.EMPLOYEE.tableScan */" on H2
+    private static final Pattern SEQUENTIAL_SCAN = Pattern.compile("Seq Scan on (\\w+)|PUBLIC\\.(\\w+)\\.tableScan");
+
+    private static final int DEPARTMENTS = 20;
+    private static final int TASKS = 50;
+    private static final int MANAGERS = 100;
+    private static final int EMPLOYEES = 2000;
+    private static final int PAGE_SIZE = 20;
+
+    private static final Instant FIRST_START_DATE = Instant.parse("2015-01-01T00:00:00Z");
+
+    private static final List<Class<?>> REPOSITORIES = List.of(
+        CountryRepository.class,
+        DepartmentRepository.class,
+        EmployeeRepository.class,
+        JobHistoryRepository.class,
+        JobRepository.class,
+        LocationRepository.class
+    );
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private DatabaseClient db;
+
+    @Autowired
+    private ConnectionFactory connectionFactory;
+
+    @Autowired
+    private R2dbcDialect dialect;
+
+    @Autowired
+    private R2dbcConverter converter;
+
+    @Autowired
+    private SqlRenderer sqlRenderer;
+
+    @Autowired
+    private UpdateMapper updateMapper;
+
+    @Autowired
+    private RowCountEstimator rowCountEstimator;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EmployeeRowMapper employeeMapper;
+
+    @Autowired
+    private DepartmentRowMapper departmentMapper;
+
+    @Autowired
+    private JobRowMapper jobMapper;
+
+    @Autowired
+    private TaskRowMapper taskMapper;
+
+    @Autowired
+    private JobHistoryRowMapper jobHistoryMapper;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private TypeaheadIndex typeaheadIndex;
+
+    private List<Department> departments;
+    private List<Employee> managers;
+    private List<Employee> employees;
+    private List<Job> jobs;
+    private List<JobHistory> jobHistories;
+
+    @BeforeAll
+    void seed() {
+        deleteAll();
+        departments =
+            em.insertAll(Flux.range(0, DEPARTMENTS).map(i -> new Department().departmentName("Department " + i))).collectList().block();
+        em.insertAll(Flux.range(0, TASKS).map(i -> new Task().title("Task " + i))).blockLast();
+        managers =
+            em.insertAll(Flux.range(0, MANAGERS).map(i -> createEmployee(i, null, departments.get(i % DEPARTMENTS)))).collectList().block();
+        employees =
+            em
+                .insertAll(
+                    Flux.range(0, EMPLOYEES).map(i -> createEmployee(i, managers.get(i % MANAGERS), departments.get(i % DEPARTMENTS)))
+                )
+                .collectList()
+                .block();
+        jobs =
+            em
+                .insertAll(
+                    Flux.fromIterable(employees).map(employee -> new Job().jobTitle("Job " + employee.getLastName()).employee(employee))
+                )
+                .collectList()
+                .block();
+        jobHistories =
+            em
+                .insertAll(
+                    Flux
+                        .range(0, jobs.size())
+                        .map(
+                            i ->
+                                // the job, department and employee of a job history are unique, the department is left out
+                                new JobHistory()
+                                    .startDate(FIRST_START_DATE.plus(i, ChronoUnit.DAYS))
+                                    .job(jobs.get(i))
+                                    .employee(employees.get(i))
+                        )
+                )
+                .collectList()
+                .block();
+        db
+            .sql(
+                "INSERT INTO rel_job__task (job_id, task_id) SELECT j.id, t.id FROM job j JOIN task t ON MOD(j.id, " +
+                TASKS +
+                ") = MOD(t.id, " +
+                TASKS +
+                ")"
+            )
+            .then()
+            .block();
+        // the planners estimate the selectivity of the indexes from the statistics
+        db.sql("ANALYZE").then().block();
+    }
+
+    private static Employee createEmployee(int i, Employee manager, Department department) {
+        return new Employee()
+            .firstName("First " + i)
+            .lastName("Last " + i)
+            .email("employee" + i + "@example.com")
+            .hireDate(FIRST_START_DATE.plus(i, ChronoUnit.HOURS))
+            .salary(1000L + i)
+            .manager(manager)
+            .department(department);
+    }
+
+    @AfterAll
+    void deleteAll() {
+        em.deleteAll("rel_job__task").block();
+        em.deleteAll(JobHistory.class).block();
+        em.deleteAll(Job.class).block();
+        db.sql("UPDATE employee SET manager_id = NULL").then().block();
+        em.deleteAll(Employee.class).block();
+        em.deleteAll(Task.class).block();
+        em.deleteAll(Department.class).block();
+    }
+
+    /**
+     * The query shapes: the {@code @Query} methods of the repositories, the statements of the list endpoints as the repositories issue
+     * them, with their sort orders, keyset pages, filters, counts and eager loads, and the lookups of the cascading deletes.
+     */
+    Stream<Shape> queryShapes() {
+        List<Shape> shapes = new ArrayList<>();
+        for (Class<?> repository : REPOSITORIES) {
+            for (Method method : repository.getMethods()) {
+                Query query = method.getAnnotation(Query.class);
+                if (query != null) {
+                    shapes.add(new Shape(query.value().replace(":id", "1")));
+                }
+            }
+        }
+        shapes.addAll(recordListShapes());
+        // the deletes aren't run to be recorded, the lookups of their rows are written by hand
+        Stream
+            .of(
+                "DELETE FROM rel_job__task WHERE task_id = 1",
+                "DELETE FROM rel_job__task WHERE job_id = 1",
+                "DELETE FROM job_history WHERE employee_id = 1",
+                "DELETE FROM job_history WHERE start_date < '2015-02-01'",
+                "DELETE FROM job WHERE employee_id = 1",
+                "UPDATE employee SET manager_id = NULL WHERE manager_id = 1"
+            )
+            .map(Shape::new)
+            .forEach(shapes::add);
+        return shapes.stream();
+    }
+
+    /**
+     * Runs the list endpoints' queries through repositories whose entity manager records its statements, with their bind values.
+     */
+    private Collection<Shape> recordListShapes() {
+        Map<String, Shape> recorded = new LinkedHashMap<>();
+        R2dbcEntityTemplate template = new R2dbcEntityTemplate(
+            DatabaseClient
+                .builder()
+                .connectionFactory(recording(connectionFactory, recorded))
+                .bindMarkers(dialect.getBindMarkersFactory())
+                .build(),
+            dialect,
+            converter
+        );
+        EntityManager recordingEm = new EntityManager(
+            sqlRenderer,
+            updateMapper,
+            template,
+            dialect,
+            rowCountEstimator,
+            applicationProperties,
+            meterRegistry
+        );
+        EmployeeRepositoryInternalImpl employeeRepository = new EmployeeRepositoryInternalImpl(
+            template,
+            recordingEm,
+            employeeMapper,
+            departmentMapper,
+            jobRepository,
+            typeaheadIndex
+        );
+        JobRepositoryInternalImpl jobRepository = new JobRepositoryInternalImpl(
+            template,
+            recordingEm,
+            employeeMapper,
+            jobMapper,
+            taskMapper
+        );
+        JobHistoryRepositoryInternalImpl jobHistoryRepository = new JobHistoryRepositoryInternalImpl(
+            template,
+            recordingEm,
+            jobMapper,
+            departmentMapper,
+            employeeMapper,
+            jobHistoryMapper
+        );
+
+        Criteria byDepartment = filter(Employee.class, "departmentId.equals", departments.get(1).getId());
+        Criteria byManager = filter(Employee.class, "managerId.equals", managers.get(1).getId());
+        for (Sort sort : List.of(Sort.by("lastName"), Sort.by(Sort.Direction.DESC, "hireDate"), Sort.by("salary"))) {
+            for (Criteria criteria : List.of(Criteria.empty(), byDepartment, byManager)) {
+                KeysetCursor first = KeysetCursor.first(sort);
+                employeeRepository.findAllAfter(first, PAGE_SIZE + 1, criteria).blockLast();
+                employeeRepository.findAllAfter(first.after(employees.get(EMPLOYEES / 2)), PAGE_SIZE + 1, criteria).blockLast();
+            }
+        }
+        for (CountStrategy countStrategy : List.of(CountStrategy.EXACT, CountStrategy.WINDOW)) {
+            employeeRepository.findPage(PageRequest.of(0, PAGE_SIZE, Sort.by("lastName")), countStrategy, byDepartment).block();
+        }
+        employeeRepository.fetchByDepartments(Flux.fromIterable(departments.subList(0, 4)), Include.NONE).blockLast();
+
+        Criteria byEmployee = filter(Job.class, "employeeId.equals", employees.get(1).getId());
+        KeysetCursor byTitle = KeysetCursor.first(Sort.by("jobTitle"));
+        for (Criteria criteria : List.of(Criteria.empty(), byEmployee)) {
+            jobRepository.findAllAfter(byTitle, PAGE_SIZE + 1, criteria).blockLast();
+            jobRepository.findAllAfter(byTitle.after(jobs.get(EMPLOYEES / 2)), PAGE_SIZE + 1, criteria).blockLast();
+            jobRepository
+                .findPageWithEagerRelationships(PageRequest.of(0, PAGE_SIZE, Sort.by("jobTitle")), CountStrategy.EXACT, criteria)
+                .block();
+        }
+        jobRepository.fetchByEmployees(Flux.fromIterable(employees.subList(0, 4)), Include.NONE).blockLast();
+
+        List<Criteria> jobHistoryFilters = List.of(
+            Criteria.empty(),
+            filter(JobHistory.class, "employeeId.equals", employees.get(1).getId()),
+            filter(JobHistory.class, "departmentId.equals", departments.get(1).getId()),
+            filter(JobHistory.class, "jobId.equals", jobs.get(1).getId())
+        );
+        KeysetCursor byStartDate = KeysetCursor.first(Sort.by(Sort.Direction.DESC, "startDate"));
+        for (Criteria criteria : jobHistoryFilters) {
+            jobHistoryRepository.findAllAfter(byStartDate, PAGE_SIZE + 1, criteria).blockLast();
+            jobHistoryRepository.findAllAfter(byStartDate.after(jobHistories.get(EMPLOYEES / 2)), PAGE_SIZE + 1, criteria).blockLast();
+        }
+        Criteria inMarch = EntityFilter
+            .parse(
+                Map.of(
+                    "startDate.greaterThanOrEqual",
+                    List.of("2015-03-01T00:00:00Z"),
+                    "startDate.lessThan",
+                    List.of("2015-04-01T00:00:00Z")
+                ),
+                JobHistory.class
+            )
+            .toCriteria();
+        KeysetCursor byStartDateAscending = KeysetCursor.first(Sort.by("startDate"));
+        jobHistoryRepository.findAllAfter(byStartDateAscending, PAGE_SIZE + 1, inMarch).blockLast();
+        jobHistoryRepository.findAllAfter(byStartDateAscending.after(jobHistories.get(70)), PAGE_SIZE + 1, inMarch).blockLast();
+        return recorded.values();
+    }
+
+    private static Criteria filter(Class<?> entityType, String parameter, Object value) {
+        return EntityFilter.parse(Map.of(parameter, List.of(String.valueOf(value))), entityType).toCriteria();
+    }
+
+    /**
+     * Records the first statement of each SQL text run on its connections, with the values bound to it, and runs it as usual.
+     */
+    private static ConnectionFactory recording(ConnectionFactory connectionFactory, Map<String, Shape> recorded) {
+        return new ConnectionFactory() {
+            @Override
+            public Publisher<? extends Connection> create() {
+                return Mono.from(connectionFactory.create()).map(connection -> recording(connection, recorded));
+            }
+
+            @Override
+            public ConnectionFactoryMetadata getMetadata() {
+                return connectionFactory.getMetadata();
+            }
+        };
+    }
+
+    private static Connection recording(Connection connection, Map<String, Shape> recorded) {
+        return proxy(
+            Connection.class,
+            (proxy, method, args) -> {
+                Object result = invoke(connection, method, args);
+                return "createStatement".equals(method.getName()) ? recording((Statement) result, (String) args[0], recorded) : result;
+            }
+        );
+    }
+
+    private static Statement recording(Statement statement, String sql, Map<String, Shape> recorded) {
+        Shape shape = new Shape(sql);
+        return proxy(
+            Statement.class,
+            (proxy, method, args) -> {
+                if ("add".equals(method.getName())) {
+                    // the first binding of a batch stands for the others
+                    shape.batched = true;
+                } else if (method.getName().startsWith("bind") && !shape.batched) {
+                    shape.bindings.add(explained -> invoke(explained, method, args));
+                } else if ("execute".equals(method.getName())) {
+                    recorded.putIfAbsent(sql, shape);
+                }
+                Object result = invoke(statement, method, args);
+                return result == statement ? proxy : result;
+            }
+        );
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(QueryPlanIT.class.getClassLoader(), new Class<?>[] { type }, handler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw Exceptions.propagate(e.getCause());
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("queryShapes")
+    void queryShapeDoesntScanALargeTable(Shape shape) {
+        List<String> plan = explain(shape);
+
+        assertThat(sequentiallyScannedTables(plan))
+            .as("Plan of %s:%n%s", shape, String.join("\n", plan))
+            .doesNotContainAnyElementsOf(LARGE_TABLES);
+    }
+
+    private List<String> explain(Shape shape) {
+        return db
+            .inConnection(
+                connection -> {
+                    boolean postgres = connection.getMetadata().getDatabaseProductName().contains("PostgreSQL");
+                    return Mono
+                        .from(connection.beginTransaction())
+                        .then(postgres ? execute(connection, "SET LOCAL enable_seqscan = off") : Mono.empty())
+                        .thenMany(
+                            Flux
+                                .from(shape.bind(connection.createStatement("EXPLAIN " + shape.sql)).execute())
+                                .flatMap(result -> result.map((row, metadata) -> row.get(0, String.class)))
+                        )
+                        .collectList()
+                        // explaining doesn't run the deletes and updates, the transaction only scopes the setting
+                        .flatMap(plan -> Mono.from(connection.rollbackTransaction()).thenReturn(plan));
+                }
+            )
+            .block();
+    }
+
+    private static Mono<Void> execute(Connection connection, String sql) {
+        return Flux.from(connection.createStatement(sql).execute()).flatMap(result -> result.getRowsUpdated()).then();
+    }
+
+    private static Set<String> sequentiallyScannedTables(List<String> plan) {
+        Set<String> tables = new TreeSet<>();
+        for (String line : plan) {
+            Matcher matcher = SEQUENTIAL_SCAN.matcher(line);
+            while (matcher.find()) {
+                String table = matcher.group(1) != null ? matcher.group(1) : matcher.group(2);
+                tables.add(table.toLowerCase(Locale.ROOT));
+            }
+        }
+        return tables;
+    }
+
+    /**
+     * A statement to explain, with the values bound to it.
+     */
+    static final class Shape {
+
+        private final String sql;
+        private final List<Consumer<Statement>> bindings = new ArrayList<>();
+        private boolean batched;
+
+        Shape(String sql) {
+            this.sql = sql;
+        }
+
+        Statement bind(Statement statement) {
+            bindings.forEach(binding -> binding.accept(statement));
+            return statement;
+        }
+
+        @Override
+        public String toString() {
+            return sql;
+        }
+    }
+}
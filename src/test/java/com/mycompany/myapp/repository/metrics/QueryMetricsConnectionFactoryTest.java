@@ -0,0 +1,139 @@
+package com.mycompany.myapp.repository.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.ConnectionFactories;
+import java.time.Duration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+
+/**
+ * Test class for the {@link QueryMetricsConnectionFactory}.
+ */
+class QueryMetricsConnectionFactoryTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final Logger slowQueryLog = (Logger) LoggerFactory.getLogger(QueryMetricsConnectionFactory.SLOW_QUERY_LOG);
+    private final ListAppender<ILoggingEvent> slowQueries = new ListAppender<>();
+
+    private DatabaseClient client;
+
+    @BeforeEach
+    void setUp() {
+        slowQueries.start();
+        slowQueryLog.addAppender(slowQueries);
+        client = createClient(Duration.ofMinutes(1));
+        client.sql("CREATE TABLE IF NOT EXISTS item (id BIGINT, name VARCHAR(20))").then().block();
+        client.sql("DELETE FROM item").then().block();
+        client.sql("INSERT INTO item (id, name) VALUES (1, 'a'), (2, 'b'), (3, 'c')").then().block();
+    }
+
+    @AfterEach
+    void tearDown() {
+        slowQueryLog.detachAppender(slowQueries);
+    }
+
+    @Test
+    void statementsAreTimedByShape() {
+        client
+            .sql("SELECT name FROM item")
+            .map(row -> row.get(0, String.class))
+            .all()
+            .contextWrite(QueryShape.named("item.findAllBy", PageRequest.of(0, 10, Sort.by("name"))))
+            .blockLast();
+
+        assertThat(
+            registry
+                .get(QueryMetricsConnectionFactory.QUERY_METRIC)
+                .tags("shape", "item.findAllBy.sorted", "outcome", "success")
+                .timer()
+                .count()
+        )
+            .isEqualTo(1);
+        assertThat(registry.get(QueryMetricsConnectionFactory.ROWS_METRIC).tag("shape", "item.findAllBy.sorted").summary().totalAmount())
+            .isEqualTo(3);
+        assertThat(registry.get(QueryMetricsConnectionFactory.FIRST_ROW_METRIC).tag("shape", "item.findAllBy.sorted").timer().count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void innermostNameWins() {
+        client
+            .sql("SELECT COUNT(*) FROM item")
+            .map(row -> row.get(0, Long.class))
+            .one()
+            .contextWrite(QueryShape.suffixed(".count"))
+            .contextWrite(QueryShape.named("item.findPage"))
+            .block();
+
+        assertThat(
+            registry
+                .get(QueryMetricsConnectionFactory.QUERY_METRIC)
+                .tags("shape", "item.findPage.count", "outcome", "success")
+                .timer()
+                .count()
+        )
+            .isEqualTo(1);
+    }
+
+    @Test
+    void unnamedStatementsAreNamedAfterTheirSql() {
+        client.sql("UPDATE item SET name = :name WHERE id = :id").bind("name", "d").bind("id", 1L).fetch().rowsUpdated().block();
+
+        assertThat(
+            registry.get(QueryMetricsConnectionFactory.QUERY_METRIC).tags("shape", "update.item", "outcome", "success").timer().count()
+        )
+            .isEqualTo(1);
+        assertThat(registry.get(QueryMetricsConnectionFactory.ROWS_METRIC).tag("shape", "update.item").summary().totalAmount())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void failedStatementsAreTimedApart() {
+        client.sql("SELECT missing FROM item").fetch().all().onErrorResume(e -> Flux.empty()).blockLast();
+
+        assertThat(
+            registry.get(QueryMetricsConnectionFactory.QUERY_METRIC).tags("shape", "select.item", "outcome", "error").timer().count()
+        )
+            .isEqualTo(1);
+    }
+
+    @Test
+    void slowStatementsAreLogged() {
+        createClient(Duration.ZERO)
+            .sql("SELECT name FROM item WHERE id = :id")
+            .bind("id", 2L)
+            .fetch()
+            .one()
+            .contextWrite(QueryShape.named("item.findById"))
+            .block();
+
+        assertThat(slowQueries.list).hasSize(1);
+        assertThat(slowQueries.list.get(0).getFormattedMessage())
+            .startsWith("item.findById took ")
+            .contains("1 rows: SELECT name FROM item WHERE id = $1 bound to {0=Long}");
+        assertThat(createClient(Duration.ofMinutes(1)).sql("SELECT name FROM item").fetch().all().collectList().block()).hasSize(3);
+        assertThat(slowQueries.list).hasSize(1);
+    }
+
+    private DatabaseClient createClient(Duration slowQueryThreshold) {
+        return DatabaseClient.create(
+            new QueryMetricsConnectionFactory(
+                ConnectionFactories.get("r2dbc:h2:mem:///query-metrics;DB_CLOSE_DELAY=-1"),
+                registry,
+                slowQueryThreshold
+            )
+        );
+    }
+}
@@ -0,0 +1,85 @@
+package com.mycompany.myapp.repository.pool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactories;
+import java.time.Duration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+/**
+ * Test class for the {@link MeteredConnectionPool} and its {@link ConnectionPoolHealthIndicator}, with a pool of a single connection.
+ */
+class MeteredConnectionPoolTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private MeteredConnectionPool pool;
+
+    @BeforeEach
+    void setUp() {
+        ConnectionPool connectionPool = new ConnectionPool(
+            ConnectionPoolConfiguration
+                .builder(ConnectionFactories.get("r2dbc:h2:mem:///pool;DB_CLOSE_DELAY=-1"))
+                .initialSize(1)
+                .maxSize(1)
+                .build()
+        );
+        pool = new MeteredConnectionPool(connectionPool, "test", registry, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.dispose();
+    }
+
+    @Test
+    void acquisitionsAreTimed() {
+        Mono.from(pool.create()).flatMap(connection -> Mono.from(connection.close())).block();
+
+        assertThat(registry.get(MeteredConnectionPool.ACQUIRE_METRIC).tags("name", "test", "outcome", "success").timer().count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void poolIsDegradedWhileAcquisitionsWait() {
+        ConnectionPoolHealthIndicator healthIndicator = new ConnectionPoolHealthIndicator(pool, Duration.ZERO);
+        Connection busy = pool.create().block();
+
+        Health health = healthIndicator.health().block();
+        assertThat(health.getStatus()).isEqualTo(Status.UP);
+        assertThat(health.getDetails()).containsEntry("acquired", 1).containsEntry("pending", 0).containsEntry("max", 1);
+
+        // a second request waits for the only connection
+        Disposable waiting = pool.create().subscribe();
+        health = healthIndicator.health().block();
+        assertThat(health.getStatus()).isEqualTo(ConnectionPoolHealthIndicator.DEGRADED);
+        assertThat(health.getDetails()).containsEntry("pending", 1).containsKey("saturatedFor");
+
+        waiting.dispose();
+        Mono.from(busy.close()).block();
+        assertThat(healthIndicator.health().block().getStatus()).isEqualTo(Status.UP);
+    }
+
+    @Test
+    void poolIsDegradedOnlyOnceSaturatedForTheWholePeriod() {
+        ConnectionPoolHealthIndicator healthIndicator = new ConnectionPoolHealthIndicator(pool, Duration.ofHours(1));
+        Connection busy = pool.create().block();
+        Disposable waiting = pool.create().subscribe();
+
+        assertThat(healthIndicator.health().block().getStatus()).isEqualTo(Status.UP);
+        assertThat(pool.getSaturation()).isPositive();
+
+        waiting.dispose();
+        Mono.from(busy.close()).block();
+    }
+}
@@ -0,0 +1,153 @@
+package com.mycompany.myapp.repository.routing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+/**
+ * Test class for the {@link ReplicaRoutingConnectionFactory}, with three local databases: a primary and two replicas, which tell
+ * their name.
+ */
+class ReplicaRoutingConnectionFactoryTest {
+
+    private static final String SERVER_NAME = "SELECT name FROM server";
+
+    private final ConnectionFactory primary = createServer("primary");
+    private final ConnectionFactory replica1 = createServer("replica-1");
+    private final ConnectionFactory replica2 = createServer("replica-2");
+
+    private ReplicaRoutingConnectionFactory router;
+    private DatabaseClient client;
+    private ReadOnlyRoutingTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        setLag(replica1, 0);
+        setLag(replica2, 0);
+        router =
+            new ReplicaRoutingConnectionFactory(
+                primary,
+                List.of(replica1, replica2),
+                "SELECT lag FROM server",
+                Duration.ofSeconds(5),
+                Duration.ofMinutes(1)
+            );
+        client = DatabaseClient.create(router);
+        transactionManager = new ReadOnlyRoutingTransactionManager(router);
+    }
+
+    @Test
+    void readWriteTransactionsGoToThePrimary() {
+        assertThat(inTransaction(false).block()).isEqualTo("primary");
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplicas() {
+        assertThat(inTransaction(true).block()).startsWith("replica-");
+    }
+
+    @Test
+    void readsOfGetRequestsGoToTheReplicas() {
+        assertThat(serverName().contextWrite(ReplicaRoutingConnectionFactory.readOnlyRequest()).block()).startsWith("replica-");
+        assertThat(serverName().block()).isEqualTo("primary");
+    }
+
+    @Test
+    void readsGoToTheLeastBusyReplica() {
+        Connection first = readOnlyConnection();
+        Connection second = readOnlyConnection();
+
+        assertThat(List.of(serverName(first), serverName(second))).containsExactlyInAnyOrder("replica-1", "replica-2");
+
+        // the first replica is free again
+        String firstName = serverName(first);
+        Mono.from(first.close()).block();
+        Connection third = readOnlyConnection();
+        assertThat(serverName(third)).isEqualTo(firstName);
+
+        Mono.from(second.close()).block();
+        Mono.from(third.close()).block();
+    }
+
+    @Test
+    void replicasLaggingTooMuchAreLeftAside() {
+        setLag(replica1, 60);
+        router.checkReplicationLag().block();
+
+        List<String> names = Flux
+            .range(0, 4)
+            .concatMap(i -> serverName().contextWrite(ReplicaRoutingConnectionFactory.readOnlyRequest()))
+            .collectList()
+            .block();
+        assertThat(names).containsOnly("replica-2");
+
+        // it caught up
+        setLag(replica1, 1);
+        router.checkReplicationLag().block();
+        Connection busy = readOnlyConnection();
+        Connection next = readOnlyConnection();
+        assertThat(List.of(serverName(busy), serverName(next))).containsExactlyInAnyOrder("replica-1", "replica-2");
+        Mono.from(busy.close()).block();
+        Mono.from(next.close()).block();
+    }
+
+    @Test
+    void usersReadTheirOwnWrites() {
+        assertThat(inTransaction(false).contextWrite(as("writer")).block()).isEqualTo("primary");
+
+        assertThat(inTransaction(true).contextWrite(as("writer")).block()).isEqualTo("primary");
+        assertThat(inTransaction(true).contextWrite(as("reader")).block()).startsWith("replica-");
+    }
+
+    private Mono<String> inTransaction(boolean readOnly) {
+        DefaultTransactionDefinition definition = new DefaultTransactionDefinition();
+        definition.setReadOnly(readOnly);
+        return TransactionalOperator.create(transactionManager, definition).transactional(serverName());
+    }
+
+    private Mono<String> serverName() {
+        return client.sql(SERVER_NAME).map(row -> row.get(0, String.class)).one();
+    }
+
+    private Connection readOnlyConnection() {
+        return router.create().contextWrite(ReplicaRoutingConnectionFactory.readOnlyRequest()).block();
+    }
+
+    private static String serverName(Connection connection) {
+        return Flux
+            .from(connection.createStatement(SERVER_NAME).execute())
+            .flatMap(result -> result.map((row, metadata) -> row.get(0, String.class)))
+            .blockFirst();
+    }
+
+    private static Context as(String login) {
+        return ReactiveSecurityContextHolder.withAuthentication(new UsernamePasswordAuthenticationToken(login, login));
+    }
+
+    private static ConnectionFactory createServer(String name) {
+        ConnectionFactory server = ConnectionFactories.get("r2dbc:h2:mem:///routing-" + name + ";DB_CLOSE_DELAY=-1");
+        DatabaseClient client = DatabaseClient.create(server);
+        client.sql("CREATE TABLE IF NOT EXISTS server (name VARCHAR(20), lag INT)").then().block();
+        client.sql("DELETE FROM server").then().block();
+        client.sql("INSERT INTO server (name, lag) VALUES (:name, 0)").bind("name", name).then().block();
+        return server;
+    }
+
+    private static void setLag(ConnectionFactory server, int lag) {
+        DatabaseClient.create(server).sql("UPDATE server SET lag = :lag").bind("lag", lag).then().block();
+    }
+}
@@ -0,0 +1,215 @@
+package com.mycompany.myapp.repository.rowmapper;
+
+import com.mycompany.myapp.config.DatabaseConfiguration;
+import com.mycompany.myapp.domain.Employee;
+import com.mycompany.myapp.service.ColumnConverter;
+import io.r2dbc.spi.ColumnMetadata;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.r2dbc.convert.MappingR2dbcConverter;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.dialect.H2Dialect;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+
+/**
+ * Compares the mapping of a result set of employees by column name, with the driver refusing the timestamps, to its mapping with a
+ * {@link RowMappingPlan}. The rows behave like the ones of the H2 driver: columns are looked up by name, case insensitive, and reading
+ * a value as another class than its own throws.
+ * <p>
+ * Run it with {@code ./mvnw test-compile exec:exec -Pbenchmark -Dbenchmark=RowMappingBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowMappingBenchmark {
+
+    private static final int ROWS = 100;
+
+    private static final String[] COLUMNS = {
+        "E_ID",
+        "E_FIRST_NAME",
+        "E_LAST_NAME",
+        "E_EMAIL",
+        "E_PHONE_NUMBER",
+        "E_HIRE_DATE",
+        "E_SALARY",
+        "E_COMMISSION_PCT",
+        "E_MANAGER_ID",
+        "E_DEPARTMENT_ID",
+    };
+
+    private ColumnConverter converter;
+    private EmployeeRowMapper employeeMapper;
+    private RowMetadata metadata;
+    private List<Row> rows;
+
+    @Setup
+    public void setUp() {
+        R2dbcCustomConversions conversions = new DatabaseConfiguration(null).r2dbcCustomConversions(H2Dialect.INSTANCE);
+        R2dbcMappingContext mappingContext = new R2dbcMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        converter = new ColumnConverter(conversions, new MappingR2dbcConverter(mappingContext, conversions));
+        employeeMapper = new EmployeeRowMapper(converter);
+        Object[] sample = {
+            1L,
+            "Elena",
+            "Rangel",
+            "elena@example.com",
+            "555-0100",
+            LocalDateTime.of(2021, 6, 10, 15, 41, 31),
+            71697L,
+            45464L,
+            null,
+            3L,
+        };
+        List<ColumnMetadata> columns = new ArrayList<>();
+        for (int i = 0; i < COLUMNS.length; i++) {
+            columns.add(new FakeColumnMetadata(COLUMNS[i], i == 0 || i >= 6 ? Long.class : sample[i].getClass()));
+        }
+        metadata = new FakeRowMetadata(columns);
+        rows = new ArrayList<>(ROWS);
+        for (long id = 1; id <= ROWS; id++) {
+            Object[] values = sample.clone();
+            values[0] = id;
+            rows.add(new FakeRow(COLUMNS, values));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void byColumnName(Blackhole blackhole) {
+        for (Row row : rows) {
+            blackhole.consume(mapByColumnName(row, "e"));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void byMappingPlan(Blackhole blackhole) {
+        BiFunction<Row, RowMetadata, Employee> mapping = RowMappingPlan.of(rowMetadata -> employeeMapper.plan(rowMetadata, "e"));
+        for (Row row : rows) {
+            blackhole.consume(mapping.apply(row, metadata));
+        }
+    }
+
+    /**
+     * The mapping of the rows before the mapping plans: one name lookup per column and row, and one exception per row for the hire date.
+     */
+    private Employee mapByColumnName(Row row, String prefix) {
+        Employee entity = new Employee();
+        entity.setId(converter.fromRow(row, prefix + "_id", Long.class));
+        entity.setFirstName(converter.fromRow(row, prefix + "_first_name", String.class));
+        entity.setLastName(converter.fromRow(row, prefix + "_last_name", String.class));
+        entity.setEmail(converter.fromRow(row, prefix + "_email", String.class));
+        entity.setPhoneNumber(converter.fromRow(row, prefix + "_phone_number", String.class));
+        entity.setHireDate(converter.fromRow(row, prefix + "_hire_date", Instant.class));
+        entity.setSalary(converter.fromRow(row, prefix + "_salary", Long.class));
+        entity.setCommissionPct(converter.fromRow(row, prefix + "_commission_pct", Long.class));
+        entity.setManagerId(converter.fromRow(row, prefix + "_manager_id", Long.class));
+        entity.setDepartmentId(converter.fromRow(row, prefix + "_department_id", Long.class));
+        return entity;
+    }
+
+    private static final class FakeRow implements Row {
+
+        private final String[] names;
+        private final Object[] values;
+
+        FakeRow(String[] names, Object[] values) {
+            this.names = names;
+            this.values = values;
+        }
+
+        @Override
+        public <T> T get(int index, Class<T> type) {
+            Object value = values[index];
+            if (value == null || type.isInstance(value)) {
+                return type.cast(value);
+            }
+            throw new IllegalArgumentException("Cannot decode value of type " + value.getClass().getName() + " to " + type.getName());
+        }
+
+        @Override
+        public <T> T get(String name, Class<T> type) {
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equalsIgnoreCase(name)) {
+                    return get(i, type);
+                }
+            }
+            throw new IllegalArgumentException("Column name '" + name + "' does not exist");
+        }
+    }
+
+    private static final class FakeRowMetadata implements RowMetadata {
+
+        private final List<ColumnMetadata> columns;
+
+        FakeRowMetadata(List<ColumnMetadata> columns) {
+            this.columns = columns;
+        }
+
+        @Override
+        public ColumnMetadata getColumnMetadata(int index) {
+            return columns.get(index);
+        }
+
+        @Override
+        public ColumnMetadata getColumnMetadata(String name) {
+            return columns.stream().filter(column -> column.getName().equalsIgnoreCase(name)).findFirst().orElseThrow();
+        }
+
+        @Override
+        public Iterable<? extends ColumnMetadata> getColumnMetadatas() {
+            return columns;
+        }
+
+        @Override
+        public Collection<String> getColumnNames() {
+            return columns.stream().map(ColumnMetadata::getName).collect(Collectors.toList());
+        }
+    }
+
+    private static final class FakeColumnMetadata implements ColumnMetadata {
+
+        private final String name;
+        private final Class<?> javaType;
+
+        FakeColumnMetadata(String name, Class<?> javaType) {
+            this.name = name;
+            this.javaType = javaType;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Class<?> getJavaType() {
+            return javaType;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.mycompany.myapp.domain.Employee;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.relational.core.query.CriteriaDefinition;
+
+/**
+ * Test class for the {@link EntityFilter}.
+ */
+class EntityFilterTest {
+
+    private static final Set<String> INDEXED = Set.of("lastName", "salary", "hireDate");
+
+    @Test
+    void parametersWithoutOperatorAreNotFilters() {
+        EntityFilter filter = EntityFilter.parse(Map.of("page", List.of("0"), "sort", List.of("id,asc")), Employee.class);
+
+        assertThat(filter).isSameAs(EntityFilter.NONE);
+        assertThat(filter.toCriteria().isEmpty()).isTrue();
+    }
+
+    @Test
+    void valuesAreConvertedToThePropertyType() {
+        EntityFilter filter = EntityFilter.parse(
+            Map.of("salary.greaterThan", List.of("5000"), "hireDate.in", List.of("2021-01-04T00:00:00Z, 2021-02-01T00:00:00Z")),
+            Employee.class
+        );
+
+        assertThat(filter.getConditions())
+            .extracting(EntityFilter.Condition::getValue)
+            .containsExactlyInAnyOrder(5000L, List.of(Instant.parse("2021-01-04T00:00:00Z"), Instant.parse("2021-02-01T00:00:00Z")));
+    }
+
+    @Test
+    void startsWithEscapesTheLikeWildcards() {
+        CriteriaDefinition criteria = EntityFilter
+            .parse(Map.of("lastName.startsWith", List.of("Mc_%")), Employee.class)
+            .toCriteria()
+            .getGroup()
+            .get(0);
+
+        assertThat(criteria.getComparator()).isEqualTo(CriteriaDefinition.Comparator.LIKE);
+        assertThat(criteria.getValue()).isEqualTo("Mc\\_\\%%");
+        assertThat(criteria.isIgnoreCase()).isFalse();
+    }
+
+    @Test
+    void substringFiltersAreNeverIndexed() {
+        EntityFilter filter = EntityFilter.parse(
+            Map.of("lastName.contains", List.of("son"), "salary.lessThan", List.of("9000")),
+            Employee.class
+        );
+
+        assertThat(filter.getUnindexed(INDEXED)).extracting(EntityFilter.Condition::getProperty).containsExactly("lastName");
+    }
+
+    @Test
+    void filtersOnPropertiesWithoutIndexAreUnindexed() {
+        EntityFilter filter = EntityFilter.parse(Map.of("email.equals", List.of("a@b.c")), Employee.class);
+
+        assertThat(filter.getUnindexed(INDEXED)).hasSize(1);
+    }
+
+    @Test
+    void unknownPropertiesAreRejected() {
+        assertThatThrownBy(() -> EntityFilter.parse(Map.of("manager.equals", List.of("1")), Employee.class))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("manager");
+    }
+
+    @Test
+    void operatorsWhichDontApplyToThePropertyAreRejected() {
+        assertThatThrownBy(() -> EntityFilter.parse(Map.of("salary.startsWith", List.of("5")), Employee.class))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> EntityFilter.parse(Map.of("lastName.greaterThan", List.of("M")), Employee.class))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void invalidValuesAreRejected() {
+        assertThatThrownBy(() -> EntityFilter.parse(Map.of("hireDate.lessThan", List.of("yesterday")), Employee.class))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("yesterday");
+    }
+}
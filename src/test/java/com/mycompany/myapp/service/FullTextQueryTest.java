@@ -0,0 +1,50 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link FullTextQuery}.
+ */
+class FullTextQueryTest {
+
+    @Test
+    void termsAreLowerCasedAndStrippedOfTheQueryOperators() {
+        FullTextQuery query = FullTextQuery.parse("  Ada   o'Brien (ada) !john.doe@example.com ");
+
+        assertThat(query.getTerms()).containsExactly("ada", "obrien", "john.doe@example.com");
+    }
+
+    @Test
+    void everyTermIsARequiredPrefix() {
+        assertThat(FullTextQuery.parse("love ada").toTsQuery()).isEqualTo("'love':* & 'ada':*");
+    }
+
+    @Test
+    void likePatternsEscapeTheWildcards() {
+        assertThat(FullTextQuery.toLikePattern("first_name")).isEqualTo("%first\\_name%");
+    }
+
+    @Test
+    void queriesWithoutTermsAreRejected() {
+        assertThatThrownBy(() -> FullTextQuery.parse(" & | ")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> FullTextQuery.parse(null)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void queriesWithTooManyTermsAreRejected() {
+        assertThatThrownBy(() -> FullTextQuery.parse("a b c d e f g h i"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining(String.valueOf(FullTextQuery.MAX_TERMS));
+    }
+
+    @Test
+    void cursorsRoundTrip() {
+        SearchCursor cursor = SearchCursor.after(new SearchHit<>(42L, 0.0607927f, null));
+
+        assertThat(SearchCursor.decode(cursor.encode())).isEqualTo(cursor);
+        assertThatThrownBy(() -> SearchCursor.decode("bm90LWEtY3Vyc29y")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
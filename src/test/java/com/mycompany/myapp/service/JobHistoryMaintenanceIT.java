@@ -0,0 +1,82 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.JobHistory;
+import com.mycompany.myapp.repository.JobHistoryRepository;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import reactor.core.publisher.Flux;
+
+/**
+ * Integration tests for the {@link JobHistoryMaintenance}, and the date range queries of the {@link JobHistoryRepository}, on a table
+ * which isn't partitioned.
+ */
+@IntegrationTest
+class JobHistoryMaintenanceIT {
+
+    @Autowired
+    private JobHistoryRepository jobHistoryRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    private List<JobHistory> jobHistories;
+
+    @BeforeEach
+    void initTest() {
+        em.deleteAll(JobHistory.class).block();
+        jobHistories =
+            em
+                .insertAll(
+                    Flux
+                        .just("2015-01-15T10:00:00Z", "2015-02-01T00:00:00Z", "2015-02-28T23:59:59Z", "2015-03-01T00:00:00Z")
+                        .map(startDate -> new JobHistory().startDate(Instant.parse(startDate)))
+                )
+                .collectList()
+                .block();
+    }
+
+    @AfterEach
+    void cleanup() {
+        em.deleteAll(JobHistory.class).block();
+    }
+
+    @Test
+    void dateRangesIncludeTheirStartOnly() {
+        List<JobHistory> february = jobHistoryRepository
+            .findAllByStartDateBetween(Instant.parse("2015-02-01T00:00:00Z"), Instant.parse("2015-03-01T00:00:00Z"), null)
+            .collectList()
+            .block();
+
+        assertThat(february)
+            .extracting(JobHistory::getId)
+            .containsExactlyInAnyOrder(jobHistories.get(1).getId(), jobHistories.get(2).getId());
+    }
+
+    @Test
+    void maintenanceDeletesTheJobHistoriesOlderThanTheRetention() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getJobHistory().setRetentionMonths(1);
+
+        new JobHistoryMaintenance(jobHistoryRepository, applicationProperties).maintain(YearMonth.of(2015, 3)).block();
+
+        assertThat(jobHistoryRepository.findAll().collectList().block())
+            .extracting(JobHistory::getId)
+            .containsExactlyInAnyOrder(jobHistories.get(1).getId(), jobHistories.get(2).getId(), jobHistories.get(3).getId());
+    }
+
+    @Test
+    void maintenanceKeepsEverythingWithoutRetention() {
+        new JobHistoryMaintenance(jobHistoryRepository, new ApplicationProperties()).maintain(YearMonth.of(2015, 3)).block();
+
+        assertThat(jobHistoryRepository.findAll().collectList().block()).hasSameSizeAs(jobHistories);
+    }
+}
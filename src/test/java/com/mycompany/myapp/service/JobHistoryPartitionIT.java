@@ -0,0 +1,156 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.JobHistory;
+import com.mycompany.myapp.repository.JobHistoryRepository;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import reactor.core.publisher.Flux;
+
+/**
+ * Integration tests for the {@link JobHistoryMaintenance}, and the partitions of the {@link JobHistoryRepository}, on a table which
+ * Liquibase partitioned by month of start date. Only PostgreSQL partitions the table, so they run with the {@code testcontainers}
+ * profile, on a database of their own: the other integration tests share one whose table isn't partitioned.
+ */
+@IntegrationTest
+@EnabledIf("com.mycompany.myapp.ReactiveSqlTestContainerExtension#useTestcontainers")
+class JobHistoryPartitionIT {
+
+    private static final PostgreSQLContainer<?> container = new PostgreSQLContainer<>("postgres:13.2").withDatabaseName("jhipster");
+
+    // months far from the partitions which Liquibase and the maintenance create around the current month
+    private static final YearMonth PAST_MONTH = YearMonth.of(2015, 1);
+    private static final YearMonth FUTURE_MONTH = YearMonth.of(2099, 5);
+
+    @Autowired
+    private JobHistoryRepository jobHistoryRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private DatabaseClient db;
+
+    @DynamicPropertySource
+    static void partitionedDatabase(DynamicPropertyRegistry registry) {
+        container.start();
+        registry.add("spring.r2dbc.url", () -> container.getJdbcUrl().replace("jdbc", "r2dbc"));
+        registry.add("spring.r2dbc.username", container::getUsername);
+        registry.add("spring.r2dbc.password", container::getPassword);
+        registry.add("spring.liquibase.url", container::getJdbcUrl);
+        registry.add("spring.liquibase.user", container::getUsername);
+        registry.add("spring.liquibase.password", container::getPassword);
+        registry.add("application.job-history.partitioned", () -> "true");
+    }
+
+    @BeforeEach
+    void initTest() {
+        cleanup();
+    }
+
+    @AfterEach
+    void cleanup() {
+        em.deleteAll(JobHistory.class).block();
+        // the partitions of the tests, attached or detached
+        Flux
+            .range(0, 6)
+            .concatMap(i -> db.sql("DROP TABLE IF EXISTS job_history_p" + PAST_MONTH.plusMonths(i).toString().replace('-', '_')).then())
+            .then(db.sql("DROP TABLE IF EXISTS job_history_p" + FUTURE_MONTH.toString().replace('-', '_')).then())
+            .block();
+    }
+
+    @Test
+    void liquibasePartitionsTheTableAroundTheCurrentMonth() {
+        YearMonth currentMonth = YearMonth.now(ZoneOffset.UTC);
+
+        assertThat(jobHistoryRepository.isPartitioned().block()).isTrue();
+        assertThat(jobHistoryRepository.findPartitions().collectList().block())
+            .contains(currentMonth, currentMonth.plusMonths(1), currentMonth.plusMonths(2), currentMonth.plusMonths(3));
+    }
+
+    @Test
+    void createPartitionMovesTheRowsOutOfTheDefaultPartition() {
+        // The job history has no partition of its month yet
+        JobHistory jobHistory = em.insert(new JobHistory().startDate(Instant.parse("2099-05-10T10:00:00Z"))).block();
+        assertThat(countRows("job_history_default")).isEqualTo(1L);
+
+        jobHistoryRepository.createPartition(FUTURE_MONTH).block();
+        // Creating it again changes nothing
+        jobHistoryRepository.createPartition(FUTURE_MONTH).block();
+
+        assertThat(jobHistoryRepository.findPartitions().collectList().block()).contains(FUTURE_MONTH);
+        assertThat(countRows("job_history_default")).isZero();
+        assertThat(countRows("job_history_p2099_05")).isEqualTo(1L);
+        assertThat(
+            jobHistoryRepository
+                .findAllByStartDateBetween(Instant.parse("2099-05-01T00:00:00Z"), Instant.parse("2099-06-01T00:00:00Z"), null)
+                .collectList()
+                .block()
+        )
+            .extracting(JobHistory::getId)
+            .containsExactly(jobHistory.getId());
+    }
+
+    @Test
+    void maintenanceCreatesThePartitionsAndDetachesTheExpiredOnes() {
+        List<JobHistory> jobHistories = insertJobHistories();
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getJobHistory().setRetentionMonths(1);
+
+        new JobHistoryMaintenance(jobHistoryRepository, applicationProperties).maintain(PAST_MONTH.plusMonths(2)).block();
+
+        List<YearMonth> partitions = jobHistoryRepository.findPartitions().collectList().block();
+        assertThat(partitions).doesNotContain(PAST_MONTH);
+        assertThat(partitions).contains(PAST_MONTH.plusMonths(1), PAST_MONTH.plusMonths(2), PAST_MONTH.plusMonths(5));
+        // The detached partition keeps its job histories, out of the table
+        assertThat(countRows("job_history_p2015_01")).isEqualTo(1L);
+        assertThat(jobHistoryRepository.findAll().collectList().block())
+            .extracting(JobHistory::getId)
+            .containsExactly(jobHistories.get(1).getId());
+    }
+
+    @Test
+    void maintenanceDropsTheExpiredPartitions() {
+        insertJobHistories();
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getJobHistory().setRetentionMonths(1);
+        applicationProperties.getJobHistory().setDropExpiredPartitions(true);
+
+        new JobHistoryMaintenance(jobHistoryRepository, applicationProperties).maintain(PAST_MONTH.plusMonths(2)).block();
+
+        assertThat(jobHistoryRepository.findPartitions().collectList().block()).doesNotContain(PAST_MONTH);
+        assertThat(db.sql("SELECT to_regclass('job_history_p2015_01') IS NULL").map(row -> row.get(0, Boolean.class)).one().block())
+            .isTrue();
+    }
+
+    private List<JobHistory> insertJobHistories() {
+        jobHistoryRepository.createPartition(PAST_MONTH).block();
+        jobHistoryRepository.createPartition(PAST_MONTH.plusMonths(1)).block();
+        return em
+            .insertAll(
+                Flux
+                    .just("2015-01-15T10:00:00Z", "2015-02-15T10:00:00Z")
+                    .map(startDate -> new JobHistory().startDate(Instant.parse(startDate)))
+            )
+            .collectList()
+            .block();
+    }
+
+    private Long countRows(String table) {
+        return db.sql("SELECT count(*) FROM " + table).map(row -> row.get(0, Long.class)).one().block();
+    }
+}
@@ -0,0 +1,88 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.domain.Location;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+/**
+ * Test class for the {@link PrefixIndex}.
+ */
+class PrefixIndexTest {
+
+    private PrefixIndex<Location> index;
+
+    @BeforeEach
+    void init() {
+        index =
+            new PrefixIndex<>(Location::getId, Location::getCity, Map.of("city", Location::getCity, "postalCode", Location::getPostalCode));
+    }
+
+    private static Location location(long id, String city, String postalCode) {
+        Location location = new Location().city(city).postalCode(postalCode);
+        location.setId(id);
+        return location;
+    }
+
+    @Test
+    void everyWordStartsATerm() {
+        index.put(location(1L, "San  Francisco", "94105"));
+        index.put(location(2L, "Santa Fe", "87501"));
+
+        assertThat(index.find("san", 10)).extracting(Suggestion::getId).containsExactly(1L, 2L);
+        assertThat(index.find("FRAN", 10)).containsExactly(new Suggestion(1L, "city", "San  Francisco", "San  Francisco"));
+        assertThat(index.find("san f", 10)).extracting(Suggestion::getId).containsExactly(1L);
+        assertThat(index.find("941", 10)).extracting(Suggestion::getProperty).containsExactly("postalCode");
+        assertThat(index.find("ncisco", 10)).isEmpty();
+    }
+
+    @Test
+    void anEntityIsSuggestedOnce() {
+        index.put(location(1L, "Paris", "Paris 01"));
+        index.put(location(2L, "Parma", "43121"));
+
+        assertThat(index.find("par", 10)).extracting(Suggestion::getId).containsExactly(1L, 2L);
+        assertThat(index.find("par", 1)).extracting(Suggestion::getId).containsExactly(1L);
+        assertThat(index.find(" ", 10)).isEmpty();
+    }
+
+    @Test
+    void writesReplaceThePreviousValues() {
+        index.put(location(1L, "Lyon", "69001"));
+        index.put(location(1L, "Lille", null));
+
+        assertThat(index.find("lyon", 10)).isEmpty();
+        assertThat(index.find("69", 10)).isEmpty();
+        assertThat(index.find("lil", 10)).extracting(Suggestion::getId).containsExactly(1L);
+
+        index.remove(1L);
+
+        assertThat(index.find("lil", 10)).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void loadsRemoveTheEntitiesWhichAreGone() {
+        index.put(location(1L, "Oslo", "0150"));
+        index.put(location(2L, "Osaka", "530-0001"));
+
+        assertThat(index.load(Flux.just(location(2L, "Osaka", "530-0001"), location(3L, "Ostrava", "702 00"))).block()).isEqualTo(2L);
+
+        assertThat(index.find("os", 10)).extracting(Suggestion::getId).containsExactly(2L, 3L);
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void clearRemovesEverything() {
+        index.put(location(1L, "Oslo", "0150"));
+        index.put(location(2L, "Osaka", "530-0001"));
+
+        index.clear();
+
+        assertThat(index.find("os", 10)).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+}
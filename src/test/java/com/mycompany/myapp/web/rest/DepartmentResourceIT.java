@@ -1,12 +1,20 @@
 package com.mycompany.myapp.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.is;
 
 import com.mycompany.myapp.IntegrationTest;
 import com.mycompany.myapp.domain.Department;
+import com.mycompany.myapp.domain.Employee;
+import com.mycompany.myapp.domain.Job;
+import com.mycompany.myapp.domain.Task;
 import com.mycompany.myapp.repository.DepartmentRepository;
+import com.mycompany.myapp.repository.EmployeeRepository;
+import com.mycompany.myapp.repository.JobRepository;
+import com.mycompany.myapp.repository.TaskRepository;
 import com.mycompany.myapp.service.EntityManager;
 import java.time.Duration;
 import java.util.List;
@@ -44,6 +52,15 @@ class DepartmentResourceIT {
     @Autowired
     private DepartmentRepository departmentRepository;
 
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -204,6 +221,71 @@ class DepartmentResourceIT {
             .value(hasItem(DEFAULT_DEPARTMENT_NAME));
     }
 
+    @Test
+    void getDepartmentsIncludingEmployeesJobsAndTasks() {
+        // Initialize the database
+        departmentRepository.save(department).block();
+        Department otherDepartment = departmentRepository.save(createEntity(em)).block();
+        List<Task> tasks = taskRepository
+            .saveAll(List.of(TaskResourceIT.createEntity(em), TaskResourceIT.createEntity(em)))
+            .collectList()
+            .block();
+        Employee employee = employeeRepository.save(EmployeeResourceIT.createEntity(em).department(department)).block();
+        Employee idleEmployee = employeeRepository.save(EmployeeResourceIT.createEntity(em).department(department)).block();
+        Job job = jobRepository.save(JobResourceIT.createEntity(em).employee(employee).addTask(tasks.get(0)).addTask(tasks.get(1))).block();
+
+        try {
+            webTestClient
+                .get()
+                .uri(ENTITY_API_URL_ID + "?include=employees.jobs.tasks", department.getId())
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .jsonPath("$.employees[*].id")
+                .value(containsInAnyOrder(employee.getId().intValue(), idleEmployee.getId().intValue()))
+                .jsonPath("$.employees[?(@.id == " + employee.getId() + ")].jobs[*].id")
+                .value(contains(job.getId().intValue()))
+                .jsonPath("$.employees[?(@.id == " + employee.getId() + ")].jobs[*].tasks[*].id")
+                .value(containsInAnyOrder(tasks.get(0).getId().intValue(), tasks.get(1).getId().intValue()))
+                .jsonPath("$.employees[?(@.id == " + idleEmployee.getId() + ")].jobs[*]")
+                .isEmpty();
+
+            webTestClient
+                .get()
+                .uri(ENTITY_API_URL + "?include=employees")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .jsonPath("$[?(@.id == " + department.getId() + ")].employees[*].id")
+                .value(containsInAnyOrder(employee.getId().intValue(), idleEmployee.getId().intValue()))
+                .jsonPath("$[?(@.id == " + department.getId() + ")].employees[*].jobs[*]")
+                .isEmpty()
+                .jsonPath("$[?(@.id == " + otherDepartment.getId() + ")].employees[*]")
+                .isEmpty();
+        } finally {
+            JobResourceIT.deleteEntities(em);
+            EmployeeResourceIT.deleteEntities(em);
+            TaskResourceIT.deleteEntities(em);
+        }
+    }
+
+    @Test
+    void getDepartmentsWithUnsupportedInclude() {
+        departmentRepository.save(department).block();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?include=employees.manager")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
     @Test
     void getDepartment() {
         // Initialize the database
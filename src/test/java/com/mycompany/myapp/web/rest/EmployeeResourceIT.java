@@ -1,19 +1,35 @@
 package com.mycompany.myapp.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasItems;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.data.relational.core.query.Criteria.where;
 
 import com.mycompany.myapp.IntegrationTest;
 import com.mycompany.myapp.domain.Employee;
+import com.mycompany.myapp.domain.Job;
+import com.mycompany.myapp.domain.JobHistory;
 import com.mycompany.myapp.repository.EmployeeRepository;
+import com.mycompany.myapp.repository.JobHistoryRepository;
+import com.mycompany.myapp.repository.JobRepository;
 import com.mycompany.myapp.service.EntityManager;
+import com.mycompany.myapp.web.rest.util.KeysetPaginationUtil;
+import com.mycompany.myapp.web.rest.util.MultiGetUtil;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
+import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
+import java.util.Base64;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -22,9 +38,15 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
 
 /**
  * Integration tests for the {@link EmployeeResource} REST controller.
@@ -64,9 +86,18 @@ class EmployeeResourceIT {
     @Autowired
     private EmployeeRepository employeeRepository;
 
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private JobHistoryRepository jobHistoryRepository;
+
     @Autowired
     private EntityManager em;
 
+    @Autowired
+    private ReactiveTransactionManager transactionManager;
+
     @Autowired
     private WebTestClient webTestClient;
 
@@ -209,6 +240,239 @@ class EmployeeResourceIT {
             .value(hasItem(DEFAULT_COMMISSION_PCT.intValue()));
     }
 
+    @Test
+    void saveAllEmployeesInBatches() {
+        int databaseSizeBeforeCreate = employeeRepository.findAll().collectList().block().size();
+        employeeRepository.save(employee).block();
+        employee.setLastName(UPDATED_LAST_NAME);
+
+        // New entities are inserted in one batch, existing ones are updated
+        List<Employee> saved = employeeRepository
+            .saveAll(List.of(createEntity(em).lastName("A"), employee, createEntity(em).lastName(null), createEntity(em).lastName("C")))
+            .collectList()
+            .block();
+
+        assertThat(saved).extracting(Employee::getLastName).containsExactly("A", UPDATED_LAST_NAME, null, "C");
+        assertThat(saved).extracting(Employee::getId).doesNotContainNull().doesNotHaveDuplicates();
+        List<Employee> employeeList = employeeRepository.findAll().collectList().block();
+        assertThat(employeeList).hasSize(databaseSizeBeforeCreate + 4);
+        for (Employee expected : saved) {
+            Employee actual = employeeRepository.findById(expected.getId()).block();
+            assertThat(actual.getLastName()).isEqualTo(expected.getLastName());
+            assertThat(actual.getHireDate()).isEqualTo(expected.getHireDate());
+        }
+    }
+
+    @Test
+    void importEmployeesFromCsv() {
+        int databaseSizeBeforeCreate = employeeRepository.findAll().collectList().block().size();
+        String csv =
+            "id;first_name;last_name;email;phone_number;hire_date;salary;commission_pct\n" +
+            "1;Elena;Rangel;elena@example.com;555;2021-06-10T15:41:31;71697;45464\n" +
+            "2;\"O;\"\"Brien\"\"\r\nJr\";Ordóñez;;;2021-06-10T19:38:23;;\r\n" +
+            "3;Bad;Salary;;;2021-06-10T19:38:23;lots;\n";
+
+        webTestClient
+            .post()
+            .uri(ENTITY_API_URL + "/import")
+            .contentType(MediaType.valueOf("text/csv"))
+            .accept(MediaType.APPLICATION_NDJSON)
+            .bodyValue(csv)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.imported")
+            .isEqualTo(2)
+            .jsonPath("$.failed")
+            .isEqualTo(false)
+            // a quoted value can span lines
+            .jsonPath("$.errors[0].line")
+            .isEqualTo(5);
+
+        List<Employee> employeeList = employeeRepository.findAll().collectList().block();
+        assertThat(employeeList).hasSize(databaseSizeBeforeCreate + 2);
+        assertThat(employeeList).extracting(Employee::getFirstName).contains("Elena", "O;\"Brien\"\r\nJr");
+        Employee elena = employeeList.stream().filter(e -> "Elena".equals(e.getFirstName())).findFirst().get();
+        assertThat(elena.getHireDate()).isEqualTo(Instant.parse("2021-06-10T15:41:31Z"));
+        assertThat(elena.getSalary()).isEqualTo(71697L);
+    }
+
+    @Test
+    void importEmployeesWithUnknownColumn() {
+        webTestClient
+            .post()
+            .uri(ENTITY_API_URL + "/import")
+            .contentType(MediaType.valueOf("text/csv"))
+            .accept(MediaType.APPLICATION_NDJSON)
+            .bodyValue("first_name;nickname\nElena;Lena\n")
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.failed")
+            .isEqualTo(true)
+            .jsonPath("$.imported")
+            .isEqualTo(0);
+    }
+
+    @Test
+    void exportEmployeesAsCsv() {
+        // Initialize the database
+        employeeRepository.save(employee.firstName("O;Brien")).block();
+
+        String csv = webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/export")
+            .accept(MediaType.valueOf("text/csv"))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentTypeCompatibleWith(MediaType.valueOf("text/csv"))
+            .expectHeader()
+            .valueEquals(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"employees.csv\"")
+            .expectBody(String.class)
+            .returnResult()
+            .getResponseBody();
+
+        String[] lines = csv.split("\n");
+        assertThat(lines[0])
+            .isEqualTo("id;first_name;last_name;email;phone_number;hire_date;salary;commission_pct;manager_id;department_id");
+        assertThat(lines)
+            .contains(
+                employee.getId() +
+                ";\"O;Brien\";" +
+                DEFAULT_LAST_NAME +
+                ";" +
+                DEFAULT_EMAIL +
+                ";" +
+                DEFAULT_PHONE_NUMBER +
+                ";" +
+                DEFAULT_HIRE_DATE.atOffset(ZoneOffset.UTC).toLocalDateTime() +
+                ";" +
+                DEFAULT_SALARY +
+                ";" +
+                DEFAULT_COMMISSION_PCT +
+                ";;"
+            );
+    }
+
+    @Test
+    void exportEmployeesGzipped() throws IOException {
+        // Initialize the database
+        employeeRepository.save(employee).block();
+
+        byte[] gzipped = webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/export")
+            .accept(MediaType.APPLICATION_NDJSON)
+            .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .valueEquals(HttpHeaders.CONTENT_ENCODING, "gzip")
+            .expectBody(byte[].class)
+            .returnResult()
+            .getResponseBody();
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            String ndjson = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertThat(ndjson).endsWith("\n").contains("\"id\":" + employee.getId() + ",", "\"lastName\":\"" + DEFAULT_LAST_NAME + "\"");
+        }
+    }
+
+    @Test
+    void getAllEmployeesWithKeysetPagination() {
+        // Initialize the database
+        employeeRepository.save(createEntity(em).lastName("C")).block();
+        employeeRepository.save(createEntity(em).lastName("A")).block();
+        employeeRepository.save(createEntity(em).lastName(null)).block();
+        employeeRepository.save(createEntity(em).lastName("B")).block();
+
+        // Get the first page
+        String next = webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?cursor=&size=2&sort=lastName,asc")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].lastName")
+            .value(contains("A", "B"))
+            .returnResult()
+            .getResponseHeaders()
+            .getFirst(KeysetPaginationUtil.HEADER_NEXT_CURSOR);
+        assertThat(next).isNotBlank();
+
+        // Get the last page, rows with a null sort value come last
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?cursor={cursor}&size=2&sort=lastName,asc", next)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .doesNotExist(KeysetPaginationUtil.HEADER_NEXT_CURSOR)
+            .expectBody()
+            .jsonPath("$.length()")
+            .isEqualTo(2)
+            .jsonPath("$.[0].lastName")
+            .isEqualTo("C");
+
+        // A cursor can't be used with another sort
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?cursor={cursor}&size=2&sort=firstName,asc", next)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
+    @Test
+    void getAllEmployeesWithTamperedCursor() {
+        // A cursor on a property the employees don't have
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?cursor={cursor}&size=2", encodeCursor("password|ASC|1|vsecret"))
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isBadRequest()
+            .expectBody()
+            .jsonPath("$.message")
+            .isEqualTo("error.cursorinvalid");
+
+        // A cursor whose value isn't one of the sort property
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?cursor={cursor}&size=2&sort=hireDate,asc", encodeCursor("hireDate|ASC|1|vyesterday"))
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isBadRequest()
+            .expectBody()
+            .jsonPath("$.message")
+            .isEqualTo("error.cursorinvalid");
+
+        // A sort on a relationship
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?cursor=&size=2&sort=manager,asc")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
+    private static String encodeCursor(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
     @Test
     void getEmployee() {
         // Initialize the database
@@ -243,6 +507,343 @@ class EmployeeResourceIT {
             .value(is(DEFAULT_COMMISSION_PCT.intValue()));
     }
 
+    @Test
+    void getAllEmployeesWithSparseFieldset() {
+        // Initialize the database
+        Employee manager = employeeRepository.save(createEntity(em)).block();
+        employeeRepository.save(employee.manager(manager)).block();
+
+        // Only the id and the requested properties are rendered, and the manager isn't joined
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?sort=id,asc&fields=firstName,lastName")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[1].id")
+            .isEqualTo(employee.getId().intValue())
+            .jsonPath("$.[1].firstName")
+            .isEqualTo(DEFAULT_FIRST_NAME)
+            .jsonPath("$.[1].lastName")
+            .isEqualTo(DEFAULT_LAST_NAME)
+            .jsonPath("$.[1].email")
+            .doesNotExist()
+            .jsonPath("$.[1].managerId")
+            .doesNotExist()
+            .jsonPath("$.[1].manager")
+            .doesNotExist();
+
+        // The included manager is rendered whole
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?sort=id,asc&fields=firstName&include=manager")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[1].firstName")
+            .isEqualTo(DEFAULT_FIRST_NAME)
+            .jsonPath("$.[1].email")
+            .doesNotExist()
+            .jsonPath("$.[1].manager.id")
+            .isEqualTo(manager.getId().intValue())
+            .jsonPath("$.[1].manager.email")
+            .isEqualTo(DEFAULT_EMAIL)
+            .jsonPath("$.[1].department")
+            .doesNotExist();
+    }
+
+    @Test
+    void getAllEmployeesWithSparseFieldsetAndKeysetPagination() {
+        // Initialize the database
+        employeeRepository.save(createEntity(em).lastName("B")).block();
+        employeeRepository.save(createEntity(em).lastName("A")).block();
+
+        // The sort property is read for the cursor, but not rendered
+        String next = webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?cursor=&size=1&sort=lastName,asc&fields=firstName")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[0].firstName")
+            .isEqualTo(DEFAULT_FIRST_NAME)
+            .jsonPath("$.[0].lastName")
+            .doesNotExist()
+            .returnResult()
+            .getResponseHeaders()
+            .getFirst(KeysetPaginationUtil.HEADER_NEXT_CURSOR);
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?cursor={cursor}&size=1&sort=lastName,asc", next)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[0].lastName")
+            .isEqualTo("B");
+    }
+
+    @Test
+    void getEmployeeWithSparseFieldset() {
+        // Initialize the database
+        employeeRepository.save(employee).block();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL_ID + "?fields=email", employee.getId())
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.id")
+            .isEqualTo(employee.getId().intValue())
+            .jsonPath("$.email")
+            .isEqualTo(DEFAULT_EMAIL)
+            .jsonPath("$.firstName")
+            .doesNotExist()
+            .jsonPath("$.jobs")
+            .doesNotExist();
+    }
+
+    @Test
+    void getEmployeesWithUnknownField() {
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?fields=firstName,password")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
+    @Test
+    void getAllEmployeesMatchingTheFilters() {
+        // Initialize the database
+        employeeRepository.save(createEntity(em).lastName("McAdams").salary(UPDATED_SALARY)).block();
+        employeeRepository.save(createEntity(em).lastName("McBride").salary(DEFAULT_SALARY)).block();
+        employeeRepository.save(createEntity(em).lastName("Adams").salary(UPDATED_SALARY)).block();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?lastName.startsWith=Mc&salary.greaterThan={salary}", DEFAULT_SALARY)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.length()")
+            .isEqualTo(1)
+            .jsonPath("$.[0].lastName")
+            .isEqualTo("McAdams");
+
+        // The filters combine with the keyset pagination
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?cursor=&size=5&sort=lastName,asc&salary.equals={salary}", UPDATED_SALARY)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].lastName")
+            .value(hasItems("Adams", "McAdams"))
+            .jsonPath("$.[*].lastName")
+            .value(not(hasItem("McBride")));
+    }
+
+    @Test
+    void getEmployeesWithUnindexedFilter() {
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?email.contains=A")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
+    @Test
+    void searchEmployees() {
+        // Initialize the database
+        employeeRepository.save(createEntity(em).firstName("Ada").lastName("Lovelace")).block();
+        employeeRepository.save(createEntity(em).firstName("Grace").lastName("Hopper").email("grace.hopper@example.com")).block();
+        employeeRepository.save(createEntity(em).firstName("Alan").lastName("Turing")).block();
+
+        // Each term matches the start of a word, in any of the searched properties
+        webTestClient
+            .get()
+            .uri("/api/_search/employees?q={q}", "LOVE ada")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].lastName")
+            .value(contains("Lovelace"));
+
+        webTestClient
+            .get()
+            .uri("/api/_search/employees?q={q}", "grace.hopper@example.com")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].lastName")
+            .value(contains("Hopper"));
+
+        // A text without any term is rejected
+        webTestClient
+            .get()
+            .uri("/api/_search/employees?q={q}", " () ")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
+    @Test
+    void suggestEmployees() {
+        // Initialize the database, through the repository which keeps the typeahead index current
+        Employee employee = employeeRepository.save(createEntity(em).firstName("Zephyrine").lastName("Quixote")).block();
+
+        webTestClient
+            .get()
+            .uri("/api/_typeahead/employees?q={q}", "ZEPH")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(contains(employee.getId().intValue()))
+            .jsonPath("$.[*].label")
+            .value(contains("Zephyrine Quixote"));
+
+        // Deleting the employee removes its suggestions
+        employeeRepository.delete(employee).block();
+
+        webTestClient
+            .get()
+            .uri("/api/_typeahead/employees?q={q}", "quixo")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$")
+            .isEmpty();
+    }
+
+    @Test
+    void suggestEmployeesIgnoresTheRolledBackWrites() {
+        TransactionalOperator transactionalOperator = TransactionalOperator.create(transactionManager);
+
+        // The employee is saved, but the transaction rolls back
+        employeeRepository
+            .save(createEntity(em).firstName("Zephyrine").lastName("Quixote"))
+            .then(Mono.error(new IllegalStateException("rollback")))
+            .as(transactionalOperator::transactional)
+            .onErrorResume(IllegalStateException.class, e -> Mono.empty())
+            .block();
+
+        webTestClient
+            .get()
+            .uri("/api/_typeahead/employees?q={q}", "ZEPH")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$")
+            .isEmpty();
+    }
+
+    @Test
+    void searchEmployeesByPages() {
+        // Initialize the database
+        employeeRepository.save(createEntity(em).lastName("Searchable")).block();
+        employeeRepository.save(createEntity(em).lastName("Searchable")).block();
+        employeeRepository.save(createEntity(em).lastName("Searchable")).block();
+
+        // Get the first page
+        String next = webTestClient
+            .get()
+            .uri("/api/_search/employees?q=search&size=2")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.length()")
+            .isEqualTo(2)
+            .returnResult()
+            .getResponseHeaders()
+            .getFirst(KeysetPaginationUtil.HEADER_NEXT_CURSOR);
+        assertThat(next).isNotBlank();
+
+        // Get the last page
+        webTestClient
+            .get()
+            .uri("/api/_search/employees?q=search&size=2&cursor={cursor}", next)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .doesNotExist(KeysetPaginationUtil.HEADER_NEXT_CURSOR)
+            .expectBody()
+            .jsonPath("$.length()")
+            .isEqualTo(1);
+    }
+
+    @Test
+    void getEmployeesById() {
+        // Initialize the database
+        List<Employee> employees = employeeRepository
+            .saveAll(List.of(createEntity(em), createEntity(em), createEntity(em)))
+            .collectList()
+            .block();
+
+        // The employees come back once each, in the order of the ids, which span several chunks
+        webTestClient
+            .get()
+            .uri(
+                ENTITY_API_URL + "?ids={ids}&fields=firstName",
+                employees.get(2).getId() +
+                "," +
+                Long.MAX_VALUE +
+                "," +
+                employees.get(0).getId() +
+                "," +
+                employees.get(2).getId() +
+                "," +
+                employees.get(1).getId()
+            )
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .valueEquals(MultiGetUtil.HEADER_MISSING_IDS, String.valueOf(Long.MAX_VALUE))
+            .expectBody()
+            .jsonPath("$[*].id")
+            .value(contains(employees.get(2).getId().intValue(), employees.get(0).getId().intValue(), employees.get(1).getId().intValue()))
+            .jsonPath("$[0].firstName")
+            .isEqualTo(DEFAULT_FIRST_NAME)
+            .jsonPath("$[0].lastName")
+            .doesNotExist();
+    }
+
     @Test
     void getNonExistingEmployee() {
         // Get the employee
@@ -255,6 +856,27 @@ class EmployeeResourceIT {
             .isNotFound();
     }
 
+    @Test
+    void findAllByCriteriaBindsValues() {
+        // Initialize the database
+        employee.setLastName("O'Brien");
+        employeeRepository.save(employee).block();
+
+        List<Employee> employees = employeeRepository
+            .findAllBy(
+                PageRequest.of(0, 10, Sort.by("id")),
+                where("last_name").is("O'Brien").and("salary").in(DEFAULT_SALARY, UPDATED_SALARY)
+            )
+            .collectList()
+            .block();
+        assertThat(employees).extracting(Employee::getId).containsExactly(employee.getId());
+
+        assertThat(
+            employeeRepository.findAllBy(null, where("last_name").is("O'Brien").and("salary").is(UPDATED_SALARY)).collectList().block()
+        )
+            .isEmpty();
+    }
+
     @Test
     void putNewEmployee() throws Exception {
         // Initialize the database
@@ -355,6 +977,136 @@ class EmployeeResourceIT {
         assertThat(employeeList).hasSize(databaseSizeBeforeUpdate);
     }
 
+    @Test
+    void updateEmployeesMatchingTheFilter() {
+        Employee early = employeeRepository.save(createEntity(em).salary(1000L)).block();
+        Employee late = employeeRepository.save(createEntity(em).salary(1000L).hireDate(UPDATED_HIRE_DATE)).block();
+
+        webTestClient
+            .post()
+            .uri(ENTITY_API_URL + "/bulk-update?hireDateTo={hireDateTo}", "2000-01-01T00:00:00Z")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue("{\"salaryRaisePercent\": 5}")
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.affected")
+            .value(is(1));
+
+        assertThat(employeeRepository.findById(early.getId()).block().getSalary()).isEqualTo(1050L);
+        assertThat(employeeRepository.findById(late.getId()).block().getSalary()).isEqualTo(1000L);
+
+        // Without a filter, or without a change, nothing is updated
+        webTestClient
+            .post()
+            .uri(ENTITY_API_URL + "/bulk-update")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue("{\"salaryRaisePercent\": 5}")
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+        webTestClient
+            .post()
+            .uri(ENTITY_API_URL + "/bulk-update?hireDateTo={hireDateTo}", "2000-01-01T00:00:00Z")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue("{}")
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+        assertThat(employeeRepository.findById(early.getId()).block().getSalary()).isEqualTo(1050L);
+    }
+
+    @Test
+    void deleteEmployeesMatchingTheFilter() {
+        Employee manager = employeeRepository.save(createEntity(em)).block();
+        employeeRepository.save(createEntity(em).manager(manager)).block();
+        Employee other = employeeRepository.save(createEntity(em)).block();
+        Employee holder = employeeRepository.save(createEntity(em)).block();
+        Job job = jobRepository.save(JobResourceIT.createEntity(em).employee(holder)).block();
+
+        webTestClient
+            .delete()
+            .uri(ENTITY_API_URL + "?managerId={managerId}", manager.getId())
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.affected")
+            .value(is(1));
+
+        assertThat(employeeRepository.findAll().collectList().block())
+            .extracting(Employee::getId)
+            .containsExactlyInAnyOrder(manager.getId(), other.getId(), holder.getId());
+
+        // The jobs of the employees, through the job table
+        webTestClient
+            .post()
+            .uri(ENTITY_API_URL + "/bulk-update?jobId={jobId}", job.getId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue("{\"managerId\": " + manager.getId() + "}")
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.affected")
+            .value(is(1));
+
+        assertThat(employeeRepository.findById(holder.getId()).block().getManagerId()).isEqualTo(manager.getId());
+        assertThat(employeeRepository.findById(other.getId()).block().getManagerId()).isNull();
+
+        JobResourceIT.deleteEntities(em);
+    }
+
+    @Test
+    void deleteEmployeesWhichAreStillReferred() {
+        Employee manager = employeeRepository.save(createEntity(em).hireDate(UPDATED_HIRE_DATE)).block();
+        Employee report = employeeRepository.save(createEntity(em).manager(manager)).block();
+        Job job = jobRepository.save(JobResourceIT.createEntity(em).employee(manager)).block();
+        JobHistory jobHistory = jobHistoryRepository.save(JobHistoryResourceIT.createEntity(em).employee(manager)).block();
+
+        webTestClient
+            .delete()
+            .uri(ENTITY_API_URL + "?hireDateFrom={hireDateFrom}", UPDATED_HIRE_DATE)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.affected")
+            .value(is(1));
+
+        // The references to the deleted employee are cleared
+        assertThat(employeeRepository.findById(report.getId()).block().getManagerId()).isNull();
+        assertThat(jobRepository.findById(job.getId()).block().getEmployeeId()).isNull();
+        assertThat(jobHistoryRepository.findById(jobHistory.getId()).block().getEmployeeId()).isNull();
+
+        JobHistoryResourceIT.deleteEntities(em);
+        JobResourceIT.deleteEntities(em);
+    }
+
+    @Test
+    void deleteEmployeesHoldingAJob() {
+        Employee holder = employeeRepository.save(createEntity(em)).block();
+        Employee other = employeeRepository.save(createEntity(em)).block();
+        Job job = jobRepository.save(JobResourceIT.createEntity(em).employee(holder)).block();
+
+        // The job which selects the employee loses its reference to it in the same statement
+        webTestClient
+            .delete()
+            .uri(ENTITY_API_URL + "?jobId={jobId}", job.getId())
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.affected")
+            .value(is(1));
+
+        assertThat(employeeRepository.findAll().collectList().block()).extracting(Employee::getId).containsExactly(other.getId());
+        assertThat(jobRepository.findById(job.getId()).block().getEmployeeId()).isNull();
+
+        JobResourceIT.deleteEntities(em);
+    }
+
     @Test
     void partialUpdateEmployeeWithPatch() throws Exception {
         // Initialize the database
@@ -380,7 +1132,16 @@ class EmployeeResourceIT {
             .bodyValue(TestUtil.convertObjectToJsonBytes(partialUpdatedEmployee))
             .exchange()
             .expectStatus()
-            .isOk();
+            .isOk()
+            .expectBody()
+            .jsonPath("$.id")
+            .value(is(employee.getId().intValue()))
+            .jsonPath("$.firstName")
+            .value(is(UPDATED_FIRST_NAME))
+            .jsonPath("$.salary")
+            .value(is(UPDATED_SALARY.intValue()))
+            .jsonPath("$.commissionPct")
+            .value(is(DEFAULT_COMMISSION_PCT.intValue()));
 
         // Validate the Employee in the database
         List<Employee> employeeList = employeeRepository.findAll().collectList().block();
@@ -9,6 +9,7 @@ import com.mycompany.myapp.domain.JobHistory;
 import com.mycompany.myapp.domain.enumeration.Language;
 import com.mycompany.myapp.repository.JobHistoryRepository;
 import com.mycompany.myapp.service.EntityManager;
+import com.mycompany.myapp.web.rest.util.CountPaginationUtil;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
@@ -172,6 +173,138 @@ class JobHistoryResourceIT {
             .value(hasItem(DEFAULT_LANGUAGE.toString()));
     }
 
+    @Test
+    void getAllJobHistoriesWithCountStrategies() {
+        // Initialize the database
+        for (int i = 0; i < 3; i++) {
+            jobHistoryRepository.save(createEntity(em)).block();
+        }
+
+        // The total comes from the page query
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?page=0&size=2&sort=id,asc&count=window")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .valueEquals("X-Total-Count", "3")
+            .expectHeader()
+            .valueEquals(CountPaginationUtil.HEADER_COUNT_STRATEGY, "window")
+            .expectBody()
+            .jsonPath("$.length()")
+            .isEqualTo(2);
+
+        // The total is estimated
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?page=0&size=2&sort=id,asc&count=estimate")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .exists("X-Total-Count")
+            .expectHeader()
+            .valueEquals(CountPaginationUtil.HEADER_COUNT_STRATEGY, "estimate");
+
+        // No total, only whether a next page exists
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?page=0&size=2&sort=id,asc&count=none")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .doesNotExist("X-Total-Count")
+            .expectHeader()
+            .valueEquals(CountPaginationUtil.HEADER_HAS_NEXT_PAGE, "true")
+            .expectBody()
+            .jsonPath("$.length()")
+            .isEqualTo(2);
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?page=1&size=2&sort=id,asc&count=none")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .valueEquals(CountPaginationUtil.HEADER_HAS_NEXT_PAGE, "false")
+            .expectBody()
+            .jsonPath("$.length()")
+            .isEqualTo(1);
+
+        // Unknown strategy
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?count=approximately")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
+    @Test
+    void importJobHistoriesFromNdjson() {
+        int databaseSizeBeforeCreate = jobHistoryRepository.findAll().collectList().block().size();
+        String ndjson =
+            "{\"id\":" +
+            Long.MAX_VALUE +
+            ",\"startDate\":\"2021-06-10T18:51:35Z\",\"language\":\"ENGLISH\"}\n" +
+            "\n" +
+            "{\"startDate\":\"yesterday\"}\n" +
+            "{\"endDate\":\"2021-06-10T16:41:50Z\",\"language\":\"FRENCH\"}\n";
+
+        webTestClient
+            .post()
+            .uri(ENTITY_API_URL + "/import")
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .accept(MediaType.APPLICATION_NDJSON)
+            .bodyValue(ndjson)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.imported")
+            .isEqualTo(2)
+            .jsonPath("$.totalImported")
+            .isEqualTo(2)
+            .jsonPath("$.errors[0].line")
+            .isEqualTo(3);
+
+        List<JobHistory> jobHistoryList = jobHistoryRepository.findAll().collectList().block();
+        assertThat(jobHistoryList).hasSize(databaseSizeBeforeCreate + 2);
+        assertThat(jobHistoryList).extracting(JobHistory::getLanguage).contains(Language.ENGLISH, Language.FRENCH);
+        // the id of the line is ignored, and a generated id never reaches it
+        assertThat(jobHistoryList).extracting(JobHistory::getId).doesNotContain(Long.MAX_VALUE);
+    }
+
+    @Test
+    void exportJobHistoriesAsNdjson() {
+        // Initialize the database
+        jobHistoryRepository.save(jobHistory).block();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/export")
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+            .expectBody()
+            .jsonPath("$.id")
+            .isEqualTo(jobHistory.getId().intValue())
+            .jsonPath("$.startDate")
+            .isEqualTo(DEFAULT_START_DATE.toString())
+            .jsonPath("$.language")
+            .isEqualTo(DEFAULT_LANGUAGE.toString());
+    }
+
     @Test
     void getJobHistory() {
         // Initialize the database
@@ -198,6 +331,56 @@ class JobHistoryResourceIT {
             .value(is(DEFAULT_LANGUAGE.toString()));
     }
 
+    @Test
+    void getJobHistoriesWithSparseFieldset() {
+        // Initialize the database
+        jobHistoryRepository.save(jobHistory).block();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?sort=id,desc&fields=startDate,language")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[0].id")
+            .isEqualTo(jobHistory.getId().intValue())
+            .jsonPath("$.[0].startDate")
+            .isEqualTo(DEFAULT_START_DATE.toString())
+            .jsonPath("$.[0].language")
+            .isEqualTo(DEFAULT_LANGUAGE.toString())
+            .jsonPath("$.[0].endDate")
+            .doesNotExist()
+            .jsonPath("$.[0].job")
+            .doesNotExist()
+            .jsonPath("$.[0].employee")
+            .doesNotExist();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL_ID + "?fields=endDate&include=job", jobHistory.getId())
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.endDate")
+            .isEqualTo(DEFAULT_END_DATE.toString())
+            .jsonPath("$.startDate")
+            .doesNotExist()
+            .jsonPath("$.department")
+            .doesNotExist();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?include=manager")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
     @Test
     void getNonExistingJobHistory() {
         // Get the jobHistory
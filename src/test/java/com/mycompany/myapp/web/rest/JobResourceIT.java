@@ -1,14 +1,23 @@
 package com.mycompany.myapp.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.Mockito.*;
 
 import com.mycompany.myapp.IntegrationTest;
 import com.mycompany.myapp.domain.Job;
+import com.mycompany.myapp.domain.JobHistory;
+import com.mycompany.myapp.domain.Task;
+import com.mycompany.myapp.repository.JobHistoryRepository;
 import com.mycompany.myapp.repository.JobRepository;
+import com.mycompany.myapp.repository.TaskRepository;
 import com.mycompany.myapp.service.EntityManager;
+import com.mycompany.myapp.web.rest.util.MultiGetUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
@@ -25,6 +34,7 @@ import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWeb
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Flux;
@@ -66,6 +76,18 @@ class JobResourceIT {
     @Autowired
     private WebTestClient webTestClient;
 
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JobHistoryRepository jobHistoryRepository;
+
     private Job job;
 
     /**
@@ -198,6 +220,148 @@ class JobResourceIT {
         verify(jobRepositoryMock, times(1)).findAllWithEagerRelationships(any());
     }
 
+    @Test
+    void getAllJobsWithEagerRelationshipsLoadsTheTasksOfThePage() {
+        List<Task> tasks = taskRepository
+            .saveAll(List.of(TaskResourceIT.createEntity(em), TaskResourceIT.createEntity(em)))
+            .collectList()
+            .block();
+        Job first = jobRepository.save(createEntity(em).addTask(tasks.get(0)).addTask(tasks.get(1))).block();
+        Job second = jobRepository.save(createEntity(em).addTask(tasks.get(1))).block();
+        jobRepository.save(createEntity(em)).block();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?sort=id,asc&eagerload=true")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$[0].id")
+            .isEqualTo(first.getId().intValue())
+            .jsonPath("$[0].tasks[*].id")
+            .value(containsInAnyOrder(tasks.get(0).getId().intValue(), tasks.get(1).getId().intValue()))
+            .jsonPath("$[1].id")
+            .isEqualTo(second.getId().intValue())
+            .jsonPath("$[1].tasks[*].id")
+            .value(contains(tasks.get(1).getId().intValue()))
+            .jsonPath("$[2].tasks")
+            .isEmpty();
+
+        // The single job is loaded with its tasks too
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL_ID, second.getId())
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.tasks[*].id")
+            .value(contains(tasks.get(1).getId().intValue()));
+
+        deleteEntities(em);
+        TaskResourceIT.deleteEntities(em);
+    }
+
+    @Test
+    void saveJobWritesOnlyTheChangedTaskLinks() {
+        List<Task> tasks = taskRepository
+            .saveAll(List.of(TaskResourceIT.createEntity(em), TaskResourceIT.createEntity(em), TaskResourceIT.createEntity(em)))
+            .collectList()
+            .block();
+        jobRepository.save(job.addTask(tasks.get(0)).addTask(tasks.get(1))).block();
+        double insertedBefore = linkRows("inserted");
+        double deletedBefore = linkRows("deleted");
+
+        // Replace one task
+        jobRepository.save(job.removeTask(tasks.get(0)).addTask(tasks.get(2))).block();
+
+        assertThat(linkedTaskIds()).containsExactlyInAnyOrder(tasks.get(1).getId(), tasks.get(2).getId());
+        assertThat(linkRows("inserted")).isEqualTo(insertedBefore + 1);
+        assertThat(linkRows("deleted")).isEqualTo(deletedBefore + 1);
+
+        // Unchanged tasks aren't written again
+        jobRepository.save(job.jobTitle(UPDATED_JOB_TITLE)).block();
+
+        assertThat(linkedTaskIds()).containsExactlyInAnyOrder(tasks.get(1).getId(), tasks.get(2).getId());
+        assertThat(linkRows("inserted")).isEqualTo(insertedBefore + 1);
+        assertThat(linkRows("deleted")).isEqualTo(deletedBefore + 1);
+
+        deleteEntities(em);
+        TaskResourceIT.deleteEntities(em);
+    }
+
+    @Test
+    void deleteJobsDeletesTheirTaskLinks() {
+        List<Task> tasks = taskRepository
+            .saveAll(List.of(TaskResourceIT.createEntity(em), TaskResourceIT.createEntity(em)))
+            .collectList()
+            .block();
+        jobRepository.save(job.addTask(tasks.get(0)).addTask(tasks.get(1))).block();
+        Job other = jobRepository.save(createEntity(em).addTask(tasks.get(1))).block();
+        double deletedBefore = linkRows("deleted");
+
+        webTestClient
+            .delete()
+            .uri(ENTITY_API_URL + "?id={id}", job.getId())
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.affected")
+            .value(is(1));
+
+        assertThat(jobRepository.findAll().collectList().block()).extracting(Job::getId).containsExactly(other.getId());
+        assertThat(linkedTaskIds()).isEmpty();
+        assertThat(linkRows("deleted")).isEqualTo(deletedBefore + 2);
+
+        // Without a filter, nothing is deleted
+        webTestClient.delete().uri(ENTITY_API_URL).exchange().expectStatus().isBadRequest();
+        assertThat(jobRepository.count().block()).isEqualTo(1);
+
+        deleteEntities(em);
+        TaskResourceIT.deleteEntities(em);
+    }
+
+    @Test
+    void deleteJobsWhichHaveAHistory() {
+        jobRepository.save(job).block();
+        JobHistory jobHistory = jobHistoryRepository.save(JobHistoryResourceIT.createEntity(em).job(job)).block();
+
+        webTestClient
+            .delete()
+            .uri(ENTITY_API_URL + "?id={id}", job.getId())
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.affected")
+            .value(is(1));
+
+        // The job history is kept, without its job
+        assertThat(jobRepository.count().block()).isZero();
+        assertThat(jobHistoryRepository.findById(jobHistory.getId()).block().getJobId()).isNull();
+
+        JobHistoryResourceIT.deleteEntities(em);
+    }
+
+    private List<Long> linkedTaskIds() {
+        return databaseClient
+            .sql("SELECT task_id FROM rel_job__task WHERE job_id = $1")
+            .bind(0, job.getId())
+            .map(row -> row.get(0, Long.class))
+            .all()
+            .collectList()
+            .block();
+    }
+
+    private double linkRows(String operation) {
+        Counter counter = meterRegistry.find("link.table.rows").tags("table", "rel_job__task", "operation", operation).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
     @Test
     void getJob() {
         // Initialize the database
@@ -224,6 +388,39 @@ class JobResourceIT {
             .value(is(DEFAULT_MAX_SALARY.intValue()));
     }
 
+    @Test
+    void getJobsByIdLoadsTheirTasks() {
+        List<Task> tasks = taskRepository
+            .saveAll(List.of(TaskResourceIT.createEntity(em), TaskResourceIT.createEntity(em)))
+            .collectList()
+            .block();
+        Job first = jobRepository.save(createEntity(em).addTask(tasks.get(0))).block();
+        Job second = jobRepository.save(createEntity(em).addTask(tasks.get(1))).block();
+        Job third = jobRepository.save(createEntity(em)).block();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?ids={ids}", third.getId() + "," + first.getId() + "," + second.getId())
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .doesNotExist(MultiGetUtil.HEADER_MISSING_IDS)
+            .expectBody()
+            .jsonPath("$[*].id")
+            .value(contains(third.getId().intValue(), first.getId().intValue(), second.getId().intValue()))
+            .jsonPath("$[0].tasks")
+            .isEmpty()
+            .jsonPath("$[1].tasks[*].id")
+            .value(contains(tasks.get(0).getId().intValue()))
+            .jsonPath("$[2].tasks[*].id")
+            .value(contains(tasks.get(1).getId().intValue()));
+
+        deleteEntities(em);
+        TaskResourceIT.deleteEntities(em);
+    }
+
     @Test
     void getNonExistingJob() {
         // Get the job
@@ -46,6 +46,7 @@ class LocationResourceIT {
 
     private static final String ENTITY_API_URL = "/api/locations";
     private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
+    private static final String ENTITY_UPSERT_API_URL = "/api/_upsert/locations";
 
     private static Random random = new Random();
     private static AtomicLong count = new AtomicLong(random.nextInt() + (2 * Integer.MAX_VALUE));
@@ -286,6 +287,40 @@ class LocationResourceIT {
         assertThat(testLocation.getStateProvince()).isEqualTo(UPDATED_STATE_PROVINCE);
     }
 
+    @Test
+    void upsertLocations() throws Exception {
+        // Initialize the database
+        Location unchanged = locationRepository.save(createEntity(em).city(UPDATED_CITY)).block();
+        locationRepository.save(location).block();
+
+        Location changed = createEntity(em).stateProvince(UPDATED_STATE_PROVINCE);
+        Location created = createEntity(em).postalCode(UPDATED_POSTAL_CODE);
+        webTestClient
+            .put()
+            .uri(ENTITY_UPSERT_API_URL)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(List.of(changed, created, createEntity(em).city(UPDATED_CITY))))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.created")
+            .value(is(1))
+            .jsonPath("$.updated")
+            .value(is(1))
+            .jsonPath("$.unchanged")
+            .value(is(1));
+
+        List<Location> locationList = locationRepository.findAll().collectList().block();
+        assertThat(locationList).hasSize(3);
+        assertThat(locationRepository.findById(location.getId()).block().getStateProvince()).isEqualTo(UPDATED_STATE_PROVINCE);
+        assertThat(locationRepository.findById(unchanged.getId()).block().getStateProvince()).isEqualTo(DEFAULT_STATE_PROVINCE);
+        assertThat(locationList)
+            .filteredOn(saved -> UPDATED_POSTAL_CODE.equals(saved.getPostalCode()))
+            .extracting(Location::getStateProvince)
+            .containsExactly(DEFAULT_STATE_PROVINCE);
+    }
+
     @Test
     void putNonExistingLocation() throws Exception {
         int databaseSizeBeforeUpdate = locationRepository.findAll().collectList().block().size();
@@ -8,6 +8,7 @@ import com.mycompany.myapp.IntegrationTest;
 import com.mycompany.myapp.domain.Region;
 import com.mycompany.myapp.repository.RegionRepository;
 import com.mycompany.myapp.service.EntityManager;
+import com.mycompany.myapp.web.rest.errors.ErrorConstants;
 import java.time.Duration;
 import java.util.List;
 import java.util.Random;
@@ -20,6 +21,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.reactive.server.WebTestClient;
@@ -37,6 +39,7 @@ class RegionResourceIT {
 
     private static final String ENTITY_API_URL = "/api/regions";
     private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
+    private static final String ENTITY_UPSERT_API_URL = "/api/_upsert/regions";
 
     private static Random random = new Random();
     private static AtomicLong count = new AtomicLong(random.nextInt() + (2 * Integer.MAX_VALUE));
@@ -135,6 +138,31 @@ class RegionResourceIT {
         assertThat(regionList).hasSize(databaseSizeBeforeCreate);
     }
 
+    @Test
+    void createRegionWithExistingName() throws Exception {
+        // Initialize the database
+        regionRepository.save(createEntity(em)).block();
+
+        int databaseSizeBeforeCreate = regionRepository.findAll().collectList().block().size();
+
+        // The name is the natural key of the regions
+        webTestClient
+            .post()
+            .uri(ENTITY_API_URL)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(region))
+            .exchange()
+            .expectStatus()
+            .isEqualTo(HttpStatus.CONFLICT)
+            .expectBody()
+            .jsonPath("$.message")
+            .isEqualTo(ErrorConstants.ERR_DUPLICATE_KEY);
+
+        // Validate the Region in the database
+        List<Region> regionList = regionRepository.findAll().collectList().block();
+        assertThat(regionList).hasSize(databaseSizeBeforeCreate);
+    }
+
     @Test
     void getAllRegionsAsStream() {
         // Initialize the database
@@ -244,6 +272,46 @@ class RegionResourceIT {
         assertThat(testRegion.getRegionName()).isEqualTo(UPDATED_REGION_NAME);
     }
 
+    @Test
+    void upsertRegions() throws Exception {
+        // Initialize the database
+        regionRepository.save(region).block();
+
+        webTestClient
+            .put()
+            .uri(ENTITY_UPSERT_API_URL)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(
+                TestUtil.convertObjectToJsonBytes(
+                    List.of(new Region().regionName(DEFAULT_REGION_NAME), new Region().regionName(UPDATED_REGION_NAME))
+                )
+            )
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.created")
+            .value(is(1))
+            .jsonPath("$.updated")
+            .value(is(0))
+            .jsonPath("$.unchanged")
+            .value(is(1));
+
+        List<Region> regionList = regionRepository.findAll().collectList().block();
+        assertThat(regionList).extracting(Region::getRegionName).containsExactlyInAnyOrder(DEFAULT_REGION_NAME, UPDATED_REGION_NAME);
+
+        // A region without its natural key can't be upserted
+        webTestClient
+            .put()
+            .uri(ENTITY_UPSERT_API_URL)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(List.of(new Region())))
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+        assertThat(regionRepository.count().block()).isEqualTo(2);
+    }
+
     @Test
     void putNonExistingRegion() throws Exception {
         int databaseSizeBeforeUpdate = regionRepository.findAll().collectList().block().size();
@@ -1,11 +1,14 @@
 package com.mycompany.myapp.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.is;
 
 import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.Job;
 import com.mycompany.myapp.domain.Task;
+import com.mycompany.myapp.repository.JobRepository;
 import com.mycompany.myapp.repository.TaskRepository;
 import com.mycompany.myapp.service.EntityManager;
 import java.time.Duration;
@@ -47,6 +50,9 @@ class TaskResourceIT {
     @Autowired
     private TaskRepository taskRepository;
 
+    @Autowired
+    private JobRepository jobRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -190,6 +196,63 @@ class TaskResourceIT {
             .value(hasItem(DEFAULT_DESCRIPTION));
     }
 
+    @Test
+    void searchTasks() {
+        // Initialize the database
+        taskRepository.save(createEntity(em).title("Fix the login page").description("Users are logged out")).block();
+        taskRepository.save(createEntity(em).title("Review the invoices").description("Before the login of the auditors")).block();
+        taskRepository.save(createEntity(em).title("Plan the release").description(null)).block();
+
+        // Both the titles and the descriptions are searched
+        webTestClient
+            .get()
+            .uri("/api/_search/tasks?q={q}", "login")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].title")
+            .value(containsInAnyOrder("Fix the login page", "Review the invoices"));
+
+        // All the terms must match
+        webTestClient
+            .get()
+            .uri("/api/_search/tasks?q={q}", "login invoice")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].title")
+            .value(containsInAnyOrder("Review the invoices"));
+    }
+
+    @Test
+    void getTaskIncludingJobs() {
+        // Initialize the database
+        taskRepository.save(task).block();
+        List<Job> jobs = jobRepository
+            .saveAll(List.of(JobResourceIT.createEntity(em).addTask(task), JobResourceIT.createEntity(em).addTask(task)))
+            .collectList()
+            .block();
+
+        try {
+            webTestClient
+                .get()
+                .uri(ENTITY_API_URL_ID + "?include=jobs", task.getId())
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .jsonPath("$.jobs[*].id")
+                .value(containsInAnyOrder(jobs.get(0).getId().intValue(), jobs.get(1).getId().intValue()));
+        } finally {
+            JobResourceIT.deleteEntities(em);
+        }
+    }
+
     @Test
     void getTask() {
         // Initialize the database
@@ -0,0 +1,52 @@
+package com.mycompany.myapp.web.rest.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.service.SearchCursor;
+import com.mycompany.myapp.service.SearchHit;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Test class for the {@link SearchUtil}.
+ */
+class SearchUtilTest {
+
+    @Test
+    void theNextPageIsAdvertisedEvenIfAHitWasDeleted() {
+        // The second hit was deleted between the search and the load
+        List<SearchHit<String>> hits = List.of(
+            new SearchHit<>(1L, 0.5f, "first"),
+            new SearchHit<>(2L, 0.4f, null),
+            new SearchHit<>(3L, 0.3f, "third")
+        );
+
+        ResponseEntity<List<String>> response = SearchUtil.createResponse(
+            UriComponentsBuilder.fromUriString("/api/_search/tasks?q=login"),
+            PageRequest.of(0, 2),
+            hits
+        );
+
+        assertThat(response.getBody()).containsExactly("first");
+        // The next page starts after the deleted hit, so the third one isn't skipped
+        assertThat(response.getHeaders().getFirst(KeysetPaginationUtil.HEADER_NEXT_CURSOR))
+            .isEqualTo(SearchCursor.after(hits.get(1)).encode());
+    }
+
+    @Test
+    void theLastPageHasNoNextCursor() {
+        List<SearchHit<String>> hits = List.of(new SearchHit<>(1L, 0.5f, "first"), new SearchHit<>(2L, 0.4f, null));
+
+        ResponseEntity<List<String>> response = SearchUtil.createResponse(
+            UriComponentsBuilder.fromUriString("/api/_search/tasks?q=login"),
+            PageRequest.of(0, 2),
+            hits
+        );
+
+        assertThat(response.getBody()).containsExactly("first");
+        assertThat(response.getHeaders().containsKey(KeysetPaginationUtil.HEADER_NEXT_CURSOR)).isFalse();
+    }
+}